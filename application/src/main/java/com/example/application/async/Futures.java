@@ -0,0 +1,68 @@
+package com.example.application.async;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Fan-out/fan-in helpers for {@link CompletableFuture}-returning ports. All of them fail
+ * as soon as any input fails, with that failure, rather than waiting for the rest.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    @FunctionalInterface
+    public interface Function3<A, B, C, R> {
+        R apply(A a, B b, C c);
+    }
+
+    /**
+     * Completes with the results in input order once every future has completed.
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<? extends CompletableFuture<? extends T>> futures) {
+        CompletableFuture<List<T>> result = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<T> values = new ArrayList<>(futures.size());
+                    for (CompletableFuture<? extends T> future : futures) {
+                        values.add(future.join());
+                    }
+                    return values;
+                });
+        futures.forEach(future -> future.whenComplete((value, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Starts {@code call} for every input at once and collects the results in input order.
+     */
+    public static <T, R> CompletableFuture<List<R>> traverse(Collection<T> inputs,
+                                                             Function<? super T, ? extends CompletableFuture<? extends R>> call) {
+        List<CompletableFuture<? extends R>> futures = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            futures.add(call.apply(input));
+        }
+        return allOf(futures);
+    }
+
+    public static <A, B, R> CompletableFuture<R> combine(CompletableFuture<A> a,
+                                                         CompletableFuture<B> b,
+                                                         BiFunction<? super A, ? super B, ? extends R> combiner) {
+        return allOf(List.of(a, b)).thenApply(ignored -> combiner.apply(a.join(), b.join()));
+    }
+
+    public static <A, B, C, R> CompletableFuture<R> combine(CompletableFuture<A> a,
+                                                            CompletableFuture<B> b,
+                                                            CompletableFuture<C> c,
+                                                            Function3<? super A, ? super B, ? super C, ? extends R> combiner) {
+        return allOf(List.of(a, b, c)).thenApply(ignored -> combiner.apply(a.join(), b.join(), c.join()));
+    }
+}
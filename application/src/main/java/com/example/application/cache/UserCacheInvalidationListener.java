@@ -0,0 +1,22 @@
+package com.example.application.cache;
+
+import com.example.domain.UserId;
+
+/**
+ * Receives user invalidations once the write that caused them has committed.
+ * Implementations propagate them to other cache holders, e.g. other nodes.
+ */
+@FunctionalInterface
+public interface UserCacheInvalidationListener {
+
+    /**
+     * @param version the version written by the change, or {@code null} when the user was deleted
+     */
+    void onInvalidated(UserId id, Long version);
+
+    /**
+     * Called after a bulk write that may have changed any user, instead of one call per user.
+     */
+    default void onCleared() {
+    }
+}
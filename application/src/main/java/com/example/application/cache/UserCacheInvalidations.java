@@ -0,0 +1,22 @@
+package com.example.application.cache;
+
+import com.example.domain.UserId;
+
+/**
+ * A node's user cache as seen by the invalidations other nodes announce, the receiving
+ * end of {@link UserCacheInvalidationListener}.
+ */
+public interface UserCacheInvalidations {
+
+    /**
+     * Drops the cached user; a {@code null} version marks the user as deleted.
+     */
+    void invalidate(UserId id, Long version);
+
+    /**
+     * Drops the cached user unless it already holds {@code version} or a newer one.
+     */
+    void invalidateOlderThan(UserId id, long version);
+
+    void clear();
+}
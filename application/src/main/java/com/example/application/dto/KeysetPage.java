@@ -0,0 +1,23 @@
+package com.example.application.dto;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of a keyset-paginated listing together with the cursor of the next page.
+ * {@code next} is {@code null} when this is the last page.
+ */
+public record KeysetPage<T>(List<T> items, UserCursor next) {
+
+    public KeysetPage {
+        items = List.copyOf(items);
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public Optional<UserCursor> nextCursor() {
+        return Optional.ofNullable(next);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.application.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A serialized domain event waiting in the outbox. {@code id} comes from a pooled sequence:
+ * it is unique, but its order follows id allocation rather than commit order, even for
+ * one aggregate. Consumers that need the order of a user's events go by the event time
+ * in {@code createdAt} and the user version in the payload, not by the id.
+ */
+public record OutboxMessage(long id, String aggregateId, String eventType, String payload, LocalDateTime createdAt) {
+}
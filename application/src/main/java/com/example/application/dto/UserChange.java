@@ -0,0 +1,43 @@
+package com.example.application.dto;
+
+import com.example.domain.User;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * One entry of the user change feed: the current state of a user that was created or
+ * updated, or a tombstone for a user that was deleted, in which case {@code user} is
+ * {@code null} and {@code changedAt} is the deletion time.
+ */
+public record UserChange(String id, LocalDateTime changedAt, User user) {
+
+    /**
+     * Feed order: by change time, then by id.
+     */
+    public static final Comparator<UserChange> ORDER = Comparator
+            .comparing(UserChange::changedAt)
+            .thenComparing(UserChange::id);
+
+    public UserChange {
+        Objects.requireNonNull(id, "Id cannot be null");
+        Objects.requireNonNull(changedAt, "Change time cannot be null");
+    }
+
+    public static UserChange updated(User user) {
+        return new UserChange(user.getId().getValue(), user.getUpdatedAt(), user);
+    }
+
+    public static UserChange deleted(String id, LocalDateTime deletedAt) {
+        return new UserChange(id, deletedAt, null);
+    }
+
+    public boolean isDeleted() {
+        return user == null;
+    }
+
+    public UserWatermark watermark() {
+        return new UserWatermark(changedAt, id);
+    }
+}
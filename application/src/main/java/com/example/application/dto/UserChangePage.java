@@ -0,0 +1,28 @@
+package com.example.application.dto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One page of the user change feed. {@code next} is the watermark to ask for the following
+ * page with, and the one to keep once {@code hasMore} is {@code false}; when the page is
+ * empty it is the watermark that was asked for.
+ */
+public record UserChangePage(List<UserChange> changes, UserWatermark next, boolean hasMore) {
+
+    public UserChangePage {
+        changes = List.copyOf(changes);
+    }
+
+    /**
+     * The first {@code limit} of {@code candidates} in feed order, for adapters that read
+     * users and tombstones, or several shards, separately. {@code truncated} tells whether
+     * any of those reads stopped at its limit, in which case more changes may follow.
+     */
+    public static UserChangePage merge(Collection<UserChange> candidates, int limit, boolean truncated,
+                                       UserWatermark watermark) {
+        List<UserChange> changes = candidates.stream().sorted(UserChange.ORDER).limit(limit).toList();
+        UserWatermark next = changes.isEmpty() ? watermark : changes.get(changes.size() - 1).watermark();
+        return new UserChangePage(changes, next, truncated || candidates.size() > limit);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.application.dto;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Position in a keyset-paginated user listing.
+ * <p>
+ * The cursor carries the sort key of the last row that was returned, so the next
+ * page is found with an index seek instead of skipping over an offset.
+ */
+public record UserCursor(UserSortKey sortKey, String lastId, LocalDateTime lastCreatedAt) {
+
+    public UserCursor {
+        Objects.requireNonNull(sortKey, "Sort key cannot be null");
+        if (sortKey == UserSortKey.CREATED_AT && lastId != null && lastCreatedAt == null) {
+            throw new IllegalArgumentException("A created_at cursor needs the creation time of the last row");
+        }
+    }
+
+    public static UserCursor first(UserSortKey sortKey) {
+        return new UserCursor(sortKey, null, null);
+    }
+
+    public static UserCursor afterId(String lastId) {
+        return new UserCursor(UserSortKey.ID, Objects.requireNonNull(lastId, "Last id cannot be null"), null);
+    }
+
+    public static UserCursor afterCreatedAt(LocalDateTime lastCreatedAt, String lastId) {
+        return new UserCursor(UserSortKey.CREATED_AT,
+                Objects.requireNonNull(lastId, "Last id cannot be null"),
+                Objects.requireNonNull(lastCreatedAt, "Last creation time cannot be null"));
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.application.dto;
+
+/**
+ * Column a keyset page is ordered and seeked on.
+ */
+public enum UserSortKey {
+    ID,
+    CREATED_AT
+}
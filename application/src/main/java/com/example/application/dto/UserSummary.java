@@ -0,0 +1,11 @@
+package com.example.application.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for user listings and search results: the columns a list shows, read
+ * straight from the store without building a {@link com.example.domain.User}.
+ */
+public record UserSummary(String id, String email, String firstName, String lastName,
+                          boolean active, LocalDateTime createdAt) {
+}
@@ -0,0 +1,59 @@
+package com.example.application.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position in the user change feed: the change time and id of the last change a consumer
+ * has seen. Changes are ordered by {@code (changedAt, id)}, so the next page starts with an
+ * index seek past this pair.
+ * <p>
+ * Consumers should treat the watermark as opaque and store {@link #encode()} as it is.
+ */
+public record UserWatermark(LocalDateTime changedAt, String id) {
+
+    // Before any user could have been written; every id sorts after the empty string
+    private static final UserWatermark INITIAL = new UserWatermark(LocalDateTime.of(1970, 1, 1, 0, 0), "");
+
+    public UserWatermark {
+        Objects.requireNonNull(changedAt, "Change time cannot be null");
+        Objects.requireNonNull(id, "Id cannot be null");
+    }
+
+    /**
+     * The watermark before every change, to start a full sync from.
+     */
+    public static UserWatermark initial() {
+        return INITIAL;
+    }
+
+    public boolean isInitial() {
+        return equals(INITIAL);
+    }
+
+    public String encode() {
+        byte[] raw = (changedAt + "|" + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * Reads a watermark written by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException when {@code token} is not such a watermark
+     */
+    public static UserWatermark decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid change watermark: " + token);
+            }
+            return new UserWatermark(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid change watermark: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.application.ports;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSummary;
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking form of {@link UserRepository}, so a use case can start independent
+ * queries together and wait once for all of them, e.g. with
+ * {@link com.example.application.async.Futures}.
+ * <p>
+ * Each call runs on a bounded executor owned by the adapter. When that executor is
+ * saturated the returned future fails with
+ * {@link java.util.concurrent.RejectedExecutionException} instead of queueing without
+ * limit. Every call is its own transaction; there is no atomicity across calls.
+ */
+public interface AsyncUserRepository {
+    CompletableFuture<Optional<User>> findById(UserId id);
+    CompletableFuture<Optional<User>> findByEmail(Email email);
+    CompletableFuture<List<User>> findAllById(Collection<UserId> ids);
+    CompletableFuture<List<User>> findAllByEmail(Collection<Email> emails);
+    CompletableFuture<KeysetPage<UserSummary>> findSummaries(UserCursor cursor, int limit);
+    CompletableFuture<List<UserSummary>> findSummariesByNameContaining(String name, int offset, int limit);
+    CompletableFuture<Boolean> existsById(UserId id);
+    CompletableFuture<Boolean> existsByEmail(Email email);
+    CompletableFuture<Long> count();
+    CompletableFuture<Long> countActiveUsers();
+    CompletableFuture<User> save(User user);
+    CompletableFuture<List<User>> saveAll(Collection<User> users);
+    CompletableFuture<Void> delete(UserId id);
+}
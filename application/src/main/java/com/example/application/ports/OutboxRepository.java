@@ -0,0 +1,36 @@
+package com.example.application.ports;
+
+import com.example.application.dto.OutboxMessage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Domain events stored alongside the state changes that raised them, waiting to be relayed
+ * to a message broker. Entries are appended by the {@link UserRepository} adapter within
+ * the saving transaction; this port only reads and retires them.
+ */
+public interface OutboxRepository {
+
+    /**
+     * Returns up to {@code limit} entries not yet marked sent, oldest first.
+     */
+    List<OutboxMessage> findUnsent(int limit);
+
+    /**
+     * Claims up to {@code limit} unsent entries that no relay holds, oldest first, for
+     * {@code lease}. Other claims skip them until the lease ends, so relays on several
+     * nodes split the outbox instead of publishing the same entries; an entry not marked
+     * sent within its lease can be claimed again.
+     */
+    List<OutboxMessage> claimUnsent(int limit, Duration lease);
+
+    void markSent(Collection<Long> ids);
+
+    /**
+     * Deletes entries that were marked sent before {@code cutoff}, returning how many were removed.
+     */
+    long deleteSentBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,37 @@
+package com.example.application.ports;
+
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+
+import java.util.Collection;
+import java.util.concurrent.Flow;
+
+/**
+ * Reactive form of {@link UserRepository}, expressed with {@link Flow.Publisher} so the
+ * application layer stays free of any reactive library. Adapters honour subscriber
+ * demand: listings are fetched from the database as they are requested rather than
+ * materialized. Lookups and writes publish at most one item.
+ */
+public interface ReactiveUserRepository {
+    Flow.Publisher<User> findById(UserId id);
+    Flow.Publisher<User> findByEmail(Email email);
+
+    /**
+     * Every user ordered by id, streamed in step with subscriber demand.
+     */
+    Flow.Publisher<User> findAll();
+
+    Flow.Publisher<User> findActiveUsers();
+    Flow.Publisher<User> findAllById(Collection<UserId> ids);
+    Flow.Publisher<Boolean> existsByEmail(Email email);
+    Flow.Publisher<Long> count();
+    Flow.Publisher<Long> countActiveUsers();
+
+    /**
+     * Saves the user and the events it raised in one transaction, publishing the stored state.
+     */
+    Flow.Publisher<User> save(User user);
+
+    Flow.Publisher<Void> delete(UserId id);
+}
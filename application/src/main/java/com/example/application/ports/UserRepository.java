@@ -1,22 +1,140 @@
 package com.example.application.ports;
 
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSummary;
+import com.example.application.dto.UserWatermark;
 import com.example.domain.User;
 import com.example.domain.UserId;
 import com.example.domain.Email;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository {
     Optional<User> findById(UserId id);
     Optional<User> findByEmail(Email email);
     List<User> findAll();
     List<User> findActiveUsers();
+
+    /**
+     * Returns at most {@code limit} users positioned after {@code cursor}.
+     */
+    KeysetPage<User> findAll(UserCursor cursor, int limit);
+
+    KeysetPage<User> findActiveUsers(UserCursor cursor, int limit);
+
+    /**
+     * Same paging as {@link #findAll(UserCursor, int)}, returning only the listing columns.
+     */
+    KeysetPage<UserSummary> findSummaries(UserCursor cursor, int limit);
+
+    KeysetPage<UserSummary> findActiveSummaries(UserCursor cursor, int limit);
+
+    /**
+     * Streams every user ordered by id without materializing the result.
+     * The stream holds a database cursor and must be closed, e.g. with try-with-resources,
+     * on the thread that opened it.
+     */
+    Stream<User> streamAll();
+
+    Stream<User> streamActiveUsers();
+
+    /**
+     * Streams like {@link #streamAll()}, only the users whose activity is {@code active} and
+     * whose email address is at {@code emailDomain}; a {@code null} filter matches every user.
+     * The filters are applied by the adapter's query rather than to the streamed users.
+     *
+     * @throws IllegalArgumentException when {@code emailDomain} is blank or holds an {@code @}
+     */
+    Stream<User> streamMatching(Boolean active, String emailDomain);
+
+    /**
+     * Returns at most {@code limit} users created, updated or deleted after {@code watermark},
+     * ordered by change time and id, with a tombstone for each deletion. Only a user's latest
+     * change is returned. Changes younger than the adapter's settle lag are held back, so a
+     * transaction that commits late with an earlier change time is not skipped.
+     */
+    UserChangePage findChangedSince(UserWatermark watermark, int limit);
+
     User save(User user);
+
+    /**
+     * Saves all users in as few database round trips as the adapter allows.
+     */
+    List<User> saveAll(Collection<User> users);
+
+    /**
+     * Writes users replicated from another system, keeping the versions they carry: a user
+     * is inserted when it is missing and overwritten when the stored copy has an older
+     * version, and left alone otherwise, so applying the same users twice changes nothing.
+     * The write is all or nothing and raises no domain events. Returns how many users were
+     * written.
+     *
+     * @throws IllegalArgumentException when two of {@code users} have the same id
+     */
+    long upsertAll(Collection<User> users);
+
+    /**
+     * Returns the users that exist among {@code ids}, in the order of the ids given.
+     */
+    List<User> findAllById(Collection<UserId> ids);
+
+    List<User> findAllByEmail(Collection<Email> emails);
+
     void delete(UserId id);
+
+    /**
+     * Deactivates every active user with an email address at {@code domain}, without loading
+     * them. The users are updated in chunks that commit one by one, so a failure part way
+     * leaves the earlier chunks applied; run it again to finish. Returns how many users were
+     * deactivated.
+     */
+    long deactivateByEmailDomain(String domain);
+
+    /**
+     * Activates those of {@code ids} that are inactive, in chunks like
+     * {@link #deactivateByEmailDomain(String)}. Returns how many users were activated.
+     */
+    long activateAll(Collection<UserId> ids);
+
+    /**
+     * Deletes the inactive users, which are the ones that may be deleted, last updated before
+     * {@code cutoff}. Runs in chunks like {@link #deactivateByEmailDomain(String)} and
+     * returns how many users were deleted.
+     */
+    long purgeInactiveUpdatedBefore(LocalDateTime cutoff);
+
+    /**
+     * Deletes the tombstones of users deleted before {@code cutoff}, after which
+     * {@link #findChangedSince(UserWatermark, int)} no longer reports those deletions.
+     * Returns how many tombstones were deleted.
+     */
+    long deleteTombstonesBefore(LocalDateTime cutoff);
+
     boolean existsById(UserId id);
     boolean existsByEmail(Email email);
     long count();
     long countActiveUsers();
+
+    /**
+     * Case-insensitive search on first and last name. Returns at most the adapter's
+     * configured result limit; use the paginated variant to go further.
+     */
     List<User> findByNameContaining(String name);
-}
\ No newline at end of file
+
+    /**
+     * Case-insensitive search on first and last name, ordered by last name, first name and id.
+     */
+    List<User> findByNameContaining(String name, int offset, int limit);
+
+    /**
+     * Same search and ordering as {@link #findByNameContaining(String, int, int)},
+     * returning only the listing columns.
+     */
+    List<UserSummary> findSummariesByNameContaining(String name, int offset, int limit);
+}
@@ -0,0 +1,11 @@
+package com.example.benchmarks;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Boot configuration for the repository benchmarks: the database adapter alone,
+ * against the embedded H2 database configured in {@code application.yml}.
+ */
+@SpringBootApplication(scanBasePackages = "com.example.infrastructure.database")
+public class BenchmarkApplication {
+}
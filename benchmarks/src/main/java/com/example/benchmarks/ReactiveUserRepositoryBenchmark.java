@@ -0,0 +1,110 @@
+package com.example.benchmarks;
+
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.repositories.UserRepositoryImpl;
+import com.example.infrastructure.r2dbc.repositories.CommittedUserWrites;
+import com.example.infrastructure.r2dbc.repositories.R2dbcUserRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The JPA adapter next to the R2DBC adapter on the same embedded H2 database, each
+ * behind its own connection pool. The reactive side is measured end to end, including
+ * the block at the end, so the numbers compare per-call cost rather than concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactiveUserRepositoryBenchmark {
+
+    @Param("10000")
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserRepositoryImpl jpaRepository;
+    private R2dbcUserRepository r2dbcRepository;
+    private List<UserId> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        jpaRepository = context.getBean(UserRepositoryImpl.class);
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:pool:h2:mem://sa@/benchmarks?options=DB_CLOSE_DELAY=-1&maxSize=10");
+        r2dbcRepository = new R2dbcUserRepository(DatabaseClient.create(connectionFactory), connectionFactory,
+                new CommittedUserWrites(null, null, List.of()));
+
+        ids = jpaRepository.saveAll(IntStream.range(0, users)
+                        .mapToObj(i -> new User(UserId.generate(), new Email("user" + i + "@bench.test"),
+                                new Name("Bench", "User" + i)))
+                        .toList())
+                .stream().map(User::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User jpaFindById() {
+        return jpaRepository.findById(randomId()).orElseThrow();
+    }
+
+    @Benchmark
+    public User r2dbcFindById() {
+        return Mono.from(JdkFlowAdapter.flowPublisherToFlux(r2dbcRepository.findById(randomId()))).block();
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 5)
+    public void jpaStreamAll(Blackhole blackhole) {
+        try (Stream<User> stream = jpaRepository.streamAll()) {
+            stream.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 5)
+    public void r2dbcStreamAll(Blackhole blackhole) {
+        JdkFlowAdapter.flowPublisherToFlux(r2dbcRepository.findAll()).doOnNext(blackhole::consume).blockLast();
+    }
+
+    private UserId randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
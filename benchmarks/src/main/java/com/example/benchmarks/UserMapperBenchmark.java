@@ -0,0 +1,69 @@
+package com.example.benchmarks;
+
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.entities.UserEntity;
+import com.example.infrastructure.database.mappers.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/domain mapping, which runs once per row on every read and write.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private final UserMapper mapper = new UserMapper();
+
+    private UserEntity entity;
+    private User user;
+    private UserEntity target;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        entity = new UserEntity(UserId.generate().getValue(), "jane.doe@example.com", "Jane", "Doe");
+        entity.setActive(true);
+        entity.setCreatedAt(now);
+        entity.setUpdatedAt(now);
+        entity.setVersion(3L);
+
+        user = new User(UserId.generate(), new Email("john.doe@example.com"), new Name("John", "Doe"),
+                true, now, now, 3L);
+        target = new UserEntity(user.getId().getValue(), "old@example.com", "Old", "Name");
+    }
+
+    @Benchmark
+    public User toDomain() {
+        return mapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public UserEntity toEntity() {
+        return mapper.toEntity(user);
+    }
+
+    @Benchmark
+    public UserEntity updateEntityFromDomain() {
+        mapper.updateEntityFromDomain(user, target);
+        return target;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.benchmarks;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.repositories.UserRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The JPA adapter against an embedded H2 database seeded with {@code users} rows.
+ * Numbers include Hibernate, the H2 engine and mapping, so compare them run to run
+ * rather than against a production database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    @Param("10000")
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserRepositoryImpl repository;
+    private List<UserId> ids;
+    private List<Email> emails;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        repository = context.getBean(UserRepositoryImpl.class);
+
+        List<User> saved = repository.saveAll(IntStream.range(0, users)
+                .mapToObj(i -> new User(UserId.generate(), new Email("user" + i + "@bench.test"),
+                        new Name("Bench", "User" + i)))
+                .toList());
+        ids = saved.stream().map(User::getId).toList();
+        emails = saved.stream().map(User::getEmail).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User findById() {
+        return repository.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size()))).orElseThrow();
+    }
+
+    @Benchmark
+    public User findByEmail() {
+        return repository.findByEmail(emails.get(ThreadLocalRandom.current().nextInt(emails.size()))).orElseThrow();
+    }
+
+    @Benchmark
+    public List<User> findAllById100() {
+        int from = ThreadLocalRandom.current().nextInt(ids.size() - 100);
+        return repository.findAllById(ids.subList(from, from + 100));
+    }
+
+    @Benchmark
+    public KeysetPage<User> firstKeysetPage100() {
+        return repository.findAll(UserCursor.first(UserSortKey.CREATED_AT), 100);
+    }
+
+    @Benchmark
+    public User insert() {
+        return repository.save(new User(UserId.generate(), new Email("new" + sequence.incrementAndGet() + "@bench.test"), new Name("New", "User")));
+    }
+
+    @Benchmark
+    public List<User> saveAll100() {
+        return repository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> new User(UserId.generate(), new Email("batch" + sequence.incrementAndGet() + "@bench.test"),
+                        new Name("Batch", "User")))
+                .toList());
+    }
+
+    @Benchmark
+    public long count() {
+        return repository.count();
+    }
+
+    @Benchmark
+    public List<User> searchByName() {
+        return repository.findByNameContaining("user42", 0, 20);
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 5)
+    public void streamAll(Blackhole blackhole) {
+        try (Stream<User> stream = repository.streamAll()) {
+            stream.forEach(blackhole::consume);
+        }
+    }
+}
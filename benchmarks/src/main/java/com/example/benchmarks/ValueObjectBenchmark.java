@@ -0,0 +1,113 @@
+package com.example.benchmarks;
+
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.UserId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction and equality of the domain value objects, both through the validating
+ * constructors and the trusted factories used when rehydrating rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueObjectBenchmark {
+
+    private String id;
+    private String email;
+    private String firstName;
+    private String lastName;
+
+    private UserId userId;
+    private UserId sameUserId;
+    private Email sameEmail;
+    private Email otherEmail;
+    private Name sameName;
+    private Name otherName;
+
+    @Setup
+    public void setUp() {
+        id = UUID.randomUUID().toString();
+        email = "Jane.Doe@Example.com";
+        firstName = "Jane";
+        lastName = "Doe";
+
+        userId = new UserId(id);
+        sameUserId = new UserId(new String(id));
+        sameEmail = new Email(email);
+        otherEmail = new Email(email);
+        sameName = new Name(firstName, lastName);
+        otherName = new Name(firstName, lastName);
+    }
+
+    @Benchmark
+    public UserId userIdFromString() {
+        return new UserId(id);
+    }
+
+    @Benchmark
+    public UserId userIdGenerate() {
+        return UserId.generate();
+    }
+
+    @Benchmark
+    public String userIdValue() {
+        return userId.getValue();
+    }
+
+    @Benchmark
+    public Email emailValidated() {
+        return new Email(email);
+    }
+
+    @Benchmark
+    public Email emailTrusted() {
+        return Email.fromTrusted("jane.doe@example.com");
+    }
+
+    @Benchmark
+    public Name nameValidated() {
+        return new Name(firstName, lastName);
+    }
+
+    @Benchmark
+    public Name nameTrusted() {
+        return Name.fromTrusted(firstName, lastName);
+    }
+
+    @Benchmark
+    public boolean userIdEquals() {
+        return userId.equals(sameUserId);
+    }
+
+    @Benchmark
+    public boolean emailEquals() {
+        return sameEmail.equals(otherEmail);
+    }
+
+    @Benchmark
+    public boolean nameEquals() {
+        return sameName.equals(otherName);
+    }
+
+    @Benchmark
+    public int nameHashCode() {
+        return sameName.hashCode();
+    }
+}
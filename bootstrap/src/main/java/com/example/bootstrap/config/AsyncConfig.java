@@ -0,0 +1,14 @@
+package com.example.bootstrap.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables {@code @Async}. Methods run on Boot's {@code applicationTaskExecutor}, which
+ * starts a virtual thread per task when {@code spring.threads.virtual.enabled} is set and
+ * is bounded by {@code spring.task.execution.simple.concurrency-limit}.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
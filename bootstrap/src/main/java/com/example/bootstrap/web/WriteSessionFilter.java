@@ -0,0 +1,78 @@
+package com.example.bootstrap.web;
+
+import com.example.infrastructure.database.support.WriteSession;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Carries each client's {@link WriteSession} from one request to the next, so that reads
+ * following the client's own writes go to the primary while replicas serve the rest. The
+ * marker arrives as the {@value #HEADER} header or the {@value #COOKIE} cookie and, once a
+ * write of the request has committed, is sent back as both. The cookie expires after the
+ * replicas' maximum lag, when the marker no longer matters.
+ */
+@Component
+public class WriteSessionFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "X-Last-Write";
+    static final String COOKIE = "last-write";
+
+    private final Duration maxLag;
+
+    public WriteSessionFilter(@Value("${app.datasource.replicas.max-lag:5s}") Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AtomicBoolean cookieSent = new AtomicBoolean();
+        WriteSession session = WriteSession.fromToken(token(request), maxLag, lastWrite -> {
+            if (response.isCommitted()) {
+                return;
+            }
+            response.setHeader(HEADER, Long.toString(lastWrite));
+            // One cookie per response; later writes of the same request are only milliseconds apart
+            if (cookieSent.compareAndSet(false, true)) {
+                response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(lastWrite))
+                        .path("/")
+                        .maxAge(maxLag)
+                        .httpOnly(true)
+                        .sameSite("Lax")
+                        .build()
+                        .toString());
+            }
+        });
+        try (WriteSession.Binding binding = session.bind()) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private static String token(HttpServletRequest request) {
+        String header = request.getHeader(HEADER);
+        if (header != null) {
+            return header;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
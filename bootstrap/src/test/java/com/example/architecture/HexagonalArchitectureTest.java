@@ -68,7 +68,14 @@ class HexagonalArchitectureTest {
                         "org.springframework..",
                         "org.hibernate..",
                         "com.fasterxml..",
-                        "org.slf4j.."
+                        "org.slf4j..",
+                        "reactor..",
+                        "io.r2dbc..",
+                        "org.reactivestreams..",
+                        "org.flywaydb..",
+                        "io.micrometer..",
+                        "net.ttddyy..",
+                        "org.apache.kafka.."
                 );
 
         rule.check(importedClasses);
@@ -1,6 +1,5 @@
 package com.example.domain;
 
-import java.util.Objects;
 import java.util.regex.Pattern;
 
 public class Email {
@@ -9,6 +8,7 @@ public class Email {
     );
 
     private final String value;
+    private final int hash;
 
     public Email(String value) {
         if (value == null || value.trim().isEmpty()) {
@@ -18,6 +18,23 @@ public class Email {
             throw new IllegalArgumentException("Invalid email format: " + value);
         }
         this.value = value.toLowerCase().trim();
+        this.hash = this.value.hashCode();
+    }
+
+    private Email(String normalizedValue, int hash) {
+        this.value = normalizedValue;
+        this.hash = hash;
+    }
+
+    /**
+     * Rehydrates an email that was validated and normalized when it was stored,
+     * skipping the pattern match and normalization. Not for untrusted input.
+     */
+    public static Email fromTrusted(String normalizedValue) {
+        if (normalizedValue == null) {
+            throw new IllegalArgumentException("Email cannot be null or empty");
+        }
+        return new Email(normalizedValue, normalizedValue.hashCode());
     }
 
     public String getValue() {
@@ -37,16 +54,16 @@ public class Email {
         if (this == o) return true;
         if (!(o instanceof Email)) return false;
         Email email = (Email) o;
-        return Objects.equals(value, email.value);
+        return hash == email.hash && value.equals(email.value);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return hash;
     }
 
     @Override
     public String toString() {
         return "Email{" + value + '}';
     }
-}
\ No newline at end of file
+}
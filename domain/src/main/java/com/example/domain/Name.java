@@ -1,10 +1,9 @@
 package com.example.domain;
 
-import java.util.Objects;
-
 public class Name {
     private final String firstName;
     private final String lastName;
+    private final int hash;
 
     public Name(String firstName, String lastName) {
         if (firstName == null || firstName.trim().isEmpty()) {
@@ -15,6 +14,23 @@ public class Name {
         }
         this.firstName = firstName.trim();
         this.lastName = lastName.trim();
+        this.hash = hash(this.firstName, this.lastName);
+    }
+
+    private Name(String firstName, String lastName, int hash) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.hash = hash;
+    }
+
+    /**
+     * Rehydrates a name that was validated and trimmed when it was stored. Not for untrusted input.
+     */
+    public static Name fromTrusted(String firstName, String lastName) {
+        if (firstName == null || lastName == null) {
+            throw new IllegalArgumentException("Name parts cannot be null");
+        }
+        return new Name(firstName, lastName, hash(firstName, lastName));
     }
 
     public String getFirstName() {
@@ -39,13 +55,19 @@ public class Name {
         if (this == o) return true;
         if (!(o instanceof Name)) return false;
         Name name = (Name) o;
-        return Objects.equals(firstName, name.firstName) &&
-                Objects.equals(lastName, name.lastName);
+        return hash == name.hash &&
+                firstName.equals(name.firstName) &&
+                lastName.equals(name.lastName);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(firstName, lastName);
+        return hash;
+    }
+
+    // Same value Objects.hash(firstName, lastName) gives, without the varargs array
+    private static int hash(String firstName, String lastName) {
+        return 31 * (31 + firstName.hashCode()) + lastName.hashCode();
     }
 
     @Override
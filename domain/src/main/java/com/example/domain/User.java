@@ -1,6 +1,13 @@
 package com.example.domain;
 
+import com.example.domain.events.UserActivated;
+import com.example.domain.events.UserDeactivated;
+import com.example.domain.events.UserEvent;
+import com.example.domain.events.UserProfileUpdated;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class User {
@@ -10,6 +17,8 @@ public class User {
     private boolean active;
     private final LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private final Long version;
+    private final List<UserEvent> pendingEvents = new ArrayList<>();
 
     // Constructor for new users
     public User(UserId id, Email email, Name name) {
@@ -19,34 +28,75 @@ public class User {
         this.active = true;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
+        this.version = null;
     }
 
-    // Constructor for existing users (from repository)
+    // Constructor for new users with a given active flag. Like a user from the three-argument
+    // constructor it has no version, so saving it inserts it; stored users are rebuilt with the
+    // constructor below, which carries their version
     public User(UserId id, Email email, Name name, boolean active) {
         this.id = Objects.requireNonNull(id, "User ID cannot be null");
         this.email = Objects.requireNonNull(email, "Email cannot be null");
         this.name = Objects.requireNonNull(name, "Name cannot be null");
         this.active = active;
-        this.createdAt = LocalDateTime.now(); // This would come from DB in real scenario
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+        this.version = null;
+    }
+
+    // Constructor for persisted users, carrying timestamps and the optimistic-lock version
+    public User(UserId id, Email email, Name name, boolean active,
+                LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this.id = Objects.requireNonNull(id, "User ID cannot be null");
+        this.email = Objects.requireNonNull(email, "Email cannot be null");
+        this.name = Objects.requireNonNull(name, "Name cannot be null");
+        this.active = active;
+        this.createdAt = Objects.requireNonNull(createdAt, "Creation time cannot be null");
+        this.updatedAt = Objects.requireNonNull(updatedAt, "Update time cannot be null");
+        this.version = version;
     }
 
     // Business methods
     public void updateProfile(Name newName, Email newEmail) {
         validateProfileUpdate(newName, newEmail);
+        boolean changed = !newName.equals(this.name) || !newEmail.equals(this.email);
         this.name = newName;
         this.email = newEmail;
         this.updatedAt = LocalDateTime.now();
+        if (changed) {
+            pendingEvents.add(new UserProfileUpdated(id, newName, newEmail, updatedAt));
+        }
     }
 
     public void activate() {
+        boolean changed = !this.active;
         this.active = true;
         this.updatedAt = LocalDateTime.now();
+        if (changed) {
+            pendingEvents.add(new UserActivated(id, updatedAt));
+        }
     }
 
     public void deactivate() {
+        boolean changed = this.active;
         this.active = false;
         this.updatedAt = LocalDateTime.now();
+        if (changed) {
+            pendingEvents.add(new UserDeactivated(id, updatedAt));
+        }
+    }
+
+    /**
+     * Returns the events raised since the last call, in the order they happened, and
+     * forgets them. Repositories call this when saving so each event is stored once.
+     */
+    public List<UserEvent> pullEvents() {
+        if (pendingEvents.isEmpty()) {
+            return List.of();
+        }
+        List<UserEvent> events = List.copyOf(pendingEvents);
+        pendingEvents.clear();
+        return events;
     }
 
     public boolean canBeDeleted() {
@@ -89,6 +139,14 @@ public class User {
         return updatedAt;
     }
 
+    /**
+     * Version of the persisted state this instance was loaded from, or {@code null}
+     * for a user that has never been stored.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
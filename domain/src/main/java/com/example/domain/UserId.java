@@ -1,24 +1,50 @@
 package com.example.domain;
 
-import java.util.Objects;
 import java.util.UUID;
 
 public class UserId {
+    private static final int UUID_LENGTH = 36;
+
+    // Canonical lower-case UUIDs are held as two longs and their string is built on demand;
+    // any other id keeps its string
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
     private final String value;
+    private final int hash;
 
     public UserId(String value) {
         if (value == null || value.trim().isEmpty()) {
             throw new IllegalArgumentException("UserId cannot be null or empty");
         }
-        this.value = value;
+        if (isCanonicalUuid(value)) {
+            this.mostSignificantBits = parseHex(value, 0, 8) << 32
+                    | parseHex(value, 9, 13) << 16
+                    | parseHex(value, 14, 18);
+            this.leastSignificantBits = parseHex(value, 19, 23) << 48
+                    | parseHex(value, 24, 36);
+            this.value = null;
+            this.hash = Long.hashCode(mostSignificantBits ^ leastSignificantBits);
+        } else {
+            this.mostSignificantBits = 0L;
+            this.leastSignificantBits = 0L;
+            this.value = value;
+            this.hash = value.hashCode();
+        }
+    }
+
+    private UserId(UUID uuid) {
+        this.mostSignificantBits = uuid.getMostSignificantBits();
+        this.leastSignificantBits = uuid.getLeastSignificantBits();
+        this.value = null;
+        this.hash = Long.hashCode(mostSignificantBits ^ leastSignificantBits);
     }
 
     public static UserId generate() {
-        return new UserId(UUID.randomUUID().toString());
+        return new UserId(UUID.randomUUID());
     }
 
     public String getValue() {
-        return value;
+        return value != null ? value : new UUID(mostSignificantBits, leastSignificantBits).toString();
     }
 
     @Override
@@ -26,16 +52,46 @@ public class UserId {
         if (this == o) return true;
         if (!(o instanceof UserId)) return false;
         UserId userId = (UserId) o;
-        return Objects.equals(value, userId.value);
+        if (value != null || userId.value != null) {
+            return value != null && value.equals(userId.value);
+        }
+        return mostSignificantBits == userId.mostSignificantBits
+                && leastSignificantBits == userId.leastSignificantBits;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return hash;
     }
 
     @Override
     public String toString() {
-        return "UserId{" + value + '}';
+        return "UserId{" + getValue() + '}';
+    }
+
+    // Only the exact form UUID.toString() produces, so getValue() returns a string equal to the input
+    private static boolean isCanonicalUuid(String value) {
+        if (value.length() != UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result = result << 4 | Character.digit(value.charAt(i), 16);
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
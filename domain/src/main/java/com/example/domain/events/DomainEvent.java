@@ -0,0 +1,11 @@
+package com.example.domain.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Something that happened to an aggregate, recorded by the aggregate itself and
+ * handed to persistence together with the state change that caused it.
+ */
+public interface DomainEvent {
+    LocalDateTime occurredAt();
+}
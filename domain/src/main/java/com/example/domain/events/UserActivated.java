@@ -0,0 +1,14 @@
+package com.example.domain.events;
+
+import com.example.domain.UserId;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public record UserActivated(UserId userId, LocalDateTime occurredAt) implements UserEvent {
+
+    public UserActivated {
+        Objects.requireNonNull(userId, "User ID cannot be null");
+        Objects.requireNonNull(occurredAt, "Occurrence time cannot be null");
+    }
+}
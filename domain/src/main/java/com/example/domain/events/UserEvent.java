@@ -0,0 +1,11 @@
+package com.example.domain.events;
+
+import com.example.domain.UserId;
+
+/**
+ * Events raised by {@link com.example.domain.User}.
+ */
+public sealed interface UserEvent extends DomainEvent
+        permits UserProfileUpdated, UserActivated, UserDeactivated {
+    UserId userId();
+}
@@ -0,0 +1,18 @@
+package com.example.domain.events;
+
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.UserId;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public record UserProfileUpdated(UserId userId, Name name, Email email, LocalDateTime occurredAt) implements UserEvent {
+
+    public UserProfileUpdated {
+        Objects.requireNonNull(userId, "User ID cannot be null");
+        Objects.requireNonNull(name, "Name cannot be null");
+        Objects.requireNonNull(email, "Email cannot be null");
+        Objects.requireNonNull(occurredAt, "Occurrence time cannot be null");
+    }
+}
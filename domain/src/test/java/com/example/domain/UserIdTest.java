@@ -0,0 +1,58 @@
+package com.example.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UserId Tests")
+class UserIdTest {
+
+    @Test
+    @DisplayName("Canonical UUID ids round-trip through the compact form")
+    void canonicalUuidsRoundTrip() {
+        String uuid = UUID.randomUUID().toString();
+        UserId id = new UserId(uuid);
+
+        assertEquals(uuid, id.getValue());
+        assertEquals(new UserId(uuid), id);
+        assertEquals(new UserId(uuid).hashCode(), id.hashCode());
+    }
+
+    @Test
+    @DisplayName("Generated ids equal ids parsed from their value")
+    void generatedIdsEqualParsedIds() {
+        UserId generated = UserId.generate();
+
+        assertEquals(generated, new UserId(generated.getValue()));
+    }
+
+    @Test
+    @DisplayName("The value of a UUID id is rebuilt from its two longs")
+    void uuidValueIsRebuilt() {
+        String uuid = "550e8400-e29b-41d4-a716-446655440001";
+        UUID generated = UUID.randomUUID();
+
+        assertEquals(uuid, new UserId(uuid).getValue());
+        assertEquals(generated.toString(), new UserId(generated.toString()).getValue());
+    }
+
+    @Test
+    @DisplayName("Non-canonical ids keep their exact value")
+    void nonCanonicalIdsKeepTheirValue() {
+        String upper = "550E8400-E29B-41D4-A716-446655440001";
+
+        assertEquals(upper, new UserId(upper).getValue());
+        assertEquals("legacy-42", new UserId("legacy-42").getValue());
+        assertNotEquals(new UserId(upper), new UserId(upper.toLowerCase()));
+    }
+
+    @Test
+    @DisplayName("Blank ids are rejected")
+    void blankIdsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new UserId(" "));
+        assertThrows(IllegalArgumentException.class, () -> new UserId(null));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.domain;
+
+import com.example.domain.events.UserActivated;
+import com.example.domain.events.UserDeactivated;
+import com.example.domain.events.UserEvent;
+import com.example.domain.events.UserProfileUpdated;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("User Tests")
+class UserTest {
+
+    private final User user = new User(UserId.generate(), new Email("jane@example.com"), new Name("Jane", "Doe"));
+
+    @Test
+    @DisplayName("State transitions raise events in order")
+    void transitionsRaiseEventsInOrder() {
+        user.updateProfile(new Name("Jane", "Smith"), new Email("jane@example.com"));
+        user.deactivate();
+        user.activate();
+
+        List<UserEvent> events = user.pullEvents();
+
+        assertEquals(3, events.size());
+        UserProfileUpdated updated = assertInstanceOf(UserProfileUpdated.class, events.get(0));
+        assertEquals("Smith", updated.name().getLastName());
+        assertInstanceOf(UserDeactivated.class, events.get(1));
+        assertInstanceOf(UserActivated.class, events.get(2));
+        assertTrue(events.stream().allMatch(event -> event.userId().equals(user.getId())));
+    }
+
+    @Test
+    @DisplayName("Calls that change nothing raise no events")
+    void noOpsRaiseNoEvents() {
+        user.activate();
+        user.updateProfile(new Name("Jane", "Doe"), new Email("jane@example.com"));
+
+        assertEquals(List.of(), user.pullEvents());
+    }
+
+    @Test
+    @DisplayName("Pulled events are handed out only once")
+    void pulledEventsAreHandedOutOnce() {
+        user.deactivate();
+
+        assertEquals(1, user.pullEvents().size());
+        assertEquals(List.of(), user.pullEvents());
+    }
+}
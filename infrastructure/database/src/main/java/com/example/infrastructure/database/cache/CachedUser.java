@@ -0,0 +1,43 @@
+package com.example.infrastructure.database.cache;
+
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable, serializable snapshot of a {@link User} as held by the cache tiers.
+ * <p>
+ * {@code User} is a mutable aggregate, so the cache never hands out a shared instance:
+ * every hit rebuilds a fresh {@code User} from this snapshot.
+ */
+public record CachedUser(String id,
+                         String email,
+                         String firstName,
+                         String lastName,
+                         boolean active,
+                         LocalDateTime createdAt,
+                         LocalDateTime updatedAt,
+                         long version) implements Serializable {
+
+    public static CachedUser of(User user) {
+        return new CachedUser(
+                user.getId().getValue(),
+                user.getEmail().getValue(),
+                user.getName().getFirstName(),
+                user.getName().getLastName(),
+                user.isActive(),
+                user.getCreatedAt(),
+                user.getUpdatedAt(),
+                user.getVersion() == null ? 0L : user.getVersion()
+        );
+    }
+
+    public User toUser() {
+        return new User(new UserId(id), Email.fromTrusted(email), Name.fromTrusted(firstName, lastName), active,
+                createdAt, updatedAt, version);
+    }
+}
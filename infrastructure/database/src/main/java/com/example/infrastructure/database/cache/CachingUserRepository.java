@@ -0,0 +1,255 @@
+package com.example.infrastructure.database.cache;
+
+import com.example.application.cache.UserCacheInvalidationListener;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.repositories.ForwardingUserRepository;
+import com.example.infrastructure.database.support.TransactionCallbacks;
+import org.springframework.cache.Cache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of the {@link UserRepository} port.
+ * <p>
+ * Lookups go to the in-process {@link UserCache} first, then to an optional shared
+ * second-level Spring {@link Cache}, and only then to the database. Writes evict the
+ * user right away and again once the transaction commits, when the invalidation is
+ * also handed to the registered {@link UserCacheInvalidationListener}s. Bulk writes do not
+ * say which users they changed, so they clear the caches before running and again once
+ * the transaction commits. Reads inside a read-write transaction may see its uncommitted
+ * writes, which a rollback would leave behind in the caches, so they do not populate them.
+ */
+public class CachingUserRepository extends ForwardingUserRepository {
+
+    private final UserCache cache;
+    private final Cache secondLevel;
+    private final List<UserCacheInvalidationListener> listeners;
+
+    public CachingUserRepository(UserRepository delegate,
+                                 UserCache cache,
+                                 Cache secondLevel,
+                                 List<UserCacheInvalidationListener> listeners) {
+        super(delegate);
+        this.cache = cache;
+        this.secondLevel = secondLevel;
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public Optional<User> findById(UserId id) {
+        Optional<CachedUser> cached = cache.get(id).or(() -> fromSecondLevel(id));
+        if (cached.isPresent()) {
+            return cached.map(CachedUser::toUser);
+        }
+        Optional<User> user = delegate.findById(id);
+        user.ifPresent(this::populate);
+        return user;
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        EmailLookup lookup = cache.lookup(email);
+        if (lookup.isAbsent()) {
+            return Optional.empty();
+        }
+        if (lookup.isFound()) {
+            return Optional.of(lookup.getUser().toUser());
+        }
+        Optional<User> user = delegate.findByEmail(email);
+        if (user.isPresent()) {
+            populate(user.get());
+        } else {
+            putAbsent(email);
+        }
+        return user;
+    }
+
+    @Override
+    public List<User> findAllById(Collection<UserId> ids) {
+        Map<UserId, User> found = new HashMap<>();
+        List<UserId> missing = new ArrayList<>();
+        for (UserId id : ids) {
+            Optional<CachedUser> cached = cache.get(id);
+            if (cached.isPresent()) {
+                found.put(id, cached.get().toUser());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (User user : delegate.findAllById(missing)) {
+                populate(user);
+                found.put(user.getId(), user);
+            }
+        }
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public boolean existsById(UserId id) {
+        return cache.get(id).isPresent() || delegate.existsById(id);
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        EmailLookup lookup = cache.lookup(email);
+        if (lookup.isAbsent()) {
+            return false;
+        }
+        if (lookup.isFound()) {
+            return true;
+        }
+        boolean exists = delegate.existsByEmail(email);
+        if (!exists) {
+            putAbsent(email);
+        }
+        return exists;
+    }
+
+    @Override
+    public User save(User user) {
+        cache.invalidate(user.getEmail());
+        cache.invalidate(user.getId(), user.getVersion());
+        User saved = delegate.save(user);
+        TransactionCallbacks.afterCommit(() -> {
+            cache.invalidate(saved.getEmail());
+            invalidate(saved.getId(), saved.getVersion());
+        });
+        return saved;
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        for (User user : users) {
+            cache.invalidate(user.getEmail());
+            cache.invalidate(user.getId(), user.getVersion());
+        }
+        List<User> saved = delegate.saveAll(users);
+        TransactionCallbacks.afterCommit(() -> {
+            for (User user : saved) {
+                cache.invalidate(user.getEmail());
+                invalidate(user.getId(), user.getVersion());
+            }
+        });
+        return saved;
+    }
+
+    /**
+     * Upserted users keep the version they carry, so that version becomes the floor.
+     */
+    @Override
+    public long upsertAll(Collection<User> users) {
+        for (User user : users) {
+            cache.invalidate(user.getEmail());
+            cache.invalidate(user.getId(), user.getVersion());
+        }
+        long written = delegate.upsertAll(users);
+        TransactionCallbacks.afterCommit(() -> {
+            for (User user : users) {
+                cache.invalidate(user.getEmail());
+                invalidate(user.getId(), user.getVersion());
+            }
+        });
+        return written;
+    }
+
+    @Override
+    public void delete(UserId id) {
+        cache.invalidate(id, null);
+        delegate.delete(id);
+        TransactionCallbacks.afterCommit(() -> invalidate(id, null));
+    }
+
+    @Override
+    public long deactivateByEmailDomain(String domain) {
+        cache.clear();
+        long deactivated = delegate.deactivateByEmailDomain(domain);
+        TransactionCallbacks.afterCommit(this::cleared);
+        return deactivated;
+    }
+
+    @Override
+    public long activateAll(Collection<UserId> ids) {
+        cache.clear();
+        long activated = delegate.activateAll(ids);
+        TransactionCallbacks.afterCommit(this::cleared);
+        return activated;
+    }
+
+    @Override
+    public long purgeInactiveUpdatedBefore(LocalDateTime cutoff) {
+        cache.clear();
+        long purged = delegate.purgeInactiveUpdatedBefore(cutoff);
+        TransactionCallbacks.afterCommit(this::cleared);
+        return purged;
+    }
+
+    public UserCacheStats stats() {
+        return cache.stats();
+    }
+
+    private Optional<CachedUser> fromSecondLevel(UserId id) {
+        if (secondLevel == null) {
+            return Optional.empty();
+        }
+        CachedUser cached = secondLevel.get(id.getValue(), CachedUser.class);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (cache.isStale(cached)) {
+            secondLevel.evict(id.getValue());
+            return Optional.empty();
+        }
+        cache.put(cached);
+        return Optional.of(cached);
+    }
+
+    private void populate(User user) {
+        if (TransactionCallbacks.inReadWriteTransaction()) {
+            return;
+        }
+        CachedUser cached = CachedUser.of(user);
+        cache.put(cached);
+        if (secondLevel != null && !cache.isStale(cached)) {
+            secondLevel.put(cached.id(), cached);
+        }
+    }
+
+    private void putAbsent(Email email) {
+        if (!TransactionCallbacks.inReadWriteTransaction()) {
+            cache.putAbsent(email);
+        }
+    }
+
+    private void cleared() {
+        cache.clear();
+        if (secondLevel != null) {
+            secondLevel.clear();
+        }
+        listeners.forEach(UserCacheInvalidationListener::onCleared);
+    }
+
+    private void invalidate(UserId id, Long version) {
+        cache.invalidate(id, version);
+        if (secondLevel != null) {
+            secondLevel.evict(id.getValue());
+        }
+        for (UserCacheInvalidationListener listener : listeners) {
+            listener.onInvalidated(id, version);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.infrastructure.database.cache;
+
+/**
+ * Outcome of resolving an email through the {@link UserCache}.
+ */
+public final class EmailLookup {
+
+    private static final EmailLookup UNKNOWN = new EmailLookup(null, false);
+    private static final EmailLookup ABSENT = new EmailLookup(null, true);
+
+    private final CachedUser user;
+    private final boolean absent;
+
+    private EmailLookup(CachedUser user, boolean absent) {
+        this.user = user;
+        this.absent = absent;
+    }
+
+    static EmailLookup found(CachedUser user) {
+        return new EmailLookup(user, false);
+    }
+
+    static EmailLookup absent() {
+        return ABSENT;
+    }
+
+    static EmailLookup unknown() {
+        return UNKNOWN;
+    }
+
+    public boolean isFound() {
+        return user != null;
+    }
+
+    public boolean isAbsent() {
+        return absent;
+    }
+
+    public CachedUser getUser() {
+        return user;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.infrastructure.database.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Size- and time-bounded map split into independently locked LRU segments.
+ * <p>
+ * Each segment is an access-ordered {@link LinkedHashMap} guarded by its own
+ * {@link ReentrantLock}, which keeps lock hold times short and does not pin
+ * virtual threads the way {@code synchronized} would.
+ */
+final class ExpiringLruMap<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final LongSupplier clock;
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    ExpiringLruMap(int maximumSize, int segmentCount, LongSupplier clock) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        int count = Math.max(1, Math.min(segmentCount, maximumSize));
+        int perSegment = Math.max(1, maximumSize / count);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(perSegment, sizeEvictions);
+        }
+        this.clock = clock;
+    }
+
+    V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Node<V> node = segment.map.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.expiresAt - clock.getAsLong() <= 0) {
+                segment.map.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return node.value;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    void put(K key, V value, long ttlNanos) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.map.put(key, new Node<>(value, clock.getAsLong() + ttlNanos));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Atomically replaces the live value for {@code key}. The function receives the current
+     * value, or {@code null} when absent or expired, and returns the value to store, or
+     * {@code null} to keep the current state.
+     */
+    void merge(K key, long ttlNanos, BiFunction<K, V, V> function) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Node<V> node = segment.map.get(key);
+            V current = node == null || node.expiresAt - clock.getAsLong() <= 0 ? null : node.value;
+            V next = function.apply(key, current);
+            if (next != null) {
+                segment.map.put(key, new Node<>(next, clock.getAsLong() + ttlNanos));
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.map.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.map.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    long sizeEvictions() {
+        return sizeEvictions.sum();
+    }
+
+    long expirations() {
+        return expirations.sum();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[(hash & 0x7fffffff) % segments.length];
+    }
+
+    private record Node<V>(V value, long expiresAt) {
+    }
+
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Node<V>> map;
+
+        private Segment(int capacity, LongAdder sizeEvictions) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Node<V>> eldest) {
+                    if (size() > capacity) {
+                        sizeEvictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.infrastructure.database.cache;
+
+import com.example.application.cache.UserCacheInvalidations;
+import com.example.domain.Email;
+import com.example.domain.UserId;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-process tier of the user cache.
+ * <p>
+ * Users are held by id; a second map resolves emails to ids and also remembers
+ * emails that are known not to exist (negative caching). An invalidation leaves a
+ * version floor behind so that a reader which loaded an older row before the write
+ * committed cannot put that stale row back into the cache.
+ */
+public class UserCache implements UserCacheInvalidations {
+
+    private static final int SEGMENTS = 16;
+    private static final long DELETED = Long.MAX_VALUE;
+    private static final String ABSENT = "";
+
+    private final ExpiringLruMap<String, Slot> users;
+    private final ExpiringLruMap<String, String> emails;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder stalePutsRejected = new LongAdder();
+
+    public UserCache(int maximumSize, Duration timeToLive, Duration negativeTimeToLive) {
+        this(maximumSize, timeToLive, negativeTimeToLive, System::nanoTime);
+    }
+
+    UserCache(int maximumSize, Duration timeToLive, Duration negativeTimeToLive, LongSupplier clock) {
+        this.users = new ExpiringLruMap<>(maximumSize, SEGMENTS, clock);
+        this.emails = new ExpiringLruMap<>(maximumSize, SEGMENTS, clock);
+        this.ttlNanos = timeToLive.toNanos();
+        this.negativeTtlNanos = negativeTimeToLive.toNanos();
+    }
+
+    public Optional<CachedUser> get(UserId id) {
+        Slot slot = users.get(id.getValue());
+        if (slot == null || slot.user() == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(slot.user());
+    }
+
+    /**
+     * Resolves an email through the cache. Returns {@link EmailLookup#absent()} when the
+     * email is negatively cached and {@link EmailLookup#unknown()} when the cache cannot tell.
+     */
+    public EmailLookup lookup(Email email) {
+        String id = emails.get(email.getValue());
+        if (id == null) {
+            misses.increment();
+            return EmailLookup.unknown();
+        }
+        if (ABSENT.equals(id)) {
+            negativeHits.increment();
+            return EmailLookup.absent();
+        }
+        Slot slot = users.get(id);
+        if (slot == null || slot.user() == null || !slot.user().email().equals(email.getValue())) {
+            misses.increment();
+            return EmailLookup.unknown();
+        }
+        hits.increment();
+        return EmailLookup.found(slot.user());
+    }
+
+    /**
+     * Caches {@code user} unless an invalidation has already announced a newer version.
+     */
+    public void put(CachedUser user) {
+        boolean[] accepted = {false};
+        users.merge(user.id(), ttlNanos, (id, current) -> {
+            if (current != null && current.floor() > user.version()) {
+                return null;
+            }
+            accepted[0] = true;
+            return new Slot(user, user.version());
+        });
+        if (accepted[0]) {
+            emails.put(user.email(), user.id(), ttlNanos);
+        } else {
+            stalePutsRejected.increment();
+        }
+    }
+
+    public void putAbsent(Email email) {
+        emails.put(email.getValue(), ABSENT, negativeTtlNanos);
+    }
+
+    /**
+     * Returns whether a newer version of this user has been announced than the snapshot holds.
+     */
+    public boolean isStale(CachedUser user) {
+        Slot slot = users.get(user.id());
+        return slot != null && slot.floor() > user.version();
+    }
+
+    /**
+     * Drops the cached user and remembers {@code version} as the oldest acceptable version.
+     * A {@code null} version marks the user as deleted.
+     */
+    @Override
+    public void invalidate(UserId id, Long version) {
+        users.merge(id.getValue(), ttlNanos, (key, current) -> {
+            if (current != null && current.user() != null) {
+                emails.remove(current.user().email());
+            }
+            if (version == null) {
+                return new Slot(null, DELETED);
+            }
+            // A write after a delete re-creates the user, so it resets the floor
+            boolean reset = current == null || current.floor() == DELETED;
+            return new Slot(null, reset ? version : Math.max(current.floor(), version));
+        });
+        invalidations.increment();
+    }
+
+    /**
+     * Like {@link #invalidate(UserId, Long)}, but keeps a cached user that already holds
+     * {@code version} or a newer one, e.g. when another node announces a write this node
+     * has read since.
+     */
+    @Override
+    public void invalidateOlderThan(UserId id, long version) {
+        users.merge(id.getValue(), ttlNanos, (key, current) -> {
+            if (current != null && current.user() != null && current.user().version() >= version) {
+                return null;
+            }
+            if (current != null && current.user() != null) {
+                emails.remove(current.user().email());
+            }
+            if (current != null && current.floor() == DELETED) {
+                return null;
+            }
+            return new Slot(null, current == null ? version : Math.max(current.floor(), version));
+        });
+        invalidations.increment();
+    }
+
+    public void invalidate(Email email) {
+        emails.remove(email.getValue());
+    }
+
+    @Override
+    public void clear() {
+        users.clear();
+        emails.clear();
+        invalidations.increment();
+    }
+
+    public UserCacheStats stats() {
+        return new UserCacheStats(
+                hits.sum(),
+                misses.sum(),
+                negativeHits.sum(),
+                users.sizeEvictions() + emails.sizeEvictions(),
+                users.expirations() + emails.expirations(),
+                invalidations.sum(),
+                stalePutsRejected.sum(),
+                users.size()
+        );
+    }
+
+    /**
+     * A cached user, or a marker without a user that only carries the version floor.
+     */
+    private record Slot(CachedUser user, long floor) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.infrastructure.database.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.users.cache")
+public class UserCacheProperties {
+
+    private boolean enabled = false;
+    private int maximumSize = 10_000;
+    private Duration timeToLive = Duration.ofMinutes(5);
+    private Duration negativeTimeToLive = Duration.ofSeconds(30);
+    // Name of a shared Spring cache used as second tier, none when empty
+    private String secondLevelCacheName;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public Duration getNegativeTimeToLive() {
+        return negativeTimeToLive;
+    }
+
+    public void setNegativeTimeToLive(Duration negativeTimeToLive) {
+        this.negativeTimeToLive = negativeTimeToLive;
+    }
+
+    public String getSecondLevelCacheName() {
+        return secondLevelCacheName;
+    }
+
+    public void setSecondLevelCacheName(String secondLevelCacheName) {
+        this.secondLevelCacheName = secondLevelCacheName;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.infrastructure.database.cache;
+
+/**
+ * Point-in-time counters of the in-process user cache.
+ */
+public record UserCacheStats(long hits,
+                             long misses,
+                             long negativeHits,
+                             long sizeEvictions,
+                             long expirations,
+                             long invalidations,
+                             long stalePutsRejected,
+                             int size) {
+
+    public double hitRate() {
+        long lookups = hits + negativeHits + misses;
+        return lookups == 0 ? 0.0 : (double) (hits + negativeHits) / lookups;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.infrastructure.database.coalescing;
+
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.repositories.ForwardingUserRepository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Coalesces concurrent lookups of the same user into one query, see {@link SingleFlight}.
+ * <p>
+ * Under a thundering herd on one account only the first of the concurrent
+ * {@code findById} or {@code findByEmail} calls reaches the database; the others get a
+ * copy of its result, since {@link User} is mutable. Calls made inside a transaction are
+ * not coalesced, so they keep seeing their own writes.
+ */
+public class CoalescingUserRepository extends ForwardingUserRepository {
+
+    private final SingleFlight<String, Optional<User>> byId;
+    private final SingleFlight<String, Optional<User>> byEmail;
+
+    public CoalescingUserRepository(UserRepository delegate, Duration timeout) {
+        super(delegate);
+        this.byId = new SingleFlight<>(timeout);
+        this.byEmail = new SingleFlight<>(timeout);
+    }
+
+    @Override
+    public Optional<User> findById(UserId id) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return delegate.findById(id);
+        }
+        return byId.execute(id.getValue(), () -> delegate.findById(id), CoalescingUserRepository::copy);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return delegate.findByEmail(email);
+        }
+        return byEmail.execute(email.getValue(), () -> delegate.findByEmail(email), CoalescingUserRepository::copy);
+    }
+
+    /**
+     * Lookups sent to the delegate.
+     */
+    public long queries() {
+        return byId.calls() + byEmail.calls();
+    }
+
+    /**
+     * Lookups answered by another caller's query.
+     */
+    public long coalesced() {
+        return byId.shared() + byEmail.shared();
+    }
+
+    private static Optional<User> copy(Optional<User> user) {
+        return user.map(found -> new User(found.getId(), found.getEmail(), found.getName(), found.isActive(),
+                found.getCreatedAt(), found.getUpdatedAt(), found.getVersion()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.infrastructure.database.coalescing;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs at most one call per key at a time. The first caller for a key runs the call on its
+ * own thread; callers that arrive while it is in flight wait for its result instead of
+ * starting their own. Nothing is kept once the call completes, so this is not a cache.
+ * <p>
+ * A waiter gives up after the timeout and runs the call itself. A waiter that is
+ * interrupted stops waiting without affecting the call. When the running call fails because
+ * its own caller was interrupted, the waiters run the call again rather than inherit a
+ * cancellation that was not theirs; any other failure is rethrown to every waiter.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Returns the result of {@code call} for {@code key}, shared with concurrent callers for the
+     * same key. Waiters receive {@code share} applied to the result, so a mutable result can be
+     * copied for each of them.
+     */
+    public V execute(K key, Supplier<V> call, UnaryOperator<V> share) {
+        while (true) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                return lead(key, mine, call);
+            }
+            try {
+                V value = running.get(timeoutNanos, TimeUnit.NANOSECONDS);
+                shared.increment();
+                return value == null ? null : share.apply(value);
+            } catch (CancellationException e) {
+                // The leader was interrupted; try again, possibly as the new leader
+            } catch (TimeoutException e) {
+                timeouts.increment();
+                calls.increment();
+                return call.get();
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an in-flight lookup of " + key, e);
+            }
+        }
+    }
+
+    /**
+     * Calls run, including those run by waiters after a timeout.
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * Callers served by another caller's call.
+     */
+    public long shared() {
+        return shared.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    private V lead(K key, CompletableFuture<V> mine, Supplier<V> call) {
+        calls.increment();
+        V value;
+        try {
+            value = call.get();
+        } catch (RuntimeException | Error e) {
+            // Removed before completing, so a caller arriving now starts a fresh call
+            inFlight.remove(key, mine);
+            if (Thread.currentThread().isInterrupted()) {
+                mine.cancel(false);
+            } else {
+                mine.completeExceptionally(e);
+            }
+            throw e;
+        }
+        inFlight.remove(key, mine);
+        mine.complete(value);
+        return value;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.infrastructure.database.config;
+
+import com.example.infrastructure.database.support.BoundedDataSource;
+import com.example.infrastructure.database.support.DataSourceAdmissionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a {@link BoundedDataSource} in front of the application's connection pool, sized
+ * from the Hikari pool size, so the number of threads in line for a connection stays
+ * bounded however many virtual threads issue queries.
+ */
+@Configuration
+public class DataSourceAdmissionConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceAdmissionConfig.class);
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+    // HikariCP's default maximumPoolSize
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static BoundedDataSourcePostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        return new BoundedDataSourcePostProcessor(environment);
+    }
+
+    /**
+     * Ordered ahead of the replica routing, so the bound applies to the primary pool itself.
+     */
+    static final class BoundedDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+
+        private BoundedDataSourcePostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public int getOrder() {
+            return DatabaseConfig.REPLICA_ROUTING_ORDER - 1;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)
+                    || bean instanceof BoundedDataSource) {
+                return bean;
+            }
+            // Bound directly: post-processors are created before configuration properties beans
+            DataSourceAdmissionProperties properties = Binder.get(environment)
+                    .bind("app.datasource.admission", DataSourceAdmissionProperties.class)
+                    .orElseGet(DataSourceAdmissionProperties::new);
+            if (!properties.isEnabled()) {
+                return bean;
+            }
+            int poolSize = environment.getProperty(
+                    "spring.datasource.hikari.maximum-pool-size", Integer.class, DEFAULT_POOL_SIZE);
+            log.info("Admitting {} concurrent connection holders and {} waiters to the connection pool",
+                    poolSize, properties.getMaxWaiting());
+            return new BoundedDataSource(dataSource, poolSize, properties.getMaxWaiting(),
+                    properties.getAcquireTimeout());
+        }
+    }
+}
@@ -1,14 +1,129 @@
 package com.example.infrastructure.database.config;
 
+import com.example.infrastructure.database.repositories.UserBulkProperties;
+import com.example.infrastructure.database.repositories.UserChangeFeedProperties;
+import com.example.infrastructure.database.support.ReplicaRoutingDataSource;
+import com.example.infrastructure.database.support.ReplicaRoutingProperties;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 @Configuration
 @EnableJpaRepositories(basePackages = "com.example.infrastructure.database.repositories")
 @EntityScan(basePackages = "com.example.infrastructure.database.entities")
-@EnableTransactionManagement
+@EnableTransactionManagement(proxyTargetClass = true)
+@EnableConfigurationProperties({UserBulkProperties.class, UserChangeFeedProperties.class})
 public class DatabaseConfig {
-    // Additional database configuration can be added here if needed
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseConfig.class);
+
+    public static final int JDBC_BATCH_SIZE = 50;
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+    // The data source post-processors wrap in turn: admission bound, replica routing, statement monitor
+    static final int REPLICA_ROUTING_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    /**
+     * Groups INSERTs and UPDATEs into JDBC batches and pads IN lists to powers of two,
+     * so chunked batch lookups reuse a handful of cached statement plans.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer batchingHibernatePropertiesCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, JDBC_BATCH_SIZE);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            properties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, true);
+            properties.putIfAbsent(AvailableSettings.IN_CLAUSE_PARAMETER_PADDING, true);
+        };
+    }
+
+    /**
+     * Routes read-only transactions to the configured replicas, see {@link ReplicaRoutingDataSource}.
+     */
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(Environment environment) {
+        return new ReplicaRoutingPostProcessor(environment);
+    }
+
+    /**
+     * Wraps the primary pool and owns the replica pools. Spring destroys the primary through
+     * the original bean, so the replicas are closed here rather than by the wrapper.
+     * Replica pools take the primary's {@code spring.datasource.hikari} settings. Runs after
+     * the admission bound and before the statement monitor.
+     */
+    static final class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+        private final Environment environment;
+        private final List<ReplicaRoutingDataSource> created = new CopyOnWriteArrayList<>();
+
+        private ReplicaRoutingPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public int getOrder() {
+            return REPLICA_ROUTING_ORDER;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource primary)
+                    || bean instanceof ReplicaRoutingDataSource) {
+                return bean;
+            }
+            // Bound directly: post-processors are created before configuration properties beans
+            Binder binder = Binder.get(environment);
+            ReplicaRoutingProperties properties = binder
+                    .bind("app.datasource.replicas", ReplicaRoutingProperties.class)
+                    .orElseGet(ReplicaRoutingProperties::new);
+            if (properties.getInstances().isEmpty()) {
+                return bean;
+            }
+            Map<String, DataSource> replicas = new LinkedHashMap<>();
+            for (ReplicaRoutingProperties.Instance instance : properties.getInstances()) {
+                DataSource replica = DataSourceBuilder.create()
+                        .url(instance.getUrl())
+                        .username(instance.getUsername())
+                        .password(instance.getPassword())
+                        .build();
+                binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+                replicas.put("replica-" + (replicas.size() + 1), replica);
+            }
+            log.info("Routing read-only transactions to {} replicas with at most {} lag",
+                    replicas.size(), properties.getMaxLag());
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas,
+                    properties.getMaxLag(), properties.getLagQuery(), properties.getCheckTimeout());
+            routing.start(properties.getCheckInterval());
+            created.add(routing);
+            return routing;
+        }
+
+        @Override
+        public void destroy() throws Exception {
+            for (ReplicaRoutingDataSource routing : created) {
+                routing.close();
+            }
+        }
+    }
 }
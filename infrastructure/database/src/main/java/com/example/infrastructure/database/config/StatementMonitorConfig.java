@@ -0,0 +1,80 @@
+package com.example.infrastructure.database.config;
+
+import com.example.infrastructure.database.support.StatementMonitorProperties;
+import com.example.infrastructure.database.support.StatementPatternLogger;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Proxies the application's data source, when {@code app.datasource.statements.enabled} is set,
+ * to log slow and repeated statements. Any {@link QueryExecutionListener} beans, such as the
+ * statement recorder of the repository tests, are attached to the proxy as well.
+ */
+@Configuration
+public class StatementMonitorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementMonitorConfig.class);
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static StatementMonitorPostProcessor statementMonitorPostProcessor(
+            Environment environment, ObjectProvider<QueryExecutionListener> listeners) {
+        return new StatementMonitorPostProcessor(environment, listeners);
+    }
+
+    /**
+     * Ordered after the replica routing, so the proxy wraps the routing data source and sees
+     * the statements sent to the replicas too.
+     */
+    static final class StatementMonitorPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+        private final ObjectProvider<QueryExecutionListener> listeners;
+
+        private StatementMonitorPostProcessor(Environment environment, ObjectProvider<QueryExecutionListener> listeners) {
+            this.environment = environment;
+            this.listeners = listeners;
+        }
+
+        @Override
+        public int getOrder() {
+            return DatabaseConfig.REPLICA_ROUTING_ORDER + 1;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)
+                    || bean instanceof ProxyDataSource) {
+                return bean;
+            }
+            // Bound directly: post-processors are created before configuration properties beans
+            StatementMonitorProperties properties = Binder.get(environment)
+                    .bind("app.datasource.statements", StatementMonitorProperties.class)
+                    .orElseGet(StatementMonitorProperties::new);
+            if (!properties.isEnabled()) {
+                return bean;
+            }
+            log.info("Logging statements slower than {} ms or repeated {} times in a transaction",
+                    properties.getSlowThreshold().toMillis(), properties.getRepeatThreshold());
+            ProxyDataSourceBuilder proxy = ProxyDataSourceBuilder.create(dataSource)
+                    .name(DATA_SOURCE_BEAN)
+                    .listener(new StatementPatternLogger(properties.getSlowThreshold(),
+                            properties.getRepeatThreshold()));
+            listeners.orderedStream().forEach(proxy::listener);
+            return proxy.build();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.infrastructure.database.config;
+
+import com.example.infrastructure.database.counters.UserCounterProperties;
+import com.example.infrastructure.database.counters.UserCounters;
+import com.example.infrastructure.database.repositories.JpaUserRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(UserCounterProperties.class)
+public class UserCounterConfig {
+
+    @Bean
+    public UserCounters userCounters(JpaUserRepository jpaUserRepository, UserCounterProperties properties) {
+        return new UserCounters(jpaUserRepository, properties.isEnabled());
+    }
+}
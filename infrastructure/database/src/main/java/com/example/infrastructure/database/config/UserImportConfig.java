@@ -0,0 +1,56 @@
+package com.example.infrastructure.database.config;
+
+import com.example.application.ports.UserRepository;
+import com.example.infrastructure.database.imports.UserImportProperties;
+import com.example.infrastructure.database.imports.UserImporter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UserImportProperties.class)
+public class UserImportConfig {
+
+    /**
+     * Writes through the assembled repository, so imports reach the shards and keep any
+     * cache in front of it consistent.
+     */
+    @Bean
+    public UserImporter userImporter(UserRepository userRepository,
+                                     UserImportProperties properties,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        if (properties.getBatchSize() < 1 || properties.getParallelism() < 1 || properties.getQueueCapacity() < 1) {
+            throw new IllegalStateException("User import batch size, parallelism and queue capacity must be positive");
+        }
+        UserImporter importer = new UserImporter(userRepository, properties);
+        meterRegistry.ifAvailable(registry -> registerMeters(importer, registry));
+        return importer;
+    }
+
+    private static void registerMeters(UserImporter importer, MeterRegistry registry) {
+        FunctionCounter.builder("users.import.lines", importer, it -> it.totals().lines())
+                .description("Input lines processed by user imports")
+                .register(registry);
+        FunctionCounter.builder("users.import.imported", importer, it -> it.totals().imported())
+                .description("Users created by user imports")
+                .register(registry);
+        FunctionCounter.builder("users.import.rejected", importer, it -> it.totals().invalid())
+                .description("Import lines rejected")
+                .tag("reason", "invalid")
+                .register(registry);
+        FunctionCounter.builder("users.import.rejected", importer, it -> it.totals().duplicates())
+                .description("Import lines rejected")
+                .tag("reason", "duplicate")
+                .register(registry);
+        FunctionCounter.builder("users.import.batches", importer, it -> it.totals().batches())
+                .description("Import batches committed")
+                .register(registry);
+        Gauge.builder("users.import.running", importer, UserImporter::running)
+                .description("User imports in progress")
+                .register(registry);
+    }
+}
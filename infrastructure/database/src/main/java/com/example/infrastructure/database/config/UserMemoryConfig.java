@@ -0,0 +1,33 @@
+package com.example.infrastructure.database.config;
+
+import com.example.infrastructure.database.memory.InMemoryUserRepository;
+import com.example.infrastructure.database.memory.UserLog;
+import com.example.infrastructure.database.memory.UserMemoryProperties;
+import com.example.infrastructure.database.repositories.UserBulkProperties;
+import com.example.infrastructure.database.repositories.UserChangeFeedProperties;
+import com.example.infrastructure.database.search.UserSearchProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps users in memory instead of the users table, see {@link InMemoryUserRepository}.
+ * The datasource still backs the outbox relay and the other tables.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.users.memory", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(UserMemoryProperties.class)
+public class UserMemoryConfig {
+
+    @Bean(destroyMethod = "close")
+    public InMemoryUserRepository inMemoryUserRepository(UserMemoryProperties properties,
+                                                         UserSearchProperties searchProperties,
+                                                         UserBulkProperties bulkProperties,
+                                                         UserChangeFeedProperties changeFeedProperties) {
+        UserLog log = UserLog.open(properties.getDirectory(), Math.toIntExact(properties.getInitialLogSize().toBytes()),
+                properties.isForceWrites());
+        return new InMemoryUserRepository(log, properties.getSnapshotEvery(), searchProperties.getMaxResults(),
+                bulkProperties, changeFeedProperties);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.infrastructure.database.config;
+
+import com.example.infrastructure.database.metrics.UserMetricsProperties;
+import com.example.infrastructure.database.repositories.UserRepositoryImpl;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UserMetricsProperties.class)
+public class UserMetricsConfig {
+
+    /**
+     * Adds the configured percentiles to the {@code users.*} timers and summaries. Boot
+     * applies {@link MeterFilter} beans to every registry it creates. The mapping timer is
+     * left out: it only splits the repository timers' time, which carry the percentiles.
+     */
+    @Bean
+    public MeterFilter userPercentilesMeterFilter(UserMetricsProperties properties) {
+        double[] percentiles = properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().startsWith("users.") || id.getName().equals(UserRepositoryImpl.MAPPING_DURATION)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(percentiles)
+                        .percentilesHistogram(properties.isPercentileHistogram())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.infrastructure.database.config;
+
+import com.example.application.cache.UserCacheInvalidationListener;
+import com.example.application.ports.UserRepository;
+import com.example.infrastructure.database.cache.CachingUserRepository;
+import com.example.infrastructure.database.cache.UserCache;
+import com.example.infrastructure.database.cache.UserCacheProperties;
+import com.example.infrastructure.database.coalescing.CoalescingUserRepository;
+import com.example.infrastructure.database.coalescing.UserCoalescingProperties;
+import com.example.infrastructure.database.memory.InMemoryUserRepository;
+import com.example.infrastructure.database.metrics.MeteredUserRepository;
+import com.example.infrastructure.database.metrics.UserMetricsProperties;
+import com.example.infrastructure.database.repositories.AsyncUserRepositoryProperties;
+import com.example.infrastructure.database.repositories.UserChangeFeedProperties;
+import com.example.infrastructure.database.repositories.UserRepositoryImpl;
+import com.example.infrastructure.database.repositories.UserTombstonePruner;
+import com.example.infrastructure.database.sharding.ShardedUserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+
+/**
+ * Assembles the {@link UserRepository} the application layer sees: the JPA adapter, or
+ * the sharded or in-memory one when enabled, wrapped in whichever decorators are enabled.
+ */
+@Configuration
+@EnableConfigurationProperties({UserCacheProperties.class, AsyncUserRepositoryProperties.class, UserMetricsProperties.class,
+        UserCoalescingProperties.class})
+public class UserRepositoryConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.users.cache", name = "enabled", havingValue = "true")
+    public UserCache userCache(UserCacheProperties properties) {
+        return new UserCache(
+                properties.getMaximumSize(),
+                properties.getTimeToLive(),
+                properties.getNegativeTimeToLive()
+        );
+    }
+
+    @Bean
+    @Primary
+    public UserRepository userRepository(UserRepositoryImpl userRepositoryImpl,
+                                         ObjectProvider<ShardedUserRepository> shardedUserRepository,
+                                         ObjectProvider<InMemoryUserRepository> inMemoryUserRepository,
+                                         UserCoalescingProperties coalescingProperties,
+                                         UserCacheProperties cacheProperties,
+                                         ObjectProvider<UserCache> userCache,
+                                         ObjectProvider<CacheManager> cacheManager,
+                                         ObjectProvider<UserCacheInvalidationListener> invalidationListeners,
+                                         UserMetricsProperties metricsProperties,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        UserRepository repository = shardedUserRepository.getIfAvailable();
+        InMemoryUserRepository inMemory = inMemoryUserRepository.getIfAvailable();
+        if (inMemory != null) {
+            if (repository != null) {
+                throw new IllegalStateException("User sharding and in-memory users cannot both be enabled");
+            }
+            repository = inMemory;
+        }
+        if (repository == null) {
+            repository = userRepositoryImpl;
+        }
+
+        // Below the cache, so it only coalesces the misses that reach the database; in-memory lookups need none
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (coalescingProperties.isEnabled() && inMemory == null) {
+            CoalescingUserRepository coalescing = new CoalescingUserRepository(repository, coalescingProperties.getTimeout());
+            if (registry != null) {
+                FunctionCounter.builder("users.coalescing.shared", coalescing, CoalescingUserRepository::coalesced)
+                        .description("Lookups answered by a concurrent identical lookup's query")
+                        .register(registry);
+            }
+            repository = coalescing;
+        }
+
+        UserCache cache = userCache.getIfAvailable();
+        if (cache != null) {
+            if (registry != null) {
+                registerCacheMeters(cache, registry);
+            }
+            repository = new CachingUserRepository(
+                    repository,
+                    cache,
+                    secondLevelCache(cacheProperties, cacheManager),
+                    invalidationListeners.orderedStream().toList()
+            );
+        }
+
+        // Outermost, so the timers measure what callers see, cache hits included
+        if (metricsProperties.isEnabled() && registry != null) {
+            repository = new MeteredUserRepository(repository, registry);
+        }
+
+        return repository;
+    }
+
+    // Through the assembled repository, so it prunes whichever adapter is in use
+    @Bean
+    public UserTombstonePruner userTombstonePruner(UserRepository userRepository,
+                                                   UserChangeFeedProperties changeFeedProperties) {
+        return new UserTombstonePruner(userRepository, changeFeedProperties);
+    }
+
+    private static void registerCacheMeters(UserCache cache, MeterRegistry registry) {
+        FunctionCounter.builder("users.cache.gets", cache, it -> it.stats().hits())
+                .description("In-process user cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("users.cache.gets", cache, it -> it.stats().negativeHits())
+                .description("In-process user cache lookups")
+                .tag("result", "absent")
+                .register(registry);
+        FunctionCounter.builder("users.cache.gets", cache, it -> it.stats().misses())
+                .description("In-process user cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("users.cache.evictions", cache, it -> it.stats().sizeEvictions())
+                .description("Entries dropped from the in-process user cache")
+                .tag("cause", "size")
+                .register(registry);
+        FunctionCounter.builder("users.cache.evictions", cache, it -> it.stats().expirations())
+                .description("Entries dropped from the in-process user cache")
+                .tag("cause", "expired")
+                .register(registry);
+        FunctionCounter.builder("users.cache.invalidations", cache, it -> it.stats().invalidations())
+                .description("Writes and clears that invalidated the in-process user cache")
+                .register(registry);
+        FunctionCounter.builder("users.cache.stale.puts", cache, it -> it.stats().stalePutsRejected())
+                .description("Lookups not cached because a newer version had been written")
+                .register(registry);
+        Gauge.builder("users.cache.size", cache, it -> it.stats().size())
+                .description("Users held in the in-process user cache")
+                .register(registry);
+    }
+
+    private static Cache secondLevelCache(UserCacheProperties properties, ObjectProvider<CacheManager> cacheManager) {
+        if (!StringUtils.hasText(properties.getSecondLevelCacheName())) {
+            return null;
+        }
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (manager == null) {
+            throw new IllegalStateException("A second-level user cache is configured but no CacheManager is available");
+        }
+        return manager.getCache(properties.getSecondLevelCacheName());
+    }
+}
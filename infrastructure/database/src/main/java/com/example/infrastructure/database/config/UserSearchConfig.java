@@ -0,0 +1,48 @@
+package com.example.infrastructure.database.config;
+
+import com.example.infrastructure.database.repositories.JpaUserRepository;
+import com.example.infrastructure.database.search.NgramUserNameSearch;
+import com.example.infrastructure.database.search.TrigramUserNameSearch;
+import com.example.infrastructure.database.search.UserNameSearch;
+import com.example.infrastructure.database.search.UserSearchProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+@EnableConfigurationProperties(UserSearchProperties.class)
+public class UserSearchConfig {
+
+    @Bean
+    public UserNameSearch userNameSearch(UserSearchProperties properties,
+                                         JpaUserRepository jpaUserRepository,
+                                         DataSource dataSource,
+                                         PlatformTransactionManager transactionManager) {
+        UserSearchProperties.Backend backend = properties.getBackend();
+        if (backend == UserSearchProperties.Backend.AUTO) {
+            backend = isPostgreSql(dataSource) ? UserSearchProperties.Backend.TRIGRAM : UserSearchProperties.Backend.NGRAM;
+        }
+        if (backend == UserSearchProperties.Backend.TRIGRAM) {
+            return new TrigramUserNameSearch(jpaUserRepository);
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return new NgramUserNameSearch(jpaUserRepository, readOnly);
+    }
+
+    private static boolean isPostgreSql(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot determine the database product for the name search backend", e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.infrastructure.database.config;
+
+import com.example.infrastructure.database.outbox.OutboxWriter;
+import com.example.infrastructure.database.repositories.UserBulkProperties;
+import com.example.infrastructure.database.repositories.UserChangeFeedProperties;
+import com.example.infrastructure.database.search.UserSearchProperties;
+import com.example.infrastructure.database.sharding.ShardedUserRepository;
+import com.example.infrastructure.database.sharding.UserEmailIndex;
+import com.example.infrastructure.database.sharding.UserShardRebalancer;
+import com.example.infrastructure.database.sharding.UserShardingProperties;
+import com.example.infrastructure.database.sharding.UserShards;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads the users table over the configured shards, see {@link ShardedUserRepository}.
+ * The primary database keeps the email index and the outbox.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.users.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(UserShardingProperties.class)
+public class UserShardingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(UserShardingConfig.class);
+
+    /**
+     * Opens a pool per shard, with the primary's {@code spring.datasource.hikari} settings,
+     * and migrates the users table on each. Shards get the migrations up to V6, which adds the
+     * tombstones the change feed reads next to the users, plus the vendor's V3 on PostgreSQL.
+     * The outbox and email index tables V4 and V5 create there stay empty: both live on the primary.
+     */
+    @Bean
+    public UserShards userShards(UserShardingProperties properties, Environment environment) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("User sharding is enabled but no shards are configured");
+        }
+        Binder binder = Binder.get(environment);
+        List<DataSource> dataSources = new ArrayList<>(properties.getShards().size());
+        boolean created = false;
+        for (UserShardingProperties.Shard shard : properties.getShards()) {
+            DataSource dataSource = DataSourceBuilder.create()
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSources.add(dataSource);
+            created |= migrate(dataSource).initialSchemaVersion == null;
+        }
+        log.info("Sharding users over {} databases", dataSources.size());
+        return new UserShards(dataSources, created);
+    }
+
+    @Bean
+    public UserEmailIndex userEmailIndex(DataSource dataSource) {
+        return new UserEmailIndex(dataSource);
+    }
+
+    @Bean
+    public UserShardRebalancer userShardRebalancer(UserShards userShards,
+                                                   UserEmailIndex userEmailIndex,
+                                                   PlatformTransactionManager transactionManager) {
+        return new UserShardRebalancer(userShards, userEmailIndex, new TransactionTemplate(transactionManager));
+    }
+
+    @Bean
+    public ShardedUserRepository shardedUserRepository(UserShards userShards,
+                                                       UserEmailIndex userEmailIndex,
+                                                       PlatformTransactionManager transactionManager,
+                                                       OutboxWriter outboxWriter,
+                                                       UserSearchProperties searchProperties,
+                                                       UserBulkProperties bulkProperties,
+                                                       UserChangeFeedProperties changeFeedProperties) {
+        return new ShardedUserRepository(userShards, userEmailIndex, new TransactionTemplate(transactionManager),
+                outboxWriter, searchProperties.getMaxResults(), bulkProperties, changeFeedProperties);
+    }
+
+    /**
+     * Rebalances once every bean is ready and before the web server starts, when asked to
+     * or when a shard was just created: every new shard starts with V1's sample users.
+     */
+    @Bean
+    public SmartInitializingSingleton userShardStartupRebalance(UserShardingProperties properties,
+                                                                UserShards userShards,
+                                                                UserShardRebalancer userShardRebalancer) {
+        return () -> {
+            if (properties.isRebalanceOnStartup() || userShards.created()) {
+                userShardRebalancer.rebalance();
+            }
+        };
+    }
+
+    private static MigrateResult migrate(DataSource dataSource) {
+        boolean postgreSql = isPostgreSql(dataSource);
+        List<String> locations = new ArrayList<>(List.of("classpath:db/migration"));
+        if (postgreSql) {
+            locations.add("classpath:db/vendor/postgresql");
+        }
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations.toArray(String[]::new))
+                .target("6")
+                .load()
+                .migrate();
+    }
+
+    private static boolean isPostgreSql(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot determine the database product of a user shard", e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.infrastructure.database.counters;
+
+import com.example.infrastructure.database.repositories.JpaUserRepository;
+import com.example.infrastructure.database.support.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Total and active user counts maintained in memory instead of queried on every call.
+ * <p>
+ * The counters are seeded from {@code COUNT} queries on first use and then moved by the
+ * writes that commit through this node: inserts, deletes and active-flag transitions
+ * caused by {@code User.activate()} and {@code User.deactivate()}. Writes from other nodes
+ * or outside the repository are not seen, so a periodic reconciliation re-reads the
+ * database and corrects any drift. When disabled, every read runs the query instead.
+ */
+public class UserCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCounters.class);
+
+    private final JpaUserRepository jpaUserRepository;
+    private final boolean enabled;
+    private final LongAdder total = new LongAdder();
+    private final LongAdder active = new LongAdder();
+    private final ReentrantLock seedLock = new ReentrantLock();
+    private volatile boolean seeded;
+
+    public UserCounters(JpaUserRepository jpaUserRepository, boolean enabled) {
+        this.jpaUserRepository = jpaUserRepository;
+        this.enabled = enabled;
+    }
+
+    public long total() {
+        if (!enabled) {
+            return jpaUserRepository.count();
+        }
+        ensureSeeded();
+        return total.sum();
+    }
+
+    public long active() {
+        if (!enabled) {
+            return jpaUserRepository.countActiveUsers();
+        }
+        ensureSeeded();
+        return active.sum();
+    }
+
+    public void inserted(boolean isActive) {
+        apply(1, isActive ? 1 : 0);
+    }
+
+    public void updated(boolean wasActive, boolean isActive) {
+        if (wasActive != isActive) {
+            apply(0, isActive ? 1 : -1);
+        }
+    }
+
+    public void deleted(boolean wasActive) {
+        apply(-1, wasActive ? -1 : 0);
+    }
+
+    /**
+     * For set-based writes, which move many users at once without loading them.
+     */
+    public void adjust(long totalDelta, long activeDelta) {
+        apply(totalDelta, activeDelta);
+    }
+
+    /**
+     * Re-reads both counts and folds the difference into the counters. A write that
+     * commits while this runs may be counted twice or not at all; the next pass fixes it.
+     */
+    @Scheduled(fixedDelayString = "${app.users.counters.reconcile-interval:PT1M}",
+            initialDelayString = "${app.users.counters.reconcile-interval:PT1M}")
+    public void reconcile() {
+        if (!enabled || !seeded) {
+            return;
+        }
+        long totalDrift = jpaUserRepository.count() - total.sum();
+        long activeDrift = jpaUserRepository.countActiveUsers() - active.sum();
+        total.add(totalDrift);
+        active.add(activeDrift);
+        if (totalDrift != 0 || activeDrift != 0) {
+            log.info("Reconciled user counters (total drift {}, active drift {})", totalDrift, activeDrift);
+        }
+    }
+
+    private void apply(long totalDelta, long activeDelta) {
+        if (!enabled || !seeded) {
+            // Until seeded, the seeding queries will see this write
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            total.add(totalDelta);
+            active.add(activeDelta);
+        });
+    }
+
+    private void ensureSeeded() {
+        if (seeded) {
+            return;
+        }
+        seedLock.lock();
+        try {
+            if (!seeded) {
+                total.add(jpaUserRepository.count());
+                active.add(jpaUserRepository.countActiveUsers());
+                seeded = true;
+            }
+        } finally {
+            seedLock.unlock();
+        }
+    }
+}
@@ -3,13 +3,14 @@ package com.example.infrastructure.database.entities;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "users")
-public class UserEntity {
+public class UserEntity implements Persistable<String> {
 
     @Id
     @Column(name = "id", columnDefinition = "VARCHAR(36)")
@@ -52,6 +53,7 @@ public class UserEntity {
     }
 
     // Getters and Setters
+    @Override
     public String getId() {
         return id;
     }
@@ -116,6 +118,17 @@ public class UserEntity {
         this.version = version;
     }
 
+    /**
+     * The id is assigned by the application, so it cannot tell new rows apart.
+     * The version can: Hibernate sets it on the first insert and it is never null afterwards.
+     * This lets Spring Data persist new entities directly instead of merging them,
+     * which would cost a SELECT per insert.
+     */
+    @Override
+    public boolean isNew() {
+        return version == null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,50 @@
+package com.example.infrastructure.database.entities;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Marks a deleted user for the change feed. Never updated: a re-created user deleted again
+ * has its earlier tombstone deleted and a new one written.
+ */
+@Entity
+@Table(name = "user_tombstones")
+public class UserTombstoneEntity implements Persistable<String> {
+
+    @Id
+    @Column(name = "id", columnDefinition = "VARCHAR(36)")
+    private String id;
+
+    @Column(name = "deleted_at", nullable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
+    // Default constructor for JPA
+    protected UserTombstoneEntity() {}
+
+    public UserTombstoneEntity(String id, LocalDateTime deletedAt) {
+        this.id = id;
+        // The column keeps microseconds; truncating here keeps the managed instance equal to the row
+        this.deletedAt = deletedAt.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    /**
+     * Any earlier tombstone of the id is deleted first, so every tombstone is new and is
+     * persisted without the SELECT a merge would cost.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
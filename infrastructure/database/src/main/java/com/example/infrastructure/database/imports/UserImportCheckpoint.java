@@ -0,0 +1,62 @@
+package com.example.infrastructure.database.imports;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The number of the last input line whose outcome, imported or rejected, is durable.
+ * A rerun with the same checkpoint skips those lines, so an interrupted import resumes
+ * where its last batch committed.
+ */
+public final class UserImportCheckpoint {
+
+    private static final UserImportCheckpoint NONE = new UserImportCheckpoint(null);
+
+    private final Path file;
+
+    private UserImportCheckpoint(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * A checkpoint kept in {@code file}, which is replaced atomically on every save.
+     */
+    public static UserImportCheckpoint file(Path file) {
+        return new UserImportCheckpoint(file);
+    }
+
+    /**
+     * No checkpoint: every run starts from the first line.
+     */
+    public static UserImportCheckpoint none() {
+        return NONE;
+    }
+
+    public long load() {
+        if (file == null || !Files.exists(file)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read import checkpoint " + file, e);
+        }
+    }
+
+    public void save(long line) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temporary, Long.toString(line), StandardCharsets.UTF_8);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write import checkpoint " + file, e);
+        }
+    }
+}
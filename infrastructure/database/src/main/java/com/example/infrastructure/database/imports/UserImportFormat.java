@@ -0,0 +1,133 @@
+package com.example.infrastructure.database.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Line formats the importer reads. Every line is one user; a CSV file may start with a
+ * header line naming the columns, which is skipped.
+ */
+public enum UserImportFormat {
+
+    /**
+     * {@code email,first_name,last_name[,active]}, with RFC 4180 quoting.
+     */
+    CSV {
+        @Override
+        ImportedUser parse(String line) {
+            List<String> fields = csvFields(line);
+            if (fields.size() < 3 || fields.size() > 4) {
+                throw new IllegalArgumentException("Expected 3 or 4 columns but found " + fields.size());
+            }
+            return new ImportedUser(fields.get(0), fields.get(1), fields.get(2),
+                    fields.size() == 4 ? active(fields.get(3)) : true);
+        }
+
+        @Override
+        boolean isHeader(String line) {
+            return line.toLowerCase(Locale.ROOT).startsWith("email,");
+        }
+    },
+
+    /**
+     * One JSON object per line: {@code {"email": ..., "firstName": ..., "lastName": ..., "active": ...}}.
+     */
+    NDJSON {
+        @Override
+        ImportedUser parse(String line) {
+            JsonNode node;
+            try {
+                node = JSON.readTree(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            JsonNode active = node.get("active");
+            return new ImportedUser(text(node, "email"), text(node, "firstName"), text(node, "lastName"),
+                    active == null || active.isNull() || active.asBoolean());
+        }
+
+        @Override
+        boolean isHeader(String line) {
+            return false;
+        }
+    };
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * Splits a line into the user's fields, failing with {@link IllegalArgumentException}
+     * when it cannot. Values are not validated here.
+     */
+    abstract ImportedUser parse(String line);
+
+    abstract boolean isHeader(String line);
+
+    /**
+     * Picks the format from a file name's extension: {@code .csv}, or {@code .ndjson}/{@code .jsonl}.
+     */
+    public static UserImportFormat forFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the import format of " + fileName);
+    }
+
+    record ImportedUser(String email, String firstName, String lastName, boolean active) {
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static boolean active(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "", "true", "1", "yes" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new IllegalArgumentException("Invalid active flag: " + value);
+        };
+    }
+
+    static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
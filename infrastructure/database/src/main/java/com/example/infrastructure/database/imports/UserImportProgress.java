@@ -0,0 +1,55 @@
+package com.example.infrastructure.database.imports;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals of one import, safe to read from another thread while it runs.
+ */
+public final class UserImportProgress {
+
+    private final long startedAt = System.nanoTime();
+    private final AtomicLong lines = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong checkpoint = new AtomicLong();
+
+    void batchWritten(long batchLines, long batchImported, long batchInvalid, long batchDuplicates, long lastLine) {
+        lines.addAndGet(batchLines);
+        imported.addAndGet(batchImported);
+        invalid.addAndGet(batchInvalid);
+        duplicates.addAndGet(batchDuplicates);
+        batches.incrementAndGet();
+        checkpoint.set(lastLine);
+    }
+
+    void resumedAt(long line) {
+        checkpoint.set(line);
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(lines.get(), imported.get(), invalid.get(), duplicates.get(), batches.get(),
+                checkpoint.get(), Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * @param lines      lines processed by this run, excluding skipped header and checkpointed lines
+     * @param invalid    lines rejected because they could not be parsed or validated
+     * @param duplicates lines rejected because the email exists or repeats within the input
+     * @param checkpoint the last line number that is durably processed
+     */
+    public record Snapshot(long lines, long imported, long invalid, long duplicates, long batches,
+                           long checkpoint, Duration elapsed) {
+
+        public long rejected() {
+            return invalid + duplicates;
+        }
+
+        public double linesPerSecond() {
+            double seconds = elapsed.toNanos() / 1e9;
+            return seconds == 0 ? 0 : lines / seconds;
+        }
+    }
+}
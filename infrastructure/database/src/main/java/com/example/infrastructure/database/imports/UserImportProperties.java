@@ -0,0 +1,49 @@
+package com.example.infrastructure.database.imports;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.users.import")
+public class UserImportProperties {
+
+    // Rows validated, deduplicated and saved together; also the checkpoint granularity
+    private int batchSize = 1000;
+    // Threads validating batches; validation is CPU-bound regex work
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    // Batches read ahead of the writer before the reader blocks
+    private int queueCapacity = 8;
+    private Duration progressInterval = Duration.ofSeconds(10);
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getProgressInterval() {
+        return progressInterval;
+    }
+
+    public void setProgressInterval(Duration progressInterval) {
+        this.progressInterval = progressInterval;
+    }
+}
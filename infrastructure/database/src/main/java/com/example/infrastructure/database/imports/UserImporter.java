@@ -0,0 +1,305 @@
+package com.example.infrastructure.database.imports;
+
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams users from a CSV or NDJSON source into the {@link UserRepository}.
+ * <p>
+ * A reader thread cuts the input into batches and hands each to a fixed pool that parses
+ * and validates it, so the {@link Email} pattern match runs on every core. At most
+ * {@code queueCapacity} batches wait for the writer, which bounds memory whatever the
+ * input size. The calling thread takes the batches in input order, drops emails that
+ * already exist with one IN-list lookup per batch and saves the rest with
+ * {@link UserRepository#saveAll}, whose adapters write JDBC batches.
+ * <p>
+ * Each rejected line is written to the reject output with its line number and reason.
+ * After a batch commits and its rejects are flushed, the checkpoint moves to the batch's
+ * last line; a rerun with the same checkpoint skips what is already done. Call it outside
+ * a transaction, so every batch commits on its own.
+ * <p>
+ * Besides each import's own {@link UserImportProgress}, the totals of all imports since
+ * startup and the number running are kept for the {@code users.import.*} meters.
+ */
+public class UserImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImporter.class);
+
+    private final UserRepository userRepository;
+    private final UserImportProperties properties;
+    private final UserImportProgress totals = new UserImportProgress();
+    private final AtomicInteger running = new AtomicInteger();
+
+    public UserImporter(UserRepository userRepository, UserImportProperties properties) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Imports {@code input}, appending rejects to {@code rejects} and checkpointing next to
+     * it in {@code checkpoint}. The format follows the input's extension.
+     */
+    public UserImportProgress.Snapshot importFile(Path input, Path rejects, Path checkpoint) throws IOException {
+        try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             Writer rejectWriter = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            return importUsers(reader, UserImportFormat.forFileName(input.getFileName().toString()),
+                    rejectWriter, UserImportCheckpoint.file(checkpoint), new UserImportProgress());
+        }
+    }
+
+    public UserImportProgress.Snapshot importUsers(Reader input,
+                                                   UserImportFormat format,
+                                                   Writer rejects,
+                                                   UserImportCheckpoint checkpoint,
+                                                   UserImportProgress progress) throws IOException {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.warn("Importing users inside a transaction: batches commit, and checkpoints hold, only when it does");
+        }
+        running.incrementAndGet();
+        try {
+            return run(input, format, rejects, checkpoint, progress);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    /**
+     * Lines, imports and rejects of every import since startup; its checkpoint means nothing.
+     */
+    public UserImportProgress.Snapshot totals() {
+        return totals.snapshot();
+    }
+
+    public int running() {
+        return running.get();
+    }
+
+    private UserImportProgress.Snapshot run(Reader input,
+                                            UserImportFormat format,
+                                            Writer rejects,
+                                            UserImportCheckpoint checkpoint,
+                                            UserImportProgress progress) throws IOException {
+        long resumeAfter = checkpoint.load();
+        progress.resumedAt(resumeAfter);
+        if (resumeAfter > 0) {
+            log.info("Resuming user import after line {}", resumeAfter);
+        }
+
+        BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        try (ExecutorService validators = Executors.newFixedThreadPool(properties.getParallelism(),
+                Thread.ofPlatform().name("user-import-", 0).daemon().factory())) {
+            Thread reader = Thread.ofVirtual().name("user-import-reader").start(
+                    () -> read(input, format, resumeAfter, validators, pending));
+            try {
+                long nextReport = System.nanoTime() + properties.getProgressInterval().toNanos();
+                while (true) {
+                    Batch batch = await(pending.take());
+                    if (batch == Batch.END) {
+                        break;
+                    }
+                    write(batch, rejects, checkpoint, progress);
+                    if (System.nanoTime() - nextReport >= 0) {
+                        report(progress.snapshot());
+                        nextReport = System.nanoTime() + properties.getProgressInterval().toNanos();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("User import was interrupted", e);
+            } finally {
+                reader.interrupt();
+                pending.forEach(future -> future.cancel(true));
+                validators.shutdownNow();
+            }
+        }
+        UserImportProgress.Snapshot result = progress.snapshot();
+        report(result);
+        return result;
+    }
+
+    private void read(Reader input, UserImportFormat format, long resumeAfter,
+                      ExecutorService validators, BlockingQueue<Future<Batch>> pending) {
+        try {
+            BufferedReader lines = input instanceof BufferedReader buffered ? buffered : new BufferedReader(input);
+            List<Line> chunk = new ArrayList<>(properties.getBatchSize());
+            long number = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                number++;
+                if (number <= resumeAfter || line.isBlank() || (number == 1 && format.isHeader(line))) {
+                    continue;
+                }
+                chunk.add(new Line(number, line));
+                if (chunk.size() == properties.getBatchSize()) {
+                    List<Line> full = chunk;
+                    pending.put(validators.submit(() -> validate(full, format)));
+                    chunk = new ArrayList<>(properties.getBatchSize());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<Line> last = chunk;
+                pending.put(validators.submit(() -> validate(last, format)));
+            }
+            pending.put(CompletableFuture.completedFuture(Batch.END));
+        } catch (InterruptedException e) {
+            // The writer gave up and stopped taking batches
+        } catch (IOException | RuntimeException e) {
+            try {
+                pending.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Batch validate(List<Line> lines, UserImportFormat format) {
+        List<Candidate> candidates = new ArrayList<>(lines.size());
+        List<Reject> rejects = new ArrayList<>();
+        Set<Email> seen = new HashSet<>();
+        for (Line line : lines) {
+            try {
+                UserImportFormat.ImportedUser parsed = format.parse(line.text());
+                Email email = new Email(parsed.email() == null ? null : parsed.email().trim());
+                Name name = new Name(parsed.firstName(), parsed.lastName());
+                if (!seen.add(email)) {
+                    rejects.add(new Reject(line, "Duplicate email in input", true));
+                    continue;
+                }
+                candidates.add(new Candidate(line, UserId.generate(), email, name, parsed.active()));
+            } catch (IllegalArgumentException e) {
+                rejects.add(new Reject(line, e.getMessage(), false));
+            }
+        }
+        return new Batch(candidates, rejects, lines.get(lines.size() - 1).number(), lines.size());
+    }
+
+    private void write(Batch batch, Writer rejects, UserImportCheckpoint checkpoint, UserImportProgress progress)
+            throws IOException {
+        List<Reject> rejected = new ArrayList<>(batch.rejects());
+        Set<Email> existing = userRepository.findAllByEmail(
+                        batch.candidates().stream().map(Candidate::email).toList())
+                .stream()
+                .map(User::getEmail)
+                .collect(Collectors.toSet());
+        List<Candidate> fresh = new ArrayList<>(batch.candidates().size());
+        for (Candidate candidate : batch.candidates()) {
+            if (existing.contains(candidate.email())) {
+                rejected.add(new Reject(candidate.line(), "Email already exists", true));
+            } else {
+                fresh.add(candidate);
+            }
+        }
+
+        long imported = save(fresh, rejected);
+
+        rejected.sort((a, b) -> Long.compare(a.line().number(), b.line().number()));
+        for (Reject reject : rejected) {
+            rejects.write(reject.line().number() + "\t" + reject.reason().replace('\t', ' ') + "\t"
+                    + reject.line().text() + System.lineSeparator());
+        }
+        rejects.flush();
+        checkpoint.save(batch.lastLine());
+        long duplicates = rejected.stream().filter(Reject::duplicate).count();
+        progress.batchWritten(batch.lines(), imported, rejected.size() - duplicates, duplicates, batch.lastLine());
+        totals.batchWritten(batch.lines(), imported, rejected.size() - duplicates, duplicates, batch.lastLine());
+    }
+
+    /**
+     * Saves the batch in one call. If another writer took one of its emails since the
+     * lookup, the batch is retried row by row so only the conflicting rows are rejected.
+     * The retry builds its users afresh: the failed call has already pulled the events of
+     * the ones it was given.
+     */
+    private long save(List<Candidate> candidates, List<Reject> rejected) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        try {
+            userRepository.saveAll(candidates.stream().map(Candidate::user).toList());
+            return candidates.size();
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Batch ending at line {} hit a concurrent insert, saving row by row",
+                    candidates.get(candidates.size() - 1).line().number(), e);
+        }
+        long saved = 0;
+        for (Candidate candidate : candidates) {
+            try {
+                userRepository.save(candidate.user());
+                saved++;
+            } catch (DataIntegrityViolationException e) {
+                rejected.add(new Reject(candidate.line(), "Email already exists", true));
+            }
+        }
+        return saved;
+    }
+
+    private static Batch await(Future<Batch> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException("Cannot read the user import", io);
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("User import batch failed", e.getCause());
+        }
+    }
+
+    private static void report(UserImportProgress.Snapshot progress) {
+        log.info("User import: {} lines, {} imported, {} invalid, {} duplicates, checkpoint at line {} ({} lines/s)",
+                progress.lines(), progress.imported(), progress.invalid(), progress.duplicates(),
+                progress.checkpoint(), Math.round(progress.linesPerSecond()));
+    }
+
+    private record Line(long number, String text) {
+    }
+
+    private record Candidate(Line line, UserId id, Email email, Name name, boolean active) {
+
+        // A new user on every call, each with the events a new user starts with
+        User user() {
+            return new User(id, email, name, active);
+        }
+    }
+
+    private record Reject(Line line, String reason, boolean duplicate) {
+    }
+
+    private record Batch(List<Candidate> candidates, List<Reject> rejects, long lastLine, int lines) {
+
+        static final Batch END = new Batch(List.of(), List.of(), 0, 0);
+    }
+}
@@ -7,6 +7,8 @@ import com.example.domain.Name;
 import com.example.infrastructure.database.entities.UserEntity;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+
 @Component
 public class UserMapper {
 
@@ -15,11 +17,21 @@ public class UserMapper {
             return null;
         }
 
+        // Rows were validated and normalized on the way in, so skip re-validating them
         UserId userId = new UserId(entity.getId());
-        Email email = new Email(entity.getEmail());
-        Name name = new Name(entity.getFirstName(), entity.getLastName());
+        Email email = Email.fromTrusted(entity.getEmail());
+        Name name = Name.fromTrusted(entity.getFirstName(), entity.getLastName());
 
-        return new User(userId, email, name, entity.getActive());
+        // Timestamps are only missing on an entity persisted but not yet flushed. The version is
+        // always carried over, since a user without one is saved as a new user
+        LocalDateTime createdAt = entity.getCreatedAt();
+        LocalDateTime updatedAt = entity.getUpdatedAt();
+        if (createdAt == null || updatedAt == null) {
+            LocalDateTime now = LocalDateTime.now();
+            createdAt = createdAt != null ? createdAt : now;
+            updatedAt = updatedAt != null ? updatedAt : now;
+        }
+        return new User(userId, email, name, entity.getActive(), createdAt, updatedAt, entity.getVersion());
     }
 
     public UserEntity toEntity(User user) {
@@ -35,6 +47,7 @@ public class UserMapper {
         );
 
         entity.setActive(user.isActive());
+        entity.setVersion(user.getVersion());
 
         return entity;
     }
@@ -49,4 +62,4 @@ public class UserMapper {
         entity.setLastName(user.getName().getLastName());
         entity.setActive(user.isActive());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,640 @@
+package com.example.infrastructure.database.memory;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserChange;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.application.dto.UserSummary;
+import com.example.application.dto.UserWatermark;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.repositories.UserBulkProperties;
+import com.example.infrastructure.database.repositories.UserChangeFeedProperties;
+import com.example.infrastructure.database.repositories.UserUpsertWriter;
+import com.example.infrastructure.database.support.ChunkedWrites;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserRepository} held entirely in memory, for edge deployments and load tests that
+ * run without a database. Durability comes from a {@link UserLog}, replayed on startup.
+ * <p>
+ * Users live in a {@link ConcurrentHashMap} keyed by id, with secondary indexes kept next
+ * to it: email to id, id order and creation order for keyset pages, the active users in id
+ * order, the same lower-cased trigram postings {@code NgramUserNameSearch} uses for name
+ * searches, and the change feed, which orders the users and the tombstones deletions leave
+ * behind by change time. Reads never block. Writes are serialized by one lock, which keeps the
+ * indexes and the log in the same order; a read racing a write may see it in one index
+ * before another. The stored users are never handed out, callers get copies.
+ * <p>
+ * There is no outbox here: the events a saved user raised are discarded.
+ */
+public class InMemoryUserRepository implements UserRepository, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryUserRepository.class);
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int GRAM = 3;
+    private static final Comparator<User> BY_NAME = Comparator
+            .comparing((User user) -> user.getName().getLastName())
+            .thenComparing(user -> user.getName().getFirstName())
+            .thenComparing(user -> user.getId().getValue());
+
+    private final UserLog userLog;
+    private final long snapshotEvery;
+    private final int maxSearchResults;
+    private final UserBulkProperties bulkProperties;
+    private final UserChangeFeedProperties changeFeedProperties;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final Map<UserId, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, User> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<TimeKey, User> byCreatedAt = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<TimeKey, UserChange> changes = new ConcurrentSkipListMap<>();
+    private final Map<String, LocalDateTime> tombstonedAt = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, User> activeById = new ConcurrentSkipListMap<>();
+    private final Map<Email, UserId> byEmail = new ConcurrentHashMap<>();
+    private final Map<String, Set<UserId>> nameGrams = new ConcurrentHashMap<>();
+    private final AtomicLong activeCount = new AtomicLong();
+
+    /**
+     * Replays {@code userLog} and takes a snapshot once {@code snapshotEvery} entries
+     * were appended since the last one.
+     */
+    public InMemoryUserRepository(UserLog userLog, long snapshotEvery, int maxSearchResults,
+                                  UserBulkProperties bulkProperties,
+                                  UserChangeFeedProperties changeFeedProperties) {
+        this.userLog = userLog;
+        this.snapshotEvery = snapshotEvery;
+        this.maxSearchResults = maxSearchResults;
+        this.bulkProperties = bulkProperties;
+        this.changeFeedProperties = changeFeedProperties;
+
+        long started = System.nanoTime();
+        long entries = userLog.replay(this::index, this::tombstone);
+        log.info("Replayed {} user log entries into {} users in {} ms",
+                entries, users.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public Optional<User> findById(UserId id) {
+        return Optional.ofNullable(users.get(id)).map(InMemoryUserRepository::copy);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        return Optional.ofNullable(byEmail.get(email))
+                .map(users::get)
+                // The index may be a step ahead of or behind a concurrent write
+                .filter(user -> user.getEmail().equals(email))
+                .map(InMemoryUserRepository::copy);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return byId.values().stream().map(InMemoryUserRepository::copy).toList();
+    }
+
+    @Override
+    public List<User> findActiveUsers() {
+        return activeById.values().stream().map(InMemoryUserRepository::copy).toList();
+    }
+
+    @Override
+    public KeysetPage<User> findAll(UserCursor cursor, int limit) {
+        return page(cursor, limit, false, InMemoryUserRepository::copy, user -> user.getId().getValue(), User::getCreatedAt);
+    }
+
+    @Override
+    public KeysetPage<User> findActiveUsers(UserCursor cursor, int limit) {
+        return page(cursor, limit, true, InMemoryUserRepository::copy, user -> user.getId().getValue(), User::getCreatedAt);
+    }
+
+    @Override
+    public KeysetPage<UserSummary> findSummaries(UserCursor cursor, int limit) {
+        return page(cursor, limit, false, InMemoryUserRepository::summary, UserSummary::id, UserSummary::createdAt);
+    }
+
+    @Override
+    public KeysetPage<UserSummary> findActiveSummaries(UserCursor cursor, int limit) {
+        return page(cursor, limit, true, InMemoryUserRepository::summary, UserSummary::id, UserSummary::createdAt);
+    }
+
+    /**
+     * Weakly consistent: the stream reflects writes made while it is consumed, or not.
+     * Holds no resources, but closing it is harmless.
+     */
+    @Override
+    public Stream<User> streamAll() {
+        return byId.values().stream().map(InMemoryUserRepository::copy);
+    }
+
+    @Override
+    public Stream<User> streamActiveUsers() {
+        return activeById.values().stream().map(InMemoryUserRepository::copy);
+    }
+
+    @Override
+    public Stream<User> streamMatching(Boolean active, String emailDomain) {
+        String suffix = emailDomain == null ? null : "@" + emailDomain(emailDomain);
+        return (Boolean.TRUE.equals(active) ? activeById : byId).values().stream()
+                .filter(user -> active == null || user.isActive() == active)
+                .filter(user -> suffix == null || user.getEmail().getValue().endsWith(suffix))
+                .map(InMemoryUserRepository::copy);
+    }
+
+    /**
+     * Writes take their change time under the write lock, so change times follow the write
+     * order; the settle lag still covers a read racing the write of several users.
+     */
+    @Override
+    public UserChangePage findChangedSince(UserWatermark watermark, int limit) {
+        int pageSize = pageLimit(limit);
+        LocalDateTime until = LocalDateTime.now().minus(changeFeedProperties.getSettleLag());
+        List<UserChange> page = changes
+                .tailMap(new TimeKey(watermark.changedAt(), watermark.id()), false)
+                .headMap(new TimeKey(until, ""), false)
+                .values().stream()
+                .limit(pageSize)
+                .map(change -> change.isDeleted() ? change : UserChange.updated(copy(change.user())))
+                .toList();
+        return UserChangePage.merge(page, pageSize, page.size() == pageSize, watermark);
+    }
+
+    @Override
+    public User save(User user) {
+        return saveAll(List.of(user)).get(0);
+    }
+
+    /**
+     * Checks every user first, so a version conflict or a duplicate email saves none of them.
+     */
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        List<User> all = List.copyOf(users);
+        if (all.isEmpty()) {
+            return List.of();
+        }
+        writeLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Email, UserId> claimed = new HashMap<>();
+            for (User user : all) {
+                check(user);
+                UserId previous = claimed.put(user.getEmail(), user.getId());
+                if (previous != null && !previous.equals(user.getId())) {
+                    throw duplicateEmail(user.getEmail());
+                }
+            }
+
+            List<User> saved = new ArrayList<>(all.size());
+            for (User user : all) {
+                user.pullEvents();
+                long version = user.getVersion() == null ? 0L : user.getVersion() + 1;
+                User stored = new User(user.getId(), user.getEmail(), user.getName(), user.isActive(),
+                        user.getCreatedAt(), now, version);
+                write(stored);
+                saved.add(copy(stored));
+            }
+            return saved;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long upsertAll(Collection<User> users) {
+        List<User> all = UserUpsertWriter.checked(users);
+        writeLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Email, UserId> claimed = new HashMap<>();
+            List<User> newer = new ArrayList<>(all.size());
+            for (User user : all) {
+                User current = this.users.get(user.getId());
+                if (current != null && current.getVersion() >= user.getVersion()) {
+                    continue;
+                }
+                UserId owner = byEmail.get(user.getEmail());
+                UserId previous = claimed.put(user.getEmail(), user.getId());
+                if ((owner != null && !owner.equals(user.getId())) || previous != null) {
+                    throw duplicateEmail(user.getEmail());
+                }
+                newer.add(user);
+            }
+
+            for (User user : newer) {
+                write(new User(user.getId(), user.getEmail(), user.getName(), user.isActive(),
+                        user.getCreatedAt(), now, user.getVersion()));
+            }
+            return newer.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<User> findAllById(Collection<UserId> ids) {
+        return ids.stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(InMemoryUserRepository::copy)
+                .toList();
+    }
+
+    @Override
+    public List<User> findAllByEmail(Collection<Email> emails) {
+        return emails.stream()
+                .distinct()
+                .map(this::findByEmail)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    @Override
+    public void delete(UserId id) {
+        writeLock.lock();
+        try {
+            if (users.containsKey(id)) {
+                LocalDateTime now = LocalDateTime.now();
+                userLog.delete(id, now);
+                tombstone(id, now);
+                snapshotIfDue();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Chunked like the database adapters, so the write lock is released between chunks.
+     */
+    @Override
+    public long deactivateByEmailDomain(String domain) {
+        String suffix = "@" + emailDomain(domain);
+        Predicate<User> matches = user -> user.isActive() && user.getEmail().getValue().endsWith(suffix);
+        List<UserId> ids = activeById.values().stream().filter(matches).map(User::getId).toList();
+        return setActive(ids, matches, false);
+    }
+
+    @Override
+    public long activateAll(Collection<UserId> ids) {
+        List<UserId> distinct = ids.stream().distinct().toList();
+        return setActive(distinct, user -> !user.isActive(), true);
+    }
+
+    @Override
+    public long purgeInactiveUpdatedBefore(LocalDateTime cutoff) {
+        Predicate<User> matches = user -> !user.isActive() && user.getUpdatedAt().isBefore(cutoff);
+        List<UserId> ids = byId.values().stream().filter(matches).map(User::getId).toList();
+        return ChunkedWrites.byChunks(ids, bulkProperties.getChunkSize(), bulkProperties.getPause(),
+                chunk -> underLock(chunk, matches, user -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    userLog.delete(user.getId(), now);
+                    tombstone(user.getId(), now);
+                }));
+    }
+
+    /**
+     * Takes a snapshot when tombstones were deleted, so the log and the snapshot drop them too.
+     */
+    @Override
+    public long deleteTombstonesBefore(LocalDateTime cutoff) {
+        writeLock.lock();
+        try {
+            List<Map.Entry<String, LocalDateTime>> expired = tombstonedAt.entrySet().stream()
+                    .filter(entry -> entry.getValue().isBefore(cutoff))
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                    .toList();
+            for (Map.Entry<String, LocalDateTime> tombstone : expired) {
+                tombstonedAt.remove(tombstone.getKey());
+                changes.remove(new TimeKey(tombstone.getValue(), tombstone.getKey()));
+            }
+            if (!expired.isEmpty()) {
+                userLog.snapshot(byId.values(), tombstones());
+            }
+            return expired.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean existsById(UserId id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        return byEmail.containsKey(email);
+    }
+
+    @Override
+    public long count() {
+        return users.size();
+    }
+
+    @Override
+    public long countActiveUsers() {
+        return activeCount.get();
+    }
+
+    @Override
+    public List<User> findByNameContaining(String name) {
+        return findByNameContaining(name, 0, maxSearchResults);
+    }
+
+    @Override
+    public List<User> findByNameContaining(String name, int offset, int limit) {
+        return search(name, offset, limit).map(InMemoryUserRepository::copy).toList();
+    }
+
+    @Override
+    public List<UserSummary> findSummariesByNameContaining(String name, int offset, int limit) {
+        return search(name, offset, limit).map(InMemoryUserRepository::summary).toList();
+    }
+
+    /**
+     * Takes a snapshot, so the next start replays no log.
+     */
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (userLog.entries() > 0) {
+                userLog.snapshot(byId.values(), tombstones());
+            }
+            userLog.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private <T> KeysetPage<T> page(UserCursor cursor, int limit, boolean activeOnly,
+                                   Function<User, T> mapper,
+                                   Function<T, String> id,
+                                   Function<T, LocalDateTime> createdAt) {
+        int pageSize = pageLimit(limit);
+        Collection<User> ordered = switch (cursor.sortKey()) {
+            case ID -> (activeOnly ? activeById : byId).tailMap(cursor.isFirst() ? "" : cursor.lastId(), false).values();
+            case CREATED_AT -> cursor.isFirst()
+                    ? byCreatedAt.values()
+                    : byCreatedAt.tailMap(new TimeKey(cursor.lastCreatedAt(), cursor.lastId()), false).values();
+        };
+        List<T> items = ordered.stream()
+                .filter(user -> !activeOnly || user.isActive())
+                .limit(pageSize)
+                .map(mapper)
+                .toList();
+        if (items.size() < pageSize) {
+            return new KeysetPage<>(items, null);
+        }
+        T last = items.get(items.size() - 1);
+        return new KeysetPage<>(items, cursor.sortKey() == UserSortKey.ID
+                ? UserCursor.afterId(id.apply(last))
+                : UserCursor.afterCreatedAt(createdAt.apply(last), id.apply(last)));
+    }
+
+    private Stream<User> search(String name, int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Search offset cannot be negative");
+        }
+        int pageSize = Math.min(pageLimit(limit), maxSearchResults);
+        if (name == null || name.isBlank()) {
+            return Stream.empty();
+        }
+        String needle = name.trim().toLowerCase(Locale.ROOT);
+        return candidates(needle).stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .filter(user -> user.getName().getFirstName().toLowerCase(Locale.ROOT).contains(needle)
+                        || user.getName().getLastName().toLowerCase(Locale.ROOT).contains(needle))
+                .sorted(BY_NAME)
+                .skip(offset)
+                .limit(pageSize);
+    }
+
+    // The smallest posting list of the needle's trigrams; too short a needle scans every user
+    private Collection<UserId> candidates(String needle) {
+        if (needle.length() < GRAM) {
+            return users.keySet();
+        }
+        Set<UserId> smallest = null;
+        for (String gram : grams(needle)) {
+            Set<UserId> posting = nameGrams.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    private long setActive(List<UserId> ids, Predicate<User> matches, boolean active) {
+        return ChunkedWrites.byChunks(ids, bulkProperties.getChunkSize(), bulkProperties.getPause(),
+                chunk -> underLock(chunk, matches, user -> {
+                    User changed = new User(user.getId(), user.getEmail(), user.getName(), active,
+                            user.getCreatedAt(), LocalDateTime.now(), user.getVersion() + 1);
+                    userLog.put(changed);
+                    index(changed);
+                }));
+    }
+
+    // Applies the write to those users of the chunk that still match once the lock is held
+    private int underLock(List<UserId> chunk, Predicate<User> matches, Consumer<User> write) {
+        writeLock.lock();
+        try {
+            int written = 0;
+            for (UserId id : chunk) {
+                User user = users.get(id);
+                if (user != null && matches.test(user)) {
+                    write.accept(user);
+                    written++;
+                }
+            }
+            snapshotIfDue();
+            return written;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void check(User user) {
+        User current = users.get(user.getId());
+        if (user.getVersion() == null) {
+            if (current != null) {
+                throw new DuplicateKeyException("User " + user.getId().getValue() + " already exists");
+            }
+        } else if (current == null) {
+            throw new OptimisticLockingFailureException("User " + user.getId().getValue() + " was deleted concurrently");
+        } else if (!user.getVersion().equals(current.getVersion())) {
+            throw new OptimisticLockingFailureException(
+                    "User " + user.getId().getValue() + " was modified concurrently (expected version "
+                            + user.getVersion() + " but found " + current.getVersion() + ")");
+        }
+        UserId owner = byEmail.get(user.getEmail());
+        if (owner != null && !owner.equals(user.getId())) {
+            throw duplicateEmail(user.getEmail());
+        }
+    }
+
+    private void write(User stored) {
+        userLog.put(stored);
+        index(stored);
+        snapshotIfDue();
+    }
+
+    private void snapshotIfDue() {
+        if (userLog.entries() < snapshotEvery) {
+            return;
+        }
+        long started = System.nanoTime();
+        userLog.snapshot(byId.values(), tombstones());
+        log.debug("Took a snapshot of {} users in {} ms", users.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void index(User user) {
+        User previous = users.put(user.getId(), user);
+        if (previous != null) {
+            unindexSecondary(previous);
+        }
+        String id = user.getId().getValue();
+        byId.put(id, user);
+        byCreatedAt.put(new TimeKey(user.getCreatedAt(), id), user);
+        changes.put(new TimeKey(user.getUpdatedAt(), id), UserChange.updated(user));
+        byEmail.put(user.getEmail(), user.getId());
+        if (user.isActive()) {
+            activeById.put(id, user);
+            activeCount.incrementAndGet();
+        }
+        for (String gram : grams(user)) {
+            nameGrams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(user.getId());
+        }
+    }
+
+    private void unindex(UserId id) {
+        User previous = users.remove(id);
+        if (previous != null) {
+            unindexSecondary(previous);
+            byId.remove(id.getValue());
+            byCreatedAt.remove(new TimeKey(previous.getCreatedAt(), id.getValue()));
+        }
+    }
+
+    // A deletion from before the change feed has no time and leaves no tombstone; a re-created
+    // user deleted again replaces the tombstone its earlier deletion left
+    private void tombstone(UserId id, LocalDateTime deletedAt) {
+        unindex(id);
+        if (deletedAt != null) {
+            LocalDateTime previous = tombstonedAt.put(id.getValue(), deletedAt);
+            if (previous != null) {
+                changes.remove(new TimeKey(previous, id.getValue()));
+            }
+            changes.put(new TimeKey(deletedAt, id.getValue()), UserChange.deleted(id.getValue(), deletedAt));
+        }
+    }
+
+    private List<UserChange> tombstones() {
+        return changes.values().stream().filter(UserChange::isDeleted).toList();
+    }
+
+    // Everything but the primary map and the ordered ids, which a replacing write overwrites
+    private void unindexSecondary(User user) {
+        byEmail.remove(user.getEmail(), user.getId());
+        changes.remove(new TimeKey(user.getUpdatedAt(), user.getId().getValue()));
+        if (activeById.remove(user.getId().getValue()) != null) {
+            activeCount.decrementAndGet();
+        }
+        for (String gram : grams(user)) {
+            Set<UserId> posting = nameGrams.get(gram);
+            if (posting != null) {
+                posting.remove(user.getId());
+                if (posting.isEmpty()) {
+                    nameGrams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(User user) {
+        Set<String> grams = grams(user.getName().getFirstName().toLowerCase(Locale.ROOT));
+        grams.addAll(grams(user.getName().getLastName().toLowerCase(Locale.ROOT)));
+        return grams;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static int pageLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private static String emailDomain(String domain) {
+        String normalized = domain == null ? "" : domain.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || normalized.contains("@")) {
+            throw new IllegalArgumentException("Invalid email domain: " + domain);
+        }
+        return normalized;
+    }
+
+    private static DataIntegrityViolationException duplicateEmail(Email email) {
+        return new DataIntegrityViolationException("Email " + email.getValue() + " is already taken");
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getEmail(), user.getName(), user.isActive(),
+                user.getCreatedAt(), user.getUpdatedAt(), user.getVersion());
+    }
+
+    private static UserSummary summary(User user) {
+        return new UserSummary(user.getId().getValue(), user.getEmail().getValue(), user.getName().getFirstName(),
+                user.getName().getLastName(), user.isActive(), user.getCreatedAt());
+    }
+
+    private record TimeKey(LocalDateTime time, String id) implements Comparable<TimeKey> {
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int byTime = time.compareTo(other.time);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.infrastructure.database.memory;
+
+import com.example.application.dto.UserChange;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable state of {@link InMemoryUserRepository}: a compacted snapshot plus an append-only
+ * log of the writes made since, both in one directory.
+ * <p>
+ * The log is a memory-mapped file that grows by doubling. Every entry carries its length
+ * and a CRC32C, so replay stops at the first torn or zeroed entry and appending resumes
+ * there. An entry is in the page cache once {@link #put(User)} returns, so it survives a
+ * crash of the process; it survives a crash of the machine only once forced to disk, which
+ * happens on every append when {@code force} is set and otherwise on snapshot and close.
+ * <p>
+ * A snapshot holds one entry per user, one per tombstone left by a deletion, and the
+ * generation of the log it covers. It is
+ * written next to the live one and moved over it atomically, then the log is cleared and
+ * starts the next generation; a log whose generation the snapshot already covers is
+ * ignored on replay, so a crash between the two steps loses nothing. Not thread-safe:
+ * the repository serializes its writes.
+ */
+public final class UserLog implements AutoCloseable {
+
+    private static final int LOG_MAGIC = 0x55534c47;
+    private static final int SNAPSHOT_MAGIC = 0x55535350;
+    // Magic and generation
+    private static final int HEADER = Integer.BYTES + Long.BYTES;
+    // Length and checksum of each entry
+    private static final int ENTRY_HEADER = Integer.BYTES + Integer.BYTES;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int SNAPSHOT_BUFFER = 1 << 20;
+
+    private final Path logFile;
+    private final Path snapshotFile;
+    private final FileChannel channel;
+    private final boolean force;
+    private final ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+    private MappedByteBuffer log;
+    private long generation;
+    private long entries;
+
+    private UserLog(Path directory, FileChannel channel, int initialSize, boolean force) throws IOException {
+        this.logFile = directory.resolve("users.log");
+        this.snapshotFile = directory.resolve("users.snapshot");
+        this.channel = channel;
+        this.force = force;
+        this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(initialSize, channel.size()));
+    }
+
+    /**
+     * Opens the log in {@code directory}, creating it when missing. Call {@link #replay}
+     * before appending.
+     */
+    public static UserLog open(Path directory, int initialSize, boolean force) {
+        if (initialSize < HEADER + ENTRY_HEADER) {
+            throw new IllegalArgumentException("Initial log size is too small: " + initialSize);
+        }
+        try {
+            Files.createDirectories(directory);
+            FileChannel channel = FileChannel.open(directory.resolve("users.log"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new UserLog(directory, channel, initialSize, force);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open user log in " + directory, e);
+        }
+    }
+
+    /**
+     * Feeds the snapshot and then the log to the callbacks, in the order they were written.
+     * A deletion comes with its time. Returns the number of entries read.
+     */
+    public long replay(Consumer<User> put, BiConsumer<UserId, LocalDateTime> delete) {
+        long read = 0;
+        long covered = 0;
+        if (Files.exists(snapshotFile)) {
+            try (FileChannel snapshot = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = snapshot.map(FileChannel.MapMode.READ_ONLY, 0, snapshot.size());
+                if (buffer.getInt() != SNAPSHOT_MAGIC) {
+                    throw new IllegalStateException("Not a user snapshot: " + snapshotFile);
+                }
+                covered = buffer.getLong();
+                while (buffer.hasRemaining()) {
+                    ByteBuffer entry = nextEntry(buffer);
+                    if (entry == null) {
+                        throw new IllegalStateException("Corrupt user snapshot " + snapshotFile + " at " + buffer.position());
+                    }
+                    apply(entry, put, delete);
+                    read++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read user snapshot " + snapshotFile, e);
+            }
+        }
+
+        log.position(0);
+        int magic = log.getInt();
+        long logGeneration = log.getLong();
+        if (magic != LOG_MAGIC && (magic != 0 || logGeneration != 0)) {
+            throw new IllegalStateException("Not a user log: " + logFile);
+        }
+        boolean stale = magic == 0 || logGeneration <= covered;
+        while (true) {
+            int start = log.position();
+            ByteBuffer entry = nextEntry(log);
+            if (entry == null) {
+                log.position(start);
+                break;
+            }
+            if (stale) {
+                continue;
+            }
+            apply(entry, put, delete);
+            entries++;
+            read++;
+        }
+        clearTail();
+        if (stale) {
+            // A new log, or one the snapshot already holds
+            reset(covered + 1);
+        } else {
+            generation = logGeneration;
+        }
+        return read;
+    }
+
+    public void put(User user) {
+        scratch.clear();
+        scratch.put(PUT);
+        writeUser(scratch, user);
+        append();
+    }
+
+    public void delete(UserId id, LocalDateTime deletedAt) {
+        scratch.clear();
+        writeDelete(scratch, id.getValue(), deletedAt);
+        append();
+    }
+
+    /**
+     * Entries appended since the last snapshot.
+     */
+    public long entries() {
+        return entries;
+    }
+
+    /**
+     * Replaces the snapshot with {@code users} and {@code tombstones}, which must be the state
+     * after every entry appended so far, and clears the log. The tombstones go first, so a
+     * user re-created after a deletion is replayed after its tombstone.
+     */
+    public void snapshot(Collection<User> users, Collection<UserChange> tombstones) {
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel snapshot = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_BUFFER);
+            buffer.putInt(SNAPSHOT_MAGIC).putLong(generation);
+            for (UserChange tombstone : tombstones) {
+                scratch.clear();
+                writeDelete(scratch, tombstone.id(), tombstone.changedAt());
+                writeSnapshotEntry(buffer, snapshot);
+            }
+            for (User user : users) {
+                scratch.clear();
+                scratch.put(PUT);
+                writeUser(scratch, user);
+                writeSnapshotEntry(buffer, snapshot);
+            }
+            drain(buffer, snapshot);
+            snapshot.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write user snapshot " + temporary, e);
+        }
+        try {
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replace user snapshot " + snapshotFile, e);
+        }
+        reset(generation + 1);
+    }
+
+    @Override
+    public void close() {
+        try {
+            log.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close user log " + logFile, e);
+        }
+    }
+
+    private void append() {
+        scratch.flip();
+        int size = ENTRY_HEADER + scratch.remaining();
+        // Keeps room for a zero length after the entry, which marks the end on replay
+        ensureCapacity(size + Integer.BYTES);
+        int start = log.position();
+        writeEntry(log, scratch);
+        if (force) {
+            log.force(start, size);
+        }
+        entries++;
+    }
+
+    private void ensureCapacity(int size) {
+        if (log.remaining() >= size) {
+            return;
+        }
+        int position = log.position();
+        long capacity = Math.max(2L * log.capacity(), (long) position + size);
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("User log " + logFile + " is full; take a snapshot more often");
+        }
+        try {
+            log.force();
+            log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            log.position(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow user log " + logFile, e);
+        }
+    }
+
+    // Zeroes the entries, then stamps the new generation, so a crash part way leaves a log replay ignores
+    private void reset(long newGeneration) {
+        int end = Math.max(log.position(), HEADER);
+        for (int i = end - 1; i >= HEADER; i--) {
+            log.put(i, (byte) 0);
+        }
+        log.putLong(Integer.BYTES, newGeneration);
+        log.putInt(0, LOG_MAGIC);
+        log.force();
+        log.position(HEADER);
+        generation = newGeneration;
+        entries = 0;
+    }
+
+    // Zeroes whatever a torn write left after the last whole entry, which only a crash leaves behind
+    private void clearTail() {
+        int position = log.position();
+        if (log.remaining() < Integer.BYTES || log.getInt(position) == 0) {
+            return;
+        }
+        for (int i = position; i < log.limit(); i++) {
+            log.put(i, (byte) 0);
+        }
+        log.force();
+    }
+
+    private void writeSnapshotEntry(ByteBuffer buffer, FileChannel snapshot) throws IOException {
+        scratch.flip();
+        if (buffer.remaining() < ENTRY_HEADER + scratch.remaining()) {
+            drain(buffer, snapshot);
+        }
+        writeEntry(buffer, scratch);
+    }
+
+    private static void apply(ByteBuffer entry, Consumer<User> put, BiConsumer<UserId, LocalDateTime> delete) {
+        byte type = entry.get();
+        if (type == PUT) {
+            put.accept(readUser(entry));
+        } else if (type == DELETE) {
+            UserId id = new UserId(readString(entry));
+            // Deletions written before the change feed carry no time and leave no tombstone
+            delete.accept(id, entry.hasRemaining() ? readTime(entry) : null);
+        } else {
+            throw new IllegalStateException("Unknown user log entry type " + type);
+        }
+    }
+
+    private static void writeEntry(ByteBuffer target, ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        target.putInt(body.remaining());
+        target.putInt((int) crc.getValue());
+        target.put(body);
+    }
+
+    // The body of the entry at the buffer's position, or null at the end or at a damaged entry
+    private static ByteBuffer nextEntry(ByteBuffer buffer) {
+        if (buffer.remaining() < ENTRY_HEADER) {
+            return null;
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            return null;
+        }
+        ByteBuffer body = buffer.slice(buffer.position(), length);
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        buffer.position(buffer.position() + length);
+        return body;
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void writeDelete(ByteBuffer buffer, String id, LocalDateTime deletedAt) {
+        buffer.put(DELETE);
+        writeString(buffer, id);
+        writeTime(buffer, deletedAt);
+    }
+
+    private static void writeUser(ByteBuffer buffer, User user) {
+        writeString(buffer, user.getId().getValue());
+        writeString(buffer, user.getEmail().getValue());
+        writeString(buffer, user.getName().getFirstName());
+        writeString(buffer, user.getName().getLastName());
+        buffer.put(user.isActive() ? (byte) 1 : 0);
+        writeTime(buffer, user.getCreatedAt());
+        writeTime(buffer, user.getUpdatedAt());
+        buffer.putLong(user.getVersion());
+    }
+
+    private static User readUser(ByteBuffer buffer) {
+        try {
+            UserId id = new UserId(readString(buffer));
+            Email email = Email.fromTrusted(readString(buffer));
+            Name name = Name.fromTrusted(readString(buffer), readString(buffer));
+            boolean active = buffer.get() == 1;
+            LocalDateTime createdAt = readTime(buffer);
+            LocalDateTime updatedAt = readTime(buffer);
+            return new User(id, email, name, active, createdAt, updatedAt, buffer.getLong());
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("Truncated user entry", e);
+        }
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(ByteBuffer buffer, LocalDateTime time) {
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+}
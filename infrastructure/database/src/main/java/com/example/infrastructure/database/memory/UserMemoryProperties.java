@@ -0,0 +1,60 @@
+package com.example.infrastructure.database.memory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties(prefix = "app.users.memory")
+public class UserMemoryProperties {
+
+    private boolean enabled = false;
+    // Holds the snapshot and the log
+    private Path directory = Path.of("data", "users");
+    // The log is mapped at this size and doubles when full
+    private DataSize initialLogSize = DataSize.ofMegabytes(64);
+    // Log entries after which a snapshot is taken and the log cleared
+    private long snapshotEvery = 100_000;
+    // Forces every entry to disk, so a machine crash loses nothing; a process crash never does
+    private boolean forceWrites = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getInitialLogSize() {
+        return initialLogSize;
+    }
+
+    public void setInitialLogSize(DataSize initialLogSize) {
+        this.initialLogSize = initialLogSize;
+    }
+
+    public long getSnapshotEvery() {
+        return snapshotEvery;
+    }
+
+    public void setSnapshotEvery(long snapshotEvery) {
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    public boolean isForceWrites() {
+        return forceWrites;
+    }
+
+    public void setForceWrites(boolean forceWrites) {
+        this.forceWrites = forceWrites;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.infrastructure.database.metrics;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSummary;
+import com.example.application.dto.UserWatermark;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.repositories.ForwardingUserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Times every call of the {@link UserRepository} port, per method.
+ * <p>
+ * {@value #CALLS} is a timer tagged with the method and its outcome, which gives call
+ * rates, error counts by exception type and latency percentiles. {@value #ROWS} records
+ * how many users or summaries each read returned; for streams it is recorded when the
+ * stream is closed. Time spent mapping rows is recorded separately by the mapper.
+ */
+public class MeteredUserRepository extends ForwardingUserRepository {
+
+    public static final String CALLS = "users.repository.calls";
+    public static final String ROWS = "users.repository.rows";
+
+    private static final ToIntFunction<Optional<?>> OPTIONAL_ROWS = result -> result.isPresent() ? 1 : 0;
+    private static final ToIntFunction<List<?>> LIST_ROWS = List::size;
+    private static final ToIntFunction<KeysetPage<?>> PAGE_ROWS = page -> page.items().size();
+    private static final ToIntFunction<UserChangePage> CHANGE_ROWS = page -> page.changes().size();
+
+    private final MeterRegistry registry;
+    private final Map<String, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public MeteredUserRepository(UserRepository delegate, MeterRegistry registry) {
+        super(delegate);
+        this.registry = registry;
+    }
+
+    @Override
+    public Optional<User> findById(UserId id) {
+        return record("findById", () -> delegate.findById(id), OPTIONAL_ROWS);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        return record("findByEmail", () -> delegate.findByEmail(email), OPTIONAL_ROWS);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return record("findAll", delegate::findAll, LIST_ROWS);
+    }
+
+    @Override
+    public List<User> findActiveUsers() {
+        return record("findActiveUsers", delegate::findActiveUsers, LIST_ROWS);
+    }
+
+    @Override
+    public KeysetPage<User> findAll(UserCursor cursor, int limit) {
+        return record("findAllPage", () -> delegate.findAll(cursor, limit), PAGE_ROWS);
+    }
+
+    @Override
+    public KeysetPage<User> findActiveUsers(UserCursor cursor, int limit) {
+        return record("findActiveUsersPage", () -> delegate.findActiveUsers(cursor, limit), PAGE_ROWS);
+    }
+
+    @Override
+    public KeysetPage<UserSummary> findSummaries(UserCursor cursor, int limit) {
+        return record("findSummaries", () -> delegate.findSummaries(cursor, limit), PAGE_ROWS);
+    }
+
+    @Override
+    public KeysetPage<UserSummary> findActiveSummaries(UserCursor cursor, int limit) {
+        return record("findActiveSummaries", () -> delegate.findActiveSummaries(cursor, limit), PAGE_ROWS);
+    }
+
+    /**
+     * The timer covers opening the stream; the rows are counted as they are consumed.
+     */
+    @Override
+    public Stream<User> streamAll() {
+        return counted("streamAll", delegate::streamAll);
+    }
+
+    @Override
+    public Stream<User> streamActiveUsers() {
+        return counted("streamActiveUsers", delegate::streamActiveUsers);
+    }
+
+    @Override
+    public Stream<User> streamMatching(Boolean active, String emailDomain) {
+        return counted("streamMatching", () -> delegate.streamMatching(active, emailDomain));
+    }
+
+    @Override
+    public UserChangePage findChangedSince(UserWatermark watermark, int limit) {
+        return record("findChangedSince", () -> delegate.findChangedSince(watermark, limit), CHANGE_ROWS);
+    }
+
+    @Override
+    public User save(User user) {
+        return record("save", () -> delegate.save(user), null);
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        return record("saveAll", () -> delegate.saveAll(users), LIST_ROWS);
+    }
+
+    @Override
+    public long upsertAll(Collection<User> users) {
+        return record("upsertAll", () -> delegate.upsertAll(users), null);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<UserId> ids) {
+        return record("findAllById", () -> delegate.findAllById(ids), LIST_ROWS);
+    }
+
+    @Override
+    public List<User> findAllByEmail(Collection<Email> emails) {
+        return record("findAllByEmail", () -> delegate.findAllByEmail(emails), LIST_ROWS);
+    }
+
+    @Override
+    public void delete(UserId id) {
+        record("delete", () -> {
+            delegate.delete(id);
+            return null;
+        }, null);
+    }
+
+    @Override
+    public long deactivateByEmailDomain(String domain) {
+        return record("deactivateByEmailDomain", () -> delegate.deactivateByEmailDomain(domain), null);
+    }
+
+    @Override
+    public long activateAll(Collection<UserId> ids) {
+        return record("activateAll", () -> delegate.activateAll(ids), null);
+    }
+
+    @Override
+    public long purgeInactiveUpdatedBefore(LocalDateTime cutoff) {
+        return record("purgeInactiveUpdatedBefore", () -> delegate.purgeInactiveUpdatedBefore(cutoff), null);
+    }
+
+    @Override
+    public long deleteTombstonesBefore(LocalDateTime cutoff) {
+        return record("deleteTombstonesBefore", () -> delegate.deleteTombstonesBefore(cutoff), null);
+    }
+
+    @Override
+    public boolean existsById(UserId id) {
+        return record("existsById", () -> delegate.existsById(id), null);
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        return record("existsByEmail", () -> delegate.existsByEmail(email), null);
+    }
+
+    @Override
+    public long count() {
+        return record("count", delegate::count, null);
+    }
+
+    @Override
+    public long countActiveUsers() {
+        return record("countActiveUsers", delegate::countActiveUsers, null);
+    }
+
+    @Override
+    public List<User> findByNameContaining(String name) {
+        return record("findByNameContaining", () -> delegate.findByNameContaining(name), LIST_ROWS);
+    }
+
+    @Override
+    public List<User> findByNameContaining(String name, int offset, int limit) {
+        return record("findByNameContainingPage", () -> delegate.findByNameContaining(name, offset, limit), LIST_ROWS);
+    }
+
+    @Override
+    public List<UserSummary> findSummariesByNameContaining(String name, int offset, int limit) {
+        return record("findSummariesByNameContaining",
+                () -> delegate.findSummariesByNameContaining(name, offset, limit), LIST_ROWS);
+    }
+
+    private <T> T record(String method, Supplier<T> call, ToIntFunction<? super T> rows) {
+        MethodMeters meters = meters(method);
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            failed(method, e, System.nanoTime() - start);
+            throw e;
+        }
+        meters.success().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (rows != null) {
+            meters.rows().record(rows.applyAsInt(result));
+        }
+        return result;
+    }
+
+    private Stream<User> counted(String method, Supplier<Stream<User>> open) {
+        Stream<User> stream = record(method, open, null);
+        AtomicLong rows = new AtomicLong();
+        DistributionSummary summary = meters(method).rows();
+        // A filter rather than peek: count() may skip peek on a sized stream, never a filter
+        return stream
+                .filter(user -> {
+                    rows.incrementAndGet();
+                    return true;
+                })
+                .onClose(() -> summary.record(rows.get()));
+    }
+
+    private MethodMeters meters(String method) {
+        MethodMeters existing = meters.get(method);
+        return existing != null ? existing : meters.computeIfAbsent(method, this::register);
+    }
+
+    private MethodMeters register(String method) {
+        return new MethodMeters(
+                timer(method, "success", "none"),
+                DistributionSummary.builder(ROWS)
+                        .description("Users or summaries returned per UserRepository call")
+                        .baseUnit("rows")
+                        .tag("method", method)
+                        .register(registry));
+    }
+
+    private void failed(String method, RuntimeException e, long nanos) {
+        // Registration is a lookup once the meter exists; failures are rare enough not to cache
+        timer(method, "error", e.getClass().getSimpleName()).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String method, String outcome, String exception) {
+        return Timer.builder(CALLS)
+                .description("Latency of UserRepository calls")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(registry);
+    }
+
+    private record MethodMeters(Timer success, DistributionSummary rows) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.infrastructure.database.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.users.metrics")
+public class UserMetricsProperties {
+
+    // Times every UserRepository call when a MeterRegistry is available
+    private boolean enabled = true;
+    // Client-side percentiles of the users.* timers, computed from a decaying histogram
+    private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.95, 0.99));
+    // Also publish histogram buckets, for backends that aggregate percentiles across nodes
+    private boolean percentileHistogram = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public boolean isPercentileHistogram() {
+        return percentileHistogram;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.infrastructure.database.outbox;
+
+import com.example.domain.events.UserEvent;
+import com.example.infrastructure.database.entities.OutboxEntity;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes user events into outbox rows. It joins the caller's transaction, so the
+ * rows commit or roll back together with the user change that raised the events.
+ */
+@Component
+public class OutboxWriter {
+
+    private final EntityManager entityManager;
+
+    public OutboxWriter(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Persists one row per event and returns them; they are written on the next flush,
+     * batched with the user rows.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<OutboxEntity> append(List<UserEvent> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        List<OutboxEntity> entries = new ArrayList<>(events.size());
+        for (UserEvent event : events) {
+            OutboxEntity entry = new OutboxEntity(
+                    event.userId().getValue(),
+                    UserEventPayloads.eventType(event),
+                    UserEventPayloads.payload(event),
+                    event.occurredAt()
+            );
+            entityManager.persist(entry);
+            entries.add(entry);
+        }
+        return entries;
+    }
+}
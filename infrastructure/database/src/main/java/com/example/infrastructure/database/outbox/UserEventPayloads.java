@@ -0,0 +1,43 @@
+package com.example.infrastructure.database.outbox;
+
+import com.example.domain.events.UserActivated;
+import com.example.domain.events.UserDeactivated;
+import com.example.domain.events.UserEvent;
+import com.example.domain.events.UserProfileUpdated;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The outbox wire format of user events, shared by every adapter that writes the outbox.
+ */
+public final class UserEventPayloads {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private UserEventPayloads() {
+    }
+
+    public static String eventType(UserEvent event) {
+        return event.getClass().getSimpleName();
+    }
+
+    public static String payload(UserEvent event) {
+        ObjectNode node = OBJECT_MAPPER.createObjectNode()
+                .put("userId", event.userId().getValue())
+                .put("occurredAt", event.occurredAt().toString());
+        switch (event) {
+            case UserProfileUpdated updated -> node
+                    .put("email", updated.email().getValue())
+                    .put("firstName", updated.name().getFirstName())
+                    .put("lastName", updated.name().getLastName());
+            case UserActivated activated -> node.put("active", true);
+            case UserDeactivated deactivated -> node.put("active", false);
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event, e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSummary;
+import com.example.application.ports.AsyncUserRepository;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.support.WriteSession;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking {@link UserRepository} (including any decorators such as the cache)
+ * on a dedicated, bounded executor. At most {@code concurrency} calls hold a connection
+ * at once and at most {@code queueCapacity} wait; beyond that calls fail fast.
+ * <p>
+ * The executor is private rather than a bean: an {@code Executor} bean would replace
+ * Boot's application task executor.
+ */
+@Component
+public class AsyncUserRepositoryImpl implements AsyncUserRepository {
+
+    private final UserRepository userRepository;
+    private final ExecutorService executor;
+
+    public AsyncUserRepositoryImpl(UserRepository userRepository, AsyncUserRepositoryProperties properties) {
+        this.userRepository = userRepository;
+        ThreadFactory threads = properties.isVirtualThreads()
+                ? Thread.ofVirtual().name("user-repository-", 0).factory()
+                : Thread.ofPlatform().name("user-repository-", 0).daemon().factory();
+        this.executor = new ThreadPoolExecutor(
+                properties.getConcurrency(), properties.getConcurrency(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                threads,
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findById(UserId id) {
+        return submit(() -> userRepository.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findByEmail(Email email) {
+        return submit(() -> userRepository.findByEmail(email));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findAllById(Collection<UserId> ids) {
+        return submit(() -> userRepository.findAllById(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findAllByEmail(Collection<Email> emails) {
+        return submit(() -> userRepository.findAllByEmail(emails));
+    }
+
+    @Override
+    public CompletableFuture<KeysetPage<UserSummary>> findSummaries(UserCursor cursor, int limit) {
+        return submit(() -> userRepository.findSummaries(cursor, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<UserSummary>> findSummariesByNameContaining(String name, int offset, int limit) {
+        return submit(() -> userRepository.findSummariesByNameContaining(name, offset, limit));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsById(UserId id) {
+        return submit(() -> userRepository.existsById(id));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsByEmail(Email email) {
+        return submit(() -> userRepository.existsByEmail(email));
+    }
+
+    @Override
+    public CompletableFuture<Long> count() {
+        return submit(userRepository::count);
+    }
+
+    @Override
+    public CompletableFuture<Long> countActiveUsers() {
+        return submit(userRepository::countActiveUsers);
+    }
+
+    @Override
+    public CompletableFuture<User> save(User user) {
+        return submit(() -> userRepository.save(user));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> saveAll(Collection<User> users) {
+        return submit(() -> userRepository.saveAll(users));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(UserId id) {
+        return submit(() -> {
+            userRepository.delete(id);
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        try {
+            // The caller's write session, so reads after its writes still see them on the primary
+            return CompletableFuture.supplyAsync(WriteSession.propagate(call), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.infrastructure.database.repositories;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.users.async")
+public class AsyncUserRepositoryProperties {
+
+    // Calls running at once; keep it at or below the connection pool size
+    private int concurrency = 10;
+    // Calls waiting for a free slot before new ones are rejected
+    private int queueCapacity = 1000;
+    // Run calls on virtual threads; the concurrency limit still applies
+    private boolean virtualThreads = true;
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+}
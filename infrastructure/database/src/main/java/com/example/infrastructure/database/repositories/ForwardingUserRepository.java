@@ -0,0 +1,176 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSummary;
+import com.example.application.dto.UserWatermark;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Base class for decorators of the {@link UserRepository} port.
+ * Every method forwards to the wrapped repository; subclasses override only what they change.
+ */
+public abstract class ForwardingUserRepository implements UserRepository {
+
+    protected final UserRepository delegate;
+
+    protected ForwardingUserRepository(UserRepository delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "Delegate repository cannot be null");
+    }
+
+    @Override
+    public Optional<User> findById(UserId id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findActiveUsers() {
+        return delegate.findActiveUsers();
+    }
+
+    @Override
+    public KeysetPage<User> findAll(UserCursor cursor, int limit) {
+        return delegate.findAll(cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<User> findActiveUsers(UserCursor cursor, int limit) {
+        return delegate.findActiveUsers(cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<UserSummary> findSummaries(UserCursor cursor, int limit) {
+        return delegate.findSummaries(cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<UserSummary> findActiveSummaries(UserCursor cursor, int limit) {
+        return delegate.findActiveSummaries(cursor, limit);
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<User> streamActiveUsers() {
+        return delegate.streamActiveUsers();
+    }
+
+    @Override
+    public Stream<User> streamMatching(Boolean active, String emailDomain) {
+        return delegate.streamMatching(active, emailDomain);
+    }
+
+    @Override
+    public UserChangePage findChangedSince(UserWatermark watermark, int limit) {
+        return delegate.findChangedSince(watermark, limit);
+    }
+
+    @Override
+    public User save(User user) {
+        return delegate.save(user);
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        return delegate.saveAll(users);
+    }
+
+    @Override
+    public long upsertAll(Collection<User> users) {
+        return delegate.upsertAll(users);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<UserId> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public List<User> findAllByEmail(Collection<Email> emails) {
+        return delegate.findAllByEmail(emails);
+    }
+
+    @Override
+    public void delete(UserId id) {
+        delegate.delete(id);
+    }
+
+    @Override
+    public long deactivateByEmailDomain(String domain) {
+        return delegate.deactivateByEmailDomain(domain);
+    }
+
+    @Override
+    public long activateAll(Collection<UserId> ids) {
+        return delegate.activateAll(ids);
+    }
+
+    @Override
+    public long purgeInactiveUpdatedBefore(LocalDateTime cutoff) {
+        return delegate.purgeInactiveUpdatedBefore(cutoff);
+    }
+
+    @Override
+    public long deleteTombstonesBefore(LocalDateTime cutoff) {
+        return delegate.deleteTombstonesBefore(cutoff);
+    }
+
+    @Override
+    public boolean existsById(UserId id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public long countActiveUsers() {
+        return delegate.countActiveUsers();
+    }
+
+    @Override
+    public List<User> findByNameContaining(String name) {
+        return delegate.findByNameContaining(name);
+    }
+
+    @Override
+    public List<User> findByNameContaining(String name, int offset, int limit) {
+        return delegate.findByNameContaining(name, offset, limit);
+    }
+
+    @Override
+    public List<UserSummary> findSummariesByNameContaining(String name, int offset, int limit) {
+        return delegate.findSummariesByNameContaining(name, offset, limit);
+    }
+}
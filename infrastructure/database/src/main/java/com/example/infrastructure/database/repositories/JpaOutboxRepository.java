@@ -0,0 +1,47 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.infrastructure.database.entities.OutboxEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JpaOutboxRepository extends JpaRepository<OutboxEntity, Long> {
+
+    // Served by idx_user_outbox_sent_at_id: unsent rows are the NULL range, read in id order
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT o FROM OutboxEntity o WHERE o.sentAt IS NULL ORDER BY o.id")
+    List<OutboxEntity> findUnsent(Limit limit);
+
+    // Rows another transaction is claiming are skipped rather than waited for
+    @Query(value = "SELECT id FROM user_outbox WHERE sent_at IS NULL " +
+            "AND (claimed_until IS NULL OR claimed_until < :now) " +
+            "ORDER BY id FETCH FIRST :limit ROWS ONLY FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEntity o SET o.claimedUntil = :claimedUntil WHERE o.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT o FROM OutboxEntity o WHERE o.id IN :ids ORDER BY o.id")
+    List<OutboxEntity> findByIdInOrderById(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEntity o SET o.sentAt = :sentAt WHERE o.id IN :ids AND o.sentAt IS NULL")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEntity o WHERE o.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,26 +1,209 @@
 package com.example.infrastructure.database.repositories;
 
+import com.example.application.dto.UserSummary;
 import com.example.infrastructure.database.entities.UserEntity;
+import com.example.infrastructure.database.search.UserNameRow;
+import com.example.infrastructure.database.search.UserSummaryRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface JpaUserRepository extends JpaRepository<UserEntity, String> {
 
+    int STREAM_FETCH_SIZE = 500;
+
+    // Constructor projection: rows become UserSummary records and never enter the persistence context
+    String SELECT_SUMMARY = "SELECT new com.example.application.dto.UserSummary(" +
+            "u.id, u.email, u.firstName, u.lastName, u.active, u.createdAt) FROM UserEntity u ";
+
     Optional<UserEntity> findByEmail(String email);
 
     List<UserEntity> findByActiveTrue();
 
-    @Query("SELECT u FROM UserEntity u WHERE u.firstName LIKE %:name% OR u.lastName LIKE %:name%")
-    List<UserEntity> findByNameContaining(@Param("name") String name);
+    List<UserEntity> findByEmailIn(Collection<String> emails);
+
+    /**
+     * Served by the pg_trgm GIN indexes on first_name and last_name (PostgreSQL only).
+     */
+    @Query(value = "SELECT * FROM users WHERE first_name ILIKE :pattern OR last_name ILIKE :pattern " +
+            "ORDER BY last_name, first_name, id LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<UserEntity> searchByNameTrigram(@Param("pattern") String pattern,
+                                         @Param("offset") int offset,
+                                         @Param("limit") int limit);
+
+    @Query(value = "SELECT id, email, first_name AS \"firstName\", last_name AS \"lastName\", active, " +
+            "created_at AS \"createdAt\" FROM users WHERE first_name ILIKE :pattern OR last_name ILIKE :pattern " +
+            "ORDER BY last_name, first_name, id LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<UserSummaryRow> searchSummariesByNameTrigram(@Param("pattern") String pattern,
+                                                      @Param("offset") int offset,
+                                                      @Param("limit") int limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.infrastructure.database.search.UserNameRow(u.id, u.firstName, u.lastName) " +
+            "FROM UserEntity u")
+    Stream<UserNameRow> streamNames();
 
     boolean existsByEmail(String email);
 
     @Query("SELECT COUNT(u) FROM UserEntity u WHERE u.active = true")
     long countActiveUsers();
-}
\ No newline at end of file
+
+    // Keyset pages: seek on (id) or (created_at, id) so every page is an index range scan
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM UserEntity u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserEntity> findPageAfterId(@Param("afterId") String afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM UserEntity u WHERE u.active = true AND u.id > :afterId ORDER BY u.id")
+    List<UserEntity> findActivePageAfterId(@Param("afterId") String afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM UserEntity u ORDER BY u.createdAt, u.id")
+    List<UserEntity> findFirstPageByCreatedAt(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM UserEntity u WHERE u.createdAt > :createdAt " +
+            "OR (u.createdAt = :createdAt AND u.id > :afterId) ORDER BY u.createdAt, u.id")
+    List<UserEntity> findPageAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                            @Param("afterId") String afterId,
+                                            Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM UserEntity u WHERE u.active = true ORDER BY u.createdAt, u.id")
+    List<UserEntity> findFirstActivePageByCreatedAt(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM UserEntity u WHERE u.active = true AND (u.createdAt > :createdAt " +
+            "OR (u.createdAt = :createdAt AND u.id > :afterId)) ORDER BY u.createdAt, u.id")
+    List<UserEntity> findActivePageAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("afterId") String afterId,
+                                                  Limit limit);
+
+    // Change feed: seek on (updated_at, id), held back from the newest rows by the settle lag
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM UserEntity u WHERE (u.updatedAt > :updatedAt " +
+            "OR (u.updatedAt = :updatedAt AND u.id > :afterId)) AND u.updatedAt < :until " +
+            "ORDER BY u.updatedAt, u.id")
+    List<UserEntity> findPageUpdatedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+                                          @Param("afterId") String afterId,
+                                          @Param("until") LocalDateTime until,
+                                          Limit limit);
+
+    // Keyset pages of summaries, same seeks as above
+
+    @Query(SELECT_SUMMARY + "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findSummaryPageAfterId(@Param("afterId") String afterId, Limit limit);
+
+    @Query(SELECT_SUMMARY + "WHERE u.active = true AND u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findActiveSummaryPageAfterId(@Param("afterId") String afterId, Limit limit);
+
+    @Query(SELECT_SUMMARY + "ORDER BY u.createdAt, u.id")
+    List<UserSummary> findFirstSummaryPageByCreatedAt(Limit limit);
+
+    @Query(SELECT_SUMMARY + "WHERE u.createdAt > :createdAt " +
+            "OR (u.createdAt = :createdAt AND u.id > :afterId) ORDER BY u.createdAt, u.id")
+    List<UserSummary> findSummaryPageAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("afterId") String afterId,
+                                                    Limit limit);
+
+    @Query(SELECT_SUMMARY + "WHERE u.active = true ORDER BY u.createdAt, u.id")
+    List<UserSummary> findFirstActiveSummaryPageByCreatedAt(Limit limit);
+
+    @Query(SELECT_SUMMARY + "WHERE u.active = true AND (u.createdAt > :createdAt " +
+            "OR (u.createdAt = :createdAt AND u.id > :afterId)) ORDER BY u.createdAt, u.id")
+    List<UserSummary> findActiveSummaryPageAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("afterId") String afterId,
+                                                          Limit limit);
+
+    @Query(SELECT_SUMMARY + "WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<String> ids);
+
+    // Bulk writes: each chunk locks its rows in id order, then updates or deletes them by id
+
+    @Query(value = "SELECT id FROM users WHERE active = TRUE AND email LIKE :pattern ESCAPE '\\' " +
+            "AND id > :afterId ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<String> lockActiveIdsByEmailLike(@Param("pattern") String pattern,
+                                          @Param("afterId") String afterId,
+                                          @Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM users WHERE active = FALSE AND id IN (:ids) ORDER BY id FOR UPDATE",
+            nativeQuery = true)
+    List<String> lockInactiveIds(@Param("ids") Collection<String> ids);
+
+    @Query(value = "SELECT id FROM users WHERE active = FALSE AND updated_at < :cutoff " +
+            "AND id > :afterId ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<String> lockInactiveIdsUpdatedBefore(@Param("cutoff") LocalDateTime cutoff,
+                                              @Param("afterId") String afterId,
+                                              @Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserEntity u SET u.active = :active, u.updatedAt = :updatedAt, u.version = u.version + 1 " +
+            "WHERE u.id IN :ids")
+    int updateActive(@Param("ids") Collection<String> ids,
+                     @Param("active") boolean active,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM UserEntity u WHERE u.id IN :ids")
+    int deleteAllWithIds(@Param("ids") Collection<String> ids);
+
+    // Cursor-backed streams: rows are fetched from the driver in chunks and never cached
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM UserEntity u ORDER BY u.id")
+    Stream<UserEntity> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM UserEntity u WHERE u.active = true ORDER BY u.id")
+    Stream<UserEntity> streamActive();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM UserEntity u WHERE u.active = :active ORDER BY u.id")
+    Stream<UserEntity> streamByActive(@Param("active") boolean active);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM UserEntity u WHERE u.email LIKE :pattern ESCAPE '\\' ORDER BY u.id")
+    Stream<UserEntity> streamByEmailLike(@Param("pattern") String pattern);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM UserEntity u WHERE u.active = :active AND u.email LIKE :pattern ESCAPE '\\' ORDER BY u.id")
+    Stream<UserEntity> streamByActiveAndEmailLike(@Param("active") boolean active, @Param("pattern") String pattern);
+}
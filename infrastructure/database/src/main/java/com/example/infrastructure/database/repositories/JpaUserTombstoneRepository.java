@@ -0,0 +1,39 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.infrastructure.database.entities.UserTombstoneEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JpaUserTombstoneRepository extends JpaRepository<UserTombstoneEntity, String> {
+
+    // Served by idx_user_tombstones_deleted_at_id, the same seek as the users' change pages
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT t FROM UserTombstoneEntity t WHERE (t.deletedAt > :deletedAt " +
+            "OR (t.deletedAt = :deletedAt AND t.id > :afterId)) AND t.deletedAt < :until " +
+            "ORDER BY t.deletedAt, t.id")
+    List<UserTombstoneEntity> findPageDeletedAfter(@Param("deletedAt") LocalDateTime deletedAt,
+                                                   @Param("afterId") String afterId,
+                                                   @Param("until") LocalDateTime until,
+                                                   Limit limit);
+
+    // Flushes first, so a tombstone persisted earlier in the transaction is deleted too
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM UserTombstoneEntity t WHERE t.id IN :ids")
+    int deleteAllWithIds(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query("DELETE FROM UserTombstoneEntity t WHERE t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
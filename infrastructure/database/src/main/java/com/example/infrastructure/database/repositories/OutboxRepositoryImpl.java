@@ -0,0 +1,88 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.application.dto.OutboxMessage;
+import com.example.application.ports.OutboxRepository;
+import com.example.infrastructure.database.config.DatabaseConfig;
+import com.example.infrastructure.database.entities.OutboxEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class OutboxRepositoryImpl implements OutboxRepository {
+
+    // Bind parameters per IN list when marking entries sent
+    private static final int CHUNK_SIZE = DatabaseConfig.JDBC_BATCH_SIZE * 10;
+
+    private final JpaOutboxRepository jpaOutboxRepository;
+
+    public OutboxRepositoryImpl(JpaOutboxRepository jpaOutboxRepository) {
+        this.jpaOutboxRepository = jpaOutboxRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OutboxMessage> findUnsent(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Outbox batch limit must be positive");
+        }
+        return jpaOutboxRepository.findUnsent(Limit.of(limit))
+                .stream()
+                .map(OutboxRepositoryImpl::toMessage)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Locks the claimable rows with {@code FOR UPDATE SKIP LOCKED}, so concurrent claims
+     * on other nodes pass over them, and sets their lease before the locks are released.
+     */
+    @Override
+    @Transactional
+    public List<OutboxMessage> claimUnsent(int limit, Duration lease) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Outbox batch limit must be positive");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = jpaOutboxRepository.lockClaimable(now, limit);
+        List<OutboxMessage> claimed = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            jpaOutboxRepository.claim(chunk, now.plus(lease));
+            jpaOutboxRepository.findByIdInOrderById(chunk).stream()
+                    .map(OutboxRepositoryImpl::toMessage)
+                    .forEach(claimed::add);
+        }
+        return claimed;
+    }
+
+    /**
+     * Marks the whole batch with one UPDATE per chunk of ids rather than one per entry.
+     */
+    @Override
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        List<Long> values = List.copyOf(ids);
+        LocalDateTime sentAt = LocalDateTime.now();
+        for (int from = 0; from < values.size(); from += CHUNK_SIZE) {
+            jpaOutboxRepository.markSent(values.subList(from, Math.min(from + CHUNK_SIZE, values.size())), sentAt);
+        }
+    }
+
+    @Override
+    @Transactional
+    public long deleteSentBefore(LocalDateTime cutoff) {
+        return jpaOutboxRepository.deleteSentBefore(cutoff);
+    }
+
+    private static OutboxMessage toMessage(OutboxEntity entity) {
+        return new OutboxMessage(entity.getId(), entity.getAggregateId(), entity.getEventType(),
+                entity.getPayload(), entity.getCreatedAt());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.infrastructure.database.repositories;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.users.bulk")
+public class UserBulkProperties {
+
+    // Users locked and written per transaction by bulk activations, deactivations and purges
+    private int chunkSize = 500;
+    // Pause between chunks, leaving the users table to other writers
+    private Duration pause = Duration.ofMillis(50);
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getPause() {
+        return pause;
+    }
+
+    public void setPause(Duration pause) {
+        this.pause = pause;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.infrastructure.database.repositories;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.users.changes")
+public class UserChangeFeedProperties {
+
+    // Changes younger than this are held back from the change feed: change times are taken
+    // before commit, so a slow transaction can commit after a later one; also covers replica lag
+    private Duration settleLag = Duration.ofSeconds(5);
+    // Tombstones older than this are deleted, so a consumer further behind misses those
+    // deletions and must resync; must exceed the settle lag
+    private Duration tombstoneRetention = Duration.ofDays(30);
+
+    public Duration getSettleLag() {
+        return settleLag;
+    }
+
+    public void setSettleLag(Duration settleLag) {
+        this.settleLag = settleLag;
+    }
+
+    public Duration getTombstoneRetention() {
+        return tombstoneRetention;
+    }
+
+    public void setTombstoneRetention(Duration tombstoneRetention) {
+        this.tombstoneRetention = tombstoneRetention;
+    }
+}
@@ -1,93 +1,647 @@
 package com.example.infrastructure.database.repositories;
 
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserChange;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.application.dto.UserSummary;
+import com.example.application.dto.UserWatermark;
 import com.example.application.ports.UserRepository;
 import com.example.domain.User;
 import com.example.domain.UserId;
 import com.example.domain.Email;
+import com.example.domain.events.UserActivated;
+import com.example.domain.events.UserDeactivated;
+import com.example.domain.events.UserEvent;
+import com.example.infrastructure.database.config.DatabaseConfig;
+import com.example.infrastructure.database.counters.UserCounters;
+import com.example.infrastructure.database.entities.OutboxEntity;
 import com.example.infrastructure.database.entities.UserEntity;
+import com.example.infrastructure.database.entities.UserTombstoneEntity;
 import com.example.infrastructure.database.mappers.UserMapper;
+import com.example.infrastructure.database.outbox.OutboxWriter;
+import com.example.infrastructure.database.search.UserNameSearch;
+import com.example.infrastructure.database.search.TrigramUserNameSearch;
+import com.example.infrastructure.database.search.UserSearchProperties;
+import com.example.infrastructure.database.support.ChunkedWrites;
+import com.example.infrastructure.database.support.WriteSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class UserRepositoryImpl implements UserRepository {
 
+    public static final String MAPPING_DURATION = "users.mapper.duration";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    // Bind parameters per IN list; also the number of rows written per flush
+    private static final int CHUNK_SIZE = DatabaseConfig.JDBC_BATCH_SIZE * 10;
+
     private final JpaUserRepository jpaUserRepository;
+    private final JpaUserTombstoneRepository jpaUserTombstoneRepository;
     private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final UserNameSearch userNameSearch;
+    private final UserCounters userCounters;
+    private final OutboxWriter outboxWriter;
+    private final UserUpsertWriter upsertWriter;
+    private final int maxSearchResults;
+    private final UserBulkProperties bulkProperties;
+    private final UserChangeFeedProperties changeFeedProperties;
+    private final TransactionTemplate chunkTransaction;
+    // Null when no MeterRegistry is available, e.g. in benchmarks and slice tests
+    private final Timer mappingTimer;
 
-    public UserRepositoryImpl(JpaUserRepository jpaUserRepository, UserMapper userMapper) {
+    public UserRepositoryImpl(JpaUserRepository jpaUserRepository,
+                              JpaUserTombstoneRepository jpaUserTombstoneRepository,
+                              UserMapper userMapper,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              UserNameSearch userNameSearch,
+                              UserSearchProperties searchProperties,
+                              UserCounters userCounters,
+                              OutboxWriter outboxWriter,
+                              UserUpsertWriter upsertWriter,
+                              UserBulkProperties bulkProperties,
+                              UserChangeFeedProperties changeFeedProperties,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
         this.jpaUserRepository = jpaUserRepository;
+        this.jpaUserTombstoneRepository = jpaUserTombstoneRepository;
         this.userMapper = userMapper;
+        this.entityManager = entityManager;
+        this.transactionManager = transactionManager;
+        this.userNameSearch = userNameSearch;
+        this.userCounters = userCounters;
+        this.outboxWriter = outboxWriter;
+        this.upsertWriter = upsertWriter;
+        this.maxSearchResults = searchProperties.getMaxResults();
+        this.bulkProperties = bulkProperties;
+        this.changeFeedProperties = changeFeedProperties;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.mappingTimer = registry == null ? null : Timer.builder(MAPPING_DURATION)
+                .description("Time spent mapping a batch of loaded rows to users")
+                .register(registry);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<User> findById(UserId id) {
         return jpaUserRepository.findById(id.getValue())
                 .map(userMapper::toDomain);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(Email email) {
         return jpaUserRepository.findByEmail(email.getValue())
                 .map(userMapper::toDomain);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> findAll() {
-        return jpaUserRepository.findAll()
-                .stream()
-                .map(userMapper::toDomain)
-                .collect(Collectors.toList());
+        return toDomain(jpaUserRepository.findAll());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> findActiveUsers() {
-        return jpaUserRepository.findByActiveTrue()
-                .stream()
-                .map(userMapper::toDomain)
-                .collect(Collectors.toList());
+        return toDomain(jpaUserRepository.findByActiveTrue());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<User> findAll(UserCursor cursor, int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<UserEntity> entities = switch (cursor.sortKey()) {
+            case ID -> jpaUserRepository.findPageAfterId(afterId(cursor), pageLimit);
+            case CREATED_AT -> cursor.isFirst()
+                    ? jpaUserRepository.findFirstPageByCreatedAt(pageLimit)
+                    : jpaUserRepository.findPageAfterCreatedAt(cursor.lastCreatedAt(), cursor.lastId(), pageLimit);
+        };
+        return toPage(entities, cursor.sortKey(), pageLimit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<User> findActiveUsers(UserCursor cursor, int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<UserEntity> entities = switch (cursor.sortKey()) {
+            case ID -> jpaUserRepository.findActivePageAfterId(afterId(cursor), pageLimit);
+            case CREATED_AT -> cursor.isFirst()
+                    ? jpaUserRepository.findFirstActivePageByCreatedAt(pageLimit)
+                    : jpaUserRepository.findActivePageAfterCreatedAt(cursor.lastCreatedAt(), cursor.lastId(), pageLimit);
+        };
+        return toPage(entities, cursor.sortKey(), pageLimit);
+    }
+
+    /**
+     * Constructor-projected rows: no entities are instantiated, snapshotted for dirty
+     * checking or mapped, and only the listing columns are transferred.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<UserSummary> findSummaries(UserCursor cursor, int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<UserSummary> summaries = switch (cursor.sortKey()) {
+            case ID -> jpaUserRepository.findSummaryPageAfterId(afterId(cursor), pageLimit);
+            case CREATED_AT -> cursor.isFirst()
+                    ? jpaUserRepository.findFirstSummaryPageByCreatedAt(pageLimit)
+                    : jpaUserRepository.findSummaryPageAfterCreatedAt(cursor.lastCreatedAt(), cursor.lastId(), pageLimit);
+        };
+        return toSummaryPage(summaries, cursor.sortKey(), pageLimit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<UserSummary> findActiveSummaries(UserCursor cursor, int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<UserSummary> summaries = switch (cursor.sortKey()) {
+            case ID -> jpaUserRepository.findActiveSummaryPageAfterId(afterId(cursor), pageLimit);
+            case CREATED_AT -> cursor.isFirst()
+                    ? jpaUserRepository.findFirstActiveSummaryPageByCreatedAt(pageLimit)
+                    : jpaUserRepository.findActiveSummaryPageAfterCreatedAt(cursor.lastCreatedAt(), cursor.lastId(), pageLimit);
+        };
+        return toSummaryPage(summaries, cursor.sortKey(), pageLimit);
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        return openStream(jpaUserRepository::streamAll);
+    }
+
+    @Override
+    public Stream<User> streamActiveUsers() {
+        return openStream(jpaUserRepository::streamActive);
+    }
+
+    @Override
+    public Stream<User> streamMatching(Boolean active, String emailDomain) {
+        if (emailDomain == null) {
+            return active == null ? streamAll() : openStream(() -> jpaUserRepository.streamByActive(active));
+        }
+        String pattern = "%@" + TrigramUserNameSearch.escapeLike(emailDomain(emailDomain));
+        return active == null
+                ? openStream(() -> jpaUserRepository.streamByEmailLike(pattern))
+                : openStream(() -> jpaUserRepository.streamByActiveAndEmailLike(active, pattern));
     }
 
+    /**
+     * Two seeks of at most {@code limit} rows each, one on the users by update time and one
+     * on the tombstones by deletion time, merged in memory.
+     */
     @Override
+    @Transactional(readOnly = true)
+    public UserChangePage findChangedSince(UserWatermark watermark, int limit) {
+        Limit pageLimit = pageLimit(limit);
+        LocalDateTime until = LocalDateTime.now().minus(changeFeedProperties.getSettleLag());
+        List<UserEntity> updated = jpaUserRepository.findPageUpdatedAfter(
+                watermark.changedAt(), watermark.id(), until, pageLimit);
+        List<UserTombstoneEntity> deleted = jpaUserTombstoneRepository.findPageDeletedAfter(
+                watermark.changedAt(), watermark.id(), until, pageLimit);
+
+        List<UserChange> changes = new ArrayList<>(updated.size() + deleted.size());
+        for (User user : toDomain(updated)) {
+            changes.add(UserChange.updated(user));
+        }
+        for (UserTombstoneEntity tombstone : deleted) {
+            changes.add(UserChange.deleted(tombstone.getId(), tombstone.getDeletedAt()));
+        }
+        boolean truncated = updated.size() == pageLimit.max() || deleted.size() == pageLimit.max();
+        return UserChangePage.merge(changes, pageLimit.max(), truncated, watermark);
+    }
+
+    /**
+     * A user that was never stored has no version and becomes a single INSERT.
+     * An existing user is loaded, checked against the version it was read with and
+     * updated in place, so Hibernate only writes the columns' new state. Events the user
+     * raised go to the outbox in the same transaction.
+     */
+    @Override
+    @Transactional
     public User save(User user) {
-        UserEntity entity = userMapper.toEntity(user);
-        UserEntity savedEntity = jpaUserRepository.save(entity);
-        return userMapper.toDomain(savedEntity);
+        WriteSession.recordWrite();
+        if (user.getVersion() == null) {
+            UserEntity entity = userMapper.toEntity(user);
+            entityManager.persist(entity);
+            userNameSearch.indexed(entity);
+            userCounters.inserted(entity.getActive());
+            outboxWriter.append(user.pullEvents());
+            return userMapper.toDomain(entity);
+        }
+
+        UserEntity entity = jpaUserRepository.findById(user.getId().getValue())
+                .orElseThrow(() -> new OptimisticLockingFailureException(
+                        "User " + user.getId().getValue() + " was deleted concurrently"));
+        checkVersion(user, entity);
+        boolean wasActive = entity.getActive();
+        userMapper.updateEntityFromDomain(user, entity);
+        userNameSearch.indexed(entity);
+        userCounters.updated(wasActive, entity.getActive());
+        outboxWriter.append(user.pullEvents());
+        // Flush so the returned user carries the version this update wrote
+        entityManager.flush();
+        return userMapper.toDomain(entity);
+    }
+
+    /**
+     * Saves users chunk by chunk: new users are persisted without any lookup, one IN-list
+     * SELECT loads the existing users of the chunk, and a single flush per chunk lets
+     * Hibernate send the ordered INSERTs and UPDATEs as JDBC batches.
+     */
+    @Override
+    @Transactional
+    public List<User> saveAll(Collection<User> users) {
+        if (!users.isEmpty()) {
+            WriteSession.recordWrite();
+        }
+        List<User> saved = new ArrayList<>(users.size());
+        for (List<User> chunk : chunks(List.copyOf(users))) {
+            List<String> existingIds = chunk.stream()
+                    .filter(user -> user.getVersion() != null)
+                    .map(user -> user.getId().getValue())
+                    .toList();
+            Map<String, UserEntity> existing = existingIds.isEmpty()
+                    ? new HashMap<>()
+                    : byId(jpaUserRepository.findAllById(existingIds));
+
+            List<UserEntity> written = new ArrayList<>(chunk.size());
+            List<OutboxEntity> appended = new ArrayList<>();
+            for (User user : chunk) {
+                UserEntity entity;
+                if (user.getVersion() == null) {
+                    entity = userMapper.toEntity(user);
+                    entityManager.persist(entity);
+                    userCounters.inserted(entity.getActive());
+                } else {
+                    entity = existing.get(user.getId().getValue());
+                    if (entity == null) {
+                        throw new OptimisticLockingFailureException(
+                                "User " + user.getId().getValue() + " was deleted concurrently");
+                    }
+                    checkVersion(user, entity);
+                    boolean wasActive = entity.getActive();
+                    userMapper.updateEntityFromDomain(user, entity);
+                    userCounters.updated(wasActive, entity.getActive());
+                }
+                userNameSearch.indexed(entity);
+                appended.addAll(outboxWriter.append(user.pullEvents()));
+                written.add(entity);
+            }
+
+            entityManager.flush();
+            for (UserEntity entity : written) {
+                saved.add(userMapper.toDomain(entity));
+                entityManager.detach(entity);
+            }
+            appended.forEach(entityManager::detach);
+        }
+        return saved;
+    }
+
+    /**
+     * Upserts chunk by chunk: one {@code SELECT ... FOR UPDATE} locks the stored users of the
+     * chunk, then one batched INSERT writes the missing users and one batched UPDATE the
+     * older ones. Pending JPA changes are flushed first and the persistence context is
+     * cleared afterwards, so later reads in the same transaction see the upserted rows.
+     */
+    @Override
+    @Transactional
+    public long upsertAll(Collection<User> users) {
+        List<User> checked = UserUpsertWriter.checked(users);
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+        long written = 0;
+        for (List<User> chunk : chunks(checked)) {
+            Map<String, UserUpsertWriter.StoredUser> stored =
+                    upsertWriter.lock(chunk.stream().map(user -> user.getId().getValue()).toList());
+            List<User> inserts = new ArrayList<>();
+            List<User> updates = new ArrayList<>();
+            for (User user : chunk) {
+                UserUpsertWriter.StoredUser current = stored.get(user.getId().getValue());
+                if (current == null) {
+                    inserts.add(user);
+                    userCounters.inserted(user.isActive());
+                } else if (current.version() < user.getVersion()) {
+                    updates.add(user);
+                    userCounters.updated(current.active(), user.isActive());
+                } else {
+                    continue;
+                }
+                userNameSearch.indexed(userMapper.toEntity(user));
+            }
+            upsertWriter.insertAll(inserts, now);
+            upsertWriter.updateAll(updates, now);
+            written += inserts.size() + updates.size();
+        }
+        entityManager.clear();
+        if (written > 0) {
+            WriteSession.recordWrite();
+        }
+        return written;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllById(Collection<UserId> ids) {
+        List<String> values = ids.stream().map(UserId::getValue).distinct().toList();
+        Map<String, UserEntity> found = new HashMap<>();
+        for (List<String> chunk : chunks(values)) {
+            found.putAll(byId(jpaUserRepository.findAllById(chunk)));
+        }
+        return toDomain(values.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllByEmail(Collection<Email> emails) {
+        List<String> values = emails.stream().map(Email::getValue).distinct().toList();
+        Map<String, UserEntity> found = new HashMap<>();
+        for (List<String> chunk : chunks(values)) {
+            for (UserEntity entity : jpaUserRepository.findByEmailIn(chunk)) {
+                found.put(entity.getEmail(), entity);
+            }
+        }
+        return toDomain(values.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    @Override
+    @Transactional
     public void delete(UserId id) {
-        jpaUserRepository.deleteById(id.getValue());
+        // Same SELECT then DELETE as deleteById, keeping the row to adjust the counters
+        jpaUserRepository.findById(id.getValue()).ifPresent(entity -> {
+            jpaUserRepository.delete(entity);
+            tombstone(List.of(entity.getId()));
+            WriteSession.recordWrite();
+            userNameSearch.removed(entity.getId());
+            userCounters.deleted(entity.getActive());
+        });
+    }
+
+    /**
+     * Each chunk locks the next matching ids with {@code SELECT ... FOR UPDATE}, so the UPDATE
+     * and the outbox events cover exactly the users it changed. Called inside a transaction,
+     * the chunks join it and only commit with it.
+     */
+    @Override
+    public long deactivateByEmailDomain(String domain) {
+        String pattern = "%@" + TrigramUserNameSearch.escapeLike(emailDomain(domain));
+        int chunkSize = bulkProperties.getChunkSize();
+        return ChunkedWrites.byKeyset(chunkSize, bulkProperties.getPause(), afterId -> chunkTransaction.execute(status -> {
+            List<String> ids = jpaUserRepository.lockActiveIdsByEmailLike(pattern, afterId, chunkSize);
+            setActive(ids, false);
+            return ids;
+        }));
     }
 
     @Override
+    public long activateAll(Collection<UserId> ids) {
+        List<String> values = ids.stream().map(UserId::getValue).distinct().sorted().toList();
+        return ChunkedWrites.byChunks(values, bulkProperties.getChunkSize(), bulkProperties.getPause(),
+                chunk -> chunkTransaction.execute(status -> {
+                    List<String> inactive = jpaUserRepository.lockInactiveIds(chunk);
+                    setActive(inactive, true);
+                    return inactive.size();
+                }));
+    }
+
+    @Override
+    public long purgeInactiveUpdatedBefore(LocalDateTime cutoff) {
+        int chunkSize = bulkProperties.getChunkSize();
+        return ChunkedWrites.byKeyset(chunkSize, bulkProperties.getPause(), afterId -> chunkTransaction.execute(status -> {
+            List<String> ids = jpaUserRepository.lockInactiveIdsUpdatedBefore(cutoff, afterId, chunkSize);
+            if (!ids.isEmpty()) {
+                jpaUserRepository.deleteAllWithIds(ids);
+                tombstone(ids);
+                WriteSession.recordWrite();
+                ids.forEach(userNameSearch::removed);
+                userCounters.adjust(-ids.size(), 0);
+            }
+            return ids;
+        }));
+    }
+
+    @Override
+    @Transactional
+    public long deleteTombstonesBefore(LocalDateTime cutoff) {
+        return jpaUserTombstoneRepository.deleteDeletedBefore(cutoff);
+    }
+
+    // A re-created user deleted again replaces the tombstone its earlier deletion left
+    private void tombstone(List<String> ids) {
+        jpaUserTombstoneRepository.deleteAllWithIds(ids);
+        LocalDateTime now = LocalDateTime.now();
+        jpaUserTombstoneRepository.saveAll(ids.stream().map(id -> new UserTombstoneEntity(id, now)).toList());
+    }
+
+    // One UPDATE for the locked users, bumping their version, and their events in the outbox
+    private void setActive(List<String> ids, boolean active) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jpaUserRepository.updateActive(ids, active, now);
+        WriteSession.recordWrite();
+        userCounters.adjust(0, active ? ids.size() : -ids.size());
+        List<UserEvent> events = ids.stream()
+                .map(id -> active
+                        ? (UserEvent) new UserActivated(new UserId(id), now)
+                        : new UserDeactivated(new UserId(id), now))
+                .toList();
+        outboxWriter.append(events);
+    }
+
+    private static String emailDomain(String domain) {
+        String normalized = domain == null ? "" : domain.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || normalized.contains("@")) {
+            throw new IllegalArgumentException("Invalid email domain: " + domain);
+        }
+        return normalized;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public boolean existsById(UserId id) {
         return jpaUserRepository.existsById(id.getValue());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsByEmail(Email email) {
         return jpaUserRepository.existsByEmail(email.getValue());
     }
 
     @Override
     public long count() {
-        return jpaUserRepository.count();
+        return userCounters.total();
     }
 
     @Override
     public long countActiveUsers() {
-        return jpaUserRepository.countActiveUsers();
+        return userCounters.active();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> findByNameContaining(String name) {
-        return jpaUserRepository.findByNameContaining(name)
-                .stream()
-                .map(userMapper::toDomain)
-                .collect(Collectors.toList());
+        return findByNameContaining(name, 0, maxSearchResults);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findByNameContaining(String name, int offset, int limit) {
+        int pageSize = searchPageSize(offset, limit);
+        if (name == null || name.isBlank()) {
+            return List.of();
+        }
+        return toDomain(userNameSearch.search(name.trim(), offset, pageSize));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserSummary> findSummariesByNameContaining(String name, int offset, int limit) {
+        int pageSize = searchPageSize(offset, limit);
+        if (name == null || name.isBlank()) {
+            return List.of();
+        }
+        return userNameSearch.searchSummaries(name.trim(), offset, pageSize);
+    }
+
+    private int searchPageSize(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Search offset cannot be negative");
+        }
+        return Math.min(pageLimit(limit).max(), maxSearchResults);
+    }
+
+    private static Limit pageLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        return Limit.of(Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>((values.size() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        for (int from = 0; from < values.size(); from += CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    private static Map<String, UserEntity> byId(List<UserEntity> entities) {
+        return entities.stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static void checkVersion(User user, UserEntity entity) {
+        if (!user.getVersion().equals(entity.getVersion())) {
+            throw new OptimisticLockingFailureException(
+                    "User " + user.getId().getValue() + " was modified concurrently (expected version "
+                            + user.getVersion() + " but found " + entity.getVersion() + ")");
+        }
+    }
+
+    private static String afterId(UserCursor cursor) {
+        // Every id sorts after the empty string, so the first page needs no separate query
+        return cursor.isFirst() ? "" : cursor.lastId();
+    }
+
+    private KeysetPage<User> toPage(List<UserEntity> entities, UserSortKey sortKey, Limit limit) {
+        List<User> users = toDomain(entities);
+        if (entities.size() < limit.max()) {
+            return new KeysetPage<>(users, null);
+        }
+        UserEntity last = entities.get(entities.size() - 1);
+        return new KeysetPage<>(users, nextCursor(sortKey, last.getId(), last.getCreatedAt()));
+    }
+
+    private static KeysetPage<UserSummary> toSummaryPage(List<UserSummary> summaries, UserSortKey sortKey, Limit limit) {
+        if (summaries.size() < limit.max()) {
+            return new KeysetPage<>(summaries, null);
+        }
+        UserSummary last = summaries.get(summaries.size() - 1);
+        return new KeysetPage<>(summaries, nextCursor(sortKey, last.id(), last.createdAt()));
+    }
+
+    private static UserCursor nextCursor(UserSortKey sortKey, String lastId, LocalDateTime lastCreatedAt) {
+        return sortKey == UserSortKey.ID
+                ? UserCursor.afterId(lastId)
+                : UserCursor.afterCreatedAt(lastCreatedAt, lastId);
+    }
+
+    /**
+     * Opens a read-only transaction that lives as long as the returned stream. Each row is
+     * detached from the persistence context once mapped, so memory stays bounded by the
+     * driver fetch size rather than the table size.
+     */
+    private Stream<User> openStream(Supplier<Stream<UserEntity>> query) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        try {
+            return query.get()
+                    .map(this::detachAndMap)
+                    .onClose(() -> transactionManager.commit(status));
+        } catch (RuntimeException e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+    }
+
+    /**
+     * Maps loaded rows, timing the batch as a whole under {@value #MAPPING_DURATION}, so the
+     * mapping cost can be told apart from the query time without a timer call per row.
+     * Single rows and streamed rows are mapped untimed.
+     */
+    private List<User> toDomain(List<UserEntity> entities) {
+        if (mappingTimer == null || entities.isEmpty()) {
+            return entities.stream().map(userMapper::toDomain).collect(Collectors.toList());
+        }
+        long start = System.nanoTime();
+        List<User> users = entities.stream().map(userMapper::toDomain).collect(Collectors.toList());
+        mappingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return users;
+    }
+
+    private User detachAndMap(UserEntity entity) {
+        User user = userMapper.toDomain(entity);
+        entityManager.detach(entity);
+        return user;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.application.ports.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes the change feed's tombstones once they are older than the retention, which
+ * would otherwise grow by one row for every user ever deleted.
+ */
+public class UserTombstonePruner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserTombstonePruner.class);
+
+    private final UserRepository userRepository;
+    private final Duration retention;
+
+    public UserTombstonePruner(UserRepository userRepository, UserChangeFeedProperties properties) {
+        if (properties.getTombstoneRetention().compareTo(properties.getSettleLag()) <= 0) {
+            // A tombstone pruned before it settles is never reported at all
+            throw new IllegalArgumentException("Tombstone retention must exceed the change feed's settle lag");
+        }
+        this.userRepository = userRepository;
+        this.retention = properties.getTombstoneRetention();
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.changes.prune-interval:PT1H}")
+    public void prune() {
+        try {
+            long deleted = userRepository.deleteTombstonesBefore(LocalDateTime.now().minus(retention));
+            if (deleted > 0) {
+                log.debug("Deleted {} user tombstones older than {}", deleted, retention);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Deleting old user tombstones failed", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The JDBC statements behind {@link UserRepositoryImpl#upsertAll(Collection)}. JPA cannot
+ * write a version it did not compute, so replicated users are written with plain batched
+ * statements on the application's data source, which join the surrounding JPA transaction.
+ */
+@Component
+public class UserUpsertWriter {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public UserUpsertWriter(DataSource dataSource) {
+        this.jdbc = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * The users to upsert as a list, after checking the rules every adapter shares: each
+     * user carries a version and appears once.
+     *
+     * @throws IllegalArgumentException when a user has no version or two share an id
+     */
+    public static List<User> checked(Collection<User> users) {
+        Set<UserId> ids = new HashSet<>(users.size() * 2);
+        for (User user : users) {
+            if (user.getVersion() == null) {
+                throw new IllegalArgumentException("User " + user.getId().getValue() + " has no version to upsert");
+            }
+            if (!ids.add(user.getId())) {
+                throw new IllegalArgumentException("User " + user.getId().getValue() + " is upserted twice");
+            }
+        }
+        return List.copyOf(users);
+    }
+
+    /**
+     * Locks the stored users among {@code ids} until the transaction ends and returns their
+     * version and active flag by id.
+     */
+    public Map<String, StoredUser> lock(Collection<String> ids) {
+        return jdbc.query("SELECT id, active, version FROM users WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                        new MapSqlParameterSource("ids", ids),
+                        (rs, rowNum) -> new StoredUser(rs.getString("id"), rs.getBoolean("active"), rs.getLong("version")))
+                .stream()
+                .collect(Collectors.toMap(StoredUser::id, stored -> stored));
+    }
+
+    public void insertAll(List<User> users, LocalDateTime now) {
+        if (users.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, email, first_name, last_name, active, created_at, updated_at, version) " +
+                        "VALUES (:id, :email, :firstName, :lastName, :active, :createdAt, :updatedAt, :version)",
+                users.stream().map(user -> row(user, now)).toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Overwrites the given users, which {@link #lock(Collection)} found at an older version.
+     */
+    public void updateAll(List<User> users, LocalDateTime now) {
+        if (users.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate("UPDATE users SET email = :email, first_name = :firstName, last_name = :lastName, " +
+                        "active = :active, updated_at = :updatedAt, version = :version " +
+                        "WHERE id = :id AND version < :version",
+                users.stream().map(user -> row(user, now)).toArray(SqlParameterSource[]::new));
+    }
+
+    private static SqlParameterSource row(User user, LocalDateTime now) {
+        return new MapSqlParameterSource("id", user.getId().getValue())
+                .addValue("email", user.getEmail().getValue())
+                .addValue("firstName", user.getName().getFirstName())
+                .addValue("lastName", user.getName().getLastName())
+                .addValue("active", user.isActive())
+                .addValue("createdAt", user.getCreatedAt())
+                .addValue("updatedAt", now)
+                .addValue("version", user.getVersion());
+    }
+
+    public record StoredUser(String id, boolean active, long version) {
+    }
+}
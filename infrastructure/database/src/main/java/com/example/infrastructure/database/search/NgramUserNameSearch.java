@@ -0,0 +1,263 @@
+package com.example.infrastructure.database.search;
+
+import com.example.application.dto.UserSummary;
+import com.example.infrastructure.database.entities.UserEntity;
+import com.example.infrastructure.database.repositories.JpaUserRepository;
+import com.example.infrastructure.database.support.TransactionCallbacks;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-process backend for H2 and test profiles, where pg_trgm is not available.
+ * <p>
+ * Keeps an inverted index from lower-cased character trigrams to user ids. A search
+ * intersects nothing more than the smallest posting list of the term's trigrams,
+ * verifies each candidate against the indexed names, and loads only the requested
+ * page from the database. The index is built on first use and then kept current
+ * from committed writes, so it is only exact for a single application node. Writes
+ * that commit while the index is being built are held back and applied once the
+ * build has read the table, so they win over the rows it read.
+ * <p>
+ * Terms shorter than three characters have no trigram to look up; they are checked
+ * against every indexed user, which costs a scan of the in-memory index.
+ */
+public class NgramUserNameSearch implements UserNameSearch {
+
+    private static final int GRAM = 3;
+    private static final Comparator<IndexedUser> ORDER = Comparator
+            .comparing(IndexedUser::lastName)
+            .thenComparing(IndexedUser::firstName)
+            .thenComparing(IndexedUser::id);
+
+    private final JpaUserRepository jpaUserRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<String, IndexedUser> users = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // A lock rather than synchronized, which would pin the virtual threads committing writes
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final List<Runnable> pending = new ArrayList<>();
+    private volatile boolean built;
+    // Guarded by pendingLock; while set, committed writes are queued rather than applied
+    private boolean building;
+
+    public NgramUserNameSearch(JpaUserRepository jpaUserRepository, TransactionTemplate readOnlyTransaction) {
+        this.jpaUserRepository = jpaUserRepository;
+        this.readOnlyTransaction = readOnlyTransaction;
+    }
+
+    @Override
+    public List<UserEntity> search(String term, int offset, int limit) {
+        List<String> ids = matchingIds(term, offset, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, UserEntity> loaded = jpaUserRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+        return ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<UserSummary> searchSummaries(String term, int offset, int limit) {
+        List<String> ids = matchingIds(term, offset, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, UserSummary> loaded = jpaUserRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(UserSummary::id, Function.identity()));
+        return ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public void indexed(UserEntity entity) {
+        IndexedUser user = IndexedUser.of(entity.getId(), entity.getFirstName(), entity.getLastName());
+        afterCommit(() -> put(user));
+    }
+
+    @Override
+    public void removed(String id) {
+        afterCommit(() -> remove(id));
+    }
+
+    private List<String> matchingIds(String term, int offset, int limit) {
+        ensureBuilt();
+        String needle = term.toLowerCase(Locale.ROOT);
+        return candidates(needle).stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .filter(user -> user.matches(needle))
+                .sorted(ORDER)
+                .skip(offset)
+                .limit(limit)
+                .map(IndexedUser::id)
+                .toList();
+    }
+
+    int size() {
+        return users.size();
+    }
+
+    private Collection<String> candidates(String needle) {
+        if (needle.length() < GRAM) {
+            return users.keySet();
+        }
+        Set<String> smallest = null;
+        for (String gram : grams(needle)) {
+            Set<String> posting = postings.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (!built) {
+                pendingLock.lock();
+                try {
+                    building = true;
+                } finally {
+                    pendingLock.unlock();
+                }
+                try {
+                    readOnlyTransaction.executeWithoutResult(status -> {
+                        try (Stream<UserNameRow> rows = jpaUserRepository.streamNames()) {
+                            rows.forEach(row -> put(IndexedUser.of(row.id(), row.firstName(), row.lastName())));
+                        }
+                    });
+                    applyPending();
+                    built = true;
+                } finally {
+                    pendingLock.lock();
+                    try {
+                        building = false;
+                        pending.clear();
+                    } finally {
+                        pendingLock.unlock();
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Replays the writes that committed during the build until none are left
+    private void applyPending() {
+        while (true) {
+            List<Runnable> writes;
+            pendingLock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    building = false;
+                    return;
+                }
+                writes = new ArrayList<>(pending);
+                pending.clear();
+            } finally {
+                pendingLock.unlock();
+            }
+            writes.forEach(Runnable::run);
+        }
+    }
+
+    private void put(IndexedUser user) {
+        writeLock.lock();
+        try {
+            IndexedUser previous = users.put(user.id(), user);
+            if (previous != null) {
+                unindex(previous);
+            }
+            for (String gram : user.grams()) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(user.id());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void remove(String id) {
+        writeLock.lock();
+        try {
+            IndexedUser previous = users.remove(id);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void unindex(IndexedUser user) {
+        for (String gram : user.grams()) {
+            Set<String> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(user.id());
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionCallbacks.afterCommit(() -> {
+            pendingLock.lock();
+            try {
+                if (building) {
+                    pending.add(action);
+                    return;
+                }
+            } finally {
+                pendingLock.unlock();
+            }
+            action.run();
+        });
+    }
+
+    static Set<String> grams(String value) {
+        return Stream.iterate(0, i -> i + GRAM <= value.length(), i -> i + 1)
+                .map(i -> value.substring(i, i + GRAM))
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private record IndexedUser(String id, String firstName, String lastName, String first, String last) {
+
+        static IndexedUser of(String id, String firstName, String lastName) {
+            return new IndexedUser(id, firstName, lastName,
+                    firstName.toLowerCase(Locale.ROOT), lastName.toLowerCase(Locale.ROOT));
+        }
+
+        boolean matches(String needle) {
+            return first.contains(needle) || last.contains(needle);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = NgramUserNameSearch.grams(first);
+            grams.addAll(NgramUserNameSearch.grams(last));
+            return grams;
+        }
+    }
+}
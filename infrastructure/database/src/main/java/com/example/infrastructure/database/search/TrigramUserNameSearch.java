@@ -0,0 +1,50 @@
+package com.example.infrastructure.database.search;
+
+import com.example.application.dto.UserSummary;
+import com.example.infrastructure.database.entities.UserEntity;
+import com.example.infrastructure.database.repositories.JpaUserRepository;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * PostgreSQL backend: an {@code ILIKE '%term%'} query answered by the pg_trgm GIN indexes
+ * created in the PostgreSQL-only migration, so the database maintains the index itself.
+ */
+public class TrigramUserNameSearch implements UserNameSearch {
+
+    private final JpaUserRepository jpaUserRepository;
+
+    public TrigramUserNameSearch(JpaUserRepository jpaUserRepository) {
+        this.jpaUserRepository = jpaUserRepository;
+    }
+
+    @Override
+    public List<UserEntity> search(String term, int offset, int limit) {
+        return jpaUserRepository.searchByNameTrigram(pattern(term), offset, limit);
+    }
+
+    @Override
+    public List<UserSummary> searchSummaries(String term, int offset, int limit) {
+        return jpaUserRepository.searchSummariesByNameTrigram(pattern(term), offset, limit)
+                .stream()
+                .map(UserSummaryRow::toSummary)
+                .toList();
+    }
+
+    private static String pattern(String term) {
+        return "%" + escapeLike(term.toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    public static String escapeLike(String term) {
+        StringBuilder escaped = new StringBuilder(term.length() + 4);
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.infrastructure.database.search;
+
+/**
+ * The columns the name search indexes, read without hydrating whole entities.
+ */
+public record UserNameRow(String id, String firstName, String lastName) {
+}
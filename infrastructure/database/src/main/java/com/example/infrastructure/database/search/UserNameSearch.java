@@ -0,0 +1,28 @@
+package com.example.infrastructure.database.search;
+
+import com.example.application.dto.UserSummary;
+import com.example.infrastructure.database.entities.UserEntity;
+
+import java.util.List;
+
+/**
+ * Backend answering case-insensitive substring searches on user names.
+ * <p>
+ * Results are ordered by last name, first name and id so that offset pages are stable.
+ * Backends that keep their own index are told about every committed write.
+ */
+public interface UserNameSearch {
+
+    List<UserEntity> search(String term, int offset, int limit);
+
+    /**
+     * Same matches and order as {@link #search}, read as listing columns only.
+     */
+    List<UserSummary> searchSummaries(String term, int offset, int limit);
+
+    default void indexed(UserEntity entity) {
+    }
+
+    default void removed(String id) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.infrastructure.database.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.users.search")
+public class UserSearchProperties {
+
+    public enum Backend {
+        /** pg_trgm on PostgreSQL, the in-process n-gram index on anything else */
+        AUTO,
+        TRIGRAM,
+        NGRAM
+    }
+
+    private Backend backend = Backend.AUTO;
+    // Upper bound for a single search, whatever the caller asks for
+    private int maxResults = 100;
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(Backend backend) {
+        this.backend = backend;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+}
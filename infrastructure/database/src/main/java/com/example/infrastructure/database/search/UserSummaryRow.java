@@ -0,0 +1,28 @@
+package com.example.infrastructure.database.search;
+
+import com.example.application.dto.UserSummary;
+
+import java.time.LocalDateTime;
+
+/**
+ * Column projection of the native trigram search; native queries cannot use constructor expressions.
+ */
+public interface UserSummaryRow {
+
+    String getId();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+
+    Boolean getActive();
+
+    LocalDateTime getCreatedAt();
+
+    default UserSummary toSummary() {
+        return new UserSummary(getId(), getEmail(), getFirstName(), getLastName(),
+                Boolean.TRUE.equals(getActive()), getCreatedAt());
+    }
+}
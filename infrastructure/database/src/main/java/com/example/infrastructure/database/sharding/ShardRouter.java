@@ -0,0 +1,53 @@
+package com.example.infrastructure.database.sharding;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maps a user id to a shard with jump consistent hashing over a 64-bit FNV-1a hash of the id.
+ * The mapping is stable across processes and releases, and growing from {@code n} to
+ * {@code n + 1} shards only moves about {@code 1 / (n + 1)} of the users, which keeps
+ * rebalancing after adding a shard proportional to the new shard's share.
+ */
+public final class ShardRouter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(String userId) {
+        return jump(fnv1a(userId), shardCount);
+    }
+
+    // Lamping and Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm"
+    static int jump(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    static long fnv1a(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
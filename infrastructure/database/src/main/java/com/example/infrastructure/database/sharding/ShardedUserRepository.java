@@ -0,0 +1,648 @@
+package com.example.infrastructure.database.sharding;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserChange;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.application.dto.UserSummary;
+import com.example.application.dto.UserWatermark;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.domain.events.UserActivated;
+import com.example.domain.events.UserDeactivated;
+import com.example.domain.events.UserEvent;
+import com.example.infrastructure.database.outbox.OutboxWriter;
+import com.example.infrastructure.database.repositories.UserBulkProperties;
+import com.example.infrastructure.database.repositories.UserChangeFeedProperties;
+import com.example.infrastructure.database.repositories.UserUpsertWriter;
+import com.example.infrastructure.database.search.TrigramUserNameSearch;
+import com.example.infrastructure.database.support.ChunkedWrites;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserRepository} over users hash-partitioned by id across several databases,
+ * see {@link ShardRouter}.
+ * <p>
+ * Lookups by id go to the owning shard only. Lookups by email go through the
+ * {@link UserEmailIndex} in the primary database. Listings, counts and name searches
+ * ask every shard concurrently on virtual threads and merge the sorted partial results,
+ * so a keyset page reads at most {@code limit} rows per shard.
+ * <p>
+ * A write runs in a primary transaction holding the email index change and the outbox
+ * rows, around a transaction on the owning shard. The shard commits first: if the
+ * primary commit then fails, the index is repaired by {@link UserShardRebalancer} and
+ * the user's events are lost, which is the price of not using two-phase commit.
+ */
+public class ShardedUserRepository implements UserRepository {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final Comparator<User> BY_ID = Comparator.comparing(user -> user.getId().getValue());
+    private static final Comparator<User> BY_CREATED_AT = Comparator
+            .comparing(User::getCreatedAt)
+            .thenComparing(BY_ID);
+    private static final Comparator<User> BY_NAME = Comparator
+            .comparing((User user) -> user.getName().getLastName())
+            .thenComparing(user -> user.getName().getFirstName())
+            .thenComparing(BY_ID);
+    private static final Comparator<UserSummary> SUMMARY_BY_ID = Comparator.comparing(UserSummary::id);
+    private static final Comparator<UserSummary> SUMMARY_BY_CREATED_AT = Comparator
+            .comparing(UserSummary::createdAt)
+            .thenComparing(SUMMARY_BY_ID);
+    private static final Comparator<UserSummary> SUMMARY_BY_NAME = Comparator
+            .comparing(UserSummary::lastName)
+            .thenComparing(UserSummary::firstName)
+            .thenComparing(SUMMARY_BY_ID);
+
+    private final UserShards shards;
+    private final UserEmailIndex emailIndex;
+    private final TransactionTemplate transaction;
+    private final OutboxWriter outboxWriter;
+    private final int maxSearchResults;
+    private final UserBulkProperties bulkProperties;
+    private final UserChangeFeedProperties changeFeedProperties;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("user-shard-", 0).factory());
+
+    public ShardedUserRepository(UserShards shards,
+                                 UserEmailIndex emailIndex,
+                                 TransactionTemplate transaction,
+                                 OutboxWriter outboxWriter,
+                                 int maxSearchResults,
+                                 UserBulkProperties bulkProperties,
+                                 UserChangeFeedProperties changeFeedProperties) {
+        this.shards = shards;
+        this.emailIndex = emailIndex;
+        this.transaction = transaction;
+        this.outboxWriter = outboxWriter;
+        this.maxSearchResults = maxSearchResults;
+        this.bulkProperties = bulkProperties;
+        this.changeFeedProperties = changeFeedProperties;
+    }
+
+    @Override
+    public Optional<User> findById(UserId id) {
+        return shards.owner(id.getValue()).findById(id.getValue());
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        return emailIndex.find(email.getValue())
+                .flatMap(entry -> shards.get(entry.shard()).findById(entry.userId()))
+                // The entry may be ahead of or behind the shard after a failed write
+                .filter(user -> user.getEmail().equals(email));
+    }
+
+    @Override
+    public List<User> findAll() {
+        return merge(scatter(shard -> shard.findAll(false)), BY_ID);
+    }
+
+    @Override
+    public List<User> findActiveUsers() {
+        return merge(scatter(shard -> shard.findAll(true)), BY_ID);
+    }
+
+    @Override
+    public KeysetPage<User> findAll(UserCursor cursor, int limit) {
+        return page(cursor, limit, false);
+    }
+
+    @Override
+    public KeysetPage<User> findActiveUsers(UserCursor cursor, int limit) {
+        return page(cursor, limit, true);
+    }
+
+    @Override
+    public KeysetPage<UserSummary> findSummaries(UserCursor cursor, int limit) {
+        return summaryPage(cursor, limit, false);
+    }
+
+    @Override
+    public KeysetPage<UserSummary> findActiveSummaries(UserCursor cursor, int limit) {
+        return summaryPage(cursor, limit, true);
+    }
+
+    /**
+     * Walks keyset pages across the shards, so memory stays bounded by one page per shard
+     * and no cursor is held open between rows.
+     */
+    @Override
+    public Stream<User> streamAll() {
+        return walk(false);
+    }
+
+    @Override
+    public Stream<User> streamActiveUsers() {
+        return walk(true);
+    }
+
+    @Override
+    public Stream<User> streamMatching(Boolean active, String emailDomain) {
+        String pattern = emailDomain == null ? null : "%@" + TrigramUserNameSearch.escapeLike(emailDomain(emailDomain));
+        // Every id sorts after the empty string
+        return Stream.iterate(matchingPage("", active, pattern), Objects::nonNull,
+                        page -> page.size() < MAX_PAGE_SIZE
+                                ? null
+                                : matchingPage(page.get(page.size() - 1).getId().getValue(), active, pattern))
+                .flatMap(List::stream);
+    }
+
+    /**
+     * Each shard keeps the tombstones of the users it deleted next to its users, so the
+     * feed is a change page per shard, merged like any other listing.
+     */
+    @Override
+    public UserChangePage findChangedSince(UserWatermark watermark, int limit) {
+        int pageSize = pageLimit(limit);
+        LocalDateTime until = LocalDateTime.now().minus(changeFeedProperties.getSettleLag());
+        List<UserChangePage> pages = scatter(shard -> List.of(shard.changesSince(watermark, until, pageSize)));
+        List<UserChange> changes = pages.stream().flatMap(page -> page.changes().stream()).toList();
+        return UserChangePage.merge(changes, pageSize, pages.stream().anyMatch(UserChangePage::hasMore), watermark);
+    }
+
+    @Override
+    public User save(User user) {
+        String id = user.getId().getValue();
+        UserShard shard = shards.owner(id);
+        LocalDateTime now = LocalDateTime.now();
+        return transaction.execute(status -> {
+            User saved;
+            if (user.getVersion() == null) {
+                // Claims the email first: a duplicate fails here, before the shard is touched
+                emailIndex.add(user.getEmail().getValue(), id, shard.index());
+                User inserted = stored(user, now, 0L);
+                shard.transaction().executeWithoutResult(shardStatus -> shard.insertAll(List.of(inserted)));
+                saved = inserted;
+            } else {
+                User current = shard.findById(id).orElseThrow(() -> deletedConcurrently(id));
+                checkVersion(user, current);
+                reindex(current, user, shard);
+                shard.transaction().executeWithoutResult(shardStatus -> shard.updateAll(List.of(touched(user, now))));
+                saved = stored(user, now, user.getVersion() + 1);
+            }
+            outboxWriter.append(user.pullEvents());
+            return saved;
+        });
+    }
+
+    /**
+     * Groups the users by shard and writes each group as one batch in its own shard
+     * transaction, all shards at once.
+     * <p>
+     * Without two-phase commit the batch is not atomic across shards: when one shard fails,
+     * others may already have committed while the primary transaction, holding the email
+     * index entries and the events, rolls back. Inserts left behind that way have no index
+     * entry and updates have no events. {@link UserShardRebalancer} indexes such inserts, or
+     * removes them once their email belongs to another user.
+     */
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        List<User> all = List.copyOf(users);
+        if (all.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return transaction.execute(status -> {
+            Map<Integer, List<User>> byShard = groupByShard(all, user -> user.getId().getValue());
+            Map<String, User> current = new HashMap<>();
+            for (User user : scatter(byShard, (shard, group) -> shard.findAllById(group.stream()
+                    .filter(u -> u.getVersion() != null).map(u -> u.getId().getValue()).toList()))) {
+                current.put(user.getId().getValue(), user);
+            }
+
+            Map<String, User> saved = new HashMap<>();
+            Map<Integer, List<User>> inserts = new HashMap<>();
+            Map<Integer, List<User>> updates = new HashMap<>();
+            for (User user : all) {
+                String id = user.getId().getValue();
+                UserShard shard = shards.owner(id);
+                if (user.getVersion() == null) {
+                    emailIndex.add(user.getEmail().getValue(), id, shard.index());
+                    User stored = stored(user, now, 0L);
+                    inserts.computeIfAbsent(shard.index(), key -> new ArrayList<>()).add(stored);
+                    saved.put(id, stored);
+                } else {
+                    User existing = current.get(id);
+                    if (existing == null) {
+                        throw deletedConcurrently(id);
+                    }
+                    checkVersion(user, existing);
+                    reindex(existing, user, shard);
+                    updates.computeIfAbsent(shard.index(), key -> new ArrayList<>()).add(touched(user, now));
+                    saved.put(id, stored(user, now, user.getVersion() + 1));
+                }
+            }
+
+            List<Integer> touchedShards = Stream.concat(inserts.keySet().stream(), updates.keySet().stream())
+                    .distinct().toList();
+            join(touchedShards.stream()
+                    .map(index -> CompletableFuture.runAsync(() -> {
+                        UserShard shard = shards.get(index);
+                        shard.transaction().executeWithoutResult(shardStatus -> {
+                            shard.insertAll(inserts.getOrDefault(index, List.of()));
+                            shard.updateAll(updates.getOrDefault(index, List.of()));
+                        });
+                    }, executor))
+                    .toList());
+
+            for (User user : all) {
+                outboxWriter.append(user.pullEvents());
+            }
+            return all.stream().map(user -> saved.get(user.getId().getValue())).toList();
+        });
+    }
+
+    /**
+     * Written like {@link #saveAll(Collection)}, except that the shard UPDATE only overwrites
+     * older versions, so a write that lands between the read and the update is kept.
+     */
+    @Override
+    public long upsertAll(Collection<User> users) {
+        List<User> all = UserUpsertWriter.checked(users);
+        if (all.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return transaction.execute(status -> {
+            Map<Integer, List<User>> byShard = groupByShard(all, user -> user.getId().getValue());
+            Map<String, User> current = byId(scatter(byShard, (shard, group) ->
+                    shard.findAllById(group.stream().map(user -> user.getId().getValue()).toList())));
+
+            Map<Integer, List<User>> inserts = new HashMap<>();
+            Map<Integer, List<User>> updates = new HashMap<>();
+            for (User user : all) {
+                String id = user.getId().getValue();
+                UserShard shard = shards.owner(id);
+                User existing = current.get(id);
+                if (existing == null) {
+                    emailIndex.add(user.getEmail().getValue(), id, shard.index());
+                    inserts.computeIfAbsent(shard.index(), key -> new ArrayList<>()).add(stored(user, now, user.getVersion()));
+                } else if (existing.getVersion() < user.getVersion()) {
+                    reindex(existing, user, shard);
+                    updates.computeIfAbsent(shard.index(), key -> new ArrayList<>()).add(stored(user, now, user.getVersion()));
+                }
+            }
+
+            List<Integer> touchedShards = Stream.concat(inserts.keySet().stream(), updates.keySet().stream())
+                    .distinct().toList();
+            join(touchedShards.stream()
+                    .map(index -> CompletableFuture.runAsync(() -> {
+                        UserShard shard = shards.get(index);
+                        shard.transaction().executeWithoutResult(shardStatus -> {
+                            shard.insertAll(inserts.getOrDefault(index, List.of()));
+                            shard.overwriteOlder(updates.getOrDefault(index, List.of()));
+                        });
+                    }, executor))
+                    .toList());
+            return Stream.concat(inserts.values().stream(), updates.values().stream()).mapToLong(List::size).sum();
+        });
+    }
+
+    @Override
+    public List<User> findAllById(Collection<UserId> ids) {
+        List<String> values = ids.stream().map(UserId::getValue).distinct().toList();
+        Map<String, User> found = byId(scatter(groupByShard(values, Function.identity()), UserShard::findAllById));
+        return values.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<User> findAllByEmail(Collection<Email> emails) {
+        List<String> values = emails.stream().map(Email::getValue).distinct().toList();
+        Map<Integer, List<String>> idsByShard = new HashMap<>();
+        for (UserEmailIndex.Entry entry : emailIndex.findAll(values).values()) {
+            idsByShard.computeIfAbsent(entry.shard(), key -> new ArrayList<>()).add(entry.userId());
+        }
+        Map<String, User> found = scatter(idsByShard, UserShard::findAllById).stream()
+                .collect(Collectors.toMap(user -> user.getEmail().getValue(), Function.identity(), (a, b) -> a));
+        return values.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public void delete(UserId id) {
+        UserShard shard = shards.owner(id.getValue());
+        transaction.executeWithoutResult(status -> shard.findById(id.getValue()).ifPresent(user -> {
+            emailIndex.remove(user.getEmail().getValue(), id.getValue());
+            shard.transaction().executeWithoutResult(shardStatus -> {
+                shard.delete(id.getValue());
+                shard.insertTombstones(List.of(id.getValue()), LocalDateTime.now());
+            });
+        }));
+    }
+
+    /**
+     * Every shard works through its own chunks, all shards at once. A chunk commits on its
+     * shard before the chunk's events commit in the primary, as for any other write.
+     */
+    @Override
+    public long deactivateByEmailDomain(String domain) {
+        String pattern = "%@" + TrigramUserNameSearch.escapeLike(emailDomain(domain));
+        int chunkSize = bulkProperties.getChunkSize();
+        return sum(shard -> ChunkedWrites.byKeyset(chunkSize, bulkProperties.getPause(),
+                afterId -> setActive(shard, () -> shard.lockActiveByEmailLike(pattern, afterId, chunkSize), false)));
+    }
+
+    @Override
+    public long activateAll(Collection<UserId> ids) {
+        List<String> values = ids.stream().map(UserId::getValue).distinct().sorted().toList();
+        return join(groupByShard(values, Function.identity()).entrySet().stream()
+                .map(entry -> CompletableFuture.supplyAsync(() -> {
+                    UserShard shard = shards.get(entry.getKey());
+                    return ChunkedWrites.byChunks(entry.getValue(), bulkProperties.getChunkSize(), bulkProperties.getPause(),
+                            chunk -> setActive(shard, () -> shard.lockInactive(chunk), true).size());
+                }, executor))
+                .toList()).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public long purgeInactiveUpdatedBefore(LocalDateTime cutoff) {
+        int chunkSize = bulkProperties.getChunkSize();
+        return sum(shard -> ChunkedWrites.byKeyset(chunkSize, bulkProperties.getPause(), afterId -> transaction.execute(status -> {
+            List<User> purged = shard.transaction().execute(shardStatus -> {
+                List<User> locked = shard.lockInactiveUpdatedBefore(cutoff, afterId, chunkSize);
+                if (!locked.isEmpty()) {
+                    shard.deleteAll(ids(locked));
+                    shard.insertTombstones(ids(locked), LocalDateTime.now());
+                }
+                return locked;
+            });
+            purged.forEach(user -> emailIndex.remove(user.getEmail().getValue(), user.getId().getValue()));
+            return ids(purged);
+        })));
+    }
+
+    @Override
+    public long deleteTombstonesBefore(LocalDateTime cutoff) {
+        return sum(shard -> shard.deleteTombstonesBefore(cutoff));
+    }
+
+    @Override
+    public boolean existsById(UserId id) {
+        return shards.owner(id.getValue()).existsById(id.getValue());
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        return findByEmail(email).isPresent();
+    }
+
+    @Override
+    public long count() {
+        return sum(shard -> shard.count(false));
+    }
+
+    @Override
+    public long countActiveUsers() {
+        return sum(shard -> shard.count(true));
+    }
+
+    @Override
+    public List<User> findByNameContaining(String name) {
+        return findByNameContaining(name, 0, maxSearchResults);
+    }
+
+    /**
+     * Each shard returns its first {@code offset + limit} matches and the merge skips the
+     * offset, so deep offsets cost every shard; keep searches shallow.
+     */
+    @Override
+    public List<User> findByNameContaining(String name, int offset, int limit) {
+        int pageSize = searchPageSize(offset, limit);
+        if (name == null || name.isBlank()) {
+            return List.of();
+        }
+        String pattern = pattern(name);
+        return merge(scatter(shard -> shard.searchByName(pattern, offset + pageSize)), BY_NAME).stream()
+                .skip(offset)
+                .limit(pageSize)
+                .toList();
+    }
+
+    @Override
+    public List<UserSummary> findSummariesByNameContaining(String name, int offset, int limit) {
+        int pageSize = searchPageSize(offset, limit);
+        if (name == null || name.isBlank()) {
+            return List.of();
+        }
+        String pattern = pattern(name);
+        return merge(scatter(shard -> shard.searchSummariesByName(pattern, offset + pageSize)), SUMMARY_BY_NAME).stream()
+                .skip(offset)
+                .limit(pageSize)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private KeysetPage<User> page(UserCursor cursor, int limit, boolean activeOnly) {
+        int pageSize = pageLimit(limit);
+        List<User> users = merge(scatter(shard -> shard.page(cursor, pageSize, activeOnly)),
+                cursor.sortKey() == UserSortKey.ID ? BY_ID : BY_CREATED_AT);
+        List<User> items = users.subList(0, Math.min(pageSize, users.size()));
+        if (items.size() < pageSize) {
+            return new KeysetPage<>(items, null);
+        }
+        User last = items.get(items.size() - 1);
+        return new KeysetPage<>(items, nextCursor(cursor.sortKey(), last.getId().getValue(), last.getCreatedAt()));
+    }
+
+    private KeysetPage<UserSummary> summaryPage(UserCursor cursor, int limit, boolean activeOnly) {
+        int pageSize = pageLimit(limit);
+        List<UserSummary> summaries = merge(scatter(shard -> shard.summaryPage(cursor, pageSize, activeOnly)),
+                cursor.sortKey() == UserSortKey.ID ? SUMMARY_BY_ID : SUMMARY_BY_CREATED_AT);
+        List<UserSummary> items = summaries.subList(0, Math.min(pageSize, summaries.size()));
+        if (items.size() < pageSize) {
+            return new KeysetPage<>(items, null);
+        }
+        UserSummary last = items.get(items.size() - 1);
+        return new KeysetPage<>(items, nextCursor(cursor.sortKey(), last.id(), last.createdAt()));
+    }
+
+    private Stream<User> walk(boolean activeOnly) {
+        UserCursor first = UserCursor.first(UserSortKey.ID);
+        return Stream.iterate(page(first, MAX_PAGE_SIZE, activeOnly), Objects::nonNull,
+                        page -> page.hasNext() ? page(page.next(), MAX_PAGE_SIZE, activeOnly) : null)
+                .flatMap(page -> page.items().stream());
+    }
+
+    private List<User> matchingPage(String afterId, Boolean active, String emailPattern) {
+        List<User> users = merge(scatter(shard -> shard.pageMatching(afterId, MAX_PAGE_SIZE, active, emailPattern)), BY_ID);
+        return users.subList(0, Math.min(MAX_PAGE_SIZE, users.size()));
+    }
+
+    // Locks and updates one chunk on the shard, then appends the chunk's events in the primary
+    private List<String> setActive(UserShard shard, Supplier<List<User>> lock, boolean active) {
+        LocalDateTime now = LocalDateTime.now();
+        return transaction.execute(status -> {
+            List<String> changed = shard.transaction().execute(shardStatus -> {
+                List<String> locked = ids(lock.get());
+                if (!locked.isEmpty()) {
+                    shard.setActive(locked, active, now);
+                }
+                return locked;
+            });
+            outboxWriter.append(changed.stream()
+                    .map(id -> active
+                            ? (UserEvent) new UserActivated(new UserId(id), now)
+                            : new UserDeactivated(new UserId(id), now))
+                    .toList());
+            return changed;
+        });
+    }
+
+    private void reindex(User current, User user, UserShard shard) {
+        if (!current.getEmail().equals(user.getEmail())) {
+            emailIndex.remove(current.getEmail().getValue(), current.getId().getValue());
+            emailIndex.add(user.getEmail().getValue(), user.getId().getValue(), shard.index());
+        }
+    }
+
+    private <T> List<T> scatter(Function<UserShard, List<T>> query) {
+        if (shards.size() == 1) {
+            return query.apply(shards.get(0));
+        }
+        return join(shards.all().stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .toList()).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    private <K, T> List<T> scatter(Map<Integer, List<K>> keysByShard, ShardQuery<K, T> query) {
+        return join(keysByShard.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .map(entry -> CompletableFuture.supplyAsync(
+                        () -> query.apply(shards.get(entry.getKey()), entry.getValue()), executor))
+                .toList()).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    private long sum(ToLongFunction<UserShard> query) {
+        return scatter(shard -> List.of(query.applyAsLong(shard))).stream().mapToLong(Long::longValue).sum();
+    }
+
+    private <K> Map<Integer, List<K>> groupByShard(List<K> keys, Function<K, String> userId) {
+        Map<Integer, List<K>> byShard = new LinkedHashMap<>();
+        for (K key : keys) {
+            byShard.computeIfAbsent(shards.owner(userId.apply(key)).index(), index -> new ArrayList<>()).add(key);
+        }
+        return byShard;
+    }
+
+    private static <T> List<T> join(List<CompletableFuture<T>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            // Surface the shard's own exception, e.g. an optimistic locking failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static <T> List<T> merge(List<T> items, Comparator<? super T> order) {
+        List<T> merged = new ArrayList<>(items);
+        merged.sort(order);
+        return merged;
+    }
+
+    private static List<String> ids(List<User> users) {
+        return users.stream().map(user -> user.getId().getValue()).toList();
+    }
+
+    private static Map<String, User> byId(List<User> users) {
+        return users.stream().collect(Collectors.toMap(user -> user.getId().getValue(), Function.identity(), (a, b) -> a));
+    }
+
+    private int searchPageSize(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Search offset cannot be negative");
+        }
+        return Math.min(pageLimit(limit), maxSearchResults);
+    }
+
+    private static int pageLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private static String emailDomain(String domain) {
+        String normalized = domain == null ? "" : domain.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || normalized.contains("@")) {
+            throw new IllegalArgumentException("Invalid email domain: " + domain);
+        }
+        return normalized;
+    }
+
+    private static String pattern(String name) {
+        return "%" + TrigramUserNameSearch.escapeLike(name.trim().toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    private static UserCursor nextCursor(UserSortKey sortKey, String lastId, LocalDateTime lastCreatedAt) {
+        return sortKey == UserSortKey.ID
+                ? UserCursor.afterId(lastId)
+                : UserCursor.afterCreatedAt(lastCreatedAt, lastId);
+    }
+
+    private static void checkVersion(User user, User current) {
+        if (!user.getVersion().equals(current.getVersion())) {
+            throw new OptimisticLockingFailureException(
+                    "User " + user.getId().getValue() + " was modified concurrently (expected version "
+                            + user.getVersion() + " but found " + current.getVersion() + ")");
+        }
+    }
+
+    private static DataAccessException deletedConcurrently(String id) {
+        return new OptimisticLockingFailureException("User " + id + " was deleted concurrently");
+    }
+
+    // The user as it is written: the version it was read with and the new update time
+    private static User touched(User user, LocalDateTime now) {
+        return stored(user, now, user.getVersion());
+    }
+
+    private static User stored(User user, LocalDateTime updatedAt, Long version) {
+        return new User(user.getId(), user.getEmail(), user.getName(), user.isActive(), user.getCreatedAt(), updatedAt, version);
+    }
+
+    @FunctionalInterface
+    private interface ShardQuery<K, T> {
+        List<T> apply(UserShard shard, List<K> keys);
+    }
+}
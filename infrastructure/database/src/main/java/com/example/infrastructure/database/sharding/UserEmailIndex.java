@@ -0,0 +1,95 @@
+package com.example.infrastructure.database.sharding;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Directory from email to user id and shard, kept in the primary database.
+ * <p>
+ * Users are sharded by id, so without it an email lookup would have to ask every shard.
+ * Its primary key also keeps emails unique across shards, which no single shard can.
+ * Writes join the caller's transaction on the primary {@link DataSource}.
+ */
+public class UserEmailIndex {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public UserEmailIndex(DataSource dataSource) {
+        this.jdbc = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    public Optional<Entry> find(String email) {
+        return jdbc.query("SELECT email, user_id, shard FROM user_email_index WHERE email = :email",
+                new MapSqlParameterSource("email", email), UserEmailIndex::entry).stream().findFirst();
+    }
+
+    public Map<String, Entry> findAll(Collection<String> emails) {
+        Map<String, Entry> found = new HashMap<>();
+        if (emails.isEmpty()) {
+            return found;
+        }
+        jdbc.query("SELECT email, user_id, shard FROM user_email_index WHERE email IN (:emails)",
+                new MapSqlParameterSource("emails", emails),
+                rs -> {
+                    Entry entry = entry(rs, 0);
+                    found.put(entry.email(), entry);
+                });
+        return found;
+    }
+
+    /**
+     * Every entry, ordered by email. Only used to repair the index.
+     */
+    public List<Entry> findAll() {
+        return jdbc.query("SELECT email, user_id, shard FROM user_email_index ORDER BY email",
+                UserEmailIndex::entry);
+    }
+
+    /**
+     * Adds an entry; fails with a duplicate key exception if the email is already taken.
+     */
+    public void add(String email, String userId, int shard) {
+        jdbc.update("INSERT INTO user_email_index (email, user_id, shard) VALUES (:email, :userId, :shard)",
+                parameters(email, userId, shard));
+    }
+
+    /**
+     * Points the email at the user, adding the entry if it is missing.
+     */
+    public void put(String email, String userId, int shard) {
+        MapSqlParameterSource parameters = parameters(email, userId, shard);
+        if (jdbc.update("UPDATE user_email_index SET user_id = :userId, shard = :shard WHERE email = :email",
+                parameters) == 0) {
+            jdbc.update("INSERT INTO user_email_index (email, user_id, shard) VALUES (:email, :userId, :shard)",
+                    parameters);
+        }
+    }
+
+    /**
+     * Removes the entry if it still belongs to the user.
+     */
+    public void remove(String email, String userId) {
+        jdbc.update("DELETE FROM user_email_index WHERE email = :email AND user_id = :userId",
+                new MapSqlParameterSource("email", email).addValue("userId", userId));
+    }
+
+    private static MapSqlParameterSource parameters(String email, String userId, int shard) {
+        return new MapSqlParameterSource("email", email).addValue("userId", userId).addValue("shard", shard);
+    }
+
+    private static Entry entry(ResultSet rs, int row) throws SQLException {
+        return new Entry(rs.getString("email"), rs.getString("user_id"), rs.getInt("shard"));
+    }
+
+    public record Entry(String email, String userId, int shard) {
+    }
+}
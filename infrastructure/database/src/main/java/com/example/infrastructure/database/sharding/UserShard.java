@@ -0,0 +1,362 @@
+package com.example.infrastructure.database.sharding;
+
+import com.example.application.dto.UserChange;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.application.dto.UserSummary;
+import com.example.application.dto.UserWatermark;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * One shard of the users table, accessed with plain JDBC. Every method is a single
+ * statement or batch on this shard; writes run in the caller's shard transaction, see
+ * {@link #transaction()}.
+ */
+public final class UserShard {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String USER_COLUMNS =
+            "SELECT id, email, first_name, last_name, active, created_at, updated_at, version FROM users ";
+    private static final String SUMMARY_COLUMNS =
+            "SELECT id, email, first_name, last_name, active, created_at FROM users ";
+    private static final String NAME_MATCH =
+            "WHERE (LOWER(first_name) LIKE :pattern ESCAPE '\\' OR LOWER(last_name) LIKE :pattern ESCAPE '\\') " +
+                    "ORDER BY last_name, first_name, id LIMIT :limit";
+
+    private static final RowMapper<User> USER = (rs, row) -> new User(
+            new UserId(rs.getString("id")),
+            // Rows were validated and normalized on the way in, as in the JPA mapper
+            Email.fromTrusted(rs.getString("email")),
+            Name.fromTrusted(rs.getString("first_name"), rs.getString("last_name")),
+            rs.getBoolean("active"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("updated_at", LocalDateTime.class),
+            rs.getLong("version"));
+
+    private static final RowMapper<UserChange> TOMBSTONE = (rs, row) -> UserChange.deleted(
+            rs.getString("id"),
+            rs.getObject("deleted_at", LocalDateTime.class));
+
+    private static final RowMapper<UserSummary> SUMMARY = (rs, row) -> new UserSummary(
+            rs.getString("id"),
+            rs.getString("email"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getBoolean("active"),
+            rs.getObject("created_at", LocalDateTime.class));
+
+    private final int index;
+    private final DataSource dataSource;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+
+    public UserShard(int index, DataSource dataSource) {
+        this.index = index;
+        this.dataSource = dataSource;
+        this.jdbc = new NamedParameterJdbcTemplate(dataSource);
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    public int index() {
+        return index;
+    }
+
+    DataSource dataSource() {
+        return dataSource;
+    }
+
+    /**
+     * A read-write transaction on this shard only.
+     */
+    public TransactionTemplate transaction() {
+        return transaction;
+    }
+
+    public Optional<User> findById(String id) {
+        return jdbc.query(USER_COLUMNS + "WHERE id = :id", new MapSqlParameterSource("id", id), USER)
+                .stream().findFirst();
+    }
+
+    public Optional<User> findByEmail(String email) {
+        return jdbc.query(USER_COLUMNS + "WHERE email = :email", new MapSqlParameterSource("email", email), USER)
+                .stream().findFirst();
+    }
+
+    public List<User> findAllById(Collection<String> ids) {
+        return inChunks(ids, chunk -> jdbc.query(USER_COLUMNS + "WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", chunk), USER));
+    }
+
+    public List<User> findAllByEmail(Collection<String> emails) {
+        return inChunks(emails, chunk -> jdbc.query(USER_COLUMNS + "WHERE email IN (:emails)",
+                new MapSqlParameterSource("emails", chunk), USER));
+    }
+
+    public List<String> existingEmails(Collection<String> emails) {
+        return inChunks(emails, chunk -> jdbc.queryForList("SELECT email FROM users WHERE email IN (:emails)",
+                new MapSqlParameterSource("emails", chunk), String.class));
+    }
+
+    public List<User> findAll(boolean activeOnly) {
+        return jdbc.query(USER_COLUMNS + (activeOnly ? "WHERE active = TRUE " : "") + "ORDER BY id",
+                new MapSqlParameterSource(), USER);
+    }
+
+    public List<User> page(UserCursor cursor, int limit, boolean activeOnly) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        return jdbc.query(USER_COLUMNS + seek(cursor, limit, activeOnly, parameters), parameters, USER);
+    }
+
+    /**
+     * The next {@code limit} users by id after {@code afterId}, filtered as
+     * {@link com.example.application.ports.UserRepository#streamMatching(Boolean, String)}.
+     */
+    public List<User> pageMatching(String afterId, int limit, Boolean active, String emailPattern) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("afterId", afterId).addValue("limit", limit);
+        StringBuilder sql = new StringBuilder(USER_COLUMNS).append("WHERE id > :afterId ");
+        if (active != null) {
+            sql.append("AND active = :active ");
+            parameters.addValue("active", active);
+        }
+        if (emailPattern != null) {
+            sql.append("AND email LIKE :pattern ESCAPE '\\' ");
+            parameters.addValue("pattern", emailPattern);
+        }
+        return jdbc.query(sql.append("ORDER BY id LIMIT :limit").toString(), parameters, USER);
+    }
+
+    public List<UserSummary> summaryPage(UserCursor cursor, int limit, boolean activeOnly) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        return jdbc.query(SUMMARY_COLUMNS + seek(cursor, limit, activeOnly, parameters), parameters, SUMMARY);
+    }
+
+    /**
+     * The first {@code limit} changes of this shard after {@code watermark} and before {@code until}.
+     */
+    public UserChangePage changesSince(UserWatermark watermark, LocalDateTime until, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("changedAt", watermark.changedAt())
+                .addValue("afterId", watermark.id())
+                .addValue("until", until)
+                .addValue("limit", limit);
+        List<UserChange> changes = new ArrayList<>();
+        List<User> updated = jdbc.query(USER_COLUMNS + "WHERE (updated_at > :changedAt " +
+                "OR (updated_at = :changedAt AND id > :afterId)) AND updated_at < :until " +
+                "ORDER BY updated_at, id LIMIT :limit", parameters, USER);
+        for (User user : updated) {
+            changes.add(UserChange.updated(user));
+        }
+        List<UserChange> deleted = jdbc.query("SELECT id, deleted_at FROM user_tombstones WHERE (deleted_at > :changedAt " +
+                "OR (deleted_at = :changedAt AND id > :afterId)) AND deleted_at < :until " +
+                "ORDER BY deleted_at, id LIMIT :limit", parameters, TOMBSTONE);
+        changes.addAll(deleted);
+        return UserChangePage.merge(changes, limit, updated.size() == limit || deleted.size() == limit, watermark);
+    }
+
+    /**
+     * The first {@code limit} users whose first or last name contains the lower-cased, escaped
+     * {@code pattern}, ordered by last name, first name and id.
+     */
+    public List<User> searchByName(String pattern, int limit) {
+        return jdbc.query(USER_COLUMNS + NAME_MATCH, nameParameters(pattern, limit), USER);
+    }
+
+    public List<UserSummary> searchSummariesByName(String pattern, int limit) {
+        return jdbc.query(SUMMARY_COLUMNS + NAME_MATCH, nameParameters(pattern, limit), SUMMARY);
+    }
+
+    public boolean existsById(String id) {
+        return count("SELECT COUNT(*) FROM users WHERE id = :id", new MapSqlParameterSource("id", id)) > 0;
+    }
+
+    public boolean existsByEmail(String email) {
+        return count("SELECT COUNT(*) FROM users WHERE email = :email", new MapSqlParameterSource("email", email)) > 0;
+    }
+
+    public long count(boolean activeOnly) {
+        return count("SELECT COUNT(*) FROM users" + (activeOnly ? " WHERE active = TRUE" : ""), new MapSqlParameterSource());
+    }
+
+    /**
+     * Inserts the users as they are, keeping their version and timestamps.
+     */
+    public void insertAll(List<User> users) {
+        for (List<User> chunk : chunks(users)) {
+            jdbc.batchUpdate("INSERT INTO users (id, email, first_name, last_name, active, created_at, updated_at, version) " +
+                            "VALUES (:id, :email, :firstName, :lastName, :active, :createdAt, :updatedAt, :version)",
+                    chunk.stream().map(UserShard::row).toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    /**
+     * Updates each user if it still has the version it was read with, failing the batch otherwise.
+     */
+    public void updateAll(List<User> users) {
+        for (List<User> chunk : chunks(users)) {
+            int[] updated = jdbc.batchUpdate("UPDATE users SET email = :email, first_name = :firstName, " +
+                            "last_name = :lastName, active = :active, updated_at = :updatedAt, version = :version + 1 " +
+                            "WHERE id = :id AND version = :version",
+                    chunk.stream().map(UserShard::row).toArray(SqlParameterSource[]::new));
+            for (int i = 0; i < updated.length; i++) {
+                // Some drivers report SUCCESS_NO_INFO (-2) for batched statements
+                if (updated[i] == 0) {
+                    throw new OptimisticLockingFailureException(
+                            "User " + chunk.get(i).getId().getValue() + " was modified or deleted concurrently");
+                }
+            }
+        }
+    }
+
+    /**
+     * Overwrites each user stored at an older version with the version it carries, leaving
+     * users that are as new or newer alone.
+     */
+    public void overwriteOlder(List<User> users) {
+        for (List<User> chunk : chunks(users)) {
+            jdbc.batchUpdate("UPDATE users SET email = :email, first_name = :firstName, last_name = :lastName, " +
+                            "active = :active, updated_at = :updatedAt, version = :version " +
+                            "WHERE id = :id AND version < :version",
+                    chunk.stream().map(UserShard::row).toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    public boolean delete(String id) {
+        return jdbc.update("DELETE FROM users WHERE id = :id", new MapSqlParameterSource("id", id)) > 0;
+    }
+
+    /**
+     * Deletes the user only if it still has {@code version}.
+     */
+    public boolean delete(String id, long version) {
+        return jdbc.update("DELETE FROM users WHERE id = :id AND version = :version",
+                new MapSqlParameterSource("id", id).addValue("version", version)) > 0;
+    }
+
+    // Bulk writes: each chunk locks the next matching users in id order, then writes them by id
+
+    public List<User> lockActiveByEmailLike(String pattern, String afterId, int limit) {
+        return jdbc.query(USER_COLUMNS + "WHERE active = TRUE AND email LIKE :pattern ESCAPE '\\' " +
+                        "AND id > :afterId ORDER BY id LIMIT :limit FOR UPDATE",
+                new MapSqlParameterSource("pattern", pattern).addValue("afterId", afterId).addValue("limit", limit), USER);
+    }
+
+    public List<User> lockInactive(Collection<String> ids) {
+        return jdbc.query(USER_COLUMNS + "WHERE active = FALSE AND id IN (:ids) ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", ids), USER);
+    }
+
+    public List<User> lockInactiveUpdatedBefore(LocalDateTime cutoff, String afterId, int limit) {
+        return jdbc.query(USER_COLUMNS + "WHERE active = FALSE AND updated_at < :cutoff " +
+                        "AND id > :afterId ORDER BY id LIMIT :limit FOR UPDATE",
+                new MapSqlParameterSource("cutoff", cutoff).addValue("afterId", afterId).addValue("limit", limit), USER);
+    }
+
+    public int setActive(Collection<String> ids, boolean active, LocalDateTime updatedAt) {
+        return jdbc.update("UPDATE users SET active = :active, updated_at = :updatedAt, version = version + 1 " +
+                        "WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids).addValue("active", active).addValue("updatedAt", updatedAt));
+    }
+
+    public int deleteAll(Collection<String> ids) {
+        return jdbc.update("DELETE FROM users WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * Leaves a tombstone for each of the deleted users, for the change feed, replacing the one
+     * an earlier deletion of a re-created user left. Moving a user to another shard deletes
+     * it here without one.
+     */
+    public void insertTombstones(Collection<String> ids, LocalDateTime deletedAt) {
+        for (List<String> chunk : chunks(List.copyOf(ids))) {
+            jdbc.update("DELETE FROM user_tombstones WHERE id IN (:ids)", new MapSqlParameterSource("ids", chunk));
+            jdbc.batchUpdate("INSERT INTO user_tombstones (id, deleted_at) VALUES (:id, :deletedAt)",
+                    chunk.stream()
+                            .map(id -> new MapSqlParameterSource("id", id).addValue("deletedAt", deletedAt))
+                            .toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    public int deleteTombstonesBefore(LocalDateTime cutoff) {
+        return jdbc.update("DELETE FROM user_tombstones WHERE deleted_at < :cutoff",
+                new MapSqlParameterSource("cutoff", cutoff));
+    }
+
+    private long count(String sql, SqlParameterSource parameters) {
+        Long count = jdbc.queryForObject(sql, parameters, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private static String seek(UserCursor cursor, int limit, boolean activeOnly, MapSqlParameterSource parameters) {
+        List<String> conditions = new ArrayList<>(2);
+        if (activeOnly) {
+            conditions.add("active = TRUE");
+        }
+        String order;
+        if (cursor.sortKey() == UserSortKey.ID) {
+            if (!cursor.isFirst()) {
+                conditions.add("id > :afterId");
+                parameters.addValue("afterId", cursor.lastId());
+            }
+            order = "ORDER BY id";
+        } else {
+            if (!cursor.isFirst()) {
+                conditions.add("(created_at > :createdAt OR (created_at = :createdAt AND id > :afterId))");
+                parameters.addValue("createdAt", cursor.lastCreatedAt()).addValue("afterId", cursor.lastId());
+            }
+            order = "ORDER BY created_at, id";
+        }
+        parameters.addValue("limit", limit);
+        return (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ") + order + " LIMIT :limit";
+    }
+
+    private static MapSqlParameterSource nameParameters(String pattern, int limit) {
+        return new MapSqlParameterSource("pattern", pattern).addValue("limit", limit);
+    }
+
+    private static MapSqlParameterSource row(User user) {
+        return new MapSqlParameterSource()
+                .addValue("id", user.getId().getValue())
+                .addValue("email", user.getEmail().getValue())
+                .addValue("firstName", user.getName().getFirstName())
+                .addValue("lastName", user.getName().getLastName())
+                .addValue("active", user.isActive())
+                .addValue("createdAt", user.getCreatedAt())
+                .addValue("updatedAt", user.getUpdatedAt())
+                .addValue("version", user.getVersion());
+    }
+
+    private static <T, R> List<R> inChunks(Collection<T> values, Function<List<T>, List<R>> query) {
+        List<R> results = new ArrayList<>();
+        for (List<T> chunk : chunks(List.copyOf(values))) {
+            results.addAll(query.apply(chunk));
+        }
+        return results;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>((values.size() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        for (int from = 0; from < values.size(); from += CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
+}
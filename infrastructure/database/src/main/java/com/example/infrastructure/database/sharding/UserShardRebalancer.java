@@ -0,0 +1,198 @@
+package com.example.infrastructure.database.sharding;
+
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.domain.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Moves users that live on a shard other than their owner and brings the
+ * {@link UserEmailIndex} back in line with the shards.
+ * <p>
+ * A move copies the user to its owner and then deletes it from the source only if it is
+ * still at the version that was copied. The copy commits first, so an interrupted move
+ * leaves the user on both shards rather than on neither; the next run sees the duplicate
+ * and keeps the newer copy on the owner. Run it before serving traffic, e.g. after
+ * adding a shard: users are not found by id while they are misplaced.
+ * <p>
+ * It also repairs what a failed cross-shard write left behind. A user without an index
+ * entry is indexed. A user whose email the index gives to another user is an orphan of a
+ * failed batch insert and is deleted, leaving a tombstone like any other delete.
+ */
+public class UserShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(UserShardRebalancer.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    private final UserShards shards;
+    private final UserEmailIndex emailIndex;
+    private final TransactionTemplate transaction;
+
+    public UserShardRebalancer(UserShards shards, UserEmailIndex emailIndex, TransactionTemplate transaction) {
+        this.shards = shards;
+        this.emailIndex = emailIndex;
+        this.transaction = transaction;
+    }
+
+    public Result rebalance() {
+        int moved = 0;
+        int duplicates = 0;
+        for (UserShard source : shards.all()) {
+            for (User user : misplaced(source)) {
+                try {
+                    if (move(user, source)) {
+                        moved++;
+                    } else {
+                        duplicates++;
+                    }
+                } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                    log.warn("Could not move user {} off shard {}: {}", user.getId().getValue(), source.index(), e.getMessage());
+                }
+            }
+        }
+        // Stale entries go first, so an email that still names another user is really taken
+        int orphans = sweepIndex();
+        List<Orphan> orphanUsers = new ArrayList<>();
+        int indexed = reindex(orphanUsers);
+        int removed = removeOrphans(orphanUsers);
+        Result result = new Result(moved, duplicates, indexed, orphans, removed);
+        log.info("Rebalanced {} shards: {}", shards.size(), result);
+        return result;
+    }
+
+    private List<User> misplaced(UserShard source) {
+        List<User> misplaced = new ArrayList<>();
+        UserCursor cursor = UserCursor.first(UserSortKey.ID);
+        List<User> page;
+        do {
+            page = source.page(cursor, PAGE_SIZE, false);
+            for (User user : page) {
+                if (shards.owner(user.getId().getValue()) != source) {
+                    misplaced.add(user);
+                }
+            }
+            if (!page.isEmpty()) {
+                cursor = UserCursor.afterId(page.get(page.size() - 1).getId().getValue());
+            }
+        } while (page.size() == PAGE_SIZE);
+        return misplaced;
+    }
+
+    /**
+     * Returns whether the user was copied, as opposed to only dropping a stale duplicate.
+     */
+    private boolean move(User user, UserShard source) {
+        String id = user.getId().getValue();
+        UserShard owner = shards.owner(id);
+        return Boolean.TRUE.equals(source.transaction().execute(sourceStatus -> {
+            boolean copied = Boolean.TRUE.equals(owner.transaction().execute(ownerStatus -> {
+                Optional<User> existing = owner.findById(id);
+                if (existing.isPresent() && existing.get().getVersion() >= user.getVersion()) {
+                    return false;
+                }
+                existing.ifPresent(stale -> owner.delete(id));
+                owner.insertAll(List.of(user));
+                return true;
+            }));
+            if (!source.delete(id, user.getVersion())) {
+                throw new OptimisticLockingFailureException("User " + id + " changed while it was being moved");
+            }
+            return copied;
+        }));
+    }
+
+    private int reindex(List<Orphan> orphans) {
+        int changed = 0;
+        for (UserShard shard : shards.all()) {
+            UserCursor cursor = UserCursor.first(UserSortKey.ID);
+            List<User> page;
+            do {
+                page = shard.page(cursor, PAGE_SIZE, false);
+                List<User> users = page;
+                Integer updated = transaction.execute(status -> {
+                    Map<String, UserEmailIndex.Entry> entries = emailIndex.findAll(
+                            users.stream().map(user -> user.getEmail().getValue()).toList());
+                    int count = 0;
+                    for (User user : users) {
+                        UserEmailIndex.Entry entry = entries.get(user.getEmail().getValue());
+                        if (entry != null && !entry.userId().equals(user.getId().getValue())) {
+                            orphans.add(new Orphan(shard, user));
+                        } else if (entry == null || entry.shard() != shard.index()) {
+                            emailIndex.put(user.getEmail().getValue(), user.getId().getValue(), shard.index());
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+                changed += updated == null ? 0 : updated;
+                if (!page.isEmpty()) {
+                    cursor = UserCursor.afterId(page.get(page.size() - 1).getId().getValue());
+                }
+            } while (page.size() == PAGE_SIZE);
+        }
+        return changed;
+    }
+
+    private int removeOrphans(List<Orphan> orphans) {
+        int removed = 0;
+        for (Orphan orphan : orphans) {
+            String id = orphan.user().getId().getValue();
+            Boolean deleted = orphan.shard().transaction().execute(status -> {
+                if (!orphan.shard().delete(id, orphan.user().getVersion())) {
+                    return false;
+                }
+                orphan.shard().insertTombstones(List.of(id), LocalDateTime.now());
+                return true;
+            });
+            if (Boolean.TRUE.equals(deleted)) {
+                log.warn("Removed user {} from shard {}: its email {} belongs to another user",
+                        id, orphan.shard().index(), orphan.user().getEmail().getValue());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // Drops entries whose user no longer exists on the recorded shard under that email
+    private int sweepIndex() {
+        Map<Integer, List<UserEmailIndex.Entry>> byShard = new HashMap<>();
+        for (UserEmailIndex.Entry entry : emailIndex.findAll()) {
+            byShard.computeIfAbsent(entry.shard(), key -> new ArrayList<>()).add(entry);
+        }
+        List<UserEmailIndex.Entry> orphans = new ArrayList<>();
+        byShard.forEach((index, entries) -> {
+            Set<String> live = index < shards.size()
+                    ? shards.get(index).findAllById(entries.stream().map(UserEmailIndex.Entry::userId).toList()).stream()
+                            .map(user -> user.getId().getValue() + '\n' + user.getEmail().getValue())
+                            .collect(Collectors.toSet())
+                    : Set.of();
+            entries.stream()
+                    .filter(entry -> !live.contains(entry.userId() + '\n' + entry.email()))
+                    .forEach(orphans::add);
+        });
+        transaction.executeWithoutResult(status ->
+                orphans.forEach(entry -> emailIndex.remove(entry.email(), entry.userId())));
+        return orphans.size();
+    }
+
+    public record Result(int moved, int duplicatesRemoved, int indexEntriesFixed, int orphanEntriesRemoved,
+                         int orphanUsersRemoved) {
+    }
+
+    private record Orphan(UserShard shard, User user) {
+    }
+}
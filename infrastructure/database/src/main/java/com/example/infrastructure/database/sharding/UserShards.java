@@ -0,0 +1,71 @@
+package com.example.infrastructure.database.sharding;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The configured shards in routing order, together with the router that maps a user
+ * to one of them. Closing it closes the shards' pools.
+ */
+public final class UserShards implements AutoCloseable {
+
+    private final List<UserShard> shards;
+    private final ShardRouter router;
+    private final boolean created;
+
+    public UserShards(List<DataSource> dataSources, boolean created) {
+        List<UserShard> shards = new ArrayList<>(dataSources.size());
+        for (DataSource dataSource : dataSources) {
+            shards.add(new UserShard(shards.size(), dataSource));
+        }
+        this.shards = List.copyOf(shards);
+        this.router = new ShardRouter(shards.size());
+        this.created = created;
+    }
+
+    public List<UserShard> all() {
+        return shards;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public UserShard get(int index) {
+        return shards.get(index);
+    }
+
+    public UserShard owner(String userId) {
+        return shards.get(router.shardFor(userId));
+    }
+
+    /**
+     * Whether a shard's schema was created from scratch at startup; it then holds the
+     * sample users of the first migration.
+     */
+    public boolean created() {
+        return created;
+    }
+
+    @Override
+    public void close() throws Exception {
+        Exception failure = null;
+        for (UserShard shard : shards) {
+            if (shard.dataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
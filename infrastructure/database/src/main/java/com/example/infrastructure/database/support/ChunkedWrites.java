@@ -0,0 +1,69 @@
+package com.example.infrastructure.database.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Drives set-based writes one chunk at a time. Each chunk is expected to run in its own short
+ * transaction; the pause between chunks lets other writers take the row locks in between,
+ * so a bulk write never holds locks on more than one chunk of a table.
+ */
+public final class ChunkedWrites {
+
+    private ChunkedWrites() {
+    }
+
+    /**
+     * Walks the matching rows in id order. {@code chunk} writes at most {@code chunkSize} rows
+     * with an id after the given one and returns their ids in order; a short chunk ends the walk.
+     * Returns the number of rows written.
+     */
+    public static long byKeyset(int chunkSize, Duration pause, Function<String, List<String>> chunk) {
+        long written = 0;
+        // Every id sorts after the empty string
+        String afterId = "";
+        while (true) {
+            List<String> ids = chunk.apply(afterId);
+            written += ids.size();
+            if (ids.size() < chunkSize) {
+                return written;
+            }
+            afterId = ids.get(ids.size() - 1);
+            pause(pause);
+        }
+    }
+
+    /**
+     * Splits {@code values} into chunks of {@code chunkSize} and writes them one by one.
+     * {@code chunk} returns how many rows it wrote; the sum is returned.
+     */
+    public static <T> long byChunks(List<T> values, int chunkSize, Duration pause, ToIntFunction<List<T>> chunk) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            chunks.add(values.subList(from, Math.min(from + chunkSize, values.size())));
+        }
+        long written = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            if (i > 0) {
+                pause(pause);
+            }
+            written += chunk.applyAsInt(chunks.get(i));
+        }
+        return written;
+    }
+
+    private static void pause(Duration pause) {
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk write was interrupted between chunks", e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.infrastructure.database.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to healthy replicas and everything else to the primary.
+ * <p>
+ * The physical connection is only taken once the first statement runs, by which time the
+ * transaction's read-only flag is known. A replica is used only while its last check found
+ * it reachable and no further behind than {@code maxLag}; with none left, reads fall back to
+ * the primary. A client whose {@link WriteSession} recorded a committed write less than
+ * {@code maxLag} ago reads from the primary, so it sees its own writes on whichever thread
+ * and in whichever request it reads next. The comparison uses wall-clock time, since the
+ * marker may have been set on another node.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final Router router;
+    private final ScheduledExecutorService checker;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    String lagQuery, Duration checkTimeout) {
+        this(new Router(primary, replicas, maxLag, lagQuery, checkTimeout));
+    }
+
+    private ReplicaRoutingDataSource(Router router) {
+        super(router);
+        this.router = router;
+        this.checker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-health").daemon().factory());
+    }
+
+    /**
+     * Checks the replicas now and then every {@code interval}.
+     */
+    public void start(Duration interval) {
+        checkReplicas();
+        checker.scheduleWithFixedDelay(this::checkReplicas, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkReplicas() {
+        router.checkReplicas();
+    }
+
+    public List<String> healthyReplicas() {
+        return router.healthy;
+    }
+
+    /**
+     * Stops the health checks and closes the replica pools. The primary belongs to whoever created it.
+     */
+    @Override
+    public void close() throws Exception {
+        checker.shutdownNow();
+        for (DataSource replica : router.replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Router extends AbstractRoutingDataSource {
+
+        private final Map<String, DataSource> replicas;
+        private final long maxLagNanos;
+        private final long maxLagMillis;
+        private final String lagQuery;
+        private final int checkTimeoutSeconds;
+        private final Map<String, Boolean> lastHealth = new ConcurrentHashMap<>();
+        private final AtomicInteger next = new AtomicInteger();
+        private volatile List<String> healthy = List.of();
+
+        private Router(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                       String lagQuery, Duration checkTimeout) {
+            this.replicas = new LinkedHashMap<>(replicas);
+            this.maxLagNanos = maxLag.toNanos();
+            this.maxLagMillis = maxLag.toMillis();
+            this.lagQuery = lagQuery;
+            this.checkTimeoutSeconds = (int) Math.max(1, checkTimeout.toSeconds());
+            Map<Object, Object> targets = new HashMap<>(replicas);
+            targets.put(PRIMARY, primary);
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(primary);
+            setLenientFallback(false);
+            initialize();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return PRIMARY;
+            }
+            WriteSession session = WriteSession.current();
+            if (session != null && session.wroteWithin(maxLagMillis, System.currentTimeMillis())) {
+                return PRIMARY;
+            }
+            List<String> candidates = healthy;
+            if (candidates.isEmpty()) {
+                return PRIMARY;
+            }
+            return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+        }
+
+        private void checkReplicas() {
+            List<String> usable = new ArrayList<>(replicas.size());
+            replicas.forEach((name, replica) -> {
+                boolean ok = isUsable(name, replica);
+                Boolean previous = lastHealth.put(name, ok);
+                if (previous == null || previous != ok) {
+                    if (ok) {
+                        log.info("Replica {} is serving reads", name);
+                    } else {
+                        log.warn("Replica {} is unavailable or lagging; its reads go elsewhere", name);
+                    }
+                }
+                if (ok) {
+                    usable.add(name);
+                }
+            });
+            healthy = List.copyOf(usable);
+        }
+
+        private boolean isUsable(String name, DataSource replica) {
+            try (Connection connection = replica.getConnection()) {
+                if (!connection.isValid(checkTimeoutSeconds)) {
+                    return false;
+                }
+                return lagQuery == null || lagNanos(connection) <= maxLagNanos;
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Health check of replica {} failed", name, e);
+                return false;
+            }
+        }
+
+        private long lagNanos(Connection connection) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(checkTimeoutSeconds);
+                try (ResultSet result = statement.executeQuery(lagQuery)) {
+                    // No row or NULL: nothing to replay
+                    double seconds = result.next() ? result.getDouble(1) : 0;
+                    return (long) (seconds * 1_000_000_000L);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.infrastructure.database.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Logs statements slower than a threshold, and statements that run the same SQL many times
+ * within one transaction, which is what an N+1 load looks like from the driver. Each
+ * repeated statement is reported once per transaction, when it reaches the threshold.
+ */
+public class StatementPatternLogger implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementPatternLogger.class);
+
+    private static final int LOGGED_SQL_LENGTH = 500;
+
+    private final long slowThresholdMillis;
+    private final int repeatThreshold;
+
+    public StatementPatternLogger(Duration slowThreshold, int repeatThreshold) {
+        this.slowThresholdMillis = slowThreshold.toMillis();
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() >= slowThresholdMillis) {
+            log.warn("Slow statement took {} ms on {}: {}", execInfo.getElapsedTime(),
+                    execInfo.getDataSourceName(), abbreviate(queryInfoList));
+        }
+        if (execInfo.isBatch() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Map<String, Integer> counts = transactionCounts();
+        for (QueryInfo queryInfo : queryInfoList) {
+            int count = counts.merge(queryInfo.getQuery(), 1, Integer::sum);
+            if (count == repeatThreshold) {
+                log.warn("Statement ran {} times in one transaction, likely an N+1 load: {}",
+                        count, abbreviate(queryInfo.getQuery()));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Integer> transactionCounts() {
+        Map<String, Integer> counts = (Map<String, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (counts == null) {
+            Map<String, Integer> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StatementPatternLogger.this);
+                }
+            });
+            counts = created;
+        }
+        return counts;
+    }
+
+    private static String abbreviate(List<QueryInfo> queryInfoList) {
+        return abbreviate(queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= LOGGED_SQL_LENGTH ? sql : sql.substring(0, LOGGED_SQL_LENGTH) + "...";
+    }
+}
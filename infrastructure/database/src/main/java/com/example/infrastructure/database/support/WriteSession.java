@@ -0,0 +1,126 @@
+package com.example.infrastructure.database.support;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A client's read-your-writes marker: when it last committed a write, as epoch millis.
+ * <p>
+ * The marker travels with the client between requests as a token, e.g. a cookie holding
+ * {@link #token()}, and is bound to whichever thread currently works for the client, so
+ * {@link ReplicaRoutingDataSource} can keep that client's reads on the primary until the
+ * replicas have caught up. Work handed to another thread takes the binding along through
+ * {@link #propagate(Supplier)}. The write paths report their writes through
+ * {@link #recordWrite()}, so a transaction that writes nothing leaves the marker alone.
+ * Without a bound session writes are not tracked and reads may go to a replica.
+ */
+public final class WriteSession {
+
+    private static final ThreadLocal<WriteSession> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong lastWrite;
+    private final LongConsumer onWrite;
+
+    /**
+     * @param onWrite told the new marker after every committed write, e.g. to send the token back
+     */
+    public WriteSession(long lastWriteMillis, LongConsumer onWrite) {
+        this.lastWrite = new AtomicLong(lastWriteMillis);
+        this.onWrite = onWrite;
+    }
+
+    /**
+     * Restores a session from a token of an earlier response. The client sends the token,
+     * so it is not trusted: a marker in the future counts as now, and a missing, malformed
+     * or older than {@code window} token starts a session without writes.
+     */
+    public static WriteSession fromToken(String token, Duration window, LongConsumer onWrite) {
+        long lastWriteMillis = 0;
+        if (token != null) {
+            try {
+                long now = System.currentTimeMillis();
+                long marker = Math.min(Long.parseLong(token.trim()), now);
+                if (now - marker < window.toMillis()) {
+                    lastWriteMillis = marker;
+                }
+            } catch (NumberFormatException e) {
+                // Not ours; treat it as absent
+            }
+        }
+        return new WriteSession(lastWriteMillis, onWrite);
+    }
+
+    /**
+     * Records a write for the session bound to this thread, if any, once the current
+     * transaction commits, or right away without one.
+     */
+    public static void recordWrite() {
+        WriteSession session = CURRENT.get();
+        if (session != null) {
+            // The replicas' lag counts from when the write became visible
+            TransactionCallbacks.afterCommit(() -> session.wrote(System.currentTimeMillis()));
+        }
+    }
+
+    public static WriteSession current() {
+        return CURRENT.get();
+    }
+
+    public String token() {
+        return Long.toString(lastWrite.get());
+    }
+
+    public long lastWriteMillis() {
+        return lastWrite.get();
+    }
+
+    void wrote(long atMillis) {
+        long marker = lastWrite.accumulateAndGet(atMillis, Math::max);
+        onWrite.accept(marker);
+    }
+
+    boolean wroteWithin(long windowMillis, long nowMillis) {
+        long marker = lastWrite.get();
+        return marker > 0 && nowMillis - marker < windowMillis;
+    }
+
+    /**
+     * Binds this session to the current thread until the returned binding is closed, which
+     * restores whatever was bound before.
+     */
+    public Binding bind() {
+        WriteSession previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns {@code call} bound to the caller's session, if any, for running on another thread.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> call) {
+        WriteSession session = CURRENT.get();
+        if (session == null) {
+            return call;
+        }
+        return () -> {
+            try (Binding binding = session.bind()) {
+                return call.get();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,5 @@
+-- Composite indexes backing keyset pagination, so every page is a range scan
+-- that starts at the cursor instead of re-reading the rows before it
+CREATE INDEX idx_users_created_at_id ON users(created_at, id);
+
+CREATE INDEX idx_users_active_id ON users(active, id);
@@ -0,0 +1,15 @@
+-- Transactional outbox: user events are written here in the same transaction as the
+-- user change, then relayed to the broker and marked sent
+CREATE SEQUENCE user_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE user_outbox (
+    id BIGINT PRIMARY KEY,
+    aggregate_id VARCHAR(36) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP
+);
+
+-- Unsent entries are the sent_at IS NULL range, drained in id order
+CREATE INDEX idx_user_outbox_sent_at_id ON user_outbox(sent_at, id);
@@ -0,0 +1,10 @@
+-- Email directory for sharded users: users live on the shard their id hashes to, so
+-- lookups by email go through here. The primary key keeps emails unique across shards.
+-- Unused while sharding is disabled.
+CREATE TABLE user_email_index (
+    email VARCHAR(255) PRIMARY KEY,
+    user_id VARCHAR(36) NOT NULL,
+    shard INT NOT NULL
+);
+
+CREATE INDEX idx_user_email_index_user_id ON user_email_index(user_id);
@@ -0,0 +1,12 @@
+-- Change feed: users changed since a (updated_at, id) watermark are an index range scan
+-- that starts at the watermark, so a sync reads the changes rather than the table
+CREATE INDEX idx_users_updated_at_id ON users(updated_at, id);
+
+-- A deleted user leaves a tombstone here, in the same transaction as the delete, so the
+-- feed can report deletions. User ids are never reused.
+CREATE TABLE user_tombstones (
+    id VARCHAR(36) PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_user_tombstones_deleted_at_id ON user_tombstones(deleted_at, id);
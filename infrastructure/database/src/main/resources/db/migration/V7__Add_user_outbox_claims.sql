@@ -0,0 +1,3 @@
+-- A relay claims a batch by setting claimed_until; until then no other node picks the
+-- entries up. Entries whose claim ran out without being marked sent are claimable again
+ALTER TABLE user_outbox ADD COLUMN claimed_until TIMESTAMP;
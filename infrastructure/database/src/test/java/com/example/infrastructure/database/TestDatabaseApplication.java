@@ -0,0 +1,10 @@
+package com.example.infrastructure.database;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Boot configuration anchoring the database adapter slice tests.
+ */
+@SpringBootApplication
+public class TestDatabaseApplication {
+}
@@ -0,0 +1,148 @@
+package com.example.infrastructure.database.cache;
+
+import com.example.application.cache.UserCacheInvalidationListener;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("CachingUserRepository Tests")
+class CachingUserRepositoryTest {
+
+    private final UserRepository delegate = mock(UserRepository.class);
+    private final UserCacheInvalidationListener listener = mock(UserCacheInvalidationListener.class);
+    private final Cache secondLevel = new ConcurrentMapCache("users");
+    private final UserCache cache = cache();
+    private final CachingUserRepository repository = new CachingUserRepository(delegate, cache, secondLevel, List.of(listener));
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Lookups populate both cache levels and are then served without the database")
+    void lookupsPopulateBothLevels() {
+        User user = user(1L);
+        when(delegate.findById(user.getId())).thenReturn(Optional.of(user));
+
+        assertEquals(user, repository.findById(user.getId()).orElseThrow());
+        assertEquals(user, repository.findById(user.getId()).orElseThrow());
+        assertEquals(user, repository.findByEmail(user.getEmail()).orElseThrow());
+        verify(delegate, times(1)).findById(user.getId());
+        verify(delegate, never()).findByEmail(any());
+
+        // Another node's empty in-process cache is filled from the shared level
+        CachingUserRepository otherNode = new CachingUserRepository(delegate, cache(), secondLevel, List.of());
+        assertEquals(user, otherNode.findById(user.getId()).orElseThrow());
+        verify(delegate, times(1)).findById(user.getId());
+    }
+
+    @Test
+    @DisplayName("Missing emails are cached as absent until a save of that email")
+    void missingEmailsAreNegativelyCached() {
+        User user = user(1L);
+        when(delegate.findByEmail(user.getEmail())).thenReturn(Optional.empty());
+
+        assertTrue(repository.findByEmail(user.getEmail()).isEmpty());
+        assertFalse(repository.existsByEmail(user.getEmail()));
+        verify(delegate, times(1)).findByEmail(user.getEmail());
+        verify(delegate, never()).existsByEmail(any());
+
+        when(delegate.save(user)).thenReturn(user);
+        when(delegate.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        repository.save(user);
+        assertEquals(user, repository.findByEmail(user.getEmail()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Writes evict both levels and notify the listeners")
+    void writesEvictBothLevels() {
+        User user = user(1L);
+        User saved = user(2L);
+        when(delegate.findById(user.getId())).thenReturn(Optional.of(user));
+        when(delegate.save(user)).thenReturn(saved);
+        repository.findById(user.getId());
+
+        repository.save(user);
+
+        assertTrue(cache.get(user.getId()).isEmpty());
+        assertNull(secondLevel.get(user.getId().getValue()));
+        verify(listener).onInvalidated(user.getId(), 2L);
+
+        repository.delete(user.getId());
+        verify(listener).onInvalidated(user.getId(), null);
+        repository.activateAll(List.of(user.getId()));
+        verify(listener).onCleared();
+    }
+
+    @Test
+    @DisplayName("Reads in a read-write transaction leave the caches alone, so a rollback leaves nothing behind")
+    void readWriteTransactionsDoNotPopulate() {
+        User user = user(1L);
+        User uncommitted = user(2L);
+        when(delegate.save(user)).thenReturn(uncommitted);
+        when(delegate.findById(user.getId())).thenReturn(Optional.of(uncommitted));
+        when(delegate.findByEmail(any())).thenReturn(Optional.empty());
+
+        beginTransaction(false);
+        repository.save(user);
+        assertEquals(uncommitted, repository.findById(user.getId()).orElseThrow());
+        repository.findByEmail(new Email("missing@caching.test"));
+        rollBack();
+
+        assertTrue(cache.get(user.getId()).isEmpty());
+        assertNull(secondLevel.get(user.getId().getValue()));
+        assertFalse(cache.lookup(new Email("missing@caching.test")).isAbsent());
+        verify(listener, never()).onInvalidated(any(), any());
+
+        beginTransaction(true);
+        when(delegate.findById(user.getId())).thenReturn(Optional.of(user));
+        repository.findById(user.getId());
+        assertEquals(user, cache.get(user.getId()).orElseThrow().toUser());
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    // Completes the synchronizations the writes registered without committing
+    private static void rollBack() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static UserCache cache() {
+        return new UserCache(100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+    }
+
+    private static User user(long version) {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+        return new User(new UserId("2d9c1f3e-7b4a-4c8e-9f10-3a5b6c7d8e9f"), new Email("cached@caching.test"),
+                new Name("Cached", "User"), true, createdAt, createdAt, version);
+    }
+}
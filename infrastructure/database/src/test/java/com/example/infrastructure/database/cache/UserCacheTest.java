@@ -0,0 +1,99 @@
+package com.example.infrastructure.database.cache;
+
+import com.example.domain.Email;
+import com.example.domain.UserId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UserCache Tests")
+class UserCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final UserCache cache = new UserCache(64, Duration.ofSeconds(10), Duration.ofSeconds(1), clock::get);
+
+    @Test
+    @DisplayName("Cached users are served by id and by email")
+    void cachedUsersAreServedByIdAndEmail() {
+        CachedUser user = user("a", "a@example.com", 1);
+        cache.put(user);
+
+        assertEquals(user, cache.get(new UserId("a")).orElseThrow());
+        assertEquals(user, cache.lookup(new Email("a@example.com")).getUser());
+        assertEquals(2, cache.stats().hits());
+    }
+
+    @Test
+    @DisplayName("Entries expire after their time to live")
+    void entriesExpire() {
+        cache.put(user("a", "a@example.com", 1));
+        cache.putAbsent(new Email("missing@example.com"));
+
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertFalse(cache.lookup(new Email("missing@example.com")).isAbsent());
+        assertTrue(cache.get(new UserId("a")).isPresent());
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(cache.get(new UserId("a")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Missing emails are negatively cached")
+    void missingEmailsAreNegativelyCached() {
+        cache.putAbsent(new Email("missing@example.com"));
+
+        assertTrue(cache.lookup(new Email("missing@example.com")).isAbsent());
+        assertEquals(1, cache.stats().negativeHits());
+    }
+
+    @Test
+    @DisplayName("Stale versions cannot repopulate after an invalidation")
+    void staleVersionsCannotRepopulate() {
+        cache.put(user("a", "a@example.com", 1));
+        cache.invalidate(new UserId("a"), 2L);
+
+        cache.put(user("a", "a@example.com", 1));
+        assertTrue(cache.get(new UserId("a")).isEmpty());
+        assertEquals(1, cache.stats().stalePutsRejected());
+
+        cache.put(user("a", "a@example.com", 2));
+        assertEquals(2, cache.get(new UserId("a")).orElseThrow().version());
+    }
+
+    @Test
+    @DisplayName("Announced versions only evict users cached at an older version")
+    void announcedVersionsOnlyEvictOlderUsers() {
+        cache.put(user("a", "a@example.com", 3));
+        cache.put(user("b", "b@example.com", 1));
+
+        cache.invalidateOlderThan(new UserId("a"), 3);
+        cache.invalidateOlderThan(new UserId("b"), 2);
+
+        assertEquals(3, cache.get(new UserId("a")).orElseThrow().version());
+        assertTrue(cache.get(new UserId("b")).isEmpty());
+        assertFalse(cache.lookup(new Email("b@example.com")).isFound());
+        cache.put(user("b", "b@example.com", 1));
+        assertTrue(cache.get(new UserId("b")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("The cache stays within its maximum size")
+    void cacheStaysBounded() {
+        for (int i = 0; i < 500; i++) {
+            cache.put(user("id-" + i, "user" + i + "@example.com", 0));
+        }
+
+        assertTrue(cache.stats().size() <= 64);
+        assertTrue(cache.stats().sizeEvictions() > 0);
+    }
+
+    private static CachedUser user(String id, String email, long version) {
+        LocalDateTime now = LocalDateTime.now();
+        return new CachedUser(id, email, "First", "Last", true, now, now, version);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.infrastructure.database.coalescing;
+
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("CoalescingUserRepository Tests")
+class CoalescingUserRepositoryTest {
+
+    private static final int CALLERS = 50;
+
+    private final UserRepository delegate = mock(UserRepository.class);
+    private final CoalescingUserRepository repository = new CoalescingUserRepository(delegate, Duration.ofSeconds(5));
+
+    @Test
+    @DisplayName("Concurrent lookups of one user share a single query and get their own copies")
+    void concurrentLookupsShareOneQuery() throws Exception {
+        User user = user();
+        CountDownLatch released = new CountDownLatch(1);
+        when(delegate.findById(user.getId())).thenAnswer(invocation -> {
+            released.await();
+            return Optional.of(user);
+        });
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Optional<User>>> results = IntStream.range(0, CALLERS)
+                    .mapToObj(i -> callers.submit(() -> repository.findById(user.getId())))
+                    .toList();
+            awaitLeader();
+            released.countDown();
+
+            List<User> found = results.stream().map(CoalescingUserRepositoryTest::get).map(Optional::orElseThrow).toList();
+            assertTrue(found.stream().allMatch(user::equals));
+            assertEquals(CALLERS, found.stream().map(System::identityHashCode).distinct().count());
+        }
+        verify(delegate, times(1)).findById(user.getId());
+        assertEquals(CALLERS - 1, repository.coalesced());
+
+        // Nothing is kept once the query completed
+        repository.findById(user.getId());
+        verify(delegate, times(2)).findById(user.getId());
+    }
+
+    @Test
+    @DisplayName("A failed query fails every caller waiting for it")
+    void failuresReachEveryWaiter() throws Exception {
+        CountDownLatch released = new CountDownLatch(1);
+        when(delegate.findByEmail(any())).thenAnswer(invocation -> {
+            released.await();
+            throw new QueryTimeoutException("slow");
+        });
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Optional<User>>> results = IntStream.range(0, 10)
+                    .mapToObj(i -> callers.submit(() -> repository.findByEmail(new Email("herd@coalescing.test"))))
+                    .toList();
+            awaitLeader();
+            released.countDown();
+
+            for (Future<Optional<User>> result : results) {
+                ExecutionException failure = assertThrows(ExecutionException.class, result::get);
+                assertInstanceOf(QueryTimeoutException.class, failure.getCause());
+            }
+        }
+        verify(delegate, times(1)).findByEmail(any());
+    }
+
+    @Test
+    @DisplayName("A caller that waited too long runs its own query")
+    void waitersFallBackAfterTimeout() throws Exception {
+        CoalescingUserRepository impatient = new CoalescingUserRepository(delegate, Duration.ofMillis(50));
+        User user = user();
+        CountDownLatch released = new CountDownLatch(1);
+        when(delegate.findById(user.getId()))
+                .thenAnswer(invocation -> {
+                    released.await();
+                    return Optional.of(user);
+                })
+                .thenReturn(Optional.of(user));
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<User>> stuck = callers.submit(() -> impatient.findById(user.getId()));
+            verify(delegate, timeout(5000)).findById(user.getId());
+
+            assertEquals(Optional.of(user), impatient.findById(user.getId()));
+            released.countDown();
+            assertEquals(Optional.of(user), stuck.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, impatient.queries());
+    }
+
+    private void awaitLeader() throws InterruptedException {
+        // Once one caller is inside the query, give the others time to park on it
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline && mockingDetails(delegate).getInvocations().isEmpty()) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(200);
+    }
+
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static User user() {
+        LocalDateTime now = LocalDateTime.now();
+        return new User(UserId.generate(), new Email("celebrity@coalescing.test"), new Name("Celebrity", "User"),
+                true, now, now, 4L);
+    }
+}
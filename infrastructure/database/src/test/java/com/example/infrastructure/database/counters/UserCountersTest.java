@@ -0,0 +1,61 @@
+package com.example.infrastructure.database.counters;
+
+import com.example.infrastructure.database.repositories.JpaUserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("UserCounters Tests")
+class UserCountersTest {
+
+    private final JpaUserRepository jpaUserRepository = mock(JpaUserRepository.class);
+
+    @Test
+    @DisplayName("Counters are seeded once and then maintained from writes")
+    void countersAreSeededOnceAndMaintained() {
+        when(jpaUserRepository.count()).thenReturn(10L);
+        when(jpaUserRepository.countActiveUsers()).thenReturn(7L);
+        UserCounters counters = new UserCounters(jpaUserRepository, true);
+
+        assertEquals(10, counters.total());
+        counters.inserted(true);
+        counters.inserted(false);
+        counters.updated(true, false);
+        counters.updated(false, false);
+        counters.deleted(false);
+
+        assertEquals(11, counters.total());
+        assertEquals(7, counters.active());
+        verify(jpaUserRepository, times(1)).count();
+        verify(jpaUserRepository, times(1)).countActiveUsers();
+    }
+
+    @Test
+    @DisplayName("Reconciliation corrects drift against the database")
+    void reconciliationCorrectsDrift() {
+        when(jpaUserRepository.count()).thenReturn(10L, 15L);
+        when(jpaUserRepository.countActiveUsers()).thenReturn(7L, 4L);
+        UserCounters counters = new UserCounters(jpaUserRepository, true);
+        counters.total();
+        counters.inserted(true);
+
+        counters.reconcile();
+
+        assertEquals(15, counters.total());
+        assertEquals(4, counters.active());
+    }
+
+    @Test
+    @DisplayName("Disabled counters query the database on every call")
+    void disabledCountersQueryTheDatabase() {
+        when(jpaUserRepository.count()).thenReturn(3L);
+        UserCounters counters = new UserCounters(jpaUserRepository, false);
+
+        counters.total();
+        counters.total();
+
+        verify(jpaUserRepository, times(2)).count();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.infrastructure.database.imports;
+
+import com.example.domain.Email;
+import com.example.infrastructure.database.config.DatabaseConfig;
+import com.example.infrastructure.database.config.UserCounterConfig;
+import com.example.infrastructure.database.config.UserSearchConfig;
+import com.example.infrastructure.database.mappers.UserMapper;
+import com.example.infrastructure.database.outbox.OutboxWriter;
+import com.example.infrastructure.database.repositories.UserRepositoryImpl;
+import com.example.infrastructure.database.repositories.UserUpsertWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({DatabaseConfig.class, UserSearchConfig.class, UserCounterConfig.class, UserRepositoryImpl.class, UserMapper.class,
+        UserUpsertWriter.class, OutboxWriter.class})
+// Every batch commits on its own, as in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("UserImporter Tests")
+class UserImporterTest {
+
+    @Autowired
+    private UserRepositoryImpl userRepository;
+
+    private UserImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        UserImportProperties properties = new UserImportProperties();
+        properties.setBatchSize(3);
+        properties.setParallelism(2);
+        properties.setQueueCapacity(2);
+        importer = new UserImporter(userRepository, properties);
+    }
+
+    @Test
+    @DisplayName("CSV imports save valid rows and reject the rest with a reason")
+    void importsCsvAndRejectsInvalidRows() throws Exception {
+        String csv = """
+                email,first_name,last_name,active
+                ada@csv.test,Ada,Lovelace,true
+                ADA@csv.test,Ada,Twice,true
+                not-an-email,Bad,Email,true
+                "grace@csv.test","Grace","Hopper, Jr.",false
+                john.doe@example.com,John,Again,true
+                alan@csv.test,,Turing,true
+                """;
+        StringWriter rejects = new StringWriter();
+
+        UserImportProgress.Snapshot result = importer.importUsers(new StringReader(csv), UserImportFormat.CSV,
+                rejects, UserImportCheckpoint.none(), new UserImportProgress());
+
+        assertEquals(6, result.lines());
+        assertEquals(2, result.imported());
+        assertEquals(2, result.invalid());
+        assertEquals(2, result.duplicates());
+        assertEquals(7, result.checkpoint());
+        assertEquals("Hopper, Jr.", userRepository.findByEmail(new Email("grace@csv.test")).orElseThrow().getName().getLastName());
+        assertFalse(userRepository.findByEmail(new Email("grace@csv.test")).orElseThrow().isActive());
+        assertEquals(List.of("3", "4", "6", "7"), rejects.toString().lines().map(line -> line.split("\t")[0]).toList());
+        assertTrue(rejects.toString().contains("Email already exists"));
+        assertTrue(rejects.toString().contains("Duplicate email in input"));
+    }
+
+    @Test
+    @DisplayName("NDJSON imports resume after the checkpoint")
+    void resumesNdjsonFromCheckpoint(@TempDir Path directory) throws Exception {
+        Path input = directory.resolve("partner.ndjson");
+        Files.write(input, IntStream.range(0, 10)
+                .mapToObj(i -> "{\"email\":\"user" + i + "@ndjson.test\",\"firstName\":\"User\",\"lastName\":\"Number" + i + "\"}")
+                .collect(Collectors.toList()), StandardCharsets.UTF_8);
+        Path rejects = directory.resolve("partner.rejects");
+        Path checkpoint = directory.resolve("partner.checkpoint");
+        // A previous run committed the first four lines before it stopped
+        UserImportCheckpoint.file(checkpoint).save(4);
+
+        UserImportProgress.Snapshot result = importer.importFile(input, rejects, checkpoint);
+
+        assertEquals(6, result.imported());
+        assertEquals(10, UserImportCheckpoint.file(checkpoint).load());
+        assertTrue(userRepository.findByEmail(new Email("user3@ndjson.test")).isEmpty());
+        assertTrue(userRepository.findByEmail(new Email("user4@ndjson.test")).isPresent());
+        assertEquals("", Files.readString(rejects));
+
+        assertEquals(0, importer.importFile(input, rejects, checkpoint).lines());
+        // The totals behind the users.import.* meters span both runs
+        assertEquals(6, importer.totals().imported());
+        assertEquals(6, importer.totals().lines());
+        assertEquals(0, importer.running());
+    }
+
+    @Test
+    @DisplayName("CSV fields honour quotes and escaped quotes")
+    void splitsQuotedCsvFields() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""), UserImportFormat.csvFields("a,\"b, c\",\"say \"\"hi\"\"\","));
+        assertThrows(IllegalArgumentException.class, () -> UserImportFormat.csvFields("\"open"));
+    }
+}
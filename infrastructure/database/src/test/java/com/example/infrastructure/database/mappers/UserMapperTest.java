@@ -0,0 +1,29 @@
+package com.example.infrastructure.database.mappers;
+
+import com.example.domain.User;
+import com.example.infrastructure.database.entities.UserEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UserMapper Tests")
+class UserMapperTest {
+
+    private final UserMapper userMapper = new UserMapper();
+
+    @Test
+    @DisplayName("An entity without timestamps keeps its version, so saving it updates the stored user")
+    void entityWithoutTimestampsKeepsItsVersion() {
+        UserEntity entity = new UserEntity("0b9d6f1e-3c52-4d7a-9f0e-5a1b2c3d4e5f", "ada@example.com", "Ada", "Lovelace");
+        entity.setActive(false);
+        entity.setVersion(3L);
+
+        User user = userMapper.toDomain(entity);
+
+        assertEquals(3L, user.getVersion());
+        assertFalse(user.isActive());
+        assertNotNull(user.getCreatedAt());
+        assertNotNull(user.getUpdatedAt());
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.infrastructure.database.memory;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserChange;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.application.dto.UserWatermark;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.repositories.UserBulkProperties;
+import com.example.infrastructure.database.repositories.UserChangeFeedProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InMemoryUserRepository Tests")
+class InMemoryUserRepositoryTest {
+
+    // Small enough that the log has to grow
+    private static final int LOG_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    private InMemoryUserRepository repository;
+
+    @AfterEach
+    void close() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Lookups, counts, pages and name searches are served from the indexes")
+    void indexesAnswerQueries() {
+        repository = open(1000);
+        User ada = repository.save(user("ada@memory.test", "Ada", "Lovelace"));
+        User alan = repository.save(user("alan@memory.test", "Alan", "Turing"));
+        User grace = repository.save(user("grace@memory.test", "Grace", "Hopper"));
+        grace.deactivate();
+        grace = repository.save(grace);
+
+        assertEquals(ada, repository.findByEmail(new Email("ada@memory.test")).orElseThrow());
+        assertEquals(1L, grace.getVersion());
+        assertEquals(3, repository.count());
+        assertEquals(2, repository.countActiveUsers());
+        assertEquals(List.of(alan), repository.findByNameContaining("TURI"));
+        assertEquals(List.of(grace, ada), repository.findByNameContaining("a", 0, 2));
+        assertEquals("Lovelace", repository.findSummariesByNameContaining("love", 0, 10).get(0).lastName());
+
+        List<User> walked = new ArrayList<>();
+        KeysetPage<User> page = repository.findActiveUsers(UserCursor.first(UserSortKey.CREATED_AT), 1);
+        walked.addAll(page.items());
+        while (page.hasNext()) {
+            page = repository.findActiveUsers(page.next(), 1);
+            walked.addAll(page.items());
+        }
+        // Both may have been created within the same clock tick, which the id then orders
+        assertEquals(Set.of(ada, alan), Set.copyOf(walked));
+        assertEquals(2, walked.size());
+    }
+
+    @Test
+    @DisplayName("Stale versions and taken emails are rejected without writing anything")
+    void writesAreChecked() {
+        repository = open(1000);
+        User stored = repository.save(user("taken@memory.test", "First", "Owner"));
+
+        User stale = repository.findById(stored.getId()).orElseThrow();
+        User current = repository.findById(stored.getId()).orElseThrow();
+        current.updateProfile(new Name("Second", "Owner"), current.getEmail());
+        repository.save(current);
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.save(stale));
+
+        User newcomer = user("fresh@memory.test", "New", "Comer");
+        User duplicate = user("taken@memory.test", "Other", "Owner");
+        assertThrows(DataIntegrityViolationException.class, () -> repository.saveAll(List.of(newcomer, duplicate)));
+        assertFalse(repository.existsById(newcomer.getId()));
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    @DisplayName("Reopening replays the log and the snapshot it was compacted into")
+    void stateSurvivesReopening() {
+        repository = open(5);
+        List<User> saved = IntStream.range(0, 12)
+                .mapToObj(i -> repository.save(user("user" + i + "@memory.test", "User", "Number" + i)))
+                .toList();
+        repository.delete(saved.get(0).getId());
+        assertEquals(11, repository.deactivateByEmailDomain("MEMORY.test"));
+        assertTrue(Files.exists(directory.resolve("users.snapshot")));
+        assertEquals(0, repository.purgeInactiveUpdatedBefore(LocalDateTime.now().minusDays(1)));
+        simulateCrash();
+
+        repository = open(5);
+        assertEquals(11, repository.count());
+        assertEquals(0, repository.countActiveUsers());
+        assertFalse(repository.existsById(saved.get(0).getId()));
+        User last = repository.findByEmail(new Email("user11@memory.test")).orElseThrow();
+        assertEquals(1L, last.getVersion());
+        assertFalse(last.isActive());
+        assertEquals(11, repository.purgeInactiveUpdatedBefore(LocalDateTime.now().plusSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("A torn entry at the end of the log is dropped and overwritten")
+    void tornTailIsDropped() throws IOException {
+        repository = open(1000);
+        User kept = repository.save(user("kept@memory.test", "Kept", "User"));
+        User torn = repository.save(user("torn@memory.test", "Torn", "User"));
+        simulateCrash();
+
+        // Flips a byte inside the second entry, as if the machine died while writing it
+        Path log = directory.resolve("users.log");
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long second = lastEntryOffset(channel);
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), second + 20);
+        }
+
+        repository = open(1000);
+        assertTrue(repository.existsById(kept.getId()));
+        assertFalse(repository.existsById(torn.getId()));
+        User after = repository.save(user("after@memory.test", "After", "Crash"));
+        simulateCrash();
+
+        repository = open(1000);
+        assertEquals(2, repository.count());
+        assertTrue(repository.existsById(after.getId()));
+    }
+
+    @Test
+    @DisplayName("The change feed keeps tombstones through log replay and snapshots")
+    void changeFeedSurvivesReopening() {
+        repository = open(1000);
+        User deleted = repository.save(user("deleted@memory.test", "Deleted", "User"));
+        User kept = repository.save(user("kept@memory.test", "Kept", "User"));
+        kept.deactivate();
+        kept = repository.save(kept);
+        repository.delete(deleted.getId());
+
+        List<UserChange> changes = repository.findChangedSince(UserWatermark.initial(), 10).changes();
+        assertEquals(2, changes.size());
+        assertEquals(kept, changes.get(0).user());
+        assertEquals(deleted.getId().getValue(), changes.get(1).id());
+        assertTrue(changes.get(1).isDeleted());
+        assertEquals(List.of(changes.get(1)), repository.findChangedSince(changes.get(0).watermark(), 10).changes());
+
+        simulateCrash();
+        repository = open(1000);
+        assertEquals(changes, repository.findChangedSince(UserWatermark.initial(), 10).changes());
+        repository.close();
+        assertTrue(Files.exists(directory.resolve("users.snapshot")));
+        repository = open(1000);
+        assertEquals(changes, repository.findChangedSince(UserWatermark.initial(), 10).changes());
+    }
+
+    @Test
+    @DisplayName("A re-created user deleted again replaces its tombstone, and pruned tombstones stay gone after reopening")
+    void tombstonesAreReplacedAndPruned() {
+        repository = open(1000);
+        User deleted = repository.save(user("deleted@memory.test", "Deleted", "User"));
+        repository.delete(deleted.getId());
+        repository.save(new User(deleted.getId(), new Email("deleted@memory.test"), new Name("Deleted", "User")));
+        repository.delete(deleted.getId());
+        repository.save(user("kept@memory.test", "Kept", "User"));
+
+        List<UserChange> tombstones = repository.findChangedSince(UserWatermark.initial(), 10).changes().stream()
+                .filter(UserChange::isDeleted)
+                .toList();
+        assertEquals(1, tombstones.size());
+        simulateCrash();
+        repository = open(1000);
+        assertEquals(tombstones, repository.findChangedSince(UserWatermark.initial(), 10).changes().stream()
+                .filter(UserChange::isDeleted)
+                .toList());
+
+        assertEquals(0, repository.deleteTombstonesBefore(tombstones.get(0).changedAt()));
+        assertEquals(1, repository.deleteTombstonesBefore(LocalDateTime.now().plusSeconds(1)));
+        simulateCrash();
+        repository = open(1000);
+        List<UserChange> changes = repository.findChangedSince(UserWatermark.initial(), 10).changes();
+        assertEquals(1, changes.size());
+        assertFalse(changes.get(0).isDeleted());
+    }
+
+    @Test
+    @DisplayName("Upserts keep the version they carry and skip older copies, also after reopening")
+    void upsertsKeepTheNewestVersion() {
+        repository = open(1000);
+        repository.save(user("taken@memory.test", "Taken", "User"));
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+        UserId id = UserId.generate();
+        User replicated = new User(id, new Email("crm@memory.test"), new Name("Crm", "User"), true, createdAt, createdAt, 4L);
+
+        assertEquals(1, repository.upsertAll(List.of(replicated)));
+        assertEquals(0, repository.upsertAll(List.of(replicated)));
+        assertEquals(1, repository.upsertAll(List.of(new User(id, new Email("moved@memory.test"), new Name("Crm", "User"),
+                false, createdAt, createdAt, 6L))));
+        assertEquals(0, repository.upsertAll(List.of(replicated)));
+        assertThrows(DataIntegrityViolationException.class, () -> repository.upsertAll(List.of(new User(UserId.generate(),
+                new Email("taken@memory.test"), new Name("Other", "User"), true, createdAt, createdAt, 1L))));
+        assertThrows(IllegalArgumentException.class, () -> repository.upsertAll(List.of(replicated, replicated)));
+
+        simulateCrash();
+        repository = open(1000);
+        User stored = repository.findById(id).orElseThrow();
+        assertEquals(6L, stored.getVersion());
+        assertEquals(new Email("moved@memory.test"), stored.getEmail());
+        assertTrue(repository.findByEmail(new Email("crm@memory.test")).isEmpty());
+        assertEquals(1, repository.countActiveUsers());
+    }
+
+    private InMemoryUserRepository open(long snapshotEvery) {
+        UserBulkProperties bulk = new UserBulkProperties();
+        bulk.setChunkSize(3);
+        bulk.setPause(Duration.ZERO);
+        UserChangeFeedProperties changeFeed = new UserChangeFeedProperties();
+        changeFeed.setSettleLag(Duration.ZERO);
+        return new InMemoryUserRepository(UserLog.open(directory, LOG_SIZE, false), snapshotEvery, 50, bulk, changeFeed);
+    }
+
+    // Drops the repository without the snapshot close() takes; the mapped log is all there is
+    private void simulateCrash() {
+        repository = null;
+    }
+
+    private static long lastEntryOffset(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        long offset = Integer.BYTES + Long.BYTES;
+        long last = offset;
+        while (true) {
+            header.clear();
+            channel.read(header, offset);
+            int length = header.flip().getInt();
+            if (length == 0) {
+                return last;
+            }
+            last = offset;
+            offset += 2L * Integer.BYTES + length;
+        }
+    }
+
+    private static User user(String email, String firstName, String lastName) {
+        return new User(UserId.generate(), new Email(email), new Name(firstName, lastName));
+    }
+}
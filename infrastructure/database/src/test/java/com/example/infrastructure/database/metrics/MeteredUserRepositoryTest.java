@@ -0,0 +1,87 @@
+package com.example.infrastructure.database.metrics;
+
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("MeteredUserRepository Tests")
+class MeteredUserRepositoryTest {
+
+    private final UserRepository delegate = mock(UserRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MeteredUserRepository repository = new MeteredUserRepository(delegate, registry);
+
+    @Test
+    @DisplayName("Calls are timed per method and rows returned are recorded")
+    void timesCallsAndRecordsRows() {
+        User user = user();
+        when(delegate.findById(user.getId())).thenReturn(Optional.of(user));
+        when(delegate.findAllById(any())).thenReturn(List.of(user, user));
+
+        repository.findById(user.getId());
+        repository.findById(user.getId());
+        repository.findAllById(List.of(user.getId()));
+
+        assertEquals(2, timer("findById", "success").count());
+        assertEquals(2, rows("findById").totalAmount());
+        assertEquals(1, timer("findAllById", "success").count());
+        assertEquals(2, rows("findAllById").max());
+    }
+
+    @Test
+    @DisplayName("Failures are counted by exception type and rethrown")
+    void countsFailures() {
+        when(delegate.save(any())).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.save(user()));
+
+        assertEquals(1, registry.get(MeteredUserRepository.CALLS)
+                .tags("method", "save", "outcome", "error", "exception", "OptimisticLockingFailureException")
+                .timer().count());
+        assertEquals(0, timer("save", "success").count());
+    }
+
+    @Test
+    @DisplayName("Stream rows are recorded when the stream is closed")
+    void recordsStreamRowsOnClose() {
+        when(delegate.streamAll()).thenReturn(Stream.of(user(), user(), user()));
+
+        try (Stream<User> users = repository.streamAll()) {
+            assertEquals(3, users.count());
+            assertEquals(0, rows("streamAll").count());
+        }
+
+        assertEquals(1, rows("streamAll").count());
+        assertEquals(3, rows("streamAll").totalAmount());
+    }
+
+    private Timer timer(String method, String outcome) {
+        return registry.get(MeteredUserRepository.CALLS).tags("method", method, "outcome", outcome).timer();
+    }
+
+    private DistributionSummary rows(String method) {
+        return registry.get(MeteredUserRepository.ROWS).tag("method", method).summary();
+    }
+
+    private static User user() {
+        LocalDateTime now = LocalDateTime.now();
+        return new User(UserId.generate(), new Email("metered@example.com"), new Name("Metered", "User"), true, now, now, 0L);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.application.async.Futures;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AsyncUserRepositoryImpl Tests")
+class AsyncUserRepositoryImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private AsyncUserRepositoryImpl asyncRepository;
+
+    @AfterEach
+    void tearDown() {
+        asyncRepository.shutdown();
+    }
+
+    @Test
+    @DisplayName("Independent queries run concurrently and combine")
+    void independentQueriesRunConcurrently() {
+        asyncRepository = new AsyncUserRepositoryImpl(userRepository, properties(3, 10));
+        User user = new User(UserId.generate(), new Email("jane@example.com"), new Name("Jane", "Doe"));
+        CountDownLatch allStarted = new CountDownLatch(3);
+        when(userRepository.findById(user.getId())).thenAnswer(invocation -> awaitOthers(allStarted, Optional.of(user)));
+        when(userRepository.existsByEmail(user.getEmail())).thenAnswer(invocation -> awaitOthers(allStarted, true));
+        when(userRepository.countActiveUsers()).thenAnswer(invocation -> awaitOthers(allStarted, 42L));
+
+        String summary = Futures.combine(
+                asyncRepository.findById(user.getId()),
+                asyncRepository.existsByEmail(user.getEmail()),
+                asyncRepository.countActiveUsers(),
+                (found, exists, active) -> found.orElseThrow().getName().getFirstName() + "/" + exists + "/" + active
+        ).join();
+
+        assertEquals("Jane/true/42", summary);
+    }
+
+    @Test
+    @DisplayName("Calls beyond concurrency and queue capacity fail fast")
+    void saturatedExecutorRejectsCalls() {
+        asyncRepository = new AsyncUserRepositoryImpl(userRepository, properties(1, 1));
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.count()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1L;
+        });
+
+        CompletableFuture<Long> running = asyncRepository.count();
+        CompletableFuture<Long> queued = asyncRepository.count();
+        CompletableFuture<Long> rejected = asyncRepository.count();
+
+        CompletionException failure = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        release.countDown();
+        assertEquals(List.of(1L, 1L), Futures.allOf(List.of(running, queued)).join());
+    }
+
+    @Test
+    @DisplayName("A failing call fails the combined future")
+    void failureFailsCombinedFuture() {
+        asyncRepository = new AsyncUserRepositoryImpl(userRepository, properties(2, 10));
+        when(userRepository.count()).thenReturn(3L);
+        when(userRepository.countActiveUsers()).thenThrow(new IllegalStateException("database down"));
+
+        CompletableFuture<Long> combined = Futures.combine(asyncRepository.count(), asyncRepository.countActiveUsers(), Long::sum);
+
+        CompletionException failure = assertThrows(CompletionException.class, combined::join);
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    private static <T> T awaitOthers(CountDownLatch allStarted, T value) throws InterruptedException {
+        allStarted.countDown();
+        assertTrue(allStarted.await(5, TimeUnit.SECONDS), "queries did not overlap");
+        return value;
+    }
+
+    private static AsyncUserRepositoryProperties properties(int concurrency, int queueCapacity) {
+        AsyncUserRepositoryProperties properties = new AsyncUserRepositoryProperties();
+        properties.setConcurrency(concurrency);
+        properties.setQueueCapacity(queueCapacity);
+        return properties;
+    }
+}
@@ -0,0 +1,466 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.OutboxMessage;
+import com.example.application.dto.UserChange;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.application.dto.UserSummary;
+import com.example.application.dto.UserWatermark;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.config.DatabaseConfig;
+import com.example.infrastructure.database.config.UserCounterConfig;
+import com.example.infrastructure.database.config.UserSearchConfig;
+import com.example.infrastructure.database.mappers.UserMapper;
+import com.example.infrastructure.database.outbox.OutboxWriter;
+import com.example.infrastructure.database.entities.UserEntity;
+import com.example.infrastructure.database.search.NgramUserNameSearch;
+import com.example.infrastructure.database.search.TrigramUserNameSearch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.users.bulk.chunk-size=3",
+        "app.users.bulk.pause=0s",
+        "app.users.changes.settle-lag=0s"
+})
+@Import({DatabaseConfig.class, UserSearchConfig.class, UserCounterConfig.class, UserRepositoryImpl.class, UserMapper.class,
+        UserUpsertWriter.class, OutboxWriter.class, OutboxRepositoryImpl.class, SimpleMeterRegistry.class})
+@DisplayName("UserRepositoryImpl Tests")
+class UserRepositoryImplTest {
+
+    @Autowired
+    private UserRepositoryImpl userRepository;
+
+    @Autowired
+    private OutboxRepositoryImpl outboxRepository;
+
+    @Autowired
+    private JpaUserRepository jpaUserRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 7; i++) {
+            userRepository.save(new User(UserId.generate(), new Email("user" + i + "@paging.test"), new Name("User", "Number" + i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Keyset pages on id cover every user exactly once")
+    void keysetPagesOnIdCoverEveryUser() {
+        List<User> seen = drain(UserCursor.first(UserSortKey.ID), false);
+
+        assertEquals(userRepository.count(), seen.size());
+        assertEquals(seen.size(), seen.stream().distinct().count());
+    }
+
+    @Test
+    @DisplayName("Keyset pages on created_at cover every user exactly once")
+    void keysetPagesOnCreatedAtCoverEveryUser() {
+        List<User> seen = drain(UserCursor.first(UserSortKey.CREATED_AT), false);
+
+        assertEquals(userRepository.count(), seen.size());
+        assertEquals(seen.size(), seen.stream().distinct().count());
+    }
+
+    @Test
+    @DisplayName("Active keyset pages only return active users")
+    void activeKeysetPagesOnlyReturnActiveUsers() {
+        // Every other user in id order, so inactive rows sit inside and at the edges of each page of 3
+        List<User> all = drain(UserCursor.first(UserSortKey.ID), false);
+        // The pages were read in read-only transactions that share the test's persistence context
+        entityManager.clear();
+        List<User> deactivated = new ArrayList<>();
+        for (int i = 1; i < all.size(); i += 2) {
+            User user = all.get(i);
+            user.deactivate();
+            deactivated.add(userRepository.save(user));
+        }
+        List<UserId> inactiveIds = deactivated.stream().map(User::getId).toList();
+        List<UserId> activeIds = all.stream().filter(User::isActive).map(User::getId)
+                .filter(id -> !inactiveIds.contains(id)).toList();
+
+        List<User> seen = drain(UserCursor.first(UserSortKey.ID), true);
+        assertEquals(activeIds, seen.stream().map(User::getId).toList());
+        assertTrue(seen.stream().allMatch(User::isActive));
+        assertEquals(userRepository.countActiveUsers(), seen.size());
+
+        List<User> seenByCreatedAt = drain(UserCursor.first(UserSortKey.CREATED_AT), true);
+        assertEquals(activeIds.size(), seenByCreatedAt.size());
+        assertTrue(seenByCreatedAt.stream().map(User::getId).noneMatch(inactiveIds::contains));
+    }
+
+    @Test
+    @DisplayName("Streams return every user in id order")
+    void streamsReturnEveryUserInIdOrder() {
+        try (Stream<User> users = userRepository.streamAll()) {
+            List<String> ids = users.map(user -> user.getId().getValue()).toList();
+
+            assertEquals(userRepository.count(), ids.size());
+            assertEquals(ids.stream().sorted().toList(), ids);
+        }
+        try (Stream<User> users = userRepository.streamActiveUsers()) {
+            assertEquals(userRepository.countActiveUsers(), users.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Mapping is timed once per loaded batch, not once per row")
+    void mappingIsTimedPerBatch() {
+        Timer mapping = meterRegistry.get(UserRepositoryImpl.MAPPING_DURATION).timer();
+        long before = mapping.count();
+
+        assertTrue(userRepository.findAll().size() > 1);
+        userRepository.findById(new UserId("550e8400-e29b-41d4-a716-446655440001"));
+
+        assertEquals(before + 1, mapping.count());
+    }
+
+    @Test
+    @DisplayName("Filtered streams match on activity and email domain in the query")
+    void filteredStreamsMatchOnActivityAndDomain() {
+        userRepository.save(new User(UserId.generate(), new Email("ada@example.com.evil"), new Name("Ada", "Lovelace")));
+
+        try (Stream<User> users = userRepository.streamMatching(null, "Example.com")) {
+            assertEquals(3, users.count());
+        }
+        try (Stream<User> users = userRepository.streamMatching(false, "example.com")) {
+            assertEquals(List.of("bob.johnson@example.com"), users.map(user -> user.getEmail().getValue()).toList());
+        }
+        try (Stream<User> users = userRepository.streamMatching(false, null)) {
+            assertTrue(users.noneMatch(User::isActive));
+        }
+        assertThrows(IllegalArgumentException.class, () -> userRepository.streamMatching(true, "a@example.com"));
+    }
+
+    @Test
+    @DisplayName("Batch saves insert new users and update existing ones")
+    void batchSavesInsertAndUpdate() {
+        long before = userRepository.count();
+        List<User> created = userRepository.saveAll(IntStream.range(0, 1200)
+                .mapToObj(i -> new User(UserId.generate(), new Email("bulk" + i + "@batch.test"), new Name("Bulk", "User" + i)))
+                .toList());
+
+        assertEquals(before + 1200, userRepository.count());
+        assertTrue(created.stream().allMatch(user -> user.getVersion() != null));
+
+        List<User> loaded = userRepository.findAllById(created.stream().map(User::getId).toList());
+        loaded.forEach(User::deactivate);
+        List<User> updated = userRepository.saveAll(loaded);
+
+        assertEquals(before + 1200, userRepository.count());
+        assertTrue(updated.stream().noneMatch(User::isActive));
+    }
+
+    @Test
+    @DisplayName("Batch lookups return existing users in request order")
+    void batchLookupsReturnUsersInRequestOrder() {
+        List<User> users = userRepository.findAll();
+        List<UserId> ids = new ArrayList<>(users.stream().map(User::getId).toList());
+        Collections.reverse(ids);
+        ids.add(1, UserId.generate());
+
+        List<User> byId = userRepository.findAllById(ids);
+        assertEquals(users.size(), byId.size());
+        assertEquals(ids.stream().filter(id -> users.stream().anyMatch(u -> u.getId().equals(id))).toList(),
+                byId.stream().map(User::getId).toList());
+
+        List<Email> emails = users.stream().map(User::getEmail).toList();
+        assertEquals(emails, userRepository.findAllByEmail(emails).stream().map(User::getEmail).toList());
+    }
+
+    @Test
+    @DisplayName("Saving a new user issues a single INSERT")
+    void savingNewUserIssuesSingleInsert() {
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userRepository.save(new User(UserId.generate(), new Email("new@insert.test"), new Name("New", "User")));
+        entityManager.flush();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    @DisplayName("Saving an existing user updates it and returns the new version")
+    void savingExistingUserUpdatesInPlace() {
+        User created = userRepository.save(new User(UserId.generate(), new Email("old@update.test"), new Name("Old", "Name")));
+        entityManager.flush();
+        entityManager.clear();
+
+        User loaded = userRepository.findById(created.getId()).orElseThrow();
+        loaded.updateProfile(new Name("New", "Name"), new Email("new@update.test"));
+        User updated = userRepository.save(loaded);
+
+        assertEquals(loaded.getVersion() + 1, updated.getVersion());
+        assertEquals("new@update.test", updated.getEmail().getValue());
+        assertThrows(OptimisticLockingFailureException.class, () -> userRepository.save(loaded));
+    }
+
+    @Test
+    @DisplayName("Name search is case-insensitive and paginated")
+    void nameSearchIsCaseInsensitiveAndPaginated() {
+        List<User> all = userRepository.findByNameContaining("NUMBER");
+        assertEquals(7, all.size());
+        assertEquals(all.stream().map(user -> user.getName().getLastName()).sorted().toList(),
+                all.stream().map(user -> user.getName().getLastName()).toList());
+
+        List<User> secondPage = userRepository.findByNameContaining("number", 3, 3);
+        assertEquals(all.subList(3, 6), secondPage);
+
+        assertEquals(1, userRepository.findByNameContaining("mber4").size());
+        assertEquals(List.of(), userRepository.findByNameContaining("nobody"));
+    }
+
+    @Test
+    @DisplayName("Summary pages match the entity pages without loading entities")
+    void summaryPagesDoNotLoadEntities() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<UserSummary> summaries = new ArrayList<>();
+        UserCursor cursor = UserCursor.first(UserSortKey.CREATED_AT);
+        KeysetPage<UserSummary> page;
+        do {
+            page = userRepository.findSummaries(cursor, 3);
+            summaries.addAll(page.items());
+            cursor = page.next();
+        } while (page.hasNext());
+        List<UserSummary> active = userRepository.findActiveSummaries(UserCursor.first(UserSortKey.ID), 100).items();
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(drain(UserCursor.first(UserSortKey.CREATED_AT), false).stream().map(user -> user.getId().getValue()).toList(),
+                summaries.stream().map(UserSummary::id).toList());
+        assertEquals(userRepository.countActiveUsers(), active.size());
+        assertTrue(active.stream().allMatch(UserSummary::active));
+    }
+
+    @Test
+    @DisplayName("Summary searches return the same users as entity searches")
+    void summarySearchesMatchEntitySearches() {
+        // A private index: the shared one only learns about committed writes
+        NgramUserNameSearch search = new NgramUserNameSearch(jpaUserRepository, new TransactionTemplate(transactionManager));
+
+        assertEquals(search.search("number", 2, 4).stream().map(UserEntity::getId).toList(),
+                search.searchSummaries("number", 2, 4).stream().map(UserSummary::id).toList());
+        assertEquals(4, search.searchSummaries("number", 2, 4).size());
+    }
+
+    @Test
+    @DisplayName("The native trigram search projects summaries")
+    void trigramSearchProjectsSummaries() {
+        List<UserSummary> found = new TrigramUserNameSearch(jpaUserRepository).searchSummaries("mber3", 0, 10);
+
+        assertEquals(1, found.size());
+        assertEquals("Number3", found.get(0).lastName());
+        assertNotNull(found.get(0).createdAt());
+    }
+
+    @Test
+    @DisplayName("Saving a user writes its events to the outbox")
+    void savingUserWritesEventsToOutbox() {
+        User user = userRepository.findAll().get(0);
+        user.updateProfile(new Name("Outbox", "User"), user.getEmail());
+        user.deactivate();
+        userRepository.save(user);
+        User other = userRepository.findAll().get(1);
+        other.deactivate();
+        userRepository.saveAll(List.of(other));
+
+        List<OutboxMessage> unsent = outboxRepository.findUnsent(10);
+        assertEquals(List.of("UserProfileUpdated", "UserDeactivated", "UserDeactivated"),
+                unsent.stream().map(OutboxMessage::eventType).toList());
+        assertEquals(user.getId().getValue(), unsent.get(0).aggregateId());
+        assertTrue(unsent.get(0).payload().contains("\"lastName\":\"User\""));
+
+        outboxRepository.markSent(unsent.stream().map(OutboxMessage::id).toList());
+        assertEquals(List.of(), outboxRepository.findUnsent(10));
+    }
+
+    @Test
+    @DisplayName("Claimed outbox entries are skipped by other claims until marked sent")
+    void claimedOutboxEntriesAreSkippedByOtherClaims() {
+        User user = userRepository.findAll().get(0);
+        user.deactivate();
+        userRepository.save(user);
+
+        List<OutboxMessage> claimed = outboxRepository.claimUnsent(10, Duration.ofMinutes(1));
+        assertEquals(List.of("UserDeactivated"), claimed.stream().map(OutboxMessage::eventType).toList());
+        assertEquals(List.of(), outboxRepository.claimUnsent(10, Duration.ofMinutes(1)));
+        assertEquals(1, outboxRepository.findUnsent(10).size());
+
+        outboxRepository.markSent(claimed.stream().map(OutboxMessage::id).toList());
+        assertEquals(List.of(), outboxRepository.findUnsent(10));
+    }
+
+    @Test
+    @DisplayName("Bulk operations update and delete users in chunks and write their events")
+    void bulkOperationsWorkInChunks() {
+        List<User> users = userRepository.findAllByEmail(IntStream.range(0, 7)
+                .mapToObj(i -> new Email("user" + i + "@paging.test")).toList());
+
+        assertEquals(7, userRepository.deactivateByEmailDomain(" Paging.TEST "));
+        assertEquals(0, userRepository.deactivateByEmailDomain("paging.test"));
+        for (User user : users) {
+            User deactivated = userRepository.findById(user.getId()).orElseThrow();
+            assertFalse(deactivated.isActive());
+            assertEquals(user.getVersion() + 1, deactivated.getVersion());
+        }
+        assertEquals(7, outboxRepository.findUnsent(100).stream()
+                .filter(message -> message.eventType().equals("UserDeactivated")).count());
+
+        List<UserId> reactivated = List.of(users.get(0).getId(), users.get(1).getId(), UserId.generate());
+        assertEquals(2, userRepository.activateAll(reactivated));
+        assertEquals(0, userRepository.activateAll(reactivated));
+
+        assertTrue(userRepository.purgeInactiveUpdatedBefore(LocalDateTime.now().plusMinutes(1)) >= 5);
+        assertEquals(List.of(users.get(0).getId(), users.get(1).getId()),
+                userRepository.findAllById(users.stream().map(User::getId).toList()).stream().map(User::getId).toList());
+        assertThrows(IllegalArgumentException.class, () -> userRepository.deactivateByEmailDomain("user@paging.test"));
+    }
+
+    @Test
+    @DisplayName("The change feed returns the users changed since a watermark and tombstones for deletions")
+    void changeFeedReturnsChangesSinceWatermark() {
+        List<UserChange> initial = new ArrayList<>();
+        UserWatermark watermark = UserWatermark.initial();
+        UserChangePage page;
+        do {
+            page = userRepository.findChangedSince(watermark, 3);
+            assertTrue(page.changes().size() <= 3);
+            initial.addAll(page.changes());
+            watermark = page.next();
+        } while (page.hasMore());
+        assertEquals(userRepository.count(), initial.size());
+        assertEquals(initial.stream().sorted(UserChange.ORDER).toList(), initial);
+        assertEquals(watermark, UserWatermark.decode(watermark.encode()));
+
+        User updated = userRepository.findByEmail(new Email("user3@paging.test")).orElseThrow();
+        updated.deactivate();
+        userRepository.save(updated);
+        User deleted = userRepository.findByEmail(new Email("user5@paging.test")).orElseThrow();
+        userRepository.delete(deleted.getId());
+
+        List<UserChange> changes = userRepository.findChangedSince(watermark, 10).changes();
+        assertEquals(2, changes.size());
+        assertEquals(updated.getId(), changes.get(0).user().getId());
+        assertFalse(changes.get(0).user().isActive());
+        assertEquals(deleted.getId().getValue(), changes.get(1).id());
+        assertTrue(changes.get(1).isDeleted());
+        assertEquals(List.of(), userRepository.findChangedSince(changes.get(1).watermark(), 10).changes());
+    }
+
+    @Test
+    @DisplayName("A re-created user deleted again replaces its tombstone, and old tombstones are pruned")
+    void tombstonesAreReplacedAndPruned() {
+        User user = userRepository.findByEmail(new Email("user2@paging.test")).orElseThrow();
+        userRepository.delete(user.getId());
+        entityManager.flush();
+        entityManager.clear();
+        userRepository.save(new User(user.getId(), user.getEmail(), user.getName()));
+        userRepository.delete(user.getId());
+        entityManager.flush();
+
+        List<UserChange> tombstones = userRepository.findChangedSince(UserWatermark.initial(), 100).changes().stream()
+                .filter(change -> change.id().equals(user.getId().getValue()))
+                .toList();
+        assertEquals(1, tombstones.size());
+        assertTrue(tombstones.get(0).isDeleted());
+
+        assertEquals(0, userRepository.deleteTombstonesBefore(tombstones.get(0).changedAt()));
+        assertEquals(1, userRepository.deleteTombstonesBefore(LocalDateTime.now().plusSeconds(1)));
+        assertEquals(List.of(), userRepository.findChangedSince(UserWatermark.initial(), 100).changes().stream()
+                .filter(UserChange::isDeleted)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Upserts insert missing users, overwrite older versions and skip the rest")
+    void upsertsKeepTheNewestVersion() {
+        UserId id = UserId.generate();
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+        long active = userRepository.countActiveUsers();
+
+        assertEquals(1, userRepository.upsertAll(List.of(new User(id, new Email("crm@upsert.test"),
+                new Name("Grace", "Hopper"), true, createdAt, createdAt, 3L))));
+        User inserted = userRepository.findById(id).orElseThrow();
+        assertEquals(3L, inserted.getVersion());
+        assertEquals(createdAt, inserted.getCreatedAt());
+        assertTrue(inserted.getUpdatedAt().isAfter(createdAt));
+
+        User newer = new User(id, new Email("grace@upsert.test"), new Name("Grace", "Murray"), false, createdAt, createdAt, 5L);
+        assertEquals(1, userRepository.upsertAll(List.of(newer)));
+        assertEquals(0, userRepository.upsertAll(List.of(newer)));
+        assertEquals(0, userRepository.upsertAll(List.of(new User(id, new Email("stale@upsert.test"),
+                new Name("Stale", "Copy"), true, createdAt, createdAt, 4L))));
+
+        User stored = userRepository.findById(id).orElseThrow();
+        assertEquals(5L, stored.getVersion());
+        assertEquals(new Email("grace@upsert.test"), stored.getEmail());
+        assertFalse(stored.isActive());
+        assertEquals(active, userRepository.countActiveUsers());
+        assertTrue(userRepository.findByEmail(new Email("crm@upsert.test")).isEmpty());
+
+        // Upserted users stay writable through the optimistic-lock path
+        stored.activate();
+        assertEquals(6L, userRepository.save(stored).getVersion());
+
+        assertThrows(IllegalArgumentException.class, () -> userRepository.upsertAll(List.of(newer, newer)));
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.upsertAll(List.of(new User(UserId.generate(),
+                new Email("user0@paging.test"), new Name("Taken", "Email"), true, createdAt, createdAt, 1L))));
+    }
+
+    private List<User> drain(UserCursor cursor, boolean activeOnly) {
+        List<User> seen = new ArrayList<>();
+        KeysetPage<User> page;
+        do {
+            page = activeOnly ? userRepository.findActiveUsers(cursor, 3) : userRepository.findAll(cursor, 3);
+            assertTrue(page.items().size() <= 3);
+            seen.addAll(page.items());
+            cursor = page.next();
+        } while (page.hasNext());
+        return seen;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.infrastructure.database.repositories;
+
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.config.DatabaseConfig;
+import com.example.infrastructure.database.config.StatementMonitorConfig;
+import com.example.infrastructure.database.config.UserCounterConfig;
+import com.example.infrastructure.database.config.UserSearchConfig;
+import com.example.infrastructure.database.mappers.UserMapper;
+import com.example.infrastructure.database.outbox.OutboxWriter;
+import com.example.infrastructure.database.support.StatementBudget;
+import com.example.infrastructure.database.support.StatementRecorder;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "app.datasource.statements.enabled=true")
+@Import({DatabaseConfig.class, StatementMonitorConfig.class, UserSearchConfig.class, UserCounterConfig.class,
+        UserRepositoryImpl.class, UserUpsertWriter.class, UserMapper.class, OutboxWriter.class, OutboxRepositoryImpl.class,
+        StatementRecorder.class})
+@DisplayName("UserRepositoryImpl statement budgets")
+class UserRepositoryStatementBudgetTest {
+
+    @Autowired
+    private UserRepositoryImpl userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        users = userRepository.saveAll(IntStream.range(0, 10)
+                .mapToObj(i -> new User(UserId.generate(), new Email("user" + i + "@budget.test"), new Name("Budget", "User" + i)))
+                .toList());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @StatementBudget(value = 1, inserts = 1)
+    @DisplayName("Saving a new user is one INSERT")
+    void savingNewUser() {
+        userRepository.save(new User(UserId.generate(), new Email("new@budget.test"), new Name("New", "User")));
+        entityManager.flush();
+    }
+
+    @Test
+    // The second SELECT is the outbox sequence, fetched once per 50 ids
+    @StatementBudget(value = 4, selects = 2, updates = 1, inserts = 1)
+    @DisplayName("Updating a user is one SELECT, one UPDATE and its outbox INSERT")
+    void updatingUser() {
+        User user = users.get(0);
+        user.updateProfile(new Name("Renamed", "User"), user.getEmail());
+        userRepository.save(user);
+    }
+
+    @Test
+    @StatementBudget(value = 3, selects = 0)
+    @DisplayName("Saving 120 new users is three INSERT batches")
+    void savingNewUsersInBatches() {
+        userRepository.saveAll(IntStream.range(0, 120)
+                .mapToObj(i -> new User(UserId.generate(), new Email("bulk" + i + "@budget.test"), new Name("Bulk", "User" + i)))
+                .toList());
+        entityManager.flush();
+    }
+
+    @Test
+    @StatementBudget(value = 1)
+    @DisplayName("Loading every user is one SELECT")
+    void findingAllUsers() {
+        assertTrue(userRepository.findAll().size() >= users.size());
+    }
+
+    @Test
+    @StatementBudget(value = 2, selects = 2)
+    @DisplayName("Batch lookups by id and email are one SELECT each")
+    void findingUsersInBatches() {
+        assertEquals(users.size(), userRepository.findAllById(users.stream().map(User::getId).toList()).size());
+        assertEquals(users.size(), userRepository.findAllByEmail(users.stream().map(User::getEmail).toList()).size());
+    }
+
+    @Test
+    @StatementBudget(value = 2)
+    @DisplayName("Keyset pages and summary pages are one SELECT each")
+    void pagingUsers() {
+        userRepository.findAll(UserCursor.first(UserSortKey.CREATED_AT), 5);
+        userRepository.findSummaries(UserCursor.first(UserSortKey.ID), 5);
+    }
+
+    @Test
+    @DisplayName("Looking users up one by one is reported as repeated SELECTs")
+    void repeatedLookupsAreDetected() {
+        try (StatementRecorder.Recording recording = StatementRecorder.start()) {
+            users.forEach(user -> userRepository.findById(user.getId()));
+
+            assertEquals(users.size(), recording.count(QueryType.SELECT));
+            assertEquals(List.of((long) users.size()), List.copyOf(recording.repeatedSelects(2).values()));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.infrastructure.database.search;
+
+import com.example.application.dto.UserSummary;
+import com.example.infrastructure.database.entities.UserEntity;
+import com.example.infrastructure.database.repositories.JpaUserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("NgramUserNameSearch Tests")
+class NgramUserNameSearchTest {
+
+    private static final String ID = "0b9d6f1e-3c52-4d7a-9f0e-5a1b2c3d4e5f";
+
+    private final JpaUserRepository jpaUserRepository = mock(JpaUserRepository.class);
+    private final NgramUserNameSearch search = new NgramUserNameSearch(jpaUserRepository,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    @DisplayName("A write that commits while the index is being built is applied after the build")
+    void writesCommittedDuringTheBuildAreIndexed() {
+        // The rename commits after the build has read the old name
+        when(jpaUserRepository.streamNames()).thenAnswer(invocation -> Stream.of(new UserNameRow(ID, "Ada", "Byron"))
+                .peek(row -> search.indexed(new UserEntity(ID, "ada@example.com", "Ada", "Lovelace"))));
+        when(jpaUserRepository.findSummariesByIdIn(any())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .map(id -> new UserSummary(id, "ada@example.com", "Ada", "Lovelace", true, LocalDateTime.now()))
+                    .toList();
+        });
+
+        assertEquals(List.of(ID), search.searchSummaries("lovelace", 0, 10).stream().map(UserSummary::id).toList());
+        assertTrue(search.searchSummaries("byron", 0, 10).isEmpty());
+        assertEquals(1, search.size());
+    }
+}
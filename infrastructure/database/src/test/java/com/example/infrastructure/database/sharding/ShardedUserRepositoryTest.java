@@ -0,0 +1,311 @@
+package com.example.infrastructure.database.sharding;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.OutboxMessage;
+import com.example.application.dto.UserChange;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.application.dto.UserSummary;
+import com.example.application.dto.UserWatermark;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.config.DatabaseConfig;
+import com.example.infrastructure.database.config.UserSearchConfig;
+import com.example.infrastructure.database.config.UserShardingConfig;
+import com.example.infrastructure.database.outbox.OutboxWriter;
+import com.example.infrastructure.database.repositories.OutboxRepositoryImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "app.users.sharding.enabled=true",
+        "app.users.sharding.shards[0].url=jdbc:h2:mem:users-shard-0;DB_CLOSE_DELAY=-1",
+        "app.users.sharding.shards[0].username=sa",
+        "app.users.sharding.shards[1].url=jdbc:h2:mem:users-shard-1;DB_CLOSE_DELAY=-1",
+        "app.users.sharding.shards[1].username=sa",
+        "app.users.bulk.chunk-size=4",
+        "app.users.bulk.pause=0s",
+        "app.users.changes.settle-lag=0s"
+})
+@Import({DatabaseConfig.class, UserSearchConfig.class, UserShardingConfig.class, OutboxWriter.class, OutboxRepositoryImpl.class})
+// Shards commit on their own, so the usual rollback-only test transaction cannot isolate them
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("ShardedUserRepository Tests")
+class ShardedUserRepositoryTest {
+
+    @Autowired
+    private ShardedUserRepository userRepository;
+
+    @Autowired
+    private UserShards shards;
+
+    @Autowired
+    private UserEmailIndex emailIndex;
+
+    @Autowired
+    private UserShardRebalancer rebalancer;
+
+    @Autowired
+    private OutboxRepositoryImpl outboxRepository;
+
+    @Test
+    @DisplayName("Users live on the shard their id hashes to and are found by id and email")
+    void routesUsersToTheirShard() {
+        List<User> saved = userRepository.saveAll(users("routed", 20));
+        User single = userRepository.save(user("single@routed.test", "Single", "Routed"));
+
+        for (User user : Stream.concat(saved.stream(), Stream.of(single)).toList()) {
+            String id = user.getId().getValue();
+            assertTrue(shards.owner(id).existsById(id));
+            assertEquals(1, shards.all().stream().filter(shard -> shard.existsById(id)).count());
+            assertEquals(user, userRepository.findById(user.getId()).orElseThrow());
+            assertEquals(user, userRepository.findByEmail(user.getEmail()).orElseThrow());
+            assertEquals(0L, user.getVersion());
+        }
+        assertTrue(shards.all().stream().allMatch(shard -> shard.count(false) > 0));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.save(user("single@routed.test", "Other", "Routed")));
+    }
+
+    @Test
+    @DisplayName("Pages, counts and searches merge every shard")
+    void scatterGatherAcrossShards() {
+        userRepository.saveAll(users("merged", 25));
+        List<User> all = userRepository.findAll();
+
+        assertEquals(all.size(), userRepository.count());
+        assertEquals(all.stream().map(user -> user.getId().getValue()).sorted().toList(),
+                all.stream().map(user -> user.getId().getValue()).toList());
+        assertEquals(all, drain(UserCursor.first(UserSortKey.ID)));
+        assertEquals(all.size(), drain(UserCursor.first(UserSortKey.CREATED_AT)).size());
+        try (Stream<User> users = userRepository.streamAll()) {
+            assertEquals(all, users.toList());
+        }
+        try (Stream<User> users = userRepository.streamMatching(true, "sharded.test")) {
+            assertEquals(all.stream().filter(user -> user.getEmail().getDomain().equals("sharded.test")).toList(),
+                    users.toList());
+        }
+
+        KeysetPage<UserSummary> summaries = userRepository.findSummaries(UserCursor.first(UserSortKey.ID), 7);
+        assertEquals(all.subList(0, 7).stream().map(user -> user.getId().getValue()).toList(),
+                summaries.items().stream().map(UserSummary::id).toList());
+
+        List<User> found = userRepository.findByNameContaining("MERGED", 0, 100);
+        assertEquals(25, found.size());
+        assertEquals(found.subList(5, 10), userRepository.findByNameContaining("merged", 5, 5));
+        assertEquals(found.subList(5, 10).stream().map(user -> user.getId().getValue()).toList(),
+                userRepository.findSummariesByNameContaining("merged", 5, 5).stream().map(UserSummary::id).toList());
+    }
+
+    @Test
+    @DisplayName("Updates move the email entry, check the version and write the outbox")
+    void updatesAreVersionedAndReindexed() {
+        User created = userRepository.save(user("before@update.test", "Before", "Update"));
+        User loaded = userRepository.findById(created.getId()).orElseThrow();
+        loaded.updateProfile(new Name("After", "Update"), new Email("after@update.test"));
+
+        User updated = userRepository.save(loaded);
+
+        assertEquals(1L, updated.getVersion());
+        assertTrue(userRepository.findByEmail(new Email("before@update.test")).isEmpty());
+        assertEquals(updated, userRepository.findByEmail(new Email("after@update.test")).orElseThrow());
+        assertEquals("After", userRepository.findById(created.getId()).orElseThrow().getName().getFirstName());
+        assertThrows(OptimisticLockingFailureException.class, () -> userRepository.save(loaded));
+        assertTrue(outboxRepository.findUnsent(100).stream()
+                .map(OutboxMessage::aggregateId)
+                .anyMatch(created.getId().getValue()::equals));
+
+        userRepository.delete(created.getId());
+        assertFalse(userRepository.existsById(created.getId()));
+        assertFalse(userRepository.existsByEmail(new Email("after@update.test")));
+    }
+
+    @Test
+    @DisplayName("Upserts keep the version they carry, skip older copies and move the email entry")
+    void upsertsKeepTheNewestVersion() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+        List<User> replicated = IntStream.range(0, 10)
+                .mapToObj(i -> new User(UserId.generate(), new Email("crm" + i + "@upsert.test"),
+                        new Name("Crm", "User" + i), true, createdAt, createdAt, 7L))
+                .toList();
+
+        assertEquals(10, userRepository.upsertAll(replicated));
+        assertEquals(0, userRepository.upsertAll(replicated));
+        User first = userRepository.findById(replicated.get(0).getId()).orElseThrow();
+        assertEquals(7L, first.getVersion());
+        assertEquals(createdAt, first.getCreatedAt());
+
+        User renamed = new User(first.getId(), new Email("renamed@upsert.test"), first.getName(), false, createdAt, createdAt, 9L);
+        assertEquals(1, userRepository.upsertAll(List.of(renamed, new User(replicated.get(1).getId(),
+                new Email("stale@upsert.test"), new Name("Stale", "Copy"), true, createdAt, createdAt, 6L))));
+        assertEquals(9L, userRepository.findByEmail(new Email("renamed@upsert.test")).orElseThrow().getVersion());
+        assertTrue(userRepository.findByEmail(new Email("crm0@upsert.test")).isEmpty());
+        assertEquals(replicated.get(1).getId(), userRepository.findByEmail(new Email("crm1@upsert.test")).orElseThrow().getId());
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.upsertAll(List.of(new User(UserId.generate(),
+                new Email("crm2@upsert.test"), new Name("Taken", "Email"), true, createdAt, createdAt, 1L))));
+    }
+
+    @Test
+    @DisplayName("Bulk operations run on every shard and keep the email index in step")
+    void bulkOperationsRunOnEveryShard() {
+        List<User> saved = userRepository.saveAll(IntStream.range(0, 15)
+                .mapToObj(i -> user("partner" + i + "@closed.test", "Closed", "Partner" + i))
+                .toList());
+
+        assertEquals(15, userRepository.deactivateByEmailDomain("closed.test"));
+        assertTrue(saved.stream().noneMatch(user -> userRepository.findById(user.getId()).orElseThrow().isActive()));
+        assertEquals(15, outboxRepository.findUnsent(1000).stream()
+                .filter(message -> message.eventType().equals("UserDeactivated"))
+                .filter(message -> saved.stream().anyMatch(user -> user.getId().getValue().equals(message.aggregateId())))
+                .count());
+
+        List<UserId> kept = saved.subList(0, 5).stream().map(User::getId).toList();
+        assertEquals(5, userRepository.activateAll(kept));
+
+        assertTrue(userRepository.purgeInactiveUpdatedBefore(LocalDateTime.now().plusMinutes(1)) >= 10);
+        assertEquals(kept, userRepository.findAllById(saved.stream().map(User::getId).toList()).stream()
+                .map(User::getId).toList());
+        assertTrue(emailIndex.find("partner9@closed.test").isEmpty());
+        assertTrue(userRepository.findByEmail(new Email("partner0@closed.test")).orElseThrow().isActive());
+    }
+
+    @Test
+    @DisplayName("Rebalancing moves misplaced users and repairs the email index")
+    void rebalancingMovesMisplacedUsers() {
+        // The sample users of the first migration were created on both shards and deduplicated at startup
+        assertEquals(1, shards.all().stream()
+                .filter(shard -> shard.existsById("550e8400-e29b-41d4-a716-446655440001")).count());
+        assertTrue(userRepository.findByEmail(new Email("john.doe@example.com")).isPresent());
+
+        User stray = user("stray@rebalance.test", "Stray", "User");
+        UserShard wrong = shards.all().stream()
+                .filter(shard -> shard != shards.owner(stray.getId().getValue()))
+                .findFirst().orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        wrong.insertAll(List.of(new User(stray.getId(), stray.getEmail(), stray.getName(), true, now, now, 3L)));
+        emailIndex.put("orphan@rebalance.test", UserId.generate().getValue(), 0);
+
+        UserShardRebalancer.Result result = rebalancer.rebalance();
+
+        assertEquals(1, result.moved());
+        assertEquals(1, result.indexEntriesFixed());
+        assertEquals(1, result.orphanEntriesRemoved());
+        assertFalse(wrong.existsById(stray.getId().getValue()));
+        User moved = userRepository.findByEmail(stray.getEmail()).orElseThrow();
+        assertEquals(3L, moved.getVersion());
+        assertTrue(emailIndex.find("orphan@rebalance.test").isEmpty());
+        assertEquals(new UserShardRebalancer.Result(0, 0, 0, 0, 0), rebalancer.rebalance());
+    }
+
+    @Test
+    @DisplayName("Rebalancing indexes or removes the inserts a failed batch left on a shard")
+    void rebalancingRepairsInsertsOfFailedBatches() {
+        User taken = userRepository.save(user("taken@orphans.test", "Taken", "User"));
+        // Committed on their shards while the primary transaction with their index entries rolled back
+        // Each shard keeps its emails unique, so the orphan lives on the other one
+        User orphan = Stream.generate(() -> user("taken@orphans.test", "Orphan", "User"))
+                .filter(user -> shards.owner(user.getId().getValue()) != shards.owner(taken.getId().getValue()))
+                .findFirst().orElseThrow();
+        User unindexed = user("unindexed@orphans.test", "Unindexed", "User");
+        LocalDateTime now = LocalDateTime.now();
+        for (User user : List.of(orphan, unindexed)) {
+            shards.owner(user.getId().getValue()).insertAll(List.of(
+                    new User(user.getId(), user.getEmail(), user.getName(), true, now, now, 0L)));
+        }
+
+        UserShardRebalancer.Result result = rebalancer.rebalance();
+
+        assertEquals(1, result.indexEntriesFixed());
+        assertEquals(1, result.orphanUsersRemoved());
+        assertTrue(userRepository.findById(orphan.getId()).isEmpty());
+        assertEquals(taken.getId(), userRepository.findByEmail(taken.getEmail()).orElseThrow().getId());
+        assertEquals(unindexed.getId(), userRepository.findByEmail(unindexed.getEmail()).orElseThrow().getId());
+        assertEquals(new UserShardRebalancer.Result(0, 0, 0, 0, 0), rebalancer.rebalance());
+    }
+
+    @Test
+    @DisplayName("The change feed merges the users and tombstones of every shard")
+    void changeFeedMergesShards() {
+        UserWatermark start = drainChanges(UserWatermark.initial(), new ArrayList<>());
+        List<User> saved = userRepository.saveAll(users("feed", 10));
+        userRepository.delete(saved.get(0).getId());
+
+        List<UserChange> changes = new ArrayList<>();
+        drainChanges(start, changes);
+
+        assertEquals(10, changes.size());
+        assertEquals(changes.stream().sorted(UserChange.ORDER).toList(), changes);
+        assertEquals(saved.subList(1, 10).stream().map(user -> user.getId().getValue()).sorted().toList(),
+                changes.subList(0, 9).stream().map(UserChange::id).sorted().toList());
+        assertEquals(UserChange.deleted(saved.get(0).getId().getValue(), changes.get(9).changedAt()), changes.get(9));
+    }
+
+    @Test
+    @DisplayName("A re-created user deleted again replaces its tombstone, and old tombstones are pruned on every shard")
+    void tombstonesAreReplacedAndPruned() {
+        User user = userRepository.save(user("tombstone@sharded.test", "Sharded", "Tombstone"));
+        userRepository.delete(user.getId());
+        userRepository.save(new User(user.getId(), user.getEmail(), user.getName()));
+        userRepository.delete(user.getId());
+
+        List<UserChange> changes = new ArrayList<>();
+        drainChanges(UserWatermark.initial(), changes);
+        assertEquals(1, changes.stream().filter(change -> change.id().equals(user.getId().getValue())).count());
+
+        assertTrue(userRepository.deleteTombstonesBefore(LocalDateTime.now().plusSeconds(1)) >= 1);
+        changes.clear();
+        drainChanges(UserWatermark.initial(), changes);
+        assertTrue(changes.stream().noneMatch(UserChange::isDeleted));
+    }
+
+    private UserWatermark drainChanges(UserWatermark watermark, List<UserChange> seen) {
+        UserChangePage page;
+        do {
+            page = userRepository.findChangedSince(watermark, 4);
+            assertTrue(page.changes().size() <= 4);
+            seen.addAll(page.changes());
+            watermark = page.next();
+        } while (page.hasMore());
+        return watermark;
+    }
+
+    private List<User> drain(UserCursor cursor) {
+        List<User> seen = new ArrayList<>();
+        KeysetPage<User> page;
+        do {
+            page = userRepository.findAll(cursor, 4);
+            assertTrue(page.items().size() <= 4);
+            seen.addAll(page.items());
+            cursor = page.next();
+        } while (page.hasNext());
+        return seen;
+    }
+
+    private static List<User> users(String label, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> user(label + i + "@sharded.test", "Sharded", label + i))
+                .toList();
+    }
+
+    private static User user(String email, String firstName, String lastName) {
+        return new User(UserId.generate(), new Email(email), new Name(firstName, lastName));
+    }
+}
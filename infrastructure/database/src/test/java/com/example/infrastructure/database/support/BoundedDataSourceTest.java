@@ -0,0 +1,59 @@
+package com.example.infrastructure.database.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BoundedDataSource Tests")
+class BoundedDataSourceTest {
+
+    private final DataSource pool = mock(DataSource.class);
+    private final BoundedDataSource dataSource = new BoundedDataSource(pool, 1, 1, Duration.ofMillis(50));
+
+    @Test
+    @DisplayName("Callers beyond the pool size and waiting limit are rejected")
+    void rejectsCallersBeyondTheLimit() throws SQLException {
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        assertNotNull(dataSource.getConnection());
+        second.close();
+    }
+
+    @Test
+    @DisplayName("Closing a connection twice releases its permit once")
+    void closingTwiceReleasesOnce() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(connection);
+
+        Connection guarded = dataSource.getConnection();
+        guarded.close();
+        guarded.close();
+
+        assertEquals(2, dataSource.availablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("A failing pool does not leak permits")
+    void failingPoolDoesNotLeakPermits() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("down"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(2, dataSource.availablePermits());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.infrastructure.database.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReplicaRoutingDataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = h2("routing-primary");
+    private final DataSource replica = h2("routing-replica");
+    private ReplicaRoutingDataSource routing;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        for (DataSource database : List.of(primary, replica)) {
+            JdbcTemplate template = new JdbcTemplate(database);
+            template.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+            template.execute("CREATE TABLE IF NOT EXISTS replica_status (lag_seconds DOUBLE)");
+            template.update("DELETE FROM node");
+            template.update("DELETE FROM replica_status");
+            template.update("INSERT INTO node VALUES (?)", database == primary ? "primary" : "replica");
+            template.update("INSERT INTO replica_status VALUES (0)");
+        }
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        // An instance that is down: the database does not exist and may not be created
+        replicas.put("replica-2", new DriverManagerDataSource("jdbc:h2:mem:routing-missing;IFEXISTS=TRUE", "sa", ""));
+        routing = new ReplicaRoutingDataSource(primary, replicas, Duration.ofMinutes(1),
+                "SELECT lag_seconds FROM replica_status", Duration.ofSeconds(1));
+        routing.checkReplicas();
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        jdbc = new JdbcTemplate(routing);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        routing.close();
+    }
+
+    @Test
+    @DisplayName("Read-only transactions go to a healthy replica, others to the primary")
+    void routesByTransactionType() throws Exception {
+        assertEquals(List.of("replica-1"), routing.healthyReplicas());
+        assertEquals("replica", onNewThread(() -> readOnly.execute(status -> node())));
+        assertEquals("primary", onNewThread(() -> readWrite.execute(status -> node())));
+        assertEquals("primary", onNewThread(this::node));
+    }
+
+    @Test
+    @DisplayName("A client that just wrote reads from the primary, on any thread and in its next request")
+    void readsYourWritesFromThePrimary() throws Exception {
+        List<Long> sent = new CopyOnWriteArrayList<>();
+        WriteSession session = new WriteSession(0, sent::add);
+        try (WriteSession.Binding binding = session.bind()) {
+            readWrite.executeWithoutResult(status -> {
+                jdbc.update("UPDATE node SET name = name");
+                WriteSession.recordWrite();
+            });
+
+            assertEquals("primary", onNewThread(WriteSession.propagate(() -> readOnly.execute(status -> node()))));
+        }
+        assertEquals(List.of(session.lastWriteMillis()), sent);
+
+        WriteSession nextRequest = WriteSession.fromToken(session.token(), Duration.ofMinutes(1), lastWrite -> {
+        });
+        assertEquals("primary", onNewThread(() -> {
+            try (WriteSession.Binding binding = nextRequest.bind()) {
+                return readOnly.execute(status -> node());
+            }
+        }));
+        assertEquals("replica", onNewThread(() -> readOnly.execute(status -> node())));
+    }
+
+    @Test
+    @DisplayName("Only recorded writes mark the session, and forged or expired tokens are not trusted")
+    void onlyRecordedWritesMarkTheSession() throws Exception {
+        WriteSession session = new WriteSession(0, lastWrite -> {
+        });
+        try (WriteSession.Binding binding = session.bind()) {
+            readWrite.executeWithoutResult(status -> node());
+        }
+        assertEquals(0, session.lastWriteMillis());
+
+        long now = System.currentTimeMillis();
+        WriteSession forged = WriteSession.fromToken(Long.toString(Long.MAX_VALUE), Duration.ofMinutes(1), lastWrite -> {
+        });
+        assertTrue(forged.lastWriteMillis() <= System.currentTimeMillis());
+        assertTrue(forged.lastWriteMillis() >= now);
+        WriteSession expired = WriteSession.fromToken(Long.toString(now - Duration.ofMinutes(2).toMillis()),
+                Duration.ofMinutes(1), lastWrite -> {
+                });
+        assertEquals(0, expired.lastWriteMillis());
+        assertEquals("replica", onNewThread(() -> {
+            try (WriteSession.Binding binding = expired.bind()) {
+                return readOnly.execute(status -> node());
+            }
+        }));
+    }
+
+    @Test
+    @DisplayName("Lagging replicas are skipped until they catch up")
+    void skipsLaggingReplicas() throws Exception {
+        new JdbcTemplate(replica).update("UPDATE replica_status SET lag_seconds = 120");
+        routing.checkReplicas();
+
+        assertEquals(List.of(), routing.healthyReplicas());
+        assertEquals("primary", onNewThread(() -> readOnly.execute(status -> node())));
+
+        new JdbcTemplate(replica).update("UPDATE replica_status SET lag_seconds = 0.5");
+        routing.checkReplicas();
+
+        assertEquals("replica", onNewThread(() -> readOnly.execute(status -> node())));
+    }
+
+    private String node() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    // Every check starts on a fresh thread, without a write session unless one is propagated
+    private static <T> T onNewThread(Supplier<T> call) throws Exception {
+        return CompletableFuture.supplyAsync(call, task -> Thread.ofVirtual().start(task)).get();
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
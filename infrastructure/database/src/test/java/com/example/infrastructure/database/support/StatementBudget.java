@@ -0,0 +1,35 @@
+package com.example.infrastructure.database.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the annotated test when its body sends more statements than budgeted, or runs the
+ * same SELECT more often than {@link #maxRepeatedSelects()}. Setup in {@code @BeforeEach}
+ * is not counted. Needs {@code app.datasource.statements.enabled=true} and
+ * {@code StatementMonitorConfig}; a negative budget is not checked.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(StatementBudgetExtension.class)
+public @interface StatementBudget {
+
+    /**
+     * Statements of any kind; a JDBC batch counts once.
+     */
+    int value() default -1;
+
+    int selects() default -1;
+
+    int inserts() default -1;
+
+    int updates() default -1;
+
+    int deletes() default -1;
+
+    int maxRepeatedSelects() default 1;
+}
@@ -0,0 +1,60 @@
+package com.example.infrastructure.database.support;
+
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Records the statements of a {@link StatementBudget} test body and checks them against the budget.
+ */
+class StatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(StatementBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), StatementRecorder.start());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        StatementRecorder.Recording recording = context.getStore(NAMESPACE)
+                .remove(context.getUniqueId(), StatementRecorder.Recording.class);
+        recording.close();
+        StatementBudget budget = context.getRequiredTestMethod().getAnnotation(StatementBudget.class);
+        if (budget == null) {
+            return;
+        }
+
+        List<String> exceeded = new ArrayList<>();
+        check(exceeded, "statements", budget.value(), recording.count());
+        check(exceeded, "SELECTs", budget.selects(), recording.count(QueryType.SELECT));
+        check(exceeded, "INSERTs", budget.inserts(), recording.count(QueryType.INSERT));
+        check(exceeded, "UPDATEs", budget.updates(), recording.count(QueryType.UPDATE));
+        check(exceeded, "DELETEs", budget.deletes(), recording.count(QueryType.DELETE));
+        Map<String, Long> repeated = recording.repeatedSelects(budget.maxRepeatedSelects() + 1);
+        repeated.forEach((sql, times) -> exceeded.add("SELECT ran " + times + " times, likely an N+1: " + sql));
+
+        if (!exceeded.isEmpty()) {
+            fail(String.join("\n", exceeded) + "\nStatements:\n" + recording.statements().stream()
+                    .map(statement -> "  " + statement.sql() + (statement.batchSize() > 1
+                            ? " [batch of " + statement.batchSize() + "]" : ""))
+                    .collect(Collectors.joining("\n")));
+        }
+    }
+
+    private static void check(List<String> exceeded, String what, int budget, int actual) {
+        if (budget >= 0 && actual > budget) {
+            exceeded.add(actual + " " + what + " over a budget of " + budget);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.infrastructure.database.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Records the statements the current thread sends through the proxied data source, so a
+ * test can hold an operation to a statement budget. Nothing is kept unless a recording
+ * was started on the thread; a JDBC batch counts as one statement, as it is one round trip.
+ */
+public class StatementRecorder implements QueryExecutionListener {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Starts recording on the current thread until the returned recording is closed.
+     */
+    public static Recording start() {
+        Recording recording = new Recording();
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Recording recording = CURRENT.get();
+        if (recording == null) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            recording.add(new Statement(QueryUtils.getQueryType(queryInfo.getQuery()), queryInfo.getQuery(),
+                    execInfo.isBatch() ? execInfo.getBatchSize() : 1));
+        }
+    }
+
+    public record Statement(QueryType type, String sql, int batchSize) {
+    }
+
+    public static final class Recording implements AutoCloseable {
+
+        private final List<Statement> statements = Collections.synchronizedList(new ArrayList<>());
+
+        private Recording() {
+        }
+
+        private void add(Statement statement) {
+            statements.add(statement);
+        }
+
+        public List<Statement> statements() {
+            return List.copyOf(statements);
+        }
+
+        public int count() {
+            return statements.size();
+        }
+
+        public int count(QueryType type) {
+            return (int) statements().stream().filter(statement -> statement.type() == type).count();
+        }
+
+        /**
+         * Returns the SELECTs that ran at least {@code times} times with the same SQL, the
+         * signature of an N+1 load, with how often each ran.
+         */
+        public Map<String, Long> repeatedSelects(int times) {
+            return statements().stream()
+                    .filter(statement -> statement.type() == QueryType.SELECT)
+                    .collect(Collectors.groupingBy(Statement::sql, LinkedHashMap::new, Collectors.counting()))
+                    .entrySet().stream()
+                    .filter(entry -> entry.getValue() >= times)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                            (a, b) -> a, LinkedHashMap::new));
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+        }
+    }
+}
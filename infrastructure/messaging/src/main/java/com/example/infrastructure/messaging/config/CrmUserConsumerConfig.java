@@ -0,0 +1,31 @@
+package com.example.infrastructure.messaging.config;
+
+import com.example.application.ports.UserRepository;
+import com.example.infrastructure.messaging.crm.CrmUserConsumer;
+import com.example.infrastructure.messaging.crm.CrmUserConsumerProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+
+/**
+ * Keeps the users in step with the CRM by consuming its user topic, see {@link CrmUserConsumer}.
+ */
+@Configuration
+@EnableConfigurationProperties(CrmUserConsumerProperties.class)
+@ConditionalOnProperty(prefix = "app.messaging.crm", name = "enabled", havingValue = "true")
+public class CrmUserConsumerConfig {
+
+    @Bean
+    public CrmUserConsumer crmUserConsumer(ObjectProvider<ConsumerFactory<String, String>> consumerFactory,
+                                           UserRepository userRepository,
+                                           CrmUserConsumerProperties properties) {
+        ConsumerFactory<String, String> consumers = consumerFactory.getIfAvailable();
+        if (consumers == null) {
+            throw new IllegalStateException("The CRM user consumer is enabled but Kafka is not configured");
+        }
+        return new CrmUserConsumer(consumers, userRepository, properties);
+    }
+}
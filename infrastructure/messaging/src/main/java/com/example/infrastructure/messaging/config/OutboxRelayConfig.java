@@ -0,0 +1,52 @@
+package com.example.infrastructure.messaging.config;
+
+import com.example.application.ports.OutboxRepository;
+import com.example.infrastructure.messaging.outbox.InMemoryMessageBroker;
+import com.example.infrastructure.messaging.outbox.KafkaOutboxMessagePublisher;
+import com.example.infrastructure.messaging.outbox.OutboxMessagePublisher;
+import com.example.infrastructure.messaging.outbox.OutboxRelay;
+import com.example.infrastructure.messaging.outbox.OutboxRelayProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(OutboxRelayProperties.class)
+@ConditionalOnProperty(prefix = "app.messaging.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelayConfig {
+
+    @Bean
+    public OutboxMessagePublisher outboxMessagePublisher(OutboxRelayProperties properties,
+                                                         ObjectProvider<KafkaTemplate<String, String>> kafkaTemplate) {
+        if (properties.getBroker() == null) {
+            throw new IllegalStateException("The outbox relay is enabled but app.messaging.outbox.broker is not set");
+        }
+        if (properties.getBroker() == OutboxRelayProperties.Broker.KAFKA) {
+            KafkaTemplate<String, String> template = kafkaTemplate.getIfAvailable();
+            if (template == null) {
+                throw new IllegalStateException("The outbox relay is configured for Kafka but no KafkaTemplate is available");
+            }
+            return new KafkaOutboxMessagePublisher(template, properties.getTopic());
+        }
+        return new InMemoryMessageBroker(properties.getInMemoryCapacity());
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxRepository outboxRepository,
+                                   OutboxMessagePublisher outboxMessagePublisher,
+                                   OutboxRelayProperties properties) {
+        return new OutboxRelay(
+                outboxRepository,
+                outboxMessagePublisher,
+                properties.getBatchSize(),
+                properties.getPublishTimeout(),
+                properties.getClaimLease(),
+                properties.getRetention()
+        );
+    }
+}
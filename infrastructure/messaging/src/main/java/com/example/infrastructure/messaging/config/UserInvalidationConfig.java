@@ -0,0 +1,91 @@
+package com.example.infrastructure.messaging.config;
+
+import com.example.application.cache.UserCacheInvalidations;
+import com.example.infrastructure.messaging.invalidation.KafkaInvalidationTransport;
+import com.example.infrastructure.messaging.invalidation.LoopbackInvalidationTransport;
+import com.example.infrastructure.messaging.invalidation.UserInvalidationProperties;
+import com.example.infrastructure.messaging.invalidation.UserInvalidationPublisher;
+import com.example.infrastructure.messaging.invalidation.UserInvalidationSubscriber;
+import com.example.infrastructure.messaging.invalidation.UserInvalidationTransport;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.UUID;
+
+/**
+ * Keeps the user caches of several nodes coherent: this node's invalidations are
+ * published as batches and the other nodes' are applied to its user cache.
+ */
+@Configuration
+@EnableConfigurationProperties(UserInvalidationProperties.class)
+@ConditionalOnProperty(prefix = "app.messaging.invalidation", name = "enabled", havingValue = "true")
+public class UserInvalidationConfig {
+
+    private final String nodeId;
+
+    public UserInvalidationConfig(UserInvalidationProperties properties) {
+        this.nodeId = StringUtils.hasText(properties.getNodeId()) ? properties.getNodeId() : UUID.randomUUID().toString();
+    }
+
+    @Bean
+    public UserInvalidationTransport userInvalidationTransport(UserInvalidationProperties properties,
+                                                               ObjectProvider<KafkaTemplate<String, String>> kafkaTemplate,
+                                                               ObjectProvider<ConsumerFactory<String, String>> consumerFactory) {
+        if (properties.getTransport() == UserInvalidationProperties.Transport.KAFKA) {
+            KafkaTemplate<String, String> template = kafkaTemplate.getIfAvailable();
+            ConsumerFactory<String, String> consumers = consumerFactory.getIfAvailable();
+            if (template == null || consumers == null) {
+                throw new IllegalStateException("User invalidations are configured for Kafka but Kafka is not configured");
+            }
+            return new KafkaInvalidationTransport(template, consumers, properties.getTopic());
+        }
+        return new LoopbackInvalidationTransport();
+    }
+
+    /**
+     * Registered as a cache invalidation listener, so the caching repository hands it
+     * every committed invalidation.
+     */
+    @Bean
+    public UserInvalidationPublisher userInvalidationPublisher(UserInvalidationTransport transport,
+                                                               UserInvalidationProperties properties,
+                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        UserInvalidationPublisher publisher = new UserInvalidationPublisher(
+                transport, nodeId, properties.getFlushInterval(), properties.getMaxBatchSize());
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            FunctionCounter.builder("users.invalidations.received", publisher, UserInvalidationPublisher::received)
+                    .description("Cache invalidations handed to the publisher, before coalescing")
+                    .register(registry);
+            FunctionCounter.builder("users.invalidations.sent", publisher, UserInvalidationPublisher::sent)
+                    .description("Cache invalidations sent to the other nodes, after coalescing")
+                    .register(registry);
+            if (transport instanceof KafkaInvalidationTransport kafka) {
+                FunctionCounter.builder("users.invalidations.failed.sends", kafka, KafkaInvalidationTransport::failedSends)
+                        .description("Invalidation batches the broker did not accept")
+                        .register(registry);
+            }
+        }
+        return publisher;
+    }
+
+    @Bean
+    public UserInvalidationSubscriber userInvalidationSubscriber(UserInvalidationTransport transport,
+                                                                 ObjectProvider<UserCacheInvalidations> userCache) {
+        UserCacheInvalidations cache = userCache.getIfAvailable();
+        if (cache == null) {
+            throw new IllegalStateException("User invalidations are enabled but the user cache is not (app.users.cache.enabled)");
+        }
+        UserInvalidationSubscriber subscriber = new UserInvalidationSubscriber(cache, nodeId);
+        transport.subscribe(subscriber);
+        return subscriber;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.infrastructure.messaging.crm;
+
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * One CRM record: the full current state of a user, as a JSON object
+ * {@code {"id", "email", "firstName", "lastName", "active", "version", "createdAt"}} where
+ * {@code active} defaults to {@code true} and {@code createdAt} to the time it is applied.
+ * The CRM raises {@code version} with every change to the user.
+ */
+public record CrmUserChange(User user) {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * @throws IllegalArgumentException when {@code value} is not such a record or holds an invalid user
+     */
+    public static CrmUserChange parse(String value, LocalDateTime receivedAt) {
+        JsonNode node;
+        try {
+            node = value == null ? null : JSON.readTree(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        JsonNode version = node.get("version");
+        if (version == null || !version.canConvertToLong() || version.asLong() < 0) {
+            throw new IllegalArgumentException("Missing or invalid version");
+        }
+        JsonNode active = node.get("active");
+        String createdAt = text(node, "createdAt");
+        try {
+            return new CrmUserChange(new User(
+                    new UserId(text(node, "id")),
+                    new Email(text(node, "email")),
+                    new Name(text(node, "firstName"), text(node, "lastName")),
+                    active == null || active.isNull() || active.asBoolean(),
+                    createdAt == null ? receivedAt : LocalDateTime.parse(createdAt),
+                    receivedAt,
+                    version.asLong()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid createdAt: " + createdAt);
+        }
+    }
+
+    public UserId id() {
+        return user.getId();
+    }
+
+    public long version() {
+        return user.getVersion();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
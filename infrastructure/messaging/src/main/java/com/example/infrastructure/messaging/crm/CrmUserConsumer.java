@@ -0,0 +1,188 @@
+package com.example.infrastructure.messaging.crm;
+
+import com.example.application.ports.UserRepository;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies the CRM's user records to the {@link UserRepository} in batches of one poll.
+ * A batch keeps the highest version of each user, the later record winning a tie, and is
+ * written with one {@link UserRepository#upsertAll(java.util.Collection)}; its offsets are
+ * committed once that transaction has committed. Redelivered records are harmless, since
+ * an upsert skips versions the repository already holds.
+ * <p>
+ * A batch that fails, e.g. because the database refuses connections, is retried with
+ * growing delays, the consumer paused in between, until it succeeds. A batch that succeeds
+ * but takes longer than the slow-batch time pauses consumption for a while, so a lagging
+ * database is not handed the next poll straight away. Records that cannot be parsed and
+ * users whose email belongs to another user are logged and skipped.
+ */
+public class CrmUserConsumer implements SmartLifecycle, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CrmUserConsumer.class);
+
+    private final UserRepository userRepository;
+    private final long slowBatchNanos;
+    private final Duration pause;
+    private final ConcurrentMessageListenerContainer<String, String> container;
+    private final ScheduledExecutorService resumer;
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public CrmUserConsumer(ConsumerFactory<String, String> consumerFactory,
+                           UserRepository userRepository,
+                           CrmUserConsumerProperties properties) {
+        this.userRepository = userRepository;
+        this.slowBatchNanos = properties.getSlowBatch().toNanos();
+        this.pause = properties.getPause();
+
+        ContainerProperties containerProperties = new ContainerProperties(properties.getTopic());
+        containerProperties.setGroupId(properties.getGroupId());
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        Properties consumer = new Properties();
+        consumer.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Integer.toString(properties.getMaxPollRecords()));
+        consumer.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        consumer.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        containerProperties.setKafkaConsumerProperties(consumer);
+        containerProperties.setMessageListener((BatchAcknowledgingMessageListener<String, String>) this::onBatch);
+
+        ExponentialBackOff backOff = new ExponentialBackOff(properties.getRetryInterval().toMillis(), 2.0);
+        backOff.setMaxInterval(properties.getMaxRetryInterval().toMillis());
+        this.container = new ConcurrentMessageListenerContainer<>(consumerFactory, containerProperties);
+        this.container.setBeanName("crmUserConsumer");
+        this.container.setConcurrency(properties.getConcurrency());
+        this.container.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+
+        this.resumer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crm-user-consumer-resume");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void onBatch(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        Map<UserId, CrmUserChange> latest = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            CrmUserChange change;
+            try {
+                change = CrmUserChange.parse(record.value(), receivedAt);
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping CRM record {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), e.getMessage());
+                skipped.increment();
+                continue;
+            }
+            latest.merge(change.id(), change, (kept, next) -> next.version() >= kept.version() ? next : kept);
+        }
+
+        long started = System.nanoTime();
+        upsert(latest.values().stream().map(CrmUserChange::user).toList());
+        long elapsed = System.nanoTime() - started;
+        acknowledgment.acknowledge();
+        log.debug("Applied {} CRM records as {} users in {} ms", records.size(), latest.size(), elapsed / 1_000_000);
+        if (elapsed > slowBatchNanos) {
+            pause(elapsed);
+        }
+    }
+
+    // One upsert for the batch; when an email is taken, user by user so only the offenders are skipped
+    private void upsert(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        try {
+            userRepository.upsertAll(users);
+            applied.add(users.size());
+            return;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("CRM batch of {} users hit a constraint, applying them one by one", users.size());
+        }
+        for (User user : users) {
+            try {
+                userRepository.upsertAll(List.of(user));
+                applied.increment();
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Skipping CRM user {} at version {}: {}", user.getId().getValue(), user.getVersion(),
+                        e.getMostSpecificCause().getMessage());
+                skipped.increment();
+            }
+        }
+    }
+
+    private void pause(long elapsedNanos) {
+        if (!paused.compareAndSet(false, true)) {
+            return;
+        }
+        log.info("CRM batch took {} ms, pausing consumption for {}", elapsedNanos / 1_000_000, pause);
+        container.pause();
+        resumer.schedule(() -> {
+            paused.set(false);
+            container.resume();
+        }, pause.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Users written or found up to date.
+     */
+    public long applied() {
+        return applied.sum();
+    }
+
+    /**
+     * Records that could not be parsed and users that could not be written.
+     */
+    public long skipped() {
+        return skipped.sum();
+    }
+
+    public boolean isPaused() {
+        return paused.get();
+    }
+
+    @Override
+    public void start() {
+        container.start();
+    }
+
+    @Override
+    public void stop() {
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return container.isRunning();
+    }
+
+    @Override
+    public void close() {
+        container.stop();
+        resumer.shutdownNow();
+    }
+}
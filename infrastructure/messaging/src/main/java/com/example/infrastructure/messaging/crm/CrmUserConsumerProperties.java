@@ -0,0 +1,95 @@
+package com.example.infrastructure.messaging.crm;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.messaging.crm")
+public class CrmUserConsumerProperties {
+
+    private boolean enabled = false;
+    private String topic = "crm.users";
+    private String groupId = "users-crm-sync";
+    // Records fetched per poll, and so the most users one upsert writes
+    private int maxPollRecords = 2000;
+    // Consumer threads; more than the topic's partitions sit idle
+    private int concurrency = 1;
+    // A batch whose upsert takes longer than this pauses consumption for the pause time
+    private Duration slowBatch = Duration.ofSeconds(2);
+    private Duration pause = Duration.ofSeconds(5);
+    // A failed batch is retried after this, doubling up to the maximum, until it succeeds
+    private Duration retryInterval = Duration.ofSeconds(1);
+    private Duration maxRetryInterval = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public int getMaxPollRecords() {
+        return maxPollRecords;
+    }
+
+    public void setMaxPollRecords(int maxPollRecords) {
+        this.maxPollRecords = maxPollRecords;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Duration getSlowBatch() {
+        return slowBatch;
+    }
+
+    public void setSlowBatch(Duration slowBatch) {
+        this.slowBatch = slowBatch;
+    }
+
+    public Duration getPause() {
+        return pause;
+    }
+
+    public void setPause(Duration pause) {
+        this.pause = pause;
+    }
+
+    public Duration getRetryInterval() {
+        return retryInterval;
+    }
+
+    public void setRetryInterval(Duration retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+
+    public Duration getMaxRetryInterval() {
+        return maxRetryInterval;
+    }
+
+    public void setMaxRetryInterval(Duration maxRetryInterval) {
+        this.maxRetryInterval = maxRetryInterval;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.infrastructure.messaging.invalidation;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.TopicPartitionOffset;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts batches over a Kafka topic. Every node assigns itself all of the topic's
+ * partitions, without a consumer group, so a restart leaves nothing behind on the broker,
+ * and starts from the end: invalidations older than the node's cache are of no use to it.
+ * The partitions are looked up once, when consumption starts. Sends are fire-and-forget;
+ * a lost batch is logged and counted, and leaves entries stale until they expire, which
+ * bounds the damage by the cache's time to live.
+ */
+public class KafkaInvalidationTransport implements UserInvalidationTransport, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaInvalidationTransport.class);
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final String topic;
+    private final List<Consumer<UserInvalidationBatch>> subscribers = new CopyOnWriteArrayList<>();
+    private final LongAdder failedSends = new LongAdder();
+    private KafkaMessageListenerContainer<String, String> container;
+
+    public KafkaInvalidationTransport(KafkaTemplate<String, String> kafkaTemplate,
+                                      ConsumerFactory<String, String> consumerFactory,
+                                      String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.consumerFactory = consumerFactory;
+        this.topic = topic;
+    }
+
+    @Override
+    public void send(UserInvalidationBatch batch) {
+        kafkaTemplate.send(topic, batch.origin(), batch.encode()).whenComplete((result, failure) -> {
+            if (failure != null) {
+                failedSends.increment();
+                log.warn("Failed to send {} user invalidations to {}: {}", batch.invalidations().size(), topic,
+                        failure.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Starts consuming with the first subscriber.
+     */
+    @Override
+    public synchronized void subscribe(Consumer<UserInvalidationBatch> subscriber) {
+        subscribers.add(subscriber);
+        if (container == null) {
+            container = container();
+            container.start();
+        }
+    }
+
+    /**
+     * Batches the broker did not accept.
+     */
+    public long failedSends() {
+        return failedSends.sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    private KafkaMessageListenerContainer<String, String> container() {
+        TopicPartitionOffset[] partitions = kafkaTemplate.partitionsFor(topic).stream()
+                .map(partition -> new TopicPartitionOffset(topic, partition.partition(), TopicPartitionOffset.SeekPosition.END))
+                .toArray(TopicPartitionOffset[]::new);
+        ContainerProperties properties = new ContainerProperties(partitions);
+        properties.setMessageListener((MessageListener<String, String>) record -> {
+            UserInvalidationBatch batch = UserInvalidationBatch.decode(record.value());
+            subscribers.forEach(subscriber -> subscriber.accept(batch));
+        });
+        // The application's consumer settings without its group: positions are never
+        // committed, each start seeks to the end again
+        Map<String, Object> consumer = new HashMap<>(consumerFactory.getConfigurationProperties());
+        consumer.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        consumer.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new KafkaMessageListenerContainer<>(
+                new DefaultKafkaConsumerFactory<>(consumer, new StringDeserializer(), new StringDeserializer()), properties);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.infrastructure.messaging.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM transport for tests and single-node setups. Several nodes in one JVM share one
+ * instance; each batch goes through the wire format and is handed to every subscriber
+ * on the sending thread.
+ */
+public class LoopbackInvalidationTransport implements UserInvalidationTransport {
+
+    private final List<Consumer<UserInvalidationBatch>> subscribers = new CopyOnWriteArrayList<>();
+    private final LongAdder sent = new LongAdder();
+
+    @Override
+    public void send(UserInvalidationBatch batch) {
+        String encoded = batch.encode();
+        subscribers.forEach(subscriber -> subscriber.accept(UserInvalidationBatch.decode(encoded)));
+        sent.increment();
+    }
+
+    @Override
+    public void subscribe(Consumer<UserInvalidationBatch> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Batches delivered to every subscriber.
+     */
+    public long sent() {
+        return sent.sum();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.infrastructure.messaging.invalidation;
+
+/**
+ * One user changed by another node: the version its write produced, or {@code null}
+ * when the user was deleted.
+ */
+public record UserInvalidation(String userId, Long version) {
+
+    public boolean isDeletion() {
+        return version == null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.infrastructure.messaging.invalidation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The invalidations one node collected over a flush interval. {@code cleared} means the
+ * node ran a bulk write that may have changed any user; receivers drop their whole cache
+ * before applying the individual invalidations, which happened after it.
+ * <p>
+ * On the wire a batch is one line per entry: the origin, {@code *} when cleared, then
+ * {@code id:version} or {@code id:-} for a deletion. Ids never contain a colon or a line break.
+ */
+public record UserInvalidationBatch(String origin, boolean cleared, List<UserInvalidation> invalidations) {
+
+    private static final String CLEARED = "*";
+    private static final String DELETED = "-";
+
+    public UserInvalidationBatch {
+        invalidations = List.copyOf(invalidations);
+    }
+
+    public String encode() {
+        StringBuilder encoded = new StringBuilder(origin.length() + 48 * invalidations.size()).append(origin);
+        if (cleared) {
+            encoded.append('\n').append(CLEARED);
+        }
+        for (UserInvalidation invalidation : invalidations) {
+            encoded.append('\n').append(invalidation.userId()).append(':')
+                    .append(invalidation.isDeletion() ? DELETED : invalidation.version().toString());
+        }
+        return encoded.toString();
+    }
+
+    public static UserInvalidationBatch decode(String encoded) {
+        String[] lines = encoded.split("\n");
+        boolean cleared = false;
+        List<UserInvalidation> invalidations = new ArrayList<>(lines.length - 1);
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i];
+            if (CLEARED.equals(line)) {
+                cleared = true;
+                continue;
+            }
+            int separator = line.lastIndexOf(':');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Malformed user invalidation: " + line);
+            }
+            String version = line.substring(separator + 1);
+            invalidations.add(new UserInvalidation(line.substring(0, separator),
+                    DELETED.equals(version) ? null : Long.valueOf(version)));
+        }
+        return new UserInvalidationBatch(lines[0], cleared, invalidations);
+    }
+}
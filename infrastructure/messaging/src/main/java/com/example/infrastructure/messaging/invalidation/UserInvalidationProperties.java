@@ -0,0 +1,73 @@
+package com.example.infrastructure.messaging.invalidation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.messaging.invalidation")
+public class UserInvalidationProperties {
+
+    public enum Transport {
+        /** In-process; only reaches nodes in the same JVM */
+        LOOPBACK,
+        KAFKA
+    }
+
+    private boolean enabled = false;
+    private Transport transport = Transport.LOOPBACK;
+    private String topic = "users.invalidations";
+    // Identifies this node's batches; a random id per start when not set
+    private String nodeId;
+    // Invalidations are collected this long before being sent as one batch
+    private Duration flushInterval = Duration.ofMillis(20);
+    // Distinct users pending that trigger a send before the interval ends
+    private int maxBatchSize = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.infrastructure.messaging.invalidation;
+
+import com.example.application.cache.UserCacheInvalidationListener;
+import com.example.domain.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends this node's committed user invalidations to the other nodes. The caching
+ * repository calls it after commit; invalidations are collected and sent as one batch per
+ * flush interval, or as soon as {@code maxBatchSize} distinct users are pending. Repeated
+ * invalidations of a user within a batch collapse into the newest version, a deletion
+ * winning over any version.
+ */
+public class UserInvalidationPublisher implements UserCacheInvalidationListener, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(UserInvalidationPublisher.class);
+    // Versions start at 0, so this stands for a deletion in the pending map
+    private static final long DELETED = -1L;
+
+    private final UserInvalidationTransport transport;
+    private final String origin;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("user-invalidation-flusher").daemon().factory());
+    private Map<String, Long> pending = new LinkedHashMap<>();
+    private boolean cleared;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+
+    public UserInvalidationPublisher(UserInvalidationTransport transport, String origin,
+                                     Duration flushInterval, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Invalidation batch size must be positive");
+        }
+        this.transport = transport;
+        this.origin = origin;
+        this.maxBatchSize = maxBatchSize;
+        long interval = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onInvalidated(UserId id, Long version) {
+        received.increment();
+        boolean full;
+        lock.lock();
+        try {
+            pending.merge(id.getValue(), version == null ? DELETED : version,
+                    (current, next) -> current == DELETED || next == DELETED ? DELETED : Math.max(current, next));
+            full = pending.size() >= maxBatchSize;
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    @Override
+    public void onCleared() {
+        received.increment();
+        lock.lock();
+        try {
+            // Receivers drop everything, which covers whatever was pending
+            pending.clear();
+            cleared = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends what is pending now, if anything.
+     */
+    public void flush() {
+        Map<String, Long> batch;
+        boolean clear;
+        lock.lock();
+        try {
+            if (pending.isEmpty() && !cleared) {
+                return;
+            }
+            batch = pending;
+            clear = cleared;
+            pending = new LinkedHashMap<>();
+            cleared = false;
+        } finally {
+            lock.unlock();
+        }
+        List<UserInvalidation> invalidations = new ArrayList<>(batch.size());
+        batch.forEach((id, version) -> invalidations.add(new UserInvalidation(id, version == DELETED ? null : version)));
+        transport.send(new UserInvalidationBatch(origin, clear, invalidations));
+        sent.add(invalidations.size());
+    }
+
+    /**
+     * Invalidations handed to this publisher, before coalescing.
+     */
+    public long received() {
+        return received.sum();
+    }
+
+    /**
+     * Invalidations sent, after coalescing.
+     */
+    public long sent() {
+        return sent.sum();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // The next flush sends newer invalidations; entries missed here expire with the cache TTL
+            log.warn("Failed to send user invalidations", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.infrastructure.messaging.invalidation;
+
+import com.example.application.cache.UserCacheInvalidations;
+import com.example.domain.UserId;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Applies other nodes' invalidations to this node's user cache. A cached user is
+ * only evicted when it is older than the announced version, so a node that already read
+ * the new state keeps it; the announced version also becomes the floor that stops an
+ * in-flight read of the old state from being cached afterwards.
+ */
+public class UserInvalidationSubscriber implements Consumer<UserInvalidationBatch> {
+
+    private final UserCacheInvalidations cache;
+    private final String origin;
+    private final LongAdder applied = new LongAdder();
+
+    public UserInvalidationSubscriber(UserCacheInvalidations cache, String origin) {
+        this.cache = cache;
+        this.origin = origin;
+    }
+
+    @Override
+    public void accept(UserInvalidationBatch batch) {
+        if (origin.equals(batch.origin())) {
+            return;
+        }
+        if (batch.cleared()) {
+            cache.clear();
+        }
+        for (UserInvalidation invalidation : batch.invalidations()) {
+            UserId id = new UserId(invalidation.userId());
+            if (invalidation.isDeletion()) {
+                cache.invalidate(id, null);
+            } else {
+                cache.invalidateOlderThan(id, invalidation.version());
+            }
+        }
+        applied.add(batch.invalidations().size());
+    }
+
+    /**
+     * Invalidations received from other nodes.
+     */
+    public long applied() {
+        return applied.sum();
+    }
+}
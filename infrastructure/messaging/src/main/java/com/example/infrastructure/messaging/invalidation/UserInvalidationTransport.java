@@ -0,0 +1,14 @@
+package com.example.infrastructure.messaging.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts invalidation batches to every node, the sender included; receivers skip
+ * their own batches by origin.
+ */
+public interface UserInvalidationTransport {
+
+    void send(UserInvalidationBatch batch);
+
+    void subscribe(Consumer<UserInvalidationBatch> subscriber);
+}
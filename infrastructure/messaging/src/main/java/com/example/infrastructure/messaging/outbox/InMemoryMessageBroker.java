@@ -0,0 +1,75 @@
+package com.example.infrastructure.messaging.outbox;
+
+import com.example.application.dto.OutboxMessage;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Broker stand-in for development and tests. Published messages are handed to the
+ * subscribers on the publishing thread and the most recent {@code capacity} of them are
+ * kept for inspection; nothing is durable.
+ */
+public class InMemoryMessageBroker implements OutboxMessagePublisher {
+
+    private final int capacity;
+    private final ArrayDeque<OutboxMessage> published;
+    private final List<Consumer<OutboxMessage>> subscribers = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public InMemoryMessageBroker(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("In-memory broker capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.published = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(OutboxMessage message) {
+        lock.lock();
+        try {
+            if (published.size() == capacity) {
+                published.removeFirst();
+            }
+            published.addLast(message);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            subscribers.forEach(subscriber -> subscriber.accept(message));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public void subscribe(Consumer<OutboxMessage> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * The retained messages, oldest first.
+     */
+    public List<OutboxMessage> published() {
+        lock.lock();
+        try {
+            return List.copyOf(published);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            published.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
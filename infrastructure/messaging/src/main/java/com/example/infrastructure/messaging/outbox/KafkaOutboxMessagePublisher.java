@@ -0,0 +1,45 @@
+package com.example.infrastructure.messaging.outbox;
+
+import com.example.application.dto.OutboxMessage;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes outbox entries to Kafka keyed by user id, so all events of one user land on
+ * the same partition. They are not guaranteed to arrive in the order they were written:
+ * outbox ids come from a pooled sequence, so id order across nodes is not commit order,
+ * and relays on several nodes may publish events of the same user at the same time. The
+ * events carry no version, so a consumer that needs a user's current state should take an
+ * event as a sign that the user changed and read the state, e.g. from the change feed,
+ * rather than apply events in arrival order. The producer batches and pipelines the sends;
+ * the future completes on the broker acknowledgement.
+ */
+public class KafkaOutboxMessagePublisher implements OutboxMessagePublisher {
+
+    public static final String EVENT_TYPE_HEADER = "event-type";
+    // Outbox id, for consumers deduplicating redeliveries
+    public static final String MESSAGE_ID_HEADER = "message-id";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String topic;
+
+    public KafkaOutboxMessagePublisher(KafkaTemplate<String, String> kafkaTemplate, String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(OutboxMessage message) {
+        Message<String> record = MessageBuilder.withPayload(message.payload())
+                .setHeader(KafkaHeaders.TOPIC, topic)
+                .setHeader(KafkaHeaders.KEY, message.aggregateId())
+                .setHeader(EVENT_TYPE_HEADER, message.eventType())
+                .setHeader(MESSAGE_ID_HEADER, String.valueOf(message.id()))
+                .build();
+        return kafkaTemplate.send(record).thenApply(result -> null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.infrastructure.messaging.outbox;
+
+import com.example.application.dto.OutboxMessage;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends one outbox entry to a broker. Implementations must not block: the returned
+ * future completes once the broker has acknowledged the message, so the relay can
+ * keep a whole batch in flight at once.
+ */
+public interface OutboxMessagePublisher {
+
+    CompletableFuture<Void> publish(OutboxMessage message);
+}
@@ -0,0 +1,142 @@
+package com.example.infrastructure.messaging.outbox;
+
+import com.example.application.dto.OutboxMessage;
+import com.example.application.ports.OutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves outbox entries to the broker in batches: one transaction claims a batch, every
+ * entry of it is published without waiting for the previous acknowledgement, and one
+ * update marks the acknowledged entries sent. Claims are leased, so relays on several
+ * nodes share the outbox without publishing the same entries.
+ * <p>
+ * Delivery is at least once. An entry whose publish fails or times out stays unsent and
+ * is retried once its lease has run out, possibly after later entries of the same user
+ * went out, and a crash between publishing and marking re-sends the batch. Consumers should
+ * deduplicate on the outbox id.
+ */
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxMessagePublisher publisher;
+    private final int batchSize;
+    private final Duration publishTimeout;
+    private final Duration claimLease;
+    private final Duration retention;
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       OutboxMessagePublisher publisher,
+                       int batchSize,
+                       Duration publishTimeout,
+                       Duration claimLease,
+                       Duration retention) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Outbox batch size must be positive");
+        }
+        if (claimLease.compareTo(publishTimeout) <= 0) {
+            throw new IllegalArgumentException("The outbox claim lease must be longer than the publish timeout");
+        }
+        this.outboxRepository = outboxRepository;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.publishTimeout = publishTimeout;
+        this.claimLease = claimLease;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.outbox.poll-interval:PT1S}")
+    public void relay() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Relaying the user outbox failed, retrying on the next poll", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.outbox.purge-interval:PT1H}")
+    public void purge() {
+        try {
+            long purged = outboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+            if (purged > 0) {
+                log.debug("Purged {} sent outbox entries", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Purging the user outbox failed", e);
+        }
+    }
+
+    /**
+     * Relays batches until the outbox is empty or a publish fails, and returns how many
+     * entries were marked sent. Returns 0 right away if another drain is running.
+     */
+    public int drain() {
+        if (!drainLock.tryLock()) {
+            return 0;
+        }
+        try {
+            int relayed = 0;
+            while (true) {
+                List<OutboxMessage> batch = outboxRepository.claimUnsent(batchSize, claimLease);
+                if (batch.isEmpty()) {
+                    return relayed;
+                }
+                List<Long> sent = publishAll(batch);
+                if (!sent.isEmpty()) {
+                    outboxRepository.markSent(sent);
+                    relayed += sent.size();
+                }
+                if (sent.size() < batch.size() || batch.size() < batchSize) {
+                    return relayed;
+                }
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private List<Long> publishAll(List<OutboxMessage> batch) {
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            inFlight.add(send(message));
+        }
+
+        long deadline = System.nanoTime() + publishTimeout.toNanos();
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMessage message = batch.get(i);
+            try {
+                inFlight.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sent.add(message.id());
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Publishing outbox entry {} ({}) failed", message.id(), message.eventType(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return sent;
+    }
+
+    private CompletableFuture<Void> send(OutboxMessage message) {
+        try {
+            return publisher.publish(message);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.infrastructure.messaging.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.messaging.outbox")
+public class OutboxRelayProperties {
+
+    public enum Broker {
+        /** In-process stand-in for tests; messages never leave the JVM */
+        IN_MEMORY,
+        KAFKA
+    }
+
+    private boolean enabled = false;
+    // Required once the relay is enabled
+    private Broker broker;
+    private String topic = "users.events";
+    // Entries read, published and marked sent per round trip; also the number in flight
+    private int batchSize = 500;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private Duration publishTimeout = Duration.ofSeconds(10);
+    // How long a claimed batch is reserved for this node; longer than the publish timeout
+    private Duration claimLease = Duration.ofMinutes(1);
+    // How long sent entries are kept before being purged
+    private Duration retention = Duration.ofDays(1);
+    private Duration purgeInterval = Duration.ofHours(1);
+    // Messages the in-memory broker keeps for inspection
+    private int inMemoryCapacity = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Broker getBroker() {
+        return broker;
+    }
+
+    public void setBroker(Broker broker) {
+        this.broker = broker;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getPublishTimeout() {
+        return publishTimeout;
+    }
+
+    public void setPublishTimeout(Duration publishTimeout) {
+        this.publishTimeout = publishTimeout;
+    }
+
+    public Duration getClaimLease() {
+        return claimLease;
+    }
+
+    public void setClaimLease(Duration claimLease) {
+        this.claimLease = claimLease;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public Duration getPurgeInterval() {
+        return purgeInterval;
+    }
+
+    public void setPurgeInterval(Duration purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+
+    public int getInMemoryCapacity() {
+        return inMemoryCapacity;
+    }
+
+    public void setInMemoryCapacity(int inMemoryCapacity) {
+        this.inMemoryCapacity = inMemoryCapacity;
+    }
+}
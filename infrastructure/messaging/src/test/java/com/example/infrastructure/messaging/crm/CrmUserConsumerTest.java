@@ -0,0 +1,210 @@
+package com.example.infrastructure.messaging.crm;
+
+import com.example.application.ports.UserRepository;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@EmbeddedKafka(kraft = true, partitions = 2)
+@DisplayName("CrmUserConsumer Tests")
+class CrmUserConsumerTest {
+
+    private static final String ADA = "0b9d6f1e-3c52-4d7a-9f0e-5a1b2c3d4e5f";
+    private static final String GRACE = "6c1e2f3a-4b5c-4d6e-8f70-8192a3b4c5d6";
+    private static final AtomicInteger TOPICS = new AtomicInteger();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    // The users as the repository holds them, and every batch handed to upsertAll
+    private final Map<UserId, User> stored = new ConcurrentHashMap<>();
+    private final List<List<User>> upserts = new CopyOnWriteArrayList<>();
+    private final CrmUserConsumerProperties properties = new CrmUserConsumerProperties();
+
+    private EmbeddedKafkaBroker broker;
+    private KafkaTemplate<String, String> producer;
+    private CrmUserConsumer consumer;
+
+    @BeforeEach
+    void setUp(EmbeddedKafkaBroker broker) {
+        this.broker = broker;
+        int topic = TOPICS.incrementAndGet();
+        properties.setTopic("crm.users." + topic);
+        properties.setGroupId("users-crm-sync-" + topic);
+        properties.setRetryInterval(Duration.ofMillis(50));
+        properties.setMaxRetryInterval(Duration.ofMillis(200));
+        broker.addTopics(new NewTopic(properties.getTopic(), 2, (short) 1));
+
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producer = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps));
+
+        when(userRepository.upsertAll(anyCollection())).thenAnswer(invocation -> {
+            List<User> users = List.copyOf(invocation.<Collection<User>>getArgument(0));
+            upserts.add(users);
+            if (users.stream().anyMatch(user -> user.getEmail().getValue().startsWith("taken@"))) {
+                throw new DataIntegrityViolationException("Email already exists");
+            }
+            long written = 0;
+            for (User user : users) {
+                User current = stored.get(user.getId());
+                if (current == null || current.getVersion() < user.getVersion()) {
+                    stored.put(user.getId(), user);
+                    written++;
+                }
+            }
+            return written;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (consumer != null) {
+            consumer.close();
+        }
+        producer.destroy();
+    }
+
+    @Test
+    @DisplayName("A batch keeps the highest version of each user and commits its offsets after the upsert")
+    void batchesAreDedupedByUser() throws Exception {
+        send(ADA, record(ADA, "ada@crm.test", "Ada", 1));
+        send(ADA, record(ADA, "ada@crm.test", "Ada", 3));
+        send(ADA, record(ADA, "ada@crm.test", "Augusta", 3));
+        send(ADA, record(ADA, "old@crm.test", "Ada", 2));
+        send(GRACE, record(GRACE, "grace@crm.test", "Grace", 7));
+        send(GRACE, "not json");
+
+        start();
+        waitFor(() -> committed() == 6, "offsets to be committed");
+
+        assertEquals(3L, stored.get(new UserId(ADA)).getVersion());
+        // The later of two records at the same version wins
+        assertEquals("Augusta", stored.get(new UserId(ADA)).getName().getFirstName());
+        assertEquals(7L, stored.get(new UserId(GRACE)).getVersion());
+        for (List<User> batch : upserts) {
+            assertEquals(batch.size(), batch.stream().map(User::getId).distinct().count());
+        }
+        assertEquals(1, consumer.skipped());
+    }
+
+    @Test
+    @DisplayName("A failed batch is retried until it succeeds and its offsets are committed only then")
+    void failedBatchesAreRetriedBeforeCommitting() throws Exception {
+        List<Long> committedAtCall = new CopyOnWriteArrayList<>();
+        AtomicInteger calls = new AtomicInteger();
+        when(userRepository.upsertAll(anyCollection())).thenAnswer(invocation -> {
+            committedAtCall.add(committed());
+            if (calls.incrementAndGet() < 3) {
+                throw new TransientDataAccessResourceException("Connection refused");
+            }
+            return 1L;
+        });
+        send(ADA, record(ADA, "ada@crm.test", "Ada", 1));
+
+        start();
+        waitFor(() -> committed() == 1, "offsets to be committed");
+
+        assertEquals(3, calls.get());
+        assertEquals(List.of(0L, 0L, 0L), committedAtCall);
+        assertEquals(1, consumer.applied());
+    }
+
+    @Test
+    @DisplayName("A user whose email is taken is skipped and the rest of the batch is applied")
+    void constraintViolationsSkipOnlyTheOffendingUser() throws Exception {
+        send(ADA, record(ADA, "ada@crm.test", "Ada", 1));
+        send(GRACE, record(GRACE, "taken@crm.test", "Grace", 1));
+
+        start();
+        waitFor(() -> committed() == 2, "offsets to be committed");
+
+        assertTrue(stored.containsKey(new UserId(ADA)));
+        assertFalse(stored.containsKey(new UserId(GRACE)));
+        assertEquals(1, consumer.applied());
+        assertEquals(1, consumer.skipped());
+    }
+
+    @Test
+    @DisplayName("A slow batch pauses consumption for the pause time")
+    void slowBatchesPauseConsumption() throws Exception {
+        properties.setSlowBatch(Duration.ZERO);
+        properties.setPause(Duration.ofMillis(500));
+        send(ADA, record(ADA, "ada@crm.test", "Ada", 1));
+
+        start();
+        waitFor(consumer::isPaused, "the consumer to pause");
+        send(GRACE, record(GRACE, "grace@crm.test", "Grace", 1));
+        Thread.sleep(200);
+        assertFalse(stored.containsKey(new UserId(GRACE)));
+
+        waitFor(() -> stored.containsKey(new UserId(GRACE)), "the consumer to resume");
+    }
+
+    private void start() {
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(properties.getGroupId(), "false", broker);
+        consumer = new CrmUserConsumer(new DefaultKafkaConsumerFactory<>(consumerProps,
+                new StringDeserializer(), new StringDeserializer()), userRepository, properties);
+        consumer.start();
+    }
+
+    private void send(String key, String value) throws Exception {
+        producer.send(properties.getTopic(), key, value).get();
+    }
+
+    private long committed() {
+        long committed = 0;
+        try {
+            for (int partition = 0; partition < 2; partition++) {
+                OffsetAndMetadata offset = KafkaTestUtils.getCurrentOffset(broker.getBrokersAsString(),
+                        properties.getGroupId(), properties.getTopic(), partition);
+                committed += offset == null ? 0 : offset.offset();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return committed;
+    }
+
+    private static String record(String id, String email, String firstName, long version) {
+        return "{\"id\":\"" + id + "\",\"email\":\"" + email + "\",\"firstName\":\"" + firstName
+                + "\",\"lastName\":\"Crm\",\"active\":true,\"version\":" + version + "}";
+    }
+
+    private static void waitFor(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for " + what);
+            }
+            Thread.sleep(20);
+        }
+    }
+}
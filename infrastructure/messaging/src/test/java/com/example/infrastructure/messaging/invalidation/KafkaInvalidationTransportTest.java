@@ -0,0 +1,98 @@
+package com.example.infrastructure.messaging.invalidation;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EmbeddedKafka(kraft = true, partitions = 2)
+@DisplayName("KafkaInvalidationTransport Tests")
+class KafkaInvalidationTransportTest {
+
+    private static final AtomicInteger TOPICS = new AtomicInteger();
+
+    private final List<KafkaInvalidationTransport> transports = new ArrayList<>();
+    private EmbeddedKafkaBroker broker;
+    private String topic;
+
+    @BeforeEach
+    void setUp(EmbeddedKafkaBroker broker) {
+        this.broker = broker;
+        topic = "users.invalidations." + TOPICS.incrementAndGet();
+        broker.addTopics(new NewTopic(topic, 2, (short) 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transports.forEach(KafkaInvalidationTransport::close);
+    }
+
+    @Test
+    @DisplayName("Every node receives every batch without joining a consumer group")
+    void broadcastsWithoutConsumerGroups() throws Exception {
+        List<UserInvalidationBatch> first = new CopyOnWriteArrayList<>();
+        List<UserInvalidationBatch> second = new CopyOnWriteArrayList<>();
+        KafkaInvalidationTransport sender = transport();
+        sender.subscribe(first::add);
+        transport().subscribe(second::add);
+        // Assigned partitions start from the end once the consumers have positioned themselves
+        Thread.sleep(2000);
+
+        for (String origin : List.of("a", "b", "c", "d")) {
+            sender.send(new UserInvalidationBatch(origin, false, List.of(new UserInvalidation("user-" + origin, 1L))));
+        }
+
+        await(() -> first.size() == 4 && second.size() == 4);
+        assertEquals(0, sender.failedSends());
+        try (AdminClient admin = AdminClient.create(Map.of("bootstrap.servers", broker.getBrokersAsString()))) {
+            assertTrue(admin.listConsumerGroups().all().get().isEmpty());
+        }
+    }
+
+    private KafkaInvalidationTransport transport() {
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        // The application's consumer group, which the transport must not join
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("users-app", "false", broker);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        KafkaInvalidationTransport transport = new KafkaInvalidationTransport(
+                new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps)),
+                new DefaultKafkaConsumerFactory<>(consumerProps),
+                topic);
+        transports.add(transport);
+        return transport;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for the invalidations");
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.infrastructure.messaging.invalidation;
+
+import com.example.domain.UserId;
+import com.example.infrastructure.database.cache.CachedUser;
+import com.example.infrastructure.database.cache.UserCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("User invalidation bus Tests")
+class UserInvalidationBusTest {
+
+    private final LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+    private final UserCache writerCache = cache();
+    private final UserCache readerCache = cache();
+    // Flushed by hand; the interval never elapses during a test
+    private final UserInvalidationPublisher writer = new UserInvalidationPublisher(transport, "writer", Duration.ofHours(1), 100);
+    private final UserInvalidationPublisher reader = new UserInvalidationPublisher(transport, "reader", Duration.ofHours(1), 100);
+    private final UserInvalidationSubscriber readerSubscriber = new UserInvalidationSubscriber(readerCache, "reader");
+    private final UserInvalidationSubscriber writerSubscriber = new UserInvalidationSubscriber(writerCache, "writer");
+
+    {
+        transport.subscribe(readerSubscriber);
+        transport.subscribe(writerSubscriber);
+    }
+
+    @AfterEach
+    void close() {
+        writer.close();
+        reader.close();
+    }
+
+    @Test
+    @DisplayName("Other nodes evict only the users they hold at an older version")
+    void otherNodesEvictOlderVersions() {
+        readerCache.put(user("a", 1));
+        readerCache.put(user("b", 2));
+        readerCache.put(user("c", 0));
+        writerCache.put(user("a", 1));
+
+        writer.onInvalidated(new UserId("a"), 2L);
+        writer.onInvalidated(new UserId("b"), 2L);
+        writer.onInvalidated(new UserId("c"), null);
+        writer.flush();
+
+        assertTrue(readerCache.get(new UserId("a")).isEmpty());
+        assertEquals(2, readerCache.get(new UserId("b")).orElseThrow().version());
+        assertTrue(readerCache.get(new UserId("c")).isEmpty());
+        // The writer skips its own batch
+        assertTrue(writerCache.get(new UserId("a")).isPresent());
+        assertEquals(3, readerSubscriber.applied());
+        assertEquals(0, writerSubscriber.applied());
+    }
+
+    @Test
+    @DisplayName("A burst of invalidations is sent as one batch with one entry per user")
+    void burstsAreCoalesced() {
+        IntStream.rangeClosed(1, 50).forEach(version -> writer.onInvalidated(new UserId("hot"), (long) version));
+        writer.onInvalidated(new UserId("gone"), 4L);
+        writer.onInvalidated(new UserId("gone"), null);
+        writer.onInvalidated(new UserId("gone"), 5L);
+        writer.flush();
+        writer.flush();
+
+        assertEquals(1, transport.sent());
+        assertEquals(53, writer.received());
+        assertEquals(2, writer.sent());
+        readerCache.put(user("hot", 49));
+        assertTrue(readerCache.get(new UserId("hot")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A full batch is sent without waiting for the interval")
+    void fullBatchesAreSentEarly() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            writer.onInvalidated(new UserId("user-" + i), 1L);
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (transport.sent() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, transport.sent());
+        assertEquals(100, readerSubscriber.applied());
+    }
+
+    @Test
+    @DisplayName("A bulk write clears the other caches before the invalidations that followed it")
+    void clearsTravelAheadOfLaterInvalidations() {
+        readerCache.put(user("a", 1));
+        readerCache.put(user("b", 1));
+
+        writer.onInvalidated(new UserId("a"), 2L);
+        writer.onCleared();
+        writer.onInvalidated(new UserId("b"), 3L);
+        writer.flush();
+
+        assertTrue(readerCache.get(new UserId("a")).isEmpty());
+        readerCache.put(user("b", 2));
+        assertTrue(readerCache.get(new UserId("b")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Batches survive the wire format")
+    void wireFormatRoundTrips() {
+        UserInvalidationBatch batch = new UserInvalidationBatch("node-1", true, List.of(
+                new UserInvalidation("0b9d6f1e-3c52-4d7a-9f0e-5a1b2c3d4e5f", 7L),
+                new UserInvalidation("legacy-id", null)));
+
+        assertEquals(batch, UserInvalidationBatch.decode(batch.encode()));
+    }
+
+    private static UserCache cache() {
+        return new UserCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5));
+    }
+
+    private static CachedUser user(String id, long version) {
+        LocalDateTime now = LocalDateTime.now();
+        return new CachedUser(id, id + "@invalidation.test", "First", "Last", true, now, now, version);
+    }
+}
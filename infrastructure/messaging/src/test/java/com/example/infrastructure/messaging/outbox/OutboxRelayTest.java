@@ -0,0 +1,76 @@
+package com.example.infrastructure.messaging.outbox;
+
+import com.example.application.dto.OutboxMessage;
+import com.example.application.ports.OutboxRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OutboxRelay Tests")
+class OutboxRelayTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    private final OutboxRepository outboxRepository = mock(OutboxRepository.class);
+    private final InMemoryMessageBroker broker = new InMemoryMessageBroker(100);
+
+    @Test
+    @DisplayName("Full batches are drained until the outbox is empty")
+    void drainsFullBatchesUntilEmpty() {
+        List<OutboxMessage> first = messages(1, 3);
+        List<OutboxMessage> second = messages(4, 5);
+        when(outboxRepository.claimUnsent(3, LEASE)).thenReturn(first, second);
+
+        int relayed = relay(broker, 3).drain();
+
+        assertEquals(5, relayed);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), broker.published().stream().map(OutboxMessage::id).toList());
+        verify(outboxRepository).markSent(List.of(1L, 2L, 3L));
+        verify(outboxRepository).markSent(List.of(4L, 5L));
+        verify(outboxRepository, times(2)).claimUnsent(3, LEASE);
+    }
+
+    @Test
+    @DisplayName("Failed publishes stay unsent and stop the drain")
+    void failedPublishesStayUnsent() {
+        when(outboxRepository.claimUnsent(anyInt(), any())).thenReturn(messages(1, 3));
+        OutboxMessagePublisher flaky = message -> message.id() == 2
+                ? CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"))
+                : broker.publish(message);
+
+        int relayed = relay(flaky, 3).drain();
+
+        assertEquals(2, relayed);
+        verify(outboxRepository).markSent(List.of(1L, 3L));
+        verify(outboxRepository, times(1)).claimUnsent(3, LEASE);
+    }
+
+    @Test
+    @DisplayName("An empty outbox publishes nothing")
+    void emptyOutboxPublishesNothing() {
+        when(outboxRepository.claimUnsent(anyInt(), any())).thenReturn(List.of());
+
+        assertEquals(0, relay(broker, 10).drain());
+        assertEquals(List.of(), broker.published());
+        verify(outboxRepository, never()).markSent(any());
+    }
+
+    private OutboxRelay relay(OutboxMessagePublisher publisher, int batchSize) {
+        return new OutboxRelay(outboxRepository, publisher, batchSize, Duration.ofSeconds(1), LEASE, Duration.ofDays(1));
+    }
+
+    private static List<OutboxMessage> messages(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> new OutboxMessage(id, "user-" + id, "UserActivated", "{}", LocalDateTime.now()))
+                .toList();
+    }
+}
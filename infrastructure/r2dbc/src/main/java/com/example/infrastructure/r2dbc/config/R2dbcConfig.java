@@ -0,0 +1,47 @@
+package com.example.infrastructure.r2dbc.config;
+
+import com.example.application.cache.UserCacheInvalidationListener;
+import com.example.infrastructure.database.cache.UserCache;
+import com.example.infrastructure.database.search.UserNameSearch;
+import com.example.infrastructure.r2dbc.repositories.CommittedUserWrites;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * JDBC side of the {@code r2dbc} profile. Boot backs off its DataSource as soon as an
+ * R2DBC ConnectionFactory exists, but JPA, Flyway and the outbox relay still need one,
+ * so it is declared here from the usual {@code spring.datasource} properties.
+ */
+@Configuration
+@Profile("r2dbc")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class R2dbcConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment) {
+        DataSource dataSource = properties.initializeDataSourceBuilder().build();
+        // Pool settings such as spring.datasource.hikari.maximum-pool-size, as Boot would apply them
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+
+    @Bean
+    public CommittedUserWrites committedUserWrites(ObjectProvider<UserCache> userCache,
+                                                   ObjectProvider<UserNameSearch> userNameSearch,
+                                                   ObjectProvider<UserCacheInvalidationListener> invalidationListeners) {
+        return new CommittedUserWrites(
+                userCache.getIfAvailable(),
+                userNameSearch.getIfAvailable(),
+                invalidationListeners.orderedStream().toList()
+        );
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.infrastructure.r2dbc.repositories;
+
+import com.example.application.dto.KeysetPage;
+import com.example.application.dto.UserCursor;
+import com.example.application.dto.UserSortKey;
+import com.example.application.ports.ReactiveUserRepository;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * {@link ReactiveUserRepository} over the blocking {@link UserRepository} (including any
+ * decorators such as the cache), used when the {@code r2dbc} profile is not active.
+ * <p>
+ * Calls run on Reactor's bounded elastic scheduler so they never block a subscriber's
+ * thread. Listings walk keyset pages, each in its own short transaction, and only read
+ * the next page once the subscriber has asked for more.
+ */
+@Component
+@Profile("!r2dbc")
+public class BlockingReactiveUserRepository implements ReactiveUserRepository {
+
+    static final int PAGE_SIZE = 500;
+
+    private final UserRepository userRepository;
+
+    public BlockingReactiveUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Flow.Publisher<User> findById(UserId id) {
+        return publish(Mono.fromCallable(() -> userRepository.findById(id).orElse(null)));
+    }
+
+    @Override
+    public Flow.Publisher<User> findByEmail(Email email) {
+        return publish(Mono.fromCallable(() -> userRepository.findByEmail(email).orElse(null)));
+    }
+
+    @Override
+    public Flow.Publisher<User> findAll() {
+        return publish(pages(cursor -> userRepository.findAll(cursor, PAGE_SIZE)));
+    }
+
+    @Override
+    public Flow.Publisher<User> findActiveUsers() {
+        return publish(pages(cursor -> userRepository.findActiveUsers(cursor, PAGE_SIZE)));
+    }
+
+    @Override
+    public Flow.Publisher<User> findAllById(Collection<UserId> ids) {
+        return publish(Mono.fromCallable(() -> userRepository.findAllById(ids)).flatMapIterable(Function.identity()));
+    }
+
+    @Override
+    public Flow.Publisher<Boolean> existsByEmail(Email email) {
+        return publish(Mono.fromCallable(() -> userRepository.existsByEmail(email)));
+    }
+
+    @Override
+    public Flow.Publisher<Long> count() {
+        return publish(Mono.fromCallable(userRepository::count));
+    }
+
+    @Override
+    public Flow.Publisher<Long> countActiveUsers() {
+        return publish(Mono.fromCallable(userRepository::countActiveUsers));
+    }
+
+    @Override
+    public Flow.Publisher<User> save(User user) {
+        return publish(Mono.fromCallable(() -> userRepository.save(user)));
+    }
+
+    @Override
+    public Flow.Publisher<Void> delete(UserId id) {
+        return publish(Mono.fromRunnable(() -> userRepository.delete(id)));
+    }
+
+    private static Flux<User> pages(Function<UserCursor, KeysetPage<User>> loader) {
+        return Mono.fromCallable(() -> loader.apply(UserCursor.first(UserSortKey.ID)))
+                .expand(page -> page.hasNext() ? Mono.fromCallable(() -> loader.apply(page.next())) : Mono.empty())
+                .concatMapIterable(KeysetPage::items, 1);
+    }
+
+    private static <T> Flow.Publisher<T> publish(org.reactivestreams.Publisher<T> publisher) {
+        return JdkFlowAdapter.publisherToFlowPublisher(Flux.from(publisher).subscribeOn(Schedulers.boundedElastic()));
+    }
+}
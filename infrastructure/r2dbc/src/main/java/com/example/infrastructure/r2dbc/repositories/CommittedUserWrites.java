@@ -0,0 +1,58 @@
+package com.example.infrastructure.r2dbc.repositories;
+
+import com.example.application.cache.UserCacheInvalidationListener;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.cache.UserCache;
+import com.example.infrastructure.database.entities.UserEntity;
+import com.example.infrastructure.database.search.UserNameSearch;
+
+import java.util.List;
+
+/**
+ * Tells the JPA side's in-process state about users the R2DBC adapter has committed: the
+ * user cache and its invalidation listeners, so other nodes hear of the write too, and the
+ * name search index. A stale second-level cache entry is dropped on its next read, since
+ * the first-level cache remembers the newer version. Either may be absent.
+ */
+public class CommittedUserWrites {
+
+    private final UserCache userCache;
+    private final UserNameSearch userNameSearch;
+    private final List<UserCacheInvalidationListener> listeners;
+
+    public CommittedUserWrites(UserCache userCache,
+                               UserNameSearch userNameSearch,
+                               List<UserCacheInvalidationListener> listeners) {
+        this.userCache = userCache;
+        this.userNameSearch = userNameSearch;
+        this.listeners = List.copyOf(listeners);
+    }
+
+    public void saved(User user) {
+        if (userCache != null) {
+            userCache.invalidate(user.getEmail());
+            invalidate(user.getId(), user.getVersion());
+        }
+        if (userNameSearch != null) {
+            userNameSearch.indexed(new UserEntity(user.getId().getValue(), user.getEmail().getValue(),
+                    user.getName().getFirstName(), user.getName().getLastName()));
+        }
+    }
+
+    public void deleted(UserId id) {
+        if (userCache != null) {
+            invalidate(id, null);
+        }
+        if (userNameSearch != null) {
+            userNameSearch.removed(id.getValue());
+        }
+    }
+
+    private void invalidate(UserId id, Long version) {
+        userCache.invalidate(id, version);
+        for (UserCacheInvalidationListener listener : listeners) {
+            listener.onInvalidated(id, version);
+        }
+    }
+}
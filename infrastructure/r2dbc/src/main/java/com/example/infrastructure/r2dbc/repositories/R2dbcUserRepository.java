@@ -0,0 +1,236 @@
+package com.example.infrastructure.r2dbc.repositories;
+
+import com.example.application.ports.ReactiveUserRepository;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.domain.events.UserEvent;
+import com.example.infrastructure.database.outbox.UserEventPayloads;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Flow;
+
+/**
+ * Non-blocking adapter over R2DBC, active with the {@code r2dbc} profile.
+ * <p>
+ * Listings are driven by subscriber demand: the driver fetches {@value #STREAM_FETCH_SIZE}
+ * rows at a time and the next batch is only requested once the subscriber has taken the
+ * previous one. Writes follow the JPA adapter: optimistic locking on {@code version}, the
+ * raised events written to the outbox and a deleted user's tombstone written for the change
+ * feed, each in the same transaction as the write. Once a write has
+ * committed, the user cache and the name search index hear of it through
+ * {@link CommittedUserWrites}. The JPA adapter's user counters do not; they are off until
+ * their next periodic reconciliation.
+ */
+@Component
+@Profile("r2dbc")
+public class R2dbcUserRepository implements ReactiveUserRepository {
+
+    static final int STREAM_FETCH_SIZE = 500;
+    // Bind parameters per IN list
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String COLUMNS =
+            "SELECT id, email, first_name, last_name, active, created_at, updated_at, version FROM users ";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final String nextOutboxId;
+    private final CommittedUserWrites committedWrites;
+
+    public R2dbcUserRepository(DatabaseClient databaseClient,
+                               ConnectionFactory connectionFactory,
+                               CommittedUserWrites committedWrites) {
+        this.databaseClient = databaseClient;
+        this.committedWrites = committedWrites;
+        // A private transaction manager: a ReactiveTransactionManager bean would displace the JPA one
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+        this.nextOutboxId = connectionFactory.getMetadata().getName().toLowerCase(Locale.ROOT).contains("postgres")
+                ? "nextval('user_outbox_seq')"
+                : "NEXT VALUE FOR user_outbox_seq";
+    }
+
+    @Override
+    public Flow.Publisher<User> findById(UserId id) {
+        return publish(databaseClient.sql(COLUMNS + "WHERE id = :id")
+                .bind("id", id.getValue())
+                .map(R2dbcUserRepository::toUser)
+                .one());
+    }
+
+    @Override
+    public Flow.Publisher<User> findByEmail(Email email) {
+        return publish(databaseClient.sql(COLUMNS + "WHERE email = :email")
+                .bind("email", email.getValue())
+                .map(R2dbcUserRepository::toUser)
+                .one());
+    }
+
+    @Override
+    public Flow.Publisher<User> findAll() {
+        return publish(stream(COLUMNS + "ORDER BY id"));
+    }
+
+    @Override
+    public Flow.Publisher<User> findActiveUsers() {
+        return publish(stream(COLUMNS + "WHERE active = TRUE ORDER BY id"));
+    }
+
+    @Override
+    public Flow.Publisher<User> findAllById(Collection<UserId> ids) {
+        List<String> values = ids.stream().map(UserId::getValue).distinct().toList();
+        return publish(Flux.fromIterable(values)
+                .buffer(CHUNK_SIZE)
+                .concatMap(chunk -> databaseClient.sql(COLUMNS + "WHERE id IN (:ids)")
+                        .bind("ids", chunk)
+                        .map(R2dbcUserRepository::toUser)
+                        .all()));
+    }
+
+    @Override
+    public Flow.Publisher<Boolean> existsByEmail(Email email) {
+        return publish(databaseClient.sql("SELECT COUNT(*) FROM users WHERE email = :email")
+                .bind("email", email.getValue())
+                .map(row -> row.get(0, Long.class) > 0)
+                .one());
+    }
+
+    @Override
+    public Flow.Publisher<Long> count() {
+        return publish(count("SELECT COUNT(*) FROM users"));
+    }
+
+    @Override
+    public Flow.Publisher<Long> countActiveUsers() {
+        return publish(count("SELECT COUNT(*) FROM users WHERE active = TRUE"));
+    }
+
+    @Override
+    public Flow.Publisher<User> save(User user) {
+        return publish(Mono.defer(() -> {
+            List<UserEvent> events = user.pullEvents();
+            LocalDateTime now = LocalDateTime.now();
+            Mono<User> write = user.getVersion() == null ? insert(user, now) : update(user, now);
+            return write.flatMap(saved -> appendToOutbox(events).thenReturn(saved));
+        }).as(transactionalOperator::transactional).doOnSuccess(committedWrites::saved));
+    }
+
+    @Override
+    public Flow.Publisher<Void> delete(UserId id) {
+        return publish(databaseClient.sql("DELETE FROM users WHERE id = :id")
+                .bind("id", id.getValue())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(deleted -> deleted == 0 ? Mono.<Void>empty() : tombstone(id, LocalDateTime.now()))
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(done -> committedWrites.deleted(id)));
+    }
+
+    private Flux<User> stream(String sql) {
+        return databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .map(R2dbcUserRepository::toUser)
+                .all()
+                // Ask the driver for rows in fetch-size steps instead of forwarding unbounded demand
+                .limitRate(STREAM_FETCH_SIZE);
+    }
+
+    private Mono<Long> count(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private Mono<User> insert(User user, LocalDateTime now) {
+        return databaseClient.sql("INSERT INTO users (id, email, first_name, last_name, active, created_at, updated_at, version) " +
+                        "VALUES (:id, :email, :firstName, :lastName, :active, :createdAt, :updatedAt, 0)")
+                .bind("id", user.getId().getValue())
+                .bind("email", user.getEmail().getValue())
+                .bind("firstName", user.getName().getFirstName())
+                .bind("lastName", user.getName().getLastName())
+                .bind("active", user.isActive())
+                .bind("createdAt", user.getCreatedAt())
+                .bind("updatedAt", now)
+                .then()
+                .thenReturn(new User(user.getId(), user.getEmail(), user.getName(), user.isActive(),
+                        user.getCreatedAt(), now, 0L));
+    }
+
+    private Mono<User> update(User user, LocalDateTime now) {
+        long nextVersion = user.getVersion() + 1;
+        return databaseClient.sql("UPDATE users SET email = :email, first_name = :firstName, last_name = :lastName, " +
+                        "active = :active, updated_at = :updatedAt, version = :nextVersion " +
+                        "WHERE id = :id AND version = :version")
+                .bind("email", user.getEmail().getValue())
+                .bind("firstName", user.getName().getFirstName())
+                .bind("lastName", user.getName().getLastName())
+                .bind("active", user.isActive())
+                .bind("updatedAt", now)
+                .bind("nextVersion", nextVersion)
+                .bind("id", user.getId().getValue())
+                .bind("version", user.getVersion())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new OptimisticLockingFailureException(
+                                "User " + user.getId().getValue() + " was modified or deleted concurrently"))
+                        : Mono.just(new User(user.getId(), user.getEmail(), user.getName(), user.isActive(),
+                                user.getCreatedAt(), now, nextVersion)));
+    }
+
+    // Replaces the tombstone an earlier deletion of a re-created user left, as the JPA adapter does
+    private Mono<Void> tombstone(UserId id, LocalDateTime deletedAt) {
+        return databaseClient.sql("DELETE FROM user_tombstones WHERE id = :id")
+                .bind("id", id.getValue())
+                .then()
+                .then(databaseClient.sql("INSERT INTO user_tombstones (id, deleted_at) VALUES (:id, :deletedAt)")
+                        .bind("id", id.getValue())
+                        .bind("deletedAt", deletedAt)
+                        .then());
+    }
+
+    private Mono<Void> appendToOutbox(List<UserEvent> events) {
+        // Each sequence value reserves a whole block for JPA's pooled optimizer, so using it directly cannot collide
+        return Flux.fromIterable(events)
+                .concatMap(event -> databaseClient.sql("INSERT INTO user_outbox (id, aggregate_id, event_type, payload, created_at) " +
+                                "VALUES (" + nextOutboxId + ", :aggregateId, :eventType, :payload, :createdAt)")
+                        .bind("aggregateId", event.userId().getValue())
+                        .bind("eventType", UserEventPayloads.eventType(event))
+                        .bind("payload", UserEventPayloads.payload(event))
+                        .bind("createdAt", event.occurredAt())
+                        .then())
+                .then();
+    }
+
+    private static User toUser(Readable row) {
+        // Rows were validated and normalized on the way in, as in the JPA mapper
+        return new User(
+                new UserId(row.get("id", String.class)),
+                Email.fromTrusted(row.get("email", String.class)),
+                Name.fromTrusted(row.get("first_name", String.class), row.get("last_name", String.class)),
+                Boolean.TRUE.equals(row.get("active", Boolean.class)),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("version", Long.class)
+        );
+    }
+
+    private static <T> Flow.Publisher<T> publish(org.reactivestreams.Publisher<T> publisher) {
+        return JdkFlowAdapter.publisherToFlowPublisher(publisher);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.infrastructure.r2dbc.repositories;
+
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import com.example.infrastructure.database.cache.CachedUser;
+import com.example.infrastructure.database.cache.UserCache;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("R2dbcUserRepository Tests")
+class R2dbcUserRepositoryTest {
+
+    private static DatabaseClient databaseClient;
+    private static R2dbcUserRepository userRepository;
+    private static final UserCache userCache = new UserCache(100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+
+    @BeforeAll
+    static void setUp() {
+        Flyway.configure()
+                .dataSource("jdbc:h2:mem:r2dbc-users;DB_CLOSE_DELAY=-1", "sa", "")
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:h2:mem://sa@/r2dbc-users?options=DB_CLOSE_DELAY=-1");
+        databaseClient = DatabaseClient.create(connectionFactory);
+        userRepository = new R2dbcUserRepository(databaseClient, connectionFactory,
+                new CommittedUserWrites(userCache, null, List.of()));
+    }
+
+    @Test
+    @DisplayName("Saving inserts, updates with the next version and rejects stale versions")
+    void savesWithOptimisticLocking() {
+        User created = mono(userRepository.save(new User(UserId.generate(), new Email("reactive@save.test"), new Name("Reactive", "User")))).block();
+        assertEquals(0L, created.getVersion());
+
+        User loaded = mono(userRepository.findById(created.getId())).block();
+        loaded.updateProfile(new Name("Reactive", "Renamed"), loaded.getEmail());
+        User updated = mono(userRepository.save(loaded)).block();
+
+        assertEquals(1L, updated.getVersion());
+        assertEquals("Renamed", mono(userRepository.findByEmail(new Email("reactive@save.test"))).block().getName().getLastName());
+        StepVerifier.create(mono(userRepository.save(loaded)))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Events are written to the outbox with the user")
+    void savingWritesEventsToOutbox() {
+        User user = new User(UserId.generate(), new Email("reactive@outbox.test"), new Name("Outbox", "User"));
+        User created = mono(userRepository.save(user)).block();
+        created.deactivate();
+        mono(userRepository.save(created)).block();
+
+        List<String> types = databaseClient.sql("SELECT event_type FROM user_outbox WHERE aggregate_id = :id ORDER BY id")
+                .bind("id", user.getId().getValue())
+                .map(row -> row.get(0, String.class))
+                .all()
+                .collectList()
+                .block();
+        assertEquals(List.of("UserDeactivated"), types);
+    }
+
+    @Test
+    @DisplayName("Listings follow subscriber demand and can be cancelled")
+    void listingsFollowDemand() {
+        Flux.fromStream(IntStream.range(0, 30).mapToObj(i ->
+                        new User(UserId.generate(), new Email("stream" + i + "@demand.test"), new Name("Stream", "User" + i))))
+                .concatMap(user -> mono(userRepository.save(user)))
+                .blockLast();
+        long total = mono(userRepository.count()).block();
+
+        StepVerifier.create(flux(userRepository.findAll()), 5)
+                .expectNextCount(5)
+                .thenRequest(5)
+                .expectNextCount(5)
+                .thenCancel()
+                .verify();
+
+        List<String> ids = flux(userRepository.findAll()).map(user -> user.getId().getValue()).collectList().block();
+        assertEquals(total, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals(mono(userRepository.countActiveUsers()).block(), flux(userRepository.findActiveUsers()).count().block());
+        assertEquals(3, flux(userRepository.findAllById(ids.subList(0, 3).stream().map(UserId::new).toList())).count().block());
+    }
+
+    @Test
+    @DisplayName("Committed saves and deletes invalidate the user cache")
+    void committedWritesInvalidateTheUserCache() {
+        User created = mono(userRepository.save(new User(UserId.generate(), new Email("reactive@cache.test"), new Name("Cached", "User")))).block();
+        userCache.put(CachedUser.of(created));
+
+        User loaded = mono(userRepository.findById(created.getId())).block();
+        loaded.deactivate();
+        mono(userRepository.save(loaded)).block();
+        assertTrue(userCache.get(created.getId()).isEmpty());
+
+        userCache.put(CachedUser.of(mono(userRepository.findById(created.getId())).block()));
+        mono(userRepository.delete(created.getId())).block();
+        assertTrue(userCache.get(created.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A delete leaves one tombstone, replacing the one a re-created user's earlier delete left")
+    void deletesLeaveOneTombstone() {
+        UserId id = UserId.generate();
+        for (int i = 0; i < 2; i++) {
+            mono(userRepository.save(new User(id, new Email("reactive@tombstone.test"), new Name("Deleted", "User")))).block();
+            mono(userRepository.delete(id)).block();
+        }
+        mono(userRepository.delete(id)).block();
+
+        Long tombstones = databaseClient.sql("SELECT COUNT(*) FROM user_tombstones WHERE id = :id")
+                .bind("id", id.getValue())
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+        assertEquals(1L, tombstones);
+    }
+
+    private static <T> Flux<T> flux(Flow.Publisher<T> publisher) {
+        return JdkFlowAdapter.flowPublisherToFlux(publisher);
+    }
+
+    private static <T> Mono<T> mono(Flow.Publisher<T> publisher) {
+        return Mono.from(flux(publisher));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.infrastructure.web.changes;
+
+import com.example.application.dto.UserChange;
+import com.example.application.dto.UserChangePage;
+import com.example.domain.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * A page of the user change feed as served to downstream services. {@code next} is the
+ * opaque watermark to pass as {@code since} on the following request.
+ */
+public record UserChangesResponse(List<Change> changes, String next, boolean hasMore) {
+
+    public static UserChangesResponse of(UserChangePage page) {
+        return new UserChangesResponse(page.changes().stream().map(Change::of).toList(),
+                page.next().encode(), page.hasMore());
+    }
+
+    /**
+     * An upsert carrying the user's current state, or a delete carrying only the id.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Change(String type, String id, String changedAt, String email, String firstName,
+                         String lastName, Boolean active, String createdAt, Long version) {
+
+        static Change of(UserChange change) {
+            if (change.isDeleted()) {
+                return new Change("DELETE", change.id(), change.changedAt().toString(),
+                        null, null, null, null, null, null);
+            }
+            User user = change.user();
+            return new Change("UPSERT", change.id(), change.changedAt().toString(),
+                    user.getEmail().getValue(), user.getName().getFirstName(), user.getName().getLastName(),
+                    user.isActive(), user.getCreatedAt().toString(), user.getVersion());
+        }
+    }
+}
@@ -1,11 +1,44 @@
 package com.example.infrastructure.web.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebMvc
 @ComponentScan(basePackages = "com.example.infrastructure.web")
-public class WebConfig {
-}
\ No newline at end of file
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<AsyncTaskExecutor> applicationTaskExecutor;
+    private final Environment environment;
+
+    public WebConfig(@Qualifier("applicationTaskExecutor") ObjectProvider<AsyncTaskExecutor> applicationTaskExecutor,
+                     Environment environment) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.environment = environment;
+    }
+
+    /**
+     * {@code @EnableWebMvc} turns off Boot's MVC auto-configuration, so async request
+     * handling would fall back to an unbounded platform-thread executor. Use the
+     * application executor instead, which runs on virtual threads when they are enabled.
+     * For the same reason {@code spring.mvc.async.request-timeout} is applied here; streamed
+     * responses such as the user export need longer than the container's default.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        applicationTaskExecutor.ifAvailable(configurer::setTaskExecutor);
+        Duration timeout = environment.getProperty("spring.mvc.async.request-timeout", Duration.class);
+        if (timeout != null) {
+            configurer.setDefaultTimeout(timeout.toMillis());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.infrastructure.web.controllers;
+
+import com.example.application.dto.UserWatermark;
+import com.example.application.ports.UserRepository;
+import com.example.infrastructure.web.changes.UserChangesResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Incremental sync for downstream services: the users created, updated or deleted since the
+ * watermark a consumer was last given, a bounded page at a time. A consumer starts without
+ * {@code since}, follows {@code next} while {@code hasMore} is set, then keeps the last
+ * {@code next} for its following sync. Each page is an index range scan from the
+ * watermark, so a sync costs in proportion to the changes rather than the table.
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserChangeController {
+
+    static final int DEFAULT_LIMIT = 500;
+
+    private final UserRepository userRepository;
+
+    public UserChangeController(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @param since  watermark from a previous response; absent to start from the beginning
+     * @param limit  changes per page, capped by the repository
+     */
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public UserChangesResponse changes(
+            @RequestParam(name = "since", required = false) String since,
+            @RequestParam(name = "limit", defaultValue = "" + DEFAULT_LIMIT) int limit) {
+        UserWatermark watermark = since == null || since.isBlank() ? UserWatermark.initial() : UserWatermark.decode(since);
+        return UserChangesResponse.of(userRepository.findChangedSince(watermark, limit));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.infrastructure.web.controllers;
+
+import com.example.application.ports.UserRepository;
+import com.example.domain.User;
+import com.example.infrastructure.web.export.UserExportFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the user directory as NDJSON or CSV.
+ * <p>
+ * Rows go from the repository's cursor-backed stream straight into the response on an
+ * async request thread, so memory stays bounded by the driver fetch size and the write
+ * buffer whatever the table size. The first rows are flushed immediately and then every
+ * {@value #FLUSH_EVERY} rows, which keeps time to first byte independent of the export size.
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserExportController {
+
+    static final int FLUSH_EVERY = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UserRepository userRepository;
+
+    public UserExportController(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @param active  only active users when {@code true}, only inactive ones when {@code false}
+     * @param domain  only users whose email domain matches, case-insensitively
+     * @param gzip    compress the body; when absent, follows the request's {@code Accept-Encoding}.
+     *                A compressed body is named {@code .gz} however the compression was chosen
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            @RequestParam(name = "active", required = false) Boolean active,
+            @RequestParam(name = "domain", required = false) String domain,
+            @RequestParam(name = "gzip", required = false) Boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        UserExportFormat exportFormat = UserExportFormat.parse(format);
+        String emailDomain = domain == null || domain.isBlank() ? null : domain.trim().toLowerCase(Locale.ROOT);
+        boolean compress = gzip != null ? gzip : acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + exportFormat.extension() + (compress ? ".gz\"" : "\""));
+        if (compress) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return response.body(out -> write(out, exportFormat, active, emailDomain, compress));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+    }
+
+    private void write(OutputStream response, UserExportFormat format, Boolean active, String domain, boolean compress)
+            throws IOException {
+        GZIPOutputStream gzip = compress ? new GZIPOutputStream(response, BUFFER_SIZE, true) : null;
+        Writer out = new BufferedWriter(new OutputStreamWriter(gzip != null ? gzip : response, StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+        UserExportFormat.RowWriter rows = format.open(out);
+        // The stream holds a cursor and a transaction, both bound to this thread
+        try (Stream<User> users = userRepository.streamMatching(active, domain)) {
+            long written = 0;
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                rows.write(iterator.next());
+                if (++written == 1 || written % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").equalsIgnoreCase("q=0");
+            }
+        }
+        return false;
+    }
+}
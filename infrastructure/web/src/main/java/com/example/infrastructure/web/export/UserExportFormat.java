@@ -0,0 +1,119 @@
+package com.example.infrastructure.web.export;
+
+import com.example.domain.User;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Row formats of the user export. Each row is written and forgotten, so a format holds
+ * no state across rows beyond the output it writes to.
+ */
+public enum UserExportFormat {
+
+    /**
+     * One JSON object per line, with the fields the importer reads plus id and timestamps.
+     */
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public RowWriter open(Writer out) throws IOException {
+            JsonGenerator json = JSON.createGenerator(out);
+            return user -> {
+                json.writeStartObject();
+                json.writeStringField("id", user.getId().getValue());
+                json.writeStringField("email", user.getEmail().getValue());
+                json.writeStringField("firstName", user.getName().getFirstName());
+                json.writeStringField("lastName", user.getName().getLastName());
+                json.writeBooleanField("active", user.isActive());
+                json.writeStringField("createdAt", user.getCreatedAt().toString());
+                json.writeStringField("updatedAt", user.getUpdatedAt().toString());
+                json.writeEndObject();
+                // Flushes the generator's buffer into the writer, not the response
+                json.flush();
+                out.write('\n');
+            };
+        }
+    },
+
+    /**
+     * RFC 4180 CSV with a header line.
+     */
+    CSV("text/csv", "csv") {
+        @Override
+        public RowWriter open(Writer out) throws IOException {
+            out.write("id,email,first_name,last_name,active,created_at,updated_at\r\n");
+            return user -> {
+                out.write(user.getId().getValue());
+                out.write(',');
+                out.write(csv(user.getEmail().getValue()));
+                out.write(',');
+                out.write(csv(user.getName().getFirstName()));
+                out.write(',');
+                out.write(csv(user.getName().getLastName()));
+                out.write(',');
+                out.write(user.isActive() ? "true" : "false");
+                out.write(',');
+                out.write(user.getCreatedAt().toString());
+                out.write(',');
+                out.write(user.getUpdatedAt().toString());
+                out.write("\r\n");
+            };
+        }
+    };
+
+    private static final JsonFactory JSON = new JsonFactoryBuilder()
+            // Rows are separated by the newline written after each, not Jackson's default space
+            .rootValueSeparator((String) null)
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamWriteFeature.FLUSH_PASSED_TO_STREAM)
+            .build();
+
+    private final String contentType;
+    private final String extension;
+
+    UserExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Writes any preamble, such as a header line, and returns the writer for the rows.
+     */
+    public abstract RowWriter open(Writer out) throws IOException;
+
+    public static UserExportFormat parse(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "ndjson", "jsonl" -> NDJSON;
+            case "csv" -> CSV;
+            default -> throw new IllegalArgumentException("Unsupported export format: " + value);
+        };
+    }
+
+    static String csv(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    public interface RowWriter {
+        void write(User user) throws IOException;
+    }
+}
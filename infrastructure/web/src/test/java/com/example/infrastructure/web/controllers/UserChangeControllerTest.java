@@ -0,0 +1,76 @@
+package com.example.infrastructure.web.controllers;
+
+import com.example.application.dto.UserChange;
+import com.example.application.dto.UserChangePage;
+import com.example.application.dto.UserWatermark;
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("UserChangeController Tests")
+class UserChangeControllerTest {
+
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2024, 5, 6, 7, 8, 9);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new UserChangeController(userRepository)).build();
+
+    @Test
+    @DisplayName("A first sync starts at the initial watermark and returns upserts and tombstones")
+    void firstSyncReturnsUpsertsAndTombstones() throws Exception {
+        User user = new User(new UserId("0b9d6f1e-3c52-4d7a-9f0e-5a1b2c3d4e5f"), new Email("ada@example.com"),
+                new Name("Ada", "Lovelace"), true, UPDATED.minusDays(1), UPDATED, 2L);
+        UserChange deleted = UserChange.deleted("legacy-id", UPDATED.plusSeconds(1));
+        when(userRepository.findChangedSince(UserWatermark.initial(), UserChangeController.DEFAULT_LIMIT))
+                .thenReturn(new UserChangePage(List.of(UserChange.updated(user), deleted), deleted.watermark(), true));
+
+        mockMvc.perform(get("/api/users/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(2))
+                .andExpect(jsonPath("$.changes[0].type").value("UPSERT"))
+                .andExpect(jsonPath("$.changes[0].email").value("ada@example.com"))
+                .andExpect(jsonPath("$.changes[0].version").value(2))
+                .andExpect(jsonPath("$.changes[0].changedAt").value("2024-05-06T07:08:09"))
+                .andExpect(jsonPath("$.changes[1].type").value("DELETE"))
+                .andExpect(jsonPath("$.changes[1].id").value("legacy-id"))
+                .andExpect(jsonPath("$.changes[1].email").doesNotExist())
+                .andExpect(jsonPath("$.next").value(deleted.watermark().encode()))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    @DisplayName("The next request resumes after the watermark it was given")
+    void resumesAfterWatermark() throws Exception {
+        UserWatermark watermark = new UserWatermark(UPDATED, "0b9d6f1e-3c52-4d7a-9f0e-5a1b2c3d4e5f");
+        when(userRepository.findChangedSince(watermark, 50)).thenReturn(new UserChangePage(List.of(), watermark, false));
+
+        mockMvc.perform(get("/api/users/changes").param("since", watermark.encode()).param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(0))
+                .andExpect(jsonPath("$.next").value(watermark.encode()))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @DisplayName("Malformed watermarks are rejected")
+    void rejectsMalformedWatermarks() throws Exception {
+        mockMvc.perform(get("/api/users/changes?since=not-a-watermark!")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/changes?since=" + UserWatermark.initial().encode().substring(4)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.infrastructure.web.controllers;
+
+import com.example.application.ports.UserRepository;
+import com.example.domain.Email;
+import com.example.domain.Name;
+import com.example.domain.User;
+import com.example.domain.UserId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("UserExportController Tests")
+class UserExportControllerTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = List.of(
+                user("ada@example.com", "Ada", "Lovelace", true),
+                user("grace@navy.mil", "Grace", "Hopper, Jr.", true),
+                user("alan@example.com", "Alan", "Turing", false));
+        when(userRepository.streamMatching(any(), any())).thenAnswer(invocation -> {
+            Boolean active = invocation.getArgument(0);
+            String domain = invocation.getArgument(1);
+            return users.stream()
+                    .filter(user -> active == null || user.isActive() == active)
+                    .filter(user -> domain == null || user.getEmail().getDomain().equals(domain))
+                    .onClose(() -> closed.set(true));
+        });
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserExportController(userRepository)).build();
+    }
+
+    @Test
+    @DisplayName("NDJSON export streams one object per user and closes the cursor")
+    void exportsNdjson() throws Exception {
+        MockHttpServletResponse response = export("/api/users/export");
+
+        List<String> lines = response.getContentAsString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{\"id\":") && line.endsWith("}")));
+        assertTrue(lines.get(1).contains("\"lastName\":\"Hopper, Jr.\""));
+        assertTrue(response.getContentType().startsWith("application/x-ndjson"));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("Hands the activity and email domain filters to the repository")
+    void filtersOnActivityAndDomain() throws Exception {
+        assertEquals(1, export("/api/users/export?active=true&domain=EXAMPLE.com")
+                .getContentAsString().lines().count());
+        assertTrue(export("/api/users/export?active=false").getContentAsString().contains("alan@example.com"));
+        verify(userRepository).streamMatching(true, "example.com");
+        verify(userRepository).streamMatching(false, null);
+    }
+
+    @Test
+    @DisplayName("CSV export quotes fields and can be gzipped")
+    void exportsGzippedCsv() throws Exception {
+        MockHttpServletResponse response = export(get("/api/users/export?format=csv")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).endsWith("users.csv.gz\""));
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = csv.lines().toList();
+        assertEquals("id,email,first_name,last_name,active,created_at,updated_at", lines.get(0));
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(2).contains(",grace@navy.mil,Grace,\"Hopper, Jr.\",true,"));
+    }
+
+    @Test
+    @DisplayName("Unknown formats are rejected before streaming")
+    void rejectsUnknownFormats() throws Exception {
+        mockMvc.perform(get("/api/users/export?format=xml")).andExpect(status().isBadRequest());
+        verifyNoInteractions(userRepository);
+    }
+
+    private MockHttpServletResponse export(String uri) throws Exception {
+        return export(get(uri));
+    }
+
+    private MockHttpServletResponse export(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        // The body is written on an async thread; wait for it to finish
+        result.getAsyncResult(5000);
+        return result.getResponse();
+    }
+
+    private static User user(String email, String firstName, String lastName, boolean active) {
+        return new User(UserId.generate(), new Email(email), new Name(firstName, lastName), active, CREATED, CREATED, 0L);
+    }
+}